@@ -0,0 +1,180 @@
+/** 
+ * This code is copyright (c) Mathias Markl 2015
+ * 
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ * 
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package at.mukprojects.exclycore.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import at.mukprojects.exclycore.model.ExclyBoolean;
+import at.mukprojects.exclycore.model.ExclyDate;
+import at.mukprojects.exclycore.model.ExclyDecimal;
+import at.mukprojects.exclycore.model.ExclyDouble;
+import at.mukprojects.exclycore.model.ExclyDoubleError;
+import at.mukprojects.exclycore.model.ExclyInteger;
+import at.mukprojects.exclycore.model.ExclyLong;
+import at.mukprojects.exclycore.model.ExclyString;
+
+/**
+ * ArithmeticBenchmark measures the arithmetic helpers of the Excly data
+ * types.
+ *
+ * @author Mathias Markl
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ArithmeticBenchmark {
+	private ExclyDouble doubleOne;
+	private ExclyDouble doubleTwo;
+	private ExclyDouble doubleError;
+	private ExclyDecimal decimalOne;
+	private ExclyDecimal decimalTwo;
+	private ExclyInteger integerOne;
+	private ExclyInteger integerTwo;
+	private ExclyLong longOne;
+	private ExclyLong longTwo;
+	private ExclyDate dateOne;
+	private ExclyDate dateTwo;
+	private ExclyBoolean booleanOne;
+	private ExclyBoolean booleanTwo;
+	private ExclyString stringOne;
+	private ExclyString stringTwo;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		doubleOne = new ExclyDouble(1234.5);
+		doubleTwo = new ExclyDouble(0.25);
+		doubleError = new ExclyDoubleError();
+		decimalOne = ExclyDecimal.valueOf(1234.5);
+		decimalTwo = ExclyDecimal.valueOf(0.25);
+		integerOne = new ExclyInteger(1234);
+		integerTwo = new ExclyInteger(25);
+		longOne = new ExclyLong(1234567890123L);
+		longTwo = new ExclyLong(25);
+		dateOne = new ExclyDate(1435660245000L);
+		dateTwo = new ExclyDate(86400000L);
+		booleanOne = new ExclyBoolean(true);
+		booleanTwo = new ExclyBoolean(false);
+		stringOne = new ExclyString("Excly");
+		stringTwo = new ExclyString("Core");
+	}
+
+	@Benchmark
+	public ExclyDouble doubleAdd() {
+		return ExclyDouble.add(doubleOne, doubleTwo);
+	}
+
+	@Benchmark
+	public ExclyDouble doubleAddError() {
+		return ExclyDouble.add(doubleOne, doubleError);
+	}
+
+	@Benchmark
+	public ExclyDouble doubleSub() {
+		return ExclyDouble.sub(doubleOne, doubleTwo);
+	}
+
+	@Benchmark
+	public ExclyDouble doubleMulti() {
+		return ExclyDouble.multi(doubleOne, doubleTwo);
+	}
+
+	@Benchmark
+	public ExclyDouble doubleDiv() {
+		return ExclyDouble.div(doubleOne, doubleTwo);
+	}
+
+	@Benchmark
+	public ExclyDecimal decimalAdd() {
+		return ExclyDecimal.add(decimalOne, decimalTwo);
+	}
+
+	@Benchmark
+	public ExclyDecimal decimalSub() {
+		return ExclyDecimal.sub(decimalOne, decimalTwo);
+	}
+
+	@Benchmark
+	public ExclyDecimal decimalMulti() {
+		return ExclyDecimal.multi(decimalOne, decimalTwo);
+	}
+
+	@Benchmark
+	public ExclyInteger integerAdd() {
+		return ExclyInteger.add(integerOne, integerTwo);
+	}
+
+	@Benchmark
+	public ExclyInteger integerSub() {
+		return ExclyInteger.sub(integerOne, integerTwo);
+	}
+
+	@Benchmark
+	public ExclyLong longAdd() {
+		return ExclyLong.add(longOne, longTwo);
+	}
+
+	@Benchmark
+	public ExclyLong longSub() {
+		return ExclyLong.sub(longOne, longTwo);
+	}
+
+	@Benchmark
+	public ExclyDate dateAdd() {
+		return ExclyDate.add(dateOne, dateTwo);
+	}
+
+	@Benchmark
+	public ExclyDate dateSub() {
+		return ExclyDate.sub(dateOne, dateTwo);
+	}
+
+	@Benchmark
+	public ExclyBoolean booleanAnd() {
+		return ExclyBoolean.and(booleanOne, booleanTwo);
+	}
+
+	@Benchmark
+	public ExclyBoolean booleanOr() {
+		return ExclyBoolean.or(booleanOne, booleanTwo);
+	}
+
+	@Benchmark
+	public ExclyString stringAppend() {
+		return ExclyString.append(stringOne, stringTwo);
+	}
+
+	@Benchmark
+	public ExclyString stringJoin() {
+		return ExclyString.join(", ", stringOne, stringTwo);
+	}
+}
@@ -0,0 +1,227 @@
+/** 
+ * This code is copyright (c) Mathias Markl 2015
+ * 
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ * 
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package at.mukprojects.exclycore.benchmark;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.FormulaError;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import at.mukprojects.exclycore.dao.XLSXReader;
+import at.mukprojects.exclycore.model.ExclyDate;
+import at.mukprojects.exclycore.model.ExclyDouble;
+import at.mukprojects.exclycore.model.ExclyString;
+
+/**
+ * ReaderBenchmark measures the branches of the XLSXReader for every kind of
+ * cell: numeric, German and UK text numbers, text dates of every date pattern,
+ * blank, error and formula cells.
+ *
+ * @author Mathias Markl
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ReaderBenchmark {
+	private BenchmarkReader reader;
+	private XSSFWorkbook workbook;
+
+	private Cell numeric;
+	private Cell german;
+	private Cell uk;
+	private Cell blank;
+	private Cell error;
+	private Cell formula;
+	private Cell numericDate;
+
+	private String germanText;
+	private String ukText;
+	private String plainText;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		reader = new BenchmarkReader();
+		workbook = new XSSFWorkbook();
+		Sheet sheet = workbook.createSheet("Benchmark");
+		Row row = sheet.createRow(0);
+
+		numeric = row.createCell(0);
+		numeric.setCellValue(1234.5);
+		german = row.createCell(1);
+		german.setCellValue("1.234,5");
+		uk = row.createCell(2);
+		uk.setCellValue("1,234.5");
+		blank = row.createCell(3);
+		error = row.createCell(4);
+		error.setCellErrorValue(FormulaError.DIV0.getCode());
+		formula = row.createCell(5);
+		formula.setCellFormula("A1*2");
+		workbook.getCreationHelper().createFormulaEvaluator().evaluateFormulaCell(formula);
+		numericDate = row.createCell(6);
+		numericDate.setCellValue(42185.5);
+
+		germanText = german.getStringCellValue();
+		ukText = uk.getStringCellValue();
+		plainText = "12 Monkeys";
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws IOException {
+		workbook.close();
+	}
+
+	/**
+	 * A text cell for every date pattern of the reader and a text which
+	 * matches none of them.
+	 */
+	@State(Scope.Thread)
+	public static class DateText {
+		@Param({ "2015-06-30T12:30:45Z", "2015-06-30T12:30:45+0200", "2015-06-30T12:30:45",
+				"2015-06-30T12:30:45.123Z", "2015-06-30T12:30:45.123+0200", "2015-06-30 12:30:45",
+				"06/30/2015 12:30:45", "06/30/2015T12:30:45.123Z", "06/30/2015T12:30:45.123+0200",
+				"06/30/2015T12:30:45.123", "06/30/2015T12:30:45+0200", "06/30/2015T12:30:45", "2015:06:30 12:30:45",
+				"20150630", "30.06.2015", "06/30/2015", "no date" })
+		public String text;
+
+		private XSSFWorkbook workbook;
+		private Cell cell;
+
+		@Setup(Level.Trial)
+		public void setUp() {
+			workbook = new XSSFWorkbook();
+			cell = workbook.createSheet("Dates").createRow(0).createCell(0);
+			cell.setCellValue(text);
+		}
+
+		@TearDown(Level.Trial)
+		public void tearDown() throws IOException {
+			workbook.close();
+		}
+	}
+
+	@Benchmark
+	public ExclyDouble readDoubleNumeric() {
+		return reader.readDoubleCellValue(numeric);
+	}
+
+	@Benchmark
+	public ExclyDouble readDoubleGerman() {
+		return reader.readDoubleCellValue(german);
+	}
+
+	@Benchmark
+	public ExclyDouble readDoubleUK() {
+		return reader.readDoubleCellValue(uk);
+	}
+
+	@Benchmark
+	public ExclyDouble readDoubleBlank() {
+		return reader.readDoubleCellValue(blank);
+	}
+
+	@Benchmark
+	public ExclyDouble readDoubleError() {
+		return reader.readDoubleCellValue(error);
+	}
+
+	@Benchmark
+	public ExclyDouble readDoubleFormula() {
+		return reader.readDoubleCellValue(formula);
+	}
+
+	@Benchmark
+	public ExclyString readStringNumeric() {
+		return reader.readStringCellValue(numeric);
+	}
+
+	@Benchmark
+	public ExclyString readStringDate() {
+		return reader.readStringCellValue(numericDate);
+	}
+
+	@Benchmark
+	public ExclyString readFormattedNumeric() {
+		return reader.readFormattedCellValue(numeric);
+	}
+
+	@Benchmark
+	public ExclyDate readDateNumeric() {
+		return reader.readDateCellValue(numericDate);
+	}
+
+	@Benchmark
+	public ExclyDate readDateText(DateText date) {
+		return reader.readDateCellValue(date.cell);
+	}
+
+	@Benchmark
+	public boolean isNumericGerman() {
+		return reader.isNumericGerman(germanText);
+	}
+
+	@Benchmark
+	public boolean isNumericUK() {
+		return reader.isNumericUK(ukText);
+	}
+
+	@Benchmark
+	public boolean startsWithNumeric() {
+		return reader.startsWithNumeric(plainText);
+	}
+
+	/**
+	 * Makes the classifiers of the reader accessible.
+	 */
+	static class BenchmarkReader extends XLSXReader {
+
+		@Override
+		public boolean isNumericGerman(String str) {
+			return super.isNumericGerman(str);
+		}
+
+		@Override
+		public boolean isNumericUK(String str) {
+			return super.isNumericUK(str);
+		}
+
+		@Override
+		public boolean startsWithNumeric(String str) {
+			return super.startsWithNumeric(str);
+		}
+	}
+}
@@ -0,0 +1,165 @@
+/** 
+ * This code is copyright (c) Mathias Markl 2015
+ * 
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ * 
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package at.mukprojects.exclycore.benchmark;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import at.mukprojects.exclycore.model.ExclyBoolean;
+import at.mukprojects.exclycore.model.ExclyDate;
+import at.mukprojects.exclycore.model.ExclyDecimal;
+import at.mukprojects.exclycore.model.ExclyDouble;
+import at.mukprojects.exclycore.model.ExclyDoubleError;
+import at.mukprojects.exclycore.model.ExclyInteger;
+import at.mukprojects.exclycore.model.ExclyLong;
+import at.mukprojects.exclycore.model.ExclyString;
+
+/**
+ * SetCellBenchmark measures writing the Excly data types into a cell.
+ *
+ * @author Mathias Markl
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SetCellBenchmark {
+	private XSSFWorkbook workbook;
+	private Cell cell;
+
+	private ExclyString stringValue;
+	private ExclyDouble doubleValue;
+	private ExclyDecimal decimalValue;
+	private ExclyInteger integerValue;
+	private ExclyLong longValue;
+	private ExclyDate dateValue;
+	private ExclyBoolean booleanValue;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		workbook = new XSSFWorkbook();
+		cell = workbook.createSheet("Benchmark").createRow(0).createCell(0);
+
+		stringValue = new ExclyString("ExclyCore");
+		doubleValue = new ExclyDouble(1234.5);
+		decimalValue = ExclyDecimal.valueOf(1234.5);
+		integerValue = new ExclyInteger(1234);
+		longValue = new ExclyLong(1234567890123L);
+		dateValue = new ExclyDate(1435660245000L);
+		booleanValue = new ExclyBoolean(true);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws IOException {
+		workbook.close();
+	}
+
+	/**
+	 * Every error value creates a cell style. The workbook is replaced before
+	 * it holds too many styles, as adding a style gets slower with every style
+	 * and a workbook is limited to 64000 styles.
+	 */
+	@State(Scope.Thread)
+	public static class ErrorCell {
+		private static final int MAX_STYLES = 1000;
+
+		private XSSFWorkbook workbook;
+		private Cell cell;
+
+		@Setup(Level.Invocation)
+		public void setUp() throws IOException {
+			if (workbook == null || workbook.getNumCellStyles() >= MAX_STYLES) {
+				tearDown();
+				workbook = new XSSFWorkbook();
+				cell = workbook.createSheet("Benchmark").createRow(0).createCell(0);
+			}
+		}
+
+		@TearDown(Level.Trial)
+		public void tearDown() throws IOException {
+			if (workbook != null) {
+				workbook.close();
+			}
+		}
+	}
+
+	@Benchmark
+	public Cell setCellString() {
+		stringValue.setCell(cell);
+		return cell;
+	}
+
+	@Benchmark
+	public Cell setCellDouble() {
+		doubleValue.setCell(cell);
+		return cell;
+	}
+
+	@Benchmark
+	public Cell setCellDecimal() {
+		decimalValue.setCell(cell);
+		return cell;
+	}
+
+	@Benchmark
+	public Cell setCellInteger() {
+		integerValue.setCell(cell);
+		return cell;
+	}
+
+	@Benchmark
+	public Cell setCellLong() {
+		longValue.setCell(cell);
+		return cell;
+	}
+
+	@Benchmark
+	public Cell setCellDate() {
+		dateValue.setCell(cell);
+		return cell;
+	}
+
+	@Benchmark
+	public Cell setCellBoolean() {
+		booleanValue.setCell(cell);
+		return cell;
+	}
+
+	@Benchmark
+	public Cell setCellError(ErrorCell error) {
+		new ExclyDoubleError().setCell(error.cell);
+		return error.cell;
+	}
+}
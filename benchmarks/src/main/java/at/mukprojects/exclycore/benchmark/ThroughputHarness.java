@@ -0,0 +1,409 @@
+/** 
+ * This code is copyright (c) Mathias Markl 2015
+ * 
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ * 
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package at.mukprojects.exclycore.benchmark;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.apache.poi.openxml4j.exceptions.InvalidFormatException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.poifs.filesystem.NPOIFSFileSystem;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+
+import at.mukprojects.exclycore.benchmark.WorkbookGenerator.ColumnType;
+import at.mukprojects.exclycore.dao.XLSStreamReader;
+import at.mukprojects.exclycore.dao.XLSXReader;
+import at.mukprojects.exclycore.dao.XLSXStreamReader;
+import at.mukprojects.exclycore.dao.XLSXWriter;
+
+/**
+ * ThroughputHarness writes and reads whole synthetic workbooks and reports
+ * the rows per second, the peak heap and the allocated bytes of every
+ * scenario as one JSON object per line.
+ * 
+ * The scenarios are write-dom and write-streaming, which use the XLSXWriter,
+ * and read-dom and read-streaming, which read every cell with the read method
+ * of its column type. The .xls format is written with HSSF and read with the
+ * XLSStreamReader, it's limited to 65536 rows and 256 columns.
+ * 
+ * The options are given as --name=value: rows, columns, mix, dirty, strings,
+ * seed, iterations, formats (xlsx,xls), scenarios, window (the rows kept in
+ * memory by the streaming writer), dir and output. The peak heap is the sum of
+ * the peaks of all heap pools, run a single scenario per JVM with a fixed -Xmx
+ * for comparable heap figures.
+ *
+ * @author Mathias Markl
+ */
+public final class ThroughputHarness {
+	private static final List<String> SCENARIOS = Arrays.asList("write-dom", "write-streaming", "read-dom",
+			"read-streaming");
+
+	private final WorkbookGenerator generator;
+	private final ColumnType[] columnTypes;
+	private final int window;
+	private final File directory;
+	private final XLSXReader reader = new XLSXReader() {
+	};
+
+	private ThroughputHarness(WorkbookGenerator generator, int window, File directory) {
+		this.generator = generator;
+		this.columnTypes = generator.getColumnTypes();
+		this.window = window;
+		this.directory = directory;
+	}
+
+	/**
+	 * Runs the harness.
+	 * 
+	 * @param args
+	 *            The options as --name=value.
+	 * @throws Exception
+	 *             If a scenario fails.
+	 */
+	public static void main(String[] args) throws Exception {
+		Map<String, String> options = new HashMap<String, String>();
+		options.put("rows", "100000");
+		options.put("columns", "20");
+		options.put("mix", "number=4,string=4,date=2,boolean=1,german_number=1,uk_number=1,text_date=1");
+		options.put("dirty", "0.02");
+		options.put("strings", "1000");
+		options.put("seed", "42");
+		options.put("iterations", "3");
+		options.put("formats", "xlsx");
+		options.put("scenarios", String.join(",", SCENARIOS));
+		options.put("window", "100");
+		options.put("dir", System.getProperty("java.io.tmpdir"));
+		for (String arg : args) {
+			if (!arg.startsWith("--") || arg.indexOf('=') < 0) {
+				throw new IllegalArgumentException("The option " + arg + " isn't given as --name=value.");
+			}
+			options.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+		}
+
+		WorkbookGenerator generator = new WorkbookGenerator(Integer.parseInt(options.get("rows")),
+				Integer.parseInt(options.get("columns")), WorkbookGenerator.parseMix(options.get("mix")),
+				Double.parseDouble(options.get("dirty")), Integer.parseInt(options.get("strings")),
+				Long.parseLong(options.get("seed")));
+		ThroughputHarness harness = new ThroughputHarness(generator, Integer.parseInt(options.get("window")),
+				new File(options.get("dir")));
+
+		PrintStream output = System.out;
+		if (options.containsKey("output")) {
+			output = new PrintStream(new FileOutputStream(options.get("output")), true, "UTF-8");
+		}
+
+		try {
+			int iterations = Integer.parseInt(options.get("iterations"));
+			List<String> scenarios = Arrays.asList(options.get("scenarios").split(","));
+			for (String format : options.get("formats").split(",")) {
+				for (int i = 1; i <= iterations; i++) {
+					for (Result result : harness.run(format, scenarios)) {
+						result.iteration = i;
+						result.options = options;
+						output.println(result.toJson());
+					}
+				}
+			}
+		} finally {
+			if (output != System.out) {
+				output.close();
+			}
+		}
+	}
+
+	private List<Result> run(String format, List<String> scenarios) throws Exception {
+		for (String scenario : scenarios) {
+			if (!SCENARIOS.contains(scenario)) {
+				throw new IllegalArgumentException("The scenario " + scenario + " isn't one of " + SCENARIOS + ".");
+			}
+		}
+
+		List<Result> results = new ArrayList<Result>();
+		File domFile = new File(directory, "exclycore-harness-dom." + format);
+		File streamingFile = new File(directory, "exclycore-harness-streaming." + format);
+		try {
+			if ("xlsx".equals(format)) {
+				results.add(measure("write-dom", format, domFile, () -> writeXlsx(domFile, false)));
+				if (scenarios.contains("write-streaming")) {
+					results.add(measure("write-streaming", format, streamingFile,
+							() -> writeXlsx(streamingFile, true)));
+				}
+				if (scenarios.contains("read-dom")) {
+					results.add(measure("read-dom", format, domFile, () -> readXlsxDom(domFile)));
+				}
+				if (scenarios.contains("read-streaming")) {
+					results.add(measure("read-streaming", format, domFile, () -> readXlsxStreaming(domFile)));
+				}
+			} else if ("xls".equals(format)) {
+				if (generator.getRows() > 65536 || generator.getColumns() > 256) {
+					throw new IllegalArgumentException("The .xls format is limited to 65536 rows and 256 columns.");
+				}
+				results.add(measure("write-dom", format, domFile, () -> writeXls(domFile)));
+				if (scenarios.contains("read-dom")) {
+					results.add(measure("read-dom", format, domFile, () -> readXlsDom(domFile)));
+				}
+				if (scenarios.contains("read-streaming")) {
+					results.add(measure("read-streaming", format, domFile, () -> readXlsStreaming(domFile)));
+				}
+			} else {
+				throw new IllegalArgumentException("The format " + format + " isn't one of xlsx and xls.");
+			}
+		} finally {
+			domFile.delete();
+			streamingFile.delete();
+		}
+
+		if (!scenarios.contains("write-dom")) {
+			results.remove(0);
+		}
+		return results;
+	}
+
+	private long writeXlsx(File file, boolean streaming) throws IOException {
+		HarnessWriter writer = new HarnessWriter();
+		Workbook workbook = streaming ? writer.createStreamingWorkbook(file, false, window)
+				: writer.createWorkbook(file, false);
+		generator.fill(workbook, "Data");
+		writer.closeWorkbook();
+		return 0;
+	}
+
+	private long writeXls(File file) throws IOException {
+		HSSFWorkbook workbook = new HSSFWorkbook();
+		generator.fill(workbook, "Data");
+		OutputStream outputStream = new FileOutputStream(file);
+		try {
+			workbook.write(outputStream);
+		} finally {
+			outputStream.close();
+			workbook.close();
+		}
+		return 0;
+	}
+
+	private long readXlsxDom(File file) throws IOException, InvalidFormatException {
+		OPCPackage container = OPCPackage.open(file, PackageAccess.READ);
+		try {
+			return readDom(new XSSFWorkbook(container));
+		} finally {
+			container.revert();
+		}
+	}
+
+	private long readXlsDom(File file) throws IOException {
+		NPOIFSFileSystem fileSystem = new NPOIFSFileSystem(file, true);
+		try {
+			return readDom(new HSSFWorkbook(fileSystem.getRoot(), false));
+		} finally {
+			fileSystem.close();
+		}
+	}
+
+	private long readDom(Workbook workbook) {
+		long errors = 0;
+		Sheet sheet = workbook.getSheetAt(0);
+		for (Row row : sheet) {
+			for (Cell cell : row) {
+				if (readCell(reader, cell)) {
+					errors++;
+				}
+			}
+		}
+		return errors;
+	}
+
+	private long readXlsxStreaming(File file) throws IOException {
+		final long[] errors = new long[1];
+		new XLSXStreamReader() {
+			@Override
+			protected void processCell(Cell cell) {
+				if (readCell(this, cell)) {
+					errors[0]++;
+				}
+			}
+		}.read(file);
+		return errors[0];
+	}
+
+	private long readXlsStreaming(File file) throws IOException {
+		final long[] errors = new long[1];
+		new XLSStreamReader() {
+			@Override
+			protected void processCell(Cell cell) {
+				if (readCell(this, cell)) {
+					errors[0]++;
+				}
+			}
+		}.read(file);
+		return errors[0];
+	}
+
+	/**
+	 * Reads a cell with the read method of its column type. A streamed cell
+	 * must be read by the streaming reader itself.
+	 */
+	private boolean readCell(XLSXReader reader, Cell cell) {
+		switch (columnTypes[cell.getColumnIndex()]) {
+		case NUMBER:
+		case GERMAN_NUMBER:
+		case UK_NUMBER:
+			return reader.readDoubleCellValue(cell).isError();
+		case DATE:
+		case TEXT_DATE:
+			return reader.readDateCellValue(cell).isError();
+		case BOOLEAN:
+			return reader.readBooleanCellValue(cell).isError();
+		default:
+			return reader.readStringCellValue(cell).isError();
+		}
+	}
+
+	/**
+	 * Measures a scenario. The garbage is collected and the peaks of the heap
+	 * pools are reset before, the allocation is counted for the current
+	 * thread, which runs the whole scenario.
+	 */
+	private Result measure(String scenario, String format, File file, Scenario task) throws Exception {
+		List<MemoryPoolMXBean> pools = new ArrayList<MemoryPoolMXBean>();
+		for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+			if (pool.getType() == MemoryType.HEAP && pool.isValid()) {
+				pools.add(pool);
+			}
+		}
+		com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory
+				.getThreadMXBean();
+		long threadId = Thread.currentThread().getId();
+
+		System.gc();
+		for (MemoryPoolMXBean pool : pools) {
+			pool.resetPeakUsage();
+		}
+		long allocated = threads.getThreadAllocatedBytes(threadId);
+		long start = System.nanoTime();
+
+		long errors = task.run();
+
+		long nanos = System.nanoTime() - start;
+		allocated = threads.getThreadAllocatedBytes(threadId) - allocated;
+		long peakHeap = 0;
+		for (MemoryPoolMXBean pool : pools) {
+			peakHeap += pool.getPeakUsage().getUsed();
+		}
+
+		Result result = new Result();
+		result.scenario = scenario;
+		result.format = format;
+		result.rows = generator.getRows();
+		result.cells = (long) generator.getRows() * generator.getColumns();
+		result.nanos = nanos;
+		result.peakHeap = peakHeap;
+		result.allocated = allocated;
+		result.fileSize = file.length();
+		result.errors = scenario.startsWith("read") ? errors : -1;
+		return result;
+	}
+
+	/**
+	 * A scenario which returns the number of error values it has read.
+	 */
+	private interface Scenario {
+		long run() throws Exception;
+	}
+
+	/**
+	 * The measured figures of a scenario.
+	 */
+	private static final class Result {
+		private String scenario;
+		private String format;
+		private int iteration;
+		private long rows;
+		private long cells;
+		private long nanos;
+		private long peakHeap;
+		private long allocated;
+		private long fileSize;
+		private long errors;
+		private Map<String, String> options;
+
+		private String toJson() {
+			StringBuilder json = new StringBuilder("{");
+			json.append("\"scenario\":\"").append(scenario).append("\",");
+			json.append("\"format\":\"").append(format).append("\",");
+			json.append("\"iteration\":").append(iteration).append(',');
+			json.append("\"rows\":").append(rows).append(',');
+			json.append("\"columns\":").append(options.get("columns")).append(',');
+			json.append("\"cells\":").append(cells).append(',');
+			json.append("\"mix\":\"").append(options.get("mix")).append("\",");
+			json.append("\"dirtyRatio\":").append(options.get("dirty")).append(',');
+			json.append("\"stringCardinality\":").append(options.get("strings")).append(',');
+			json.append("\"seed\":").append(options.get("seed")).append(',');
+			json.append("\"seconds\":").append(String.format(Locale.ROOT, "%.6f", nanos / 1e9)).append(',');
+			json.append("\"rowsPerSecond\":").append(String.format(Locale.ROOT, "%.1f", rows * 1e9 / nanos))
+					.append(',');
+			json.append("\"peakHeapBytes\":").append(peakHeap).append(',');
+			json.append("\"allocatedBytes\":").append(allocated).append(',');
+			json.append("\"fileBytes\":").append(fileSize);
+			if (errors >= 0) {
+				json.append(",\"errorValues\":").append(errors);
+			}
+			return json.append('}').toString();
+		}
+	}
+
+	/**
+	 * Makes the workbook methods of the writer accessible.
+	 */
+	private static final class HarnessWriter extends XLSXWriter {
+
+		@Override
+		protected XSSFWorkbook createWorkbook(File output, boolean add) throws IOException {
+			return super.createWorkbook(output, add);
+		}
+
+		@Override
+		protected SXSSFWorkbook createStreamingWorkbook(File output, boolean add, int rowAccessWindowSize)
+				throws IOException {
+			return super.createStreamingWorkbook(output, add, rowAccessWindowSize);
+		}
+
+		@Override
+		protected void closeWorkbook() throws IOException {
+			super.closeWorkbook();
+		}
+	}
+}
@@ -0,0 +1,256 @@
+/** 
+ * This code is copyright (c) Mathias Markl 2015
+ * 
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ * 
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package at.mukprojects.exclycore.benchmark;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.FormulaError;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+
+/**
+ * WorkbookGenerator fills sheets with synthetic data. The data only depends on
+ * the configuration and the seed, so every run and every workbook format gets
+ * the same cells.
+ * 
+ * Every column gets one type, picked by the weights of the type mix. A cell is
+ * dirty with the probability of the dirty ratio, it holds a value which the
+ * reader has to turn into a blank or an error value then. Strings are drawn
+ * from a pool with the size of the shared string cardinality.
+ *
+ * @author Mathias Markl
+ */
+public final class WorkbookGenerator {
+
+	/**
+	 * The types of the columns.
+	 */
+	public enum ColumnType {
+		/**
+		 * Numeric cells.
+		 */
+		NUMBER,
+		/**
+		 * Text numbers in German notation.
+		 */
+		GERMAN_NUMBER,
+		/**
+		 * Text numbers in UK notation.
+		 */
+		UK_NUMBER,
+		/**
+		 * Numeric cells with a date format.
+		 */
+		DATE,
+		/**
+		 * Text dates.
+		 */
+		TEXT_DATE,
+		/**
+		 * Text cells.
+		 */
+		STRING,
+		/**
+		 * Boolean cells.
+		 */
+		BOOLEAN
+	}
+
+	private static final String[] DIRTY_TEXTS = { "", " ", "-", "n/a", "12 Monkeys", "1,2,3", "?" };
+
+	private final int rows;
+	private final int columns;
+	private final double dirtyRatio;
+	private final long seed;
+	private final ColumnType[] columnTypes;
+	private final String[] strings;
+
+	/**
+	 * Constructs a new WorkbookGenerator.
+	 * 
+	 * @param rows
+	 *            The number of rows.
+	 * @param columns
+	 *            The number of columns.
+	 * @param mix
+	 *            The weight of every column type, missing types aren't used.
+	 * @param dirtyRatio
+	 *            The share of dirty cells between 0 and 1.
+	 * @param stringCardinality
+	 *            The number of distinct strings.
+	 * @param seed
+	 *            The seed of the random data.
+	 */
+	public WorkbookGenerator(int rows, int columns, Map<ColumnType, Integer> mix, double dirtyRatio,
+			int stringCardinality, long seed) {
+		if (rows < 1 || columns < 1 || stringCardinality < 1) {
+			throw new IllegalArgumentException("The rows, columns and the string cardinality must be positive.");
+		}
+		if (dirtyRatio < 0 || dirtyRatio > 1) {
+			throw new IllegalArgumentException("The dirty ratio must be between 0 and 1.");
+		}
+
+		this.rows = rows;
+		this.columns = columns;
+		this.dirtyRatio = dirtyRatio;
+		this.seed = seed;
+		this.columnTypes = pickColumnTypes(columns, mix, new Random(seed));
+		this.strings = new String[stringCardinality];
+		for (int i = 0; i < stringCardinality; i++) {
+			strings[i] = "Value " + i;
+		}
+	}
+
+	/**
+	 * Parses a type mix like "number=4,string=2,date=1". The names are the
+	 * column types in any case, the values their weights.
+	 * 
+	 * @param mix
+	 *            The type mix.
+	 * @return Returns the weights of the column types.
+	 */
+	public static Map<ColumnType, Integer> parseMix(String mix) {
+		Map<ColumnType, Integer> output = new EnumMap<ColumnType, Integer>(ColumnType.class);
+		for (String entry : mix.split(",")) {
+			String[] pair = entry.trim().split("=");
+			if (pair.length != 2) {
+				throw new IllegalArgumentException("The type mix entry " + entry + " isn't a name=weight pair.");
+			}
+			output.put(ColumnType.valueOf(pair[0].trim().toUpperCase(Locale.ROOT)), Integer.parseInt(pair[1].trim()));
+		}
+		return output;
+	}
+
+	/**
+	 * Returns the number of rows.
+	 * 
+	 * @return Returns the number of rows.
+	 */
+	public int getRows() {
+		return rows;
+	}
+
+	/**
+	 * Returns the number of columns.
+	 * 
+	 * @return Returns the number of columns.
+	 */
+	public int getColumns() {
+		return columns;
+	}
+
+	/**
+	 * Returns the type of every column.
+	 * 
+	 * @return Returns the column types.
+	 */
+	public ColumnType[] getColumnTypes() {
+		return columnTypes.clone();
+	}
+
+	/**
+	 * Fills a new sheet of the workbook with the data.
+	 * 
+	 * @param workbook
+	 *            The workbook.
+	 * @param sheetName
+	 *            The name of the new sheet.
+	 */
+	public void fill(Workbook workbook, String sheetName) {
+		Sheet sheet = workbook.createSheet(sheetName);
+		CellStyle dateStyle = workbook.createCellStyle();
+		dateStyle.setDataFormat(workbook.getCreationHelper().createDataFormat().getFormat("dd.mm.yyyy"));
+
+		Random random = new Random(seed);
+		for (int r = 0; r < rows; r++) {
+			Row row = sheet.createRow(r);
+			for (int c = 0; c < columns; c++) {
+				Cell cell = row.createCell(c);
+				if (random.nextDouble() < dirtyRatio) {
+					fillDirty(cell, random);
+				} else {
+					fillValue(cell, columnTypes[c], dateStyle, random);
+				}
+			}
+		}
+	}
+
+	private void fillValue(Cell cell, ColumnType type, CellStyle dateStyle, Random random) {
+		switch (type) {
+		case NUMBER:
+			cell.setCellValue(Math.round(random.nextDouble() * 1000000) / 100.0);
+			break;
+		case GERMAN_NUMBER:
+			cell.setCellValue(String.format(Locale.GERMAN, "%,.2f", random.nextDouble() * 100000));
+			break;
+		case UK_NUMBER:
+			cell.setCellValue(String.format(Locale.UK, "%,.2f", random.nextDouble() * 100000));
+			break;
+		case DATE:
+			cell.setCellValue(36526 + random.nextInt(9000));
+			cell.setCellStyle(dateStyle);
+			break;
+		case TEXT_DATE:
+			cell.setCellValue(String.format(Locale.ROOT, "%02d.%02d.%04d", 1 + random.nextInt(28),
+					1 + random.nextInt(12), 2000 + random.nextInt(25)));
+			break;
+		case STRING:
+			cell.setCellValue(strings[random.nextInt(strings.length)]);
+			break;
+		case BOOLEAN:
+			cell.setCellValue(random.nextBoolean());
+			break;
+		}
+	}
+
+	private void fillDirty(Cell cell, Random random) {
+		int pick = random.nextInt(DIRTY_TEXTS.length + 2);
+		if (pick == DIRTY_TEXTS.length) {
+			cell.setCellErrorValue(FormulaError.NA.getCode());
+		} else if (pick == DIRTY_TEXTS.length + 1) {
+			cell.setCellType(Cell.CELL_TYPE_BLANK);
+		} else {
+			cell.setCellValue(DIRTY_TEXTS[pick]);
+		}
+	}
+
+	private static ColumnType[] pickColumnTypes(int columns, Map<ColumnType, Integer> mix, Random random) {
+		List<ColumnType> weighted = new ArrayList<ColumnType>();
+		for (Map.Entry<ColumnType, Integer> entry : mix.entrySet()) {
+			weighted.addAll(Collections.nCopies(Math.max(0, entry.getValue()), entry.getKey()));
+		}
+		if (weighted.isEmpty()) {
+			throw new IllegalArgumentException("The type mix has no positive weight.");
+		}
+
+		ColumnType[] output = new ColumnType[columns];
+		for (int c = 0; c < columns; c++) {
+			output[c] = weighted.get(random.nextInt(weighted.size()));
+		}
+		return output;
+	}
+}
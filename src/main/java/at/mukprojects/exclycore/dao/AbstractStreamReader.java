@@ -0,0 +1,257 @@
+/** 
+ * This code is copyright (c) Mathias Markl 2015
+ * 
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ * 
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package at.mukprojects.exclycore.dao;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.DataFormatter;
+
+import at.mukprojects.exclycore.helper.ExclyDateConverter;
+import at.mukprojects.exclycore.helper.ExclyEvents;
+import at.mukprojects.exclycore.helper.ExclyMetrics;
+import at.mukprojects.exclycore.helper.ExclyMetrics.Branch;
+import at.mukprojects.exclycore.helper.ExclyMetrics.ReadType;
+import at.mukprojects.exclycore.model.ExclyString;
+import at.mukprojects.exclycore.model.ExclyStringView;
+
+/**
+ * AbstractStreamReader is the base class of the streaming readers. The file is
+ * read record by record and every cell is handed to
+ * {@link #processCell(Cell)}, where it's read with the regular read methods
+ * and the same conversion rules as in the XLSXReader.
+ * 
+ * The cell is reused for the next record, so it must not be kept. Merged
+ * regions can't be resolved and formulas aren't evaluated, the cached results
+ * of formula cells are read instead.
+ *
+ * @author Mathias Markl
+ */
+public abstract class AbstractStreamReader extends XLSXReader {
+	private final StreamingCell cell = new StreamingCell();
+	private DateFormatCache dateFormatCache = new DateFormatCache();
+	private final DataFormatter dataFormatter = new DataFormatter();
+	private ExclyDateConverter dateConverter = new ExclyDateConverter(false);
+
+	private Object workbookEvent;
+	private Object sheetEvent;
+	private long sheetRows;
+	private long sheetCells;
+	private int lastRow;
+
+	/**
+	 * Handles a cell of the file. The cell is only valid during the call.
+	 * 
+	 * @param cell
+	 *            The Excel cell.
+	 */
+	protected abstract void processCell(Cell cell);
+
+	/**
+	 * Is called before the cells of a sheet are handed to
+	 * {@link #processCell(Cell)}.
+	 * 
+	 * @param sheetIndex
+	 *            The index of the sheet.
+	 * @param sheetName
+	 *            The name of the sheet.
+	 */
+	protected void startSheet(int sheetIndex, String sheetName) {
+	}
+
+	/**
+	 * Is called after the last cell of a sheet.
+	 * 
+	 * @param sheetIndex
+	 *            The index of the sheet.
+	 * @param sheetName
+	 *            The name of the sheet.
+	 */
+	protected void endSheet(int sheetIndex, String sheetName) {
+	}
+
+	/**
+	 * Reads the value of the cell like {@link #readStringCellValue(Cell)}. Text
+	 * which the reader keeps in its own buffer, like inline strings of the
+	 * XLSXStreamReader or strings of the XLSBStreamReader, is returned as an
+	 * ExclyStringView into this buffer instead of a copy. The view is only
+	 * valid during {@link #processCell(Cell)}, it has to be detached with
+	 * {@link ExclyStringView#detach()} to be kept.
+	 * 
+	 * @param cell
+	 *            The Excel cell.
+	 * @return Return the value of the cell as an ExclyString.
+	 */
+	protected ExclyString readStringView(Cell cell) {
+		if (cell instanceof StreamingCell) {
+			long start = ExclyMetrics.start();
+			ExclyStringView view = ((StreamingCell) cell).getStringView();
+			if (view != null) {
+				if (start != 0L) {
+					ExclyMetrics.recordRead(ReadType.STRING, start, false, false);
+				}
+				return view;
+			}
+		}
+
+		return readStringCellValue(cell);
+	}
+
+	/**
+	 * Begins the workbook open event, which lasts until the first sheet. The
+	 * date formats are cached by style index, so every workbook gets a new
+	 * cache.
+	 */
+	void beginWorkbook(File file) {
+		dateFormatCache = new DateFormatCache();
+		workbookEvent = file != null ? ExclyEvents.beginWorkbookOpen(file.getPath(), file.length())
+				: ExclyEvents.beginWorkbookOpen(null, -1);
+	}
+
+	/**
+	 * Ends the workbook open event if the workbook has no sheets.
+	 */
+	void endWorkbook() {
+		ExclyEvents.endWorkbookOpen(workbookEvent);
+		workbookEvent = null;
+		sheetEvent = null;
+	}
+
+	/**
+	 * Starts a sheet and records its event.
+	 */
+	void beginSheet(int sheetIndex, String sheetName) {
+		endWorkbook();
+		sheetEvent = ExclyEvents.beginSheetRead(sheetIndex, sheetName);
+		sheetRows = 0;
+		sheetCells = 0;
+		lastRow = -1;
+		startSheet(sheetIndex, sheetName);
+	}
+
+	/**
+	 * Hands the cell to {@link #processCell(Cell)}.
+	 */
+	void handleCell(Cell cell) {
+		if (sheetEvent != null) {
+			sheetCells++;
+			if (cell.getRowIndex() != lastRow) {
+				lastRow = cell.getRowIndex();
+				sheetRows++;
+			}
+		}
+		processCell(cell);
+	}
+
+	/**
+	 * Ends a sheet and records its event.
+	 */
+	void finishSheet(int sheetIndex, String sheetName) {
+		endSheet(sheetIndex, sheetName);
+		ExclyEvents.endSheetRead(sheetEvent, sheetRows, sheetCells);
+		sheetEvent = null;
+	}
+
+	/**
+	 * Copies the stream into a temporary file. Zip based files are read from
+	 * the file, so the size of their parts isn't limited by the memory.
+	 * 
+	 * @param inputStream
+	 *            The stream of the file.
+	 * @return Returns the temporary file, it's deleted on exit at the latest.
+	 * @throws IOException
+	 *             If the stream can't be copied.
+	 */
+	File spool(InputStream inputStream) throws IOException {
+		File file = File.createTempFile("exclycore-", ".tmp");
+		file.deleteOnExit();
+
+		OutputStream outputStream = new FileOutputStream(file);
+		try {
+			byte[] buffer = new byte[1 << 16];
+			int count;
+			while ((count = inputStream.read(buffer)) >= 0) {
+				outputStream.write(buffer, 0, count);
+			}
+		} finally {
+			outputStream.close();
+		}
+
+		return file;
+	}
+
+	/**
+	 * Returns the cell which is reused for all records.
+	 */
+	StreamingCell getStreamingCell() {
+		return cell;
+	}
+
+	/**
+	 * Sets the date system of the file which is read.
+	 */
+	void setDate1904(boolean date1904) {
+		dateConverter = new ExclyDateConverter(date1904);
+		cell.setDate1904(date1904);
+	}
+
+	@Override
+	protected ExclyDateConverter getDateConverter(Cell cell) {
+		return dateConverter;
+	}
+
+	@Override
+	protected boolean isCellDateFormatted(Cell cell) {
+		if (!(cell instanceof StreamingCell)) {
+			return super.isCellDateFormatted(cell);
+		}
+
+		StreamingCell streamingCell = (StreamingCell) cell;
+		return dateFormatCache.isDateFormatted(streamingCell.getStyleIndex(), streamingCell.getFormatIndex(),
+				streamingCell.getFormatString(), streamingCell.getNumericCellValue());
+	}
+
+	@Override
+	protected String formatNumericCellValue(Cell cell) {
+		if (!(cell instanceof StreamingCell)) {
+			return super.formatNumericCellValue(cell);
+		}
+
+		if (ExclyMetrics.isRecording() && isCellDateFormatted(cell)) {
+			ExclyMetrics.recordBranch(Branch.DATE_FORMATTED_CELL);
+		}
+
+		StreamingCell streamingCell = (StreamingCell) cell;
+		return dataFormatter.formatRawCellContents(streamingCell.getNumericCellValue(),
+				streamingCell.getFormatIndex(), streamingCell.getFormatString(), streamingCell.isDate1904());
+	}
+
+	@Override
+	protected int getCachedFormulaResultType(Cell cell) {
+		return cell.getCachedFormulaResultType();
+	}
+
+	@Override
+	protected Cell resolveMergedCell(Cell cell) {
+		return cell;
+	}
+}
@@ -0,0 +1,117 @@
+/** 
+ * This code is copyright (c) Mathias Markl 2015
+ * 
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ * 
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package at.mukprojects.exclycore.dao;
+
+import java.util.Arrays;
+
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.DateUtil;
+
+/**
+ * DateFormatCache remembers for every cell style of a workbook if its format is
+ * a date format. It gives the same results as
+ * {@link DateUtil#isCellDateFormatted(Cell)}, but the format string of a style
+ * is only fetched and parsed once, on the first lookup of the style. A cache
+ * must not be shared between workbooks.
+ *
+ * @author Mathias Markl
+ */
+final class DateFormatCache {
+	private static final byte UNKNOWN = 0;
+	private static final byte DATE = 1;
+	private static final byte NO_DATE = 2;
+
+	private byte[] formats = new byte[64];
+
+	/**
+	 * Checks if the cell contains a valid date and has a date format.
+	 * 
+	 * @param cell
+	 *            The Excel cell.
+	 * @return Returns true if the cell is date formatted, otherwise it will
+	 *         return false.
+	 */
+	boolean isCellDateFormatted(Cell cell) {
+		if (cell == null) {
+			return false;
+		}
+
+		CellStyle style = cell.getCellStyle();
+		if (style == null || !DateUtil.isValidExcelDate(cell.getNumericCellValue())) {
+			return false;
+		}
+
+		int index = style.getIndex() & 0xFFFF;
+		byte format = lookup(index);
+		if (format == UNKNOWN) {
+			format = store(index, style.getDataFormat(), style.getDataFormatString());
+		}
+
+		return format == DATE;
+	}
+
+	/**
+	 * Checks if the value is a valid date and the format of the cell style is
+	 * a date format. Used by readers which know the format of a cell without a
+	 * CellStyle.
+	 * 
+	 * @param index
+	 *            The index of the cell style.
+	 * @param dataFormat
+	 *            The index of the data format.
+	 * @param formatString
+	 *            The format string of the data format.
+	 * @param value
+	 *            The numeric value of the cell.
+	 * @return Returns true if the value is date formatted, otherwise it will
+	 *         return false.
+	 */
+	boolean isDateFormatted(int index, int dataFormat, String formatString, double value) {
+		if (!DateUtil.isValidExcelDate(value)) {
+			return false;
+		}
+
+		byte format = lookup(index);
+		if (format == UNKNOWN) {
+			format = store(index, dataFormat, formatString);
+		}
+
+		return format == DATE;
+	}
+
+	/**
+	 * Returns the cached format of the cell style, the array grows to the
+	 * index.
+	 */
+	private byte lookup(int index) {
+		if (index >= formats.length) {
+			formats = Arrays.copyOf(formats, Math.max(index + 1, formats.length * 2));
+		}
+		return formats[index];
+	}
+
+	/**
+	 * Parses the format of the cell style on a cache miss and keeps it.
+	 */
+	private byte store(int index, int dataFormat, String formatString) {
+		byte format = DateUtil.isADateFormat(dataFormat, formatString) ? DATE : NO_DATE;
+		formats[index] = format;
+		return format;
+	}
+}
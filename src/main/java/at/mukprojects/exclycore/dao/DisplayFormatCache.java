@@ -0,0 +1,170 @@
+/** 
+ * This code is copyright (c) Mathias Markl 2015
+ * 
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ * 
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package at.mukprojects.exclycore.dao;
+
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import java.text.Format;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.ss.usermodel.ExcelStyleDateFormatter;
+
+import at.mukprojects.exclycore.helper.ExclyDateConverter;
+
+/**
+ * DisplayFormatCache renders numeric cells the way
+ * {@link DataFormatter#formatCellValue(Cell)} does. The format of every cell
+ * style is compiled once and reused for all following cells with the same
+ * style. A cache must not be shared between workbooks.
+ *
+ * @author Mathias Markl
+ */
+final class DisplayFormatCache {
+	private static final int NONE = 1;
+	private static final int GENERAL = 2;
+	private static final int COMPILED = 3;
+	private static final int DELEGATE = 4;
+
+	/**
+	 * Formats which the DataFormatter maps to its own format implementations.
+	 */
+	private static final Set<String> SPECIAL_FORMATS = new HashSet<String>(Arrays.asList("00000\\-0000",
+			"00000-0000", "[<=9999999]###\\-####;\\(###\\)\\ ###\\-####", "[<=9999999]###-####;(###) ###-####",
+			"###\\-####;\\(###\\)\\ ###\\-####", "###-####;(###) ###-####", "000\\-00\\-0000", "000-00-0000"));
+
+	private final DataFormatter dataFormatter;
+	private final Format generalWholeNumFormat;
+	private final Format generalDecimalNumFormat;
+
+	private DisplayFormat[] formats = new DisplayFormat[64];
+
+	/**
+	 * Constructs a new DisplayFormatCache for the default locale.
+	 */
+	DisplayFormatCache() {
+		Locale locale = Locale.getDefault();
+		DecimalFormatSymbols symbols = new DecimalFormatSymbols(locale);
+
+		dataFormatter = new DataFormatter(locale);
+		generalWholeNumFormat = new DecimalFormat("#", symbols);
+		generalDecimalNumFormat = new DecimalFormat("#.##########", symbols);
+	}
+
+	/**
+	 * Formats the value of a numeric cell with the format of its style.
+	 * 
+	 * @param cell
+	 *            The Excel cell.
+	 * @param dateFormatted
+	 *            Set this parameter if the cell contains a valid date and has
+	 *            a date format.
+	 * @param dateConverter
+	 *            The date converter of the workbook.
+	 * @return Returns the formatted value.
+	 */
+	String formatNumericCellValue(Cell cell, boolean dateFormatted, ExclyDateConverter dateConverter) {
+		double value = cell.getNumericCellValue();
+
+		CellStyle style = cell.getCellStyle();
+		if (style == null) {
+			return String.valueOf(value);
+		}
+
+		DisplayFormat format = getDisplayFormat(style);
+		switch (format.kind) {
+		case NONE:
+			return String.valueOf(value);
+		case GENERAL:
+			return (value == Math.floor(value) ? generalWholeNumFormat : generalDecimalNumFormat).format(value);
+		case DELEGATE:
+			return dataFormatter.formatCellValue(cell);
+		default:
+			break;
+		}
+
+		if (!format.compiled) {
+			format.format = dataFormatter.createFormat(cell);
+			format.compiled = true;
+		}
+
+		if (dateFormatted) {
+			if (format.format instanceof ExcelStyleDateFormatter) {
+				((ExcelStyleDateFormatter) format.format).setDateToBeFormatted(value);
+			}
+
+			Date data = dateConverter.toExclyDate(value).getData();
+			return format.format != null ? format.format.format(data) : data.toString();
+		}
+
+		return format.format != null ? format.format.format(value) : String.valueOf(value);
+	}
+
+	private DisplayFormat getDisplayFormat(CellStyle style) {
+		int index = style.getIndex() & 0xFFFF;
+		if (index >= formats.length) {
+			formats = Arrays.copyOf(formats, Math.max(index + 1, formats.length * 2));
+		}
+
+		DisplayFormat format = formats[index];
+		if (format == null) {
+			format = new DisplayFormat(getKind(style.getDataFormatString()));
+			formats[index] = format;
+		}
+
+		return format;
+	}
+
+	/**
+	 * Classifies the format string. Formats with more than two sections pick
+	 * their section by value and are rendered by the DataFormatter itself.
+	 */
+	private static int getKind(String formatString) {
+		if (formatString == null || formatString.trim().length() == 0) {
+			return NONE;
+		}
+		if ("General".equalsIgnoreCase(formatString) || "@".equals(formatString)) {
+			return GENERAL;
+		}
+		if (SPECIAL_FORMATS.contains(formatString) || formatString.indexOf(';') != formatString.lastIndexOf(';')) {
+			return DELEGATE;
+		}
+		return COMPILED;
+	}
+
+	/**
+	 * The compiled format of a cell style. Like in the DataFormatter the format
+	 * is compiled with the first value and then used for all values.
+	 */
+	private static final class DisplayFormat {
+		private final int kind;
+
+		private boolean compiled;
+		private Format format;
+
+		private DisplayFormat(int kind) {
+			this.kind = kind;
+		}
+	}
+}
@@ -0,0 +1,340 @@
+/** 
+ * This code is copyright (c) Mathias Markl 2015
+ * 
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ * 
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package at.mukprojects.exclycore.dao;
+
+import java.util.Calendar;
+import java.util.Date;
+
+import org.apache.poi.hssf.usermodel.HSSFRichTextString;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Comment;
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.ss.usermodel.Hyperlink;
+import org.apache.poi.ss.usermodel.RichTextString;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.util.CellRangeAddress;
+
+import at.mukprojects.exclycore.model.ExclyStringView;
+
+/**
+ * StreamingCell is a read only cell of a streaming reader. A streaming reader
+ * uses a single instance for all cells and sets the value of the current
+ * record before it's handed to the reader, so the cell is only valid until the
+ * next record is read. It has no sheet, row or style, the format of the cell
+ * is kept as format index and format string instead. The XLSXReader uses a
+ * blank StreamingCell for merged regions without a top left cell.
+ *
+ * @author Mathias Markl
+ */
+final class StreamingCell implements Cell {
+	private int rowIndex;
+	private int columnIndex;
+	private int cellType;
+	private int cachedFormulaResultType;
+
+	private double numericValue;
+	private String stringValue;
+	private char[] textBuffer;
+	private int textOffset;
+	private int textLength;
+	private boolean booleanValue;
+	private byte errorValue;
+
+	private int styleIndex;
+	private int formatIndex;
+	private String formatString;
+	private boolean date1904;
+
+	/**
+	 * Sets the position and the format of the current cell and clears its
+	 * value.
+	 */
+	void reset(int rowIndex, int columnIndex, int styleIndex, int formatIndex, String formatString) {
+		this.rowIndex = rowIndex;
+		this.columnIndex = columnIndex;
+		this.styleIndex = styleIndex;
+		this.formatIndex = formatIndex;
+		this.formatString = formatString;
+		this.cellType = CELL_TYPE_BLANK;
+		this.cachedFormulaResultType = CELL_TYPE_BLANK;
+		this.numericValue = 0;
+		this.stringValue = "";
+		this.textBuffer = null;
+		this.booleanValue = false;
+		this.errorValue = 0;
+	}
+
+	void setDate1904(boolean date1904) {
+		this.date1904 = date1904;
+	}
+
+	void setNumeric(double value) {
+		setType(CELL_TYPE_NUMERIC);
+		this.numericValue = value;
+	}
+
+	void setString(String value) {
+		setType(CELL_TYPE_STRING);
+		this.stringValue = value;
+		this.textBuffer = null;
+	}
+
+	/**
+	 * Sets a string value which is kept in a buffer of the reader. The string
+	 * is only created if {@link #getStringCellValue()} is called.
+	 */
+	void setString(char[] buffer, int offset, int length) {
+		setType(CELL_TYPE_STRING);
+		this.stringValue = null;
+		this.textBuffer = buffer;
+		this.textOffset = offset;
+		this.textLength = length;
+	}
+
+	/**
+	 * Returns the string value as a view into the buffer of the reader, or
+	 * null if the value isn't kept in a buffer or is empty.
+	 */
+	ExclyStringView getStringView() {
+		int type = cellType == CELL_TYPE_FORMULA ? cachedFormulaResultType : cellType;
+		if (type != CELL_TYPE_STRING || textBuffer == null || textLength == 0) {
+			return null;
+		}
+		return new ExclyStringView(textBuffer, textOffset, textLength);
+	}
+
+	void setBoolean(boolean value) {
+		setType(CELL_TYPE_BOOLEAN);
+		this.booleanValue = value;
+	}
+
+	void setError(byte value) {
+		setType(CELL_TYPE_ERROR);
+		this.errorValue = value;
+	}
+
+	/**
+	 * Marks the cell as formula cell. The value which is set afterwards is the
+	 * cached result of the formula.
+	 */
+	void setFormula() {
+		this.cellType = CELL_TYPE_FORMULA;
+	}
+
+	private void setType(int type) {
+		if (cellType == CELL_TYPE_FORMULA) {
+			cachedFormulaResultType = type;
+		} else {
+			cellType = type;
+		}
+	}
+
+	int getStyleIndex() {
+		return styleIndex;
+	}
+
+	int getFormatIndex() {
+		return formatIndex;
+	}
+
+	String getFormatString() {
+		return formatString;
+	}
+
+	boolean isDate1904() {
+		return date1904;
+	}
+
+	@Override
+	public int getColumnIndex() {
+		return columnIndex;
+	}
+
+	@Override
+	public int getRowIndex() {
+		return rowIndex;
+	}
+
+	@Override
+	public Sheet getSheet() {
+		return null;
+	}
+
+	@Override
+	public Row getRow() {
+		return null;
+	}
+
+	@Override
+	public int getCellType() {
+		return cellType;
+	}
+
+	@Override
+	public int getCachedFormulaResultType() {
+		if (cellType != CELL_TYPE_FORMULA) {
+			throw new IllegalStateException("Only formula cells have cached results");
+		}
+		return cachedFormulaResultType;
+	}
+
+	@Override
+	public String getCellFormula() {
+		return null;
+	}
+
+	@Override
+	public double getNumericCellValue() {
+		return numericValue;
+	}
+
+	@Override
+	public Date getDateCellValue() {
+		return DateUtil.getJavaDate(numericValue, date1904);
+	}
+
+	@Override
+	public RichTextString getRichStringCellValue() {
+		return new HSSFRichTextString(getStringCellValue());
+	}
+
+	@Override
+	public String getStringCellValue() {
+		if (stringValue == null && textBuffer != null) {
+			stringValue = new String(textBuffer, textOffset, textLength);
+		}
+		return stringValue;
+	}
+
+	@Override
+	public boolean getBooleanCellValue() {
+		return booleanValue;
+	}
+
+	@Override
+	public byte getErrorCellValue() {
+		return errorValue;
+	}
+
+	@Override
+	public CellStyle getCellStyle() {
+		return null;
+	}
+
+	@Override
+	public Comment getCellComment() {
+		return null;
+	}
+
+	@Override
+	public Hyperlink getHyperlink() {
+		return null;
+	}
+
+	@Override
+	public CellRangeAddress getArrayFormulaRange() {
+		throw new IllegalStateException("Streamed cells have no array formula range");
+	}
+
+	@Override
+	public boolean isPartOfArrayFormulaGroup() {
+		return false;
+	}
+
+	@Override
+	public void setCellType(int cellType) {
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	public void setCellValue(double value) {
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	public void setCellValue(Date value) {
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	public void setCellValue(Calendar value) {
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	public void setCellValue(RichTextString value) {
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	public void setCellValue(String value) {
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	public void setCellFormula(String formula) {
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	public void setCellValue(boolean value) {
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	public void setCellErrorValue(byte value) {
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	public void setCellStyle(CellStyle style) {
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	public void setAsActiveCell() {
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	public void setCellComment(Comment comment) {
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	public void removeCellComment() {
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	public void setHyperlink(Hyperlink link) {
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	public void removeHyperlink() {
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	public String toString() {
+		return "StreamingCell [" + rowIndex + ", " + columnIndex + "]";
+	}
+}
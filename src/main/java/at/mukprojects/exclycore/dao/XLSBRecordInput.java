@@ -0,0 +1,213 @@
+/** 
+ * This code is copyright (c) Mathias Markl 2015
+ * 
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ * 
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package at.mukprojects.exclycore.dao;
+
+import java.io.BufferedInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * XLSBRecordInput reads the BIFF12 records of a binary workbook part. Every
+ * record starts with its type and its size, both stored as variable length
+ * integers with seven bits per byte. The body of the current record is kept
+ * in a buffer, which is reused for the next record.
+ *
+ * @author Mathias Markl
+ */
+final class XLSBRecordInput {
+	private final InputStream input;
+
+	private byte[] buffer = new byte[256];
+	private char[] chars = new char[128];
+	private int type;
+	private int size;
+
+	/**
+	 * Constructs a new XLSBRecordInput for the stream of a workbook part.
+	 */
+	XLSBRecordInput(InputStream input) {
+		this.input = new BufferedInputStream(input, 1 << 16);
+	}
+
+	/**
+	 * Reads the next record.
+	 * 
+	 * @return Returns false if the end of the part has been reached.
+	 */
+	boolean next() throws IOException {
+		int first = input.read();
+		if (first < 0) {
+			return false;
+		}
+
+		type = first & 0x7F;
+		if ((first & 0x80) != 0) {
+			type |= (readByte() & 0x7F) << 7;
+		}
+
+		size = 0;
+		for (int shift = 0; shift < 28; shift += 7) {
+			int next = readByte();
+			size |= (next & 0x7F) << shift;
+			if ((next & 0x80) == 0) {
+				break;
+			}
+		}
+
+		if (size > buffer.length) {
+			buffer = new byte[Math.max(size, buffer.length * 2)];
+		}
+		int read = 0;
+		while (read < size) {
+			int count = input.read(buffer, read, size - read);
+			if (count < 0) {
+				throw new EOFException("The record " + type + " ends after " + read + " of " + size + " bytes.");
+			}
+			read += count;
+		}
+
+		return true;
+	}
+
+	/**
+	 * Returns the type of the current record.
+	 */
+	int getType() {
+		return type;
+	}
+
+	/**
+	 * Returns the size of the body of the current record.
+	 */
+	int getSize() {
+		return size;
+	}
+
+	/**
+	 * Reads an unsigned byte of the body.
+	 */
+	int readUnsignedByte(int offset) {
+		return buffer[offset] & 0xFF;
+	}
+
+	/**
+	 * Reads an unsigned 16 bit integer of the body.
+	 */
+	int readUnsignedShort(int offset) {
+		return (buffer[offset] & 0xFF) | (buffer[offset + 1] & 0xFF) << 8;
+	}
+
+	/**
+	 * Reads a 32 bit integer of the body.
+	 */
+	int readInt(int offset) {
+		return (buffer[offset] & 0xFF) | (buffer[offset + 1] & 0xFF) << 8 | (buffer[offset + 2] & 0xFF) << 16
+				| (buffer[offset + 3] & 0xFF) << 24;
+	}
+
+	/**
+	 * Reads an IEEE double of the body.
+	 */
+	double readDouble(int offset) {
+		long low = readInt(offset) & 0xFFFFFFFFL;
+		long high = readInt(offset + 4) & 0xFFFFFFFFL;
+		return Double.longBitsToDouble(high << 32 | low);
+	}
+
+	/**
+	 * Reads an RkNumber of the body. The two lowest bits mark a value divided
+	 * by 100 and an integer instead of the upper bits of a double.
+	 */
+	double readRkNumber(int offset) {
+		int rk = readInt(offset);
+
+		double value;
+		if ((rk & 0x02) != 0) {
+			value = rk >> 2;
+		} else {
+			value = Double.longBitsToDouble((long) (rk & 0xFFFFFFFC) << 32);
+		}
+
+		return (rk & 0x01) != 0 ? value / 100 : value;
+	}
+
+	/**
+	 * Reads an XLWideString of the body, a character count followed by UTF-16
+	 * characters. A nullable string with the count 0xFFFFFFFF is read as null.
+	 */
+	String readWideString(int offset) {
+		int length = readInt(offset);
+		if (length == -1) {
+			return null;
+		}
+		if (length < 0 || offset + 4 + 2L * length > size) {
+			throw new IllegalStateException("The string of the record " + type + " exceeds the record.");
+		}
+		return new String(buffer, offset + 4, length * 2, StandardCharsets.UTF_16LE);
+	}
+
+	/**
+	 * Decodes an XLWideString of the body into the character buffer, which is
+	 * reused for the next string. A nullable string with the count 0xFFFFFFFF
+	 * returns -1.
+	 * 
+	 * @return Returns the number of decoded characters.
+	 */
+	int readWideChars(int offset) {
+		int length = readInt(offset);
+		if (length == -1) {
+			return -1;
+		}
+		if (length < 0 || offset + 4 + 2L * length > size) {
+			throw new IllegalStateException("The string of the record " + type + " exceeds the record.");
+		}
+
+		if (length > chars.length) {
+			chars = new char[Math.max(length, chars.length * 2)];
+		}
+		for (int i = 0, position = offset + 4; i < length; i++, position += 2) {
+			chars[i] = (char) ((buffer[position] & 0xFF) | (buffer[position + 1] & 0xFF) << 8);
+		}
+		return length;
+	}
+
+	/**
+	 * Returns the character buffer of {@link #readWideChars(int)}.
+	 */
+	char[] getChars() {
+		return chars;
+	}
+
+	/**
+	 * Returns the size of the XLWideString at the offset in bytes.
+	 */
+	int getWideStringSize(int offset) {
+		int length = readInt(offset);
+		return length == -1 ? 4 : 4 + 2 * length;
+	}
+
+	private int readByte() throws IOException {
+		int next = input.read();
+		if (next < 0) {
+			throw new EOFException("The record header ends unexpectedly.");
+		}
+		return next;
+	}
+}
@@ -0,0 +1,378 @@
+/** 
+ * This code is copyright (c) Mathias Markl 2015
+ * 
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ * 
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package at.mukprojects.exclycore.dao;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.poi.openxml4j.exceptions.InvalidFormatException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.openxml4j.opc.PackagePart;
+import org.apache.poi.openxml4j.opc.PackageRelationship;
+import org.apache.poi.openxml4j.opc.PackageRelationshipCollection;
+import org.apache.poi.openxml4j.opc.PackageRelationshipTypes;
+import org.apache.poi.ss.usermodel.BuiltinFormats;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.xssf.usermodel.XSSFRelation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * XLSBStreamReader is an abstract helper class to extract data from binary
+ * Excel (.xlsb) files. The BIFF12 records of the workbook, the shared strings,
+ * the styles and the sheets are decoded while they are read, the sheets are
+ * never loaded into memory as a whole. Every cell is handed to
+ * {@link #processCell(Cell)}.
+ *
+ * @author Mathias Markl
+ */
+public abstract class XLSBStreamReader extends AbstractStreamReader {
+	private static final Logger log = LoggerFactory.getLogger(XLSBStreamReader.class);
+
+	private static final int BRT_ROW_HDR = 0;
+	private static final int BRT_CELL_BLANK = 1;
+	private static final int BRT_CELL_RK = 2;
+	private static final int BRT_CELL_ERROR = 3;
+	private static final int BRT_CELL_BOOL = 4;
+	private static final int BRT_CELL_REAL = 5;
+	private static final int BRT_CELL_ST = 6;
+	private static final int BRT_CELL_ISST = 7;
+	private static final int BRT_FMLA_STRING = 8;
+	private static final int BRT_FMLA_NUM = 9;
+	private static final int BRT_FMLA_BOOL = 10;
+	private static final int BRT_FMLA_ERROR = 11;
+	private static final int BRT_SHORT_BLANK = 12;
+	private static final int BRT_SHORT_RK = 13;
+	private static final int BRT_SHORT_ERROR = 14;
+	private static final int BRT_SHORT_BOOL = 15;
+	private static final int BRT_SHORT_REAL = 16;
+	private static final int BRT_SHORT_ST = 17;
+	private static final int BRT_SHORT_ISST = 18;
+	private static final int BRT_SST_ITEM = 19;
+	private static final int BRT_FMT = 44;
+	private static final int BRT_XF = 47;
+	private static final int BRT_CELL_RSTRING = 62;
+	private static final int BRT_WB_PROP = 153;
+	private static final int BRT_BUNDLE_SH = 156;
+	private static final int BRT_BEGIN_SST = 159;
+	private static final int BRT_BEGIN_CELL_XFS = 617;
+	private static final int BRT_END_CELL_XFS = 618;
+
+	/**
+	 * Reads all sheets of the file.
+	 * 
+	 * @param file
+	 *            The Excel (.xlsb) file.
+	 * @throws IOException
+	 *             If the file can't be read or isn't a binary workbook.
+	 */
+	public void read(File file) throws IOException {
+		beginWorkbook(file);
+		try {
+			OPCPackage container;
+			try {
+				container = OPCPackage.open(file, PackageAccess.READ);
+			} catch (InvalidFormatException e) {
+				throw new IOException("The file " + file + " isn't a binary workbook.", e);
+			}
+
+			try {
+				read(container);
+			} finally {
+				container.revert();
+			}
+		} finally {
+			endWorkbook();
+		}
+	}
+
+	/**
+	 * Reads all sheets of the stream. The stream is copied into a temporary
+	 * file first, so the parts of the workbook are never held in memory.
+	 * 
+	 * @param inputStream
+	 *            The Excel (.xlsb) stream.
+	 * @throws IOException
+	 *             If the stream can't be read or isn't a binary workbook.
+	 */
+	public void read(InputStream inputStream) throws IOException {
+		File file = spool(inputStream);
+		try {
+			read(file);
+		} finally {
+			file.delete();
+		}
+	}
+
+	private void read(OPCPackage container) throws IOException {
+		try {
+			PackageRelationshipCollection documents = container
+					.getRelationshipsByType(PackageRelationshipTypes.CORE_DOCUMENT);
+			if (documents.size() == 0) {
+				throw new IOException("The package has no workbook part.");
+			}
+			PackagePart workbookPart = container.getPart(documents.getRelationship(0));
+
+			List<String[]> sheets = readWorkbook(workbookPart);
+			String[] sharedStrings = readSharedStrings(relatedPart(workbookPart, XSSFRelation.SHARED_STRINGS));
+			Styles styles = readStyles(relatedPart(workbookPart, XSSFRelation.STYLES));
+
+			for (int i = 0; i < sheets.size(); i++) {
+				String name = sheets.get(i)[0];
+				PackageRelationship relationship = workbookPart.getRelationship(sheets.get(i)[1]);
+				if (relationship == null || !XSSFRelation.WORKSHEET.getRelation().equals(
+						relationship.getRelationshipType())) {
+					log.debug("Skipped the sheet " + name + ", it isn't a worksheet.");
+					continue;
+				}
+
+				beginSheet(i, name);
+				InputStream input = workbookPart.getRelatedPart(relationship).getInputStream();
+				try {
+					readSheet(new XLSBRecordInput(input), sharedStrings, styles);
+				} finally {
+					input.close();
+				}
+				finishSheet(i, name);
+			}
+		} catch (InvalidFormatException e) {
+			throw new IOException("The package isn't a valid binary workbook.", e);
+		}
+	}
+
+	/**
+	 * Reads the names and relationship ids of the sheets and the date system.
+	 */
+	private List<String[]> readWorkbook(PackagePart workbookPart) throws IOException {
+		List<String[]> sheets = new ArrayList<String[]>();
+		setDate1904(false);
+
+		InputStream input = workbookPart.getInputStream();
+		try {
+			XLSBRecordInput records = new XLSBRecordInput(input);
+			while (records.next()) {
+				if (records.getType() == BRT_WB_PROP) {
+					setDate1904((records.readInt(0) & 0x01) != 0);
+				} else if (records.getType() == BRT_BUNDLE_SH) {
+					String relationshipId = records.readWideString(8);
+					String name = records.readWideString(8 + records.getWideStringSize(8));
+					sheets.add(new String[] { name, relationshipId });
+				}
+			}
+		} finally {
+			input.close();
+		}
+
+		return sheets;
+	}
+
+	private String[] readSharedStrings(PackagePart part) throws IOException {
+		if (part == null) {
+			return new String[0];
+		}
+
+		String[] strings = new String[16];
+		int count = 0;
+
+		InputStream input = part.getInputStream();
+		try {
+			XLSBRecordInput records = new XLSBRecordInput(input);
+			while (records.next()) {
+				if (records.getType() == BRT_BEGIN_SST) {
+					int unique = records.readInt(4);
+					if (unique > strings.length) {
+						strings = new String[unique];
+					}
+				} else if (records.getType() == BRT_SST_ITEM) {
+					if (count == strings.length) {
+						strings = Arrays.copyOf(strings, count * 2);
+					}
+					strings[count++] = records.readWideString(1);
+				}
+			}
+		} finally {
+			input.close();
+		}
+
+		return Arrays.copyOf(strings, count);
+	}
+
+	private Styles readStyles(PackagePart part) throws IOException {
+		Styles styles = new Styles();
+		if (part == null) {
+			return styles;
+		}
+
+		InputStream input = part.getInputStream();
+		try {
+			XLSBRecordInput records = new XLSBRecordInput(input);
+			boolean cellXfs = false;
+			while (records.next()) {
+				if (records.getType() == BRT_FMT) {
+					styles.formats.put(records.readUnsignedShort(0), records.readWideString(2));
+				} else if (records.getType() == BRT_BEGIN_CELL_XFS) {
+					cellXfs = true;
+				} else if (records.getType() == BRT_END_CELL_XFS) {
+					cellXfs = false;
+				} else if (records.getType() == BRT_XF && cellXfs) {
+					styles.add(records.readUnsignedShort(2));
+				}
+			}
+		} finally {
+			input.close();
+		}
+
+		return styles;
+	}
+
+	/**
+	 * Reads the cell records of a sheet. The short cell records have no
+	 * column, they follow the previous cell of the row.
+	 */
+	private void readSheet(XLSBRecordInput records, String[] sharedStrings, Styles styles) throws IOException {
+		StreamingCell cell = getStreamingCell();
+		int rowIndex = 0;
+		int columnIndex = -1;
+
+		while (records.next()) {
+			int type = records.getType();
+			if (type == BRT_ROW_HDR) {
+				rowIndex = records.readInt(0);
+				columnIndex = -1;
+				continue;
+			}
+
+			int offset;
+			if (type >= BRT_SHORT_BLANK && type <= BRT_SHORT_ISST) {
+				offset = 4;
+				columnIndex++;
+			} else if (type <= BRT_FMLA_ERROR || type == BRT_CELL_RSTRING) {
+				offset = 8;
+				columnIndex = records.readInt(0);
+			} else {
+				continue;
+			}
+
+			int styleIndex = records.readInt(offset - 4) & 0xFFFFFF;
+			int formatIndex = styles.getFormatIndex(styleIndex);
+			cell.reset(rowIndex, columnIndex, styleIndex, formatIndex, styles.getFormatString(formatIndex));
+			if (type >= BRT_FMLA_STRING && type <= BRT_FMLA_ERROR) {
+				cell.setFormula();
+			}
+
+			switch (type) {
+			case BRT_CELL_RK:
+			case BRT_SHORT_RK:
+				cell.setNumeric(records.readRkNumber(offset));
+				break;
+			case BRT_CELL_ERROR:
+			case BRT_FMLA_ERROR:
+			case BRT_SHORT_ERROR:
+				cell.setError((byte) records.readUnsignedByte(offset));
+				break;
+			case BRT_CELL_BOOL:
+			case BRT_FMLA_BOOL:
+			case BRT_SHORT_BOOL:
+				cell.setBoolean(records.readUnsignedByte(offset) != 0);
+				break;
+			case BRT_CELL_REAL:
+			case BRT_FMLA_NUM:
+			case BRT_SHORT_REAL:
+				cell.setNumeric(records.readDouble(offset));
+				break;
+			case BRT_CELL_ST:
+			case BRT_FMLA_STRING:
+			case BRT_SHORT_ST:
+				setString(cell, records, offset);
+				break;
+			case BRT_CELL_RSTRING:
+				// The RichStr starts with a byte of flags, the runs follow the text.
+				setString(cell, records, offset + 1);
+				break;
+			case BRT_CELL_ISST:
+			case BRT_SHORT_ISST:
+				int index = records.readInt(offset);
+				if (index < 0 || index >= sharedStrings.length) {
+					log.warn("The reader was unable to find the shared string " + index + " of the cell [Row, Column] ("
+							+ cell.getRowIndex() + ", " + cell.getColumnIndex() + ")");
+					cell.setError((byte) 0x0F);
+				} else {
+					cell.setString(sharedStrings[index]);
+				}
+				break;
+			default:
+				break;
+			}
+
+			handleCell(cell);
+		}
+	}
+
+	private void setString(StreamingCell cell, XLSBRecordInput records, int offset) {
+		int length = records.readWideChars(offset);
+		if (length < 0) {
+			cell.setString(null);
+		} else {
+			cell.setString(records.getChars(), 0, length);
+		}
+	}
+
+	private PackagePart relatedPart(PackagePart part, XSSFRelation relation) throws InvalidFormatException {
+		PackageRelationshipCollection relationships = part.getRelationshipsByType(relation.getRelation());
+		if (relationships.size() == 0) {
+			return null;
+		}
+		return part.getRelatedPart(relationships.getRelationship(0));
+	}
+
+	/**
+	 * The number formats of the cell styles. Custom formats are looked up by
+	 * their index, all other formats are built in formats.
+	 */
+	private static final class Styles {
+		private final Map<Integer, String> formats = new HashMap<Integer, String>();
+		private int[] formatIndexes = new int[16];
+		private int size;
+
+		private void add(int formatIndex) {
+			if (size == formatIndexes.length) {
+				formatIndexes = Arrays.copyOf(formatIndexes, size * 2);
+			}
+			formatIndexes[size++] = formatIndex;
+		}
+
+		private int getFormatIndex(int styleIndex) {
+			return styleIndex < size ? formatIndexes[styleIndex] : 0;
+		}
+
+		private String getFormatString(int formatIndex) {
+			String format = formats.get(formatIndex);
+			if (format == null) {
+				format = BuiltinFormats.getBuiltinFormat(formatIndex);
+			}
+			return format == null ? "General" : format;
+		}
+	}
+}
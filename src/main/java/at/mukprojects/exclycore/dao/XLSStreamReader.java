@@ -0,0 +1,265 @@
+/** 
+ * This code is copyright (c) Mathias Markl 2015
+ * 
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ * 
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package at.mukprojects.exclycore.dao;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.poi.hssf.eventusermodel.FormatTrackingHSSFListener;
+import org.apache.poi.hssf.eventusermodel.HSSFEventFactory;
+import org.apache.poi.hssf.eventusermodel.HSSFListener;
+import org.apache.poi.hssf.eventusermodel.HSSFRequest;
+import org.apache.poi.hssf.record.ArrayRecord;
+import org.apache.poi.hssf.record.BOFRecord;
+import org.apache.poi.hssf.record.BlankRecord;
+import org.apache.poi.hssf.record.BoolErrRecord;
+import org.apache.poi.hssf.record.BoundSheetRecord;
+import org.apache.poi.hssf.record.CellValueRecordInterface;
+import org.apache.poi.hssf.record.DateWindow1904Record;
+import org.apache.poi.hssf.record.EOFRecord;
+import org.apache.poi.hssf.record.FormulaRecord;
+import org.apache.poi.hssf.record.LabelRecord;
+import org.apache.poi.hssf.record.LabelSSTRecord;
+import org.apache.poi.hssf.record.NumberRecord;
+import org.apache.poi.hssf.record.Record;
+import org.apache.poi.hssf.record.SSTRecord;
+import org.apache.poi.hssf.record.SharedFormulaRecord;
+import org.apache.poi.hssf.record.StringRecord;
+import org.apache.poi.hssf.record.TableRecord;
+import org.apache.poi.poifs.filesystem.NPOIFSFileSystem;
+import org.apache.poi.ss.usermodel.Cell;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * XLSStreamReader is an abstract helper class to extract data from large
+ * legacy Excel (.xls) files. The file is read record by record with the HSSF
+ * event model instead of loading the whole workbook into memory. Every cell is
+ * handed to {@link #processCell(Cell)}.
+ *
+ * @author Mathias Markl
+ */
+public abstract class XLSStreamReader extends AbstractStreamReader {
+	private static final Logger log = LoggerFactory.getLogger(XLSStreamReader.class);
+
+	/**
+	 * Reads all sheets of the file.
+	 * 
+	 * @param file
+	 *            The Excel (.xls) file.
+	 * @throws IOException
+	 *             If the file can't be read.
+	 */
+	public void read(File file) throws IOException {
+		beginWorkbook(file);
+		try {
+			NPOIFSFileSystem fileSystem = new NPOIFSFileSystem(file, true);
+			try {
+				read(fileSystem);
+			} finally {
+				fileSystem.close();
+			}
+		} finally {
+			endWorkbook();
+		}
+	}
+
+	/**
+	 * Reads all sheets of the stream. The stream is buffered completely, use
+	 * {@link #read(File)} for large files.
+	 * 
+	 * @param inputStream
+	 *            The Excel (.xls) stream.
+	 * @throws IOException
+	 *             If the stream can't be read.
+	 */
+	public void read(InputStream inputStream) throws IOException {
+		beginWorkbook(null);
+		try {
+			NPOIFSFileSystem fileSystem = new NPOIFSFileSystem(inputStream);
+			try {
+				read(fileSystem);
+			} finally {
+				fileSystem.close();
+			}
+		} finally {
+			endWorkbook();
+		}
+	}
+
+	private void read(NPOIFSFileSystem fileSystem) throws IOException {
+		setDate1904(false);
+
+		HSSFRequest request = new HSSFRequest();
+		request.addListenerForAllRecords(createListener());
+		new HSSFEventFactory().processWorkbookEvents(request, fileSystem.getRoot());
+	}
+
+	/**
+	 * Creates the listener which translates the records of a workbook into
+	 * cells.
+	 */
+	HSSFListener createListener() {
+		RecordHandler handler = new RecordHandler();
+		handler.formats = new FormatTrackingHSSFListener(handler);
+		return handler.formats;
+	}
+
+	/**
+	 * Translates the records of the file into cells. The format of every cell
+	 * is tracked by the wrapping FormatTrackingHSSFListener.
+	 */
+	private final class RecordHandler implements HSSFListener {
+		private final StreamingCell cell = getStreamingCell();
+		private FormatTrackingHSSFListener formats;
+
+		private final List<String> sheetNames = new ArrayList<String>();
+		private SSTRecord sharedStrings;
+		private int depth;
+		private int sheetIndex = -1;
+		private boolean worksheet;
+		private boolean pendingString;
+
+		@Override
+		public void processRecord(Record record) {
+			switch (record.getSid()) {
+			case BOFRecord.sid:
+				depth++;
+				if (depth == 1 && ((BOFRecord) record).getType() != BOFRecord.TYPE_WORKBOOK) {
+					sheetIndex++;
+					worksheet = ((BOFRecord) record).getType() == BOFRecord.TYPE_WORKSHEET;
+					if (worksheet) {
+						beginSheet(sheetIndex, sheetName());
+					}
+				}
+				break;
+			case EOFRecord.sid:
+				if (depth == 1 && worksheet) {
+					worksheet = false;
+					finishSheet(sheetIndex, sheetName());
+				}
+				depth--;
+				break;
+			case BoundSheetRecord.sid:
+				sheetNames.add(((BoundSheetRecord) record).getSheetname());
+				break;
+			case SSTRecord.sid:
+				sharedStrings = (SSTRecord) record;
+				break;
+			case DateWindow1904Record.sid:
+				setDate1904(((DateWindow1904Record) record).getWindowing() == 1);
+				break;
+			default:
+				if (depth == 1 && worksheet) {
+					processCellRecord(record);
+				}
+			}
+		}
+
+		/**
+		 * The cached result of a string formula follows in a STRING record.
+		 * The SHRFMLA, ARRAY or TABLE record of the formula can come first,
+		 * so these are skipped until the STRING record arrives.
+		 */
+		private void processCellRecord(Record record) {
+			if (pendingString) {
+				switch (record.getSid()) {
+				case StringRecord.sid:
+					pendingString = false;
+					cell.setString(((StringRecord) record).getString());
+					handleCell(cell);
+					return;
+				case SharedFormulaRecord.sid:
+				case ArrayRecord.sid:
+				case TableRecord.sid:
+					return;
+				default:
+					pendingString = false;
+					log.warn("The reader was unable to find the string result of the formula cell [Row, Column] ("
+							+ cell.getRowIndex() + ", " + cell.getColumnIndex() + ")");
+					cell.setString("");
+					handleCell(cell);
+				}
+			}
+
+			switch (record.getSid()) {
+			case NumberRecord.sid:
+				reset((NumberRecord) record);
+				cell.setNumeric(((NumberRecord) record).getValue());
+				break;
+			case LabelSSTRecord.sid:
+				reset((LabelSSTRecord) record);
+				cell.setString(sharedStrings.getString(((LabelSSTRecord) record).getSSTIndex()).getString());
+				break;
+			case LabelRecord.sid:
+				reset((LabelRecord) record);
+				cell.setString(((LabelRecord) record).getValue());
+				break;
+			case BlankRecord.sid:
+				reset((BlankRecord) record);
+				break;
+			case BoolErrRecord.sid:
+				BoolErrRecord boolErr = (BoolErrRecord) record;
+				reset(boolErr);
+				if (boolErr.isBoolean()) {
+					cell.setBoolean(boolErr.getBooleanValue());
+				} else {
+					cell.setError(boolErr.getErrorValue());
+				}
+				break;
+			case FormulaRecord.sid:
+				FormulaRecord formula = (FormulaRecord) record;
+				reset(formula);
+				cell.setFormula();
+				if (formula.hasCachedResultString()) {
+					pendingString = true;
+					return;
+				} else if (formula.getCachedResultType() == Cell.CELL_TYPE_BOOLEAN) {
+					cell.setBoolean(formula.getCachedBooleanValue());
+				} else if (formula.getCachedResultType() == Cell.CELL_TYPE_ERROR) {
+					cell.setError((byte) formula.getCachedErrorValue());
+				} else if (formula.getCachedResultType() == Cell.CELL_TYPE_STRING) {
+					cell.setString("");
+				} else {
+					cell.setNumeric(formula.getValue());
+				}
+				break;
+			default:
+				return;
+			}
+
+			handleCell(cell);
+		}
+
+		private void reset(CellValueRecordInterface record) {
+			cell.reset(record.getRow(), record.getColumn(), record.getXFIndex(), formats.getFormatIndex(record),
+					formats.getFormatString(record));
+		}
+
+		private String sheetName() {
+			if (sheetIndex < sheetNames.size()) {
+				return sheetNames.get(sheetIndex);
+			}
+			log.warn("The reader was unable to find the name of the sheet " + sheetIndex + ".");
+			return null;
+		}
+	}
+}
@@ -17,22 +17,54 @@
 
 package at.mukprojects.exclycore.dao;
 
+import java.io.InputStream;
 import java.text.NumberFormat;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.util.Date;
 import java.util.Locale;
+import java.util.function.Function;
+import java.util.function.IntFunction;
 
+import org.apache.poi.hssf.record.DateWindow1904Record;
+import org.apache.poi.hssf.record.EOFRecord;
+import org.apache.poi.hssf.record.Record;
+import org.apache.poi.hssf.record.RecordFactoryInputStream;
+import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.apache.poi.poifs.filesystem.DirectoryNode;
 import org.apache.poi.ss.usermodel.Cell;
-import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.ss.util.CellRangeAddress;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.apache.poi.xssf.usermodel.XSSFCell;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.openxmlformats.schemas.spreadsheetml.x2006.main.CTWorkbookPr;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import at.mukprojects.exclycore.helper.ExclyDateConverter;
+import at.mukprojects.exclycore.helper.ExclyEvents;
+import at.mukprojects.exclycore.helper.ExclyFormulaEvaluator;
+import at.mukprojects.exclycore.helper.ExclyMetrics;
+import at.mukprojects.exclycore.helper.ExclyMetrics.Branch;
+import at.mukprojects.exclycore.helper.ExclyMetrics.ReadType;
+import at.mukprojects.exclycore.helper.ExclyNumberFormatter;
+import at.mukprojects.exclycore.helper.ExclyNumberParser;
+import at.mukprojects.exclycore.helper.MergedRegionIndex;
+import at.mukprojects.exclycore.model.ExclyBoolean;
+import at.mukprojects.exclycore.model.ExclyBooleanBlank;
+import at.mukprojects.exclycore.model.ExclyBooleanError;
 import at.mukprojects.exclycore.model.ExclyDate;
 import at.mukprojects.exclycore.model.ExclyDateBlank;
 import at.mukprojects.exclycore.model.ExclyDateError;
+import at.mukprojects.exclycore.model.ExclyDecimal;
+import at.mukprojects.exclycore.model.ExclyDecimalBlank;
+import at.mukprojects.exclycore.model.ExclyDecimalError;
 import at.mukprojects.exclycore.model.ExclyDouble;
 import at.mukprojects.exclycore.model.ExclyDoubleBlank;
+import at.mukprojects.exclycore.model.ExclyDoubleColumn;
 import at.mukprojects.exclycore.model.ExclyDoubleError;
 import at.mukprojects.exclycore.model.ExclyInteger;
 import at.mukprojects.exclycore.model.ExclyIntegerBlank;
@@ -46,6 +78,11 @@ import at.mukprojects.exclycore.model.ExclyStringError;
 /**
  * XLSXReader is an abstract helper class. It can be extended by any other class
  * to extract data from an Excel (.xlsx) file.
+ * 
+ * The reader caches the date system, the cell formats, the merged regions and
+ * the formula evaluator of the workbook it reads. These caches are replaced
+ * without synchronization when a cell of another workbook is read, so a reader
+ * is not thread-safe. Use one reader per thread.
  *
  * @author Mathias Markl
  */
@@ -61,6 +98,325 @@ public abstract class XLSXReader {
 			"MM/dd/yyyy'T'HH:mm:ss.SSS", "MM/dd/yyyy'T'HH:mm:ssZ", "MM/dd/yyyy'T'HH:mm:ss", "yyyy:MM:dd HH:mm:ss",
 			"yyyyMMdd", "dd.MM.yyyy", "MM/dd/yyyy" };
 
+	/**
+	 * Doubles at or above this limit can't represent every long.
+	 */
+	private static final double EXACT_DOUBLE_LIMIT = 0x1p53;
+
+	/**
+	 * Doubles at or above this limit, or below its negative, don't fit into a
+	 * long.
+	 */
+	private static final double LONG_LIMIT = 0x1p63;
+
+	/**
+	 * Blank and error values are immutable, so every read returns the same
+	 * instances and reading blank or error cells allocates nothing.
+	 */
+	private static final ExclyString STRING_EMPTY = new ExclyString("");
+	private static final ExclyString STRING_ERROR = new ExclyStringError();
+	private static final ExclyDouble DOUBLE_BLANK = new ExclyDoubleBlank();
+	private static final ExclyDouble DOUBLE_ERROR = new ExclyDoubleError();
+	private static final ExclyDecimal DECIMAL_BLANK = new ExclyDecimalBlank();
+	private static final ExclyDecimal DECIMAL_ERROR = new ExclyDecimalError();
+	private static final ExclyInteger INTEGER_BLANK = new ExclyIntegerBlank();
+	private static final ExclyInteger INTEGER_ERROR = new ExclyIntegerError();
+	private static final ExclyLong LONG_BLANK = new ExclyLongBlank();
+	private static final ExclyLong LONG_ERROR = new ExclyLongError();
+	private static final ExclyDate DATE_BLANK = new ExclyDateBlank();
+	private static final ExclyDate DATE_ERROR = new ExclyDateError();
+	private static final ExclyBoolean BOOLEAN_BLANK = new ExclyBooleanBlank();
+	private static final ExclyBoolean BOOLEAN_ERROR = new ExclyBooleanError();
+
+	private Workbook workbook;
+	private ExclyDateConverter dateConverter;
+	private DateFormatCache dateFormatCache;
+	private DisplayFormatCache displayFormatCache;
+
+	private boolean resolveMergedRegions;
+	private MergedRegionIndex mergedRegionIndex;
+
+	private boolean evaluateFormulas;
+	private ExclyFormulaEvaluator formulaEvaluator;
+
+	/**
+	 * Sets if formula cells without a cached result are evaluated. Some tools
+	 * write workbooks without calculating them, these formula cells are read
+	 * as zero or blank otherwise. The evaluated result is stored in the cell.
+	 * 
+	 * @param evaluateFormulas
+	 *            Set this parameter to evaluate formulas without a result.
+	 */
+	public void setEvaluateFormulas(boolean evaluateFormulas) {
+		this.evaluateFormulas = evaluateFormulas;
+	}
+
+	/**
+	 * Checks if formula cells without a cached result are evaluated.
+	 * 
+	 * @return Returns true if formulas are evaluated, otherwise it will return
+	 *         false.
+	 */
+	public boolean isEvaluateFormulas() {
+		return evaluateFormulas;
+	}
+
+	/**
+	 * Sets if cells inside a merged region are read from the top left cell of
+	 * the region, which holds the value of the whole region. Range reads
+	 * resolve missing cells inside a merged region too, a region without a
+	 * top left cell is read as blank. The merged regions of a sheet are
+	 * indexed with the first cell of the sheet.
+	 * 
+	 * @param resolveMergedRegions
+	 *            Set this parameter to read merged cells from their region.
+	 */
+	public void setResolveMergedRegions(boolean resolveMergedRegions) {
+		this.resolveMergedRegions = resolveMergedRegions;
+		this.mergedRegionIndex = null;
+	}
+
+	/**
+	 * Checks if cells inside a merged region are read from the top left cell
+	 * of the region.
+	 * 
+	 * @return Returns true if merged regions are resolved, otherwise it will
+	 *         return false.
+	 */
+	public boolean isResolveMergedRegions() {
+		return resolveMergedRegions;
+	}
+
+	/**
+	 * Resolves the cell which holds the value of the given cell. If merged
+	 * regions are resolved, this is the top left cell of the merged region,
+	 * otherwise it's the cell itself. If the top left cell doesn't exist, the
+	 * cell is read as blank. The index of the merged regions is created again
+	 * if the sheet or the number of its merged regions changes.
+	 * 
+	 * @param cell
+	 *            The Excel cell.
+	 * @return Returns the cell which holds the value.
+	 */
+	protected Cell resolveMergedCell(Cell cell) {
+		if (!resolveMergedRegions || cell == null || cell.getSheet() == null) {
+			return cell;
+		}
+
+		return resolveMergedCell(cell.getSheet(), cell.getRowIndex(), cell.getColumnIndex(), cell);
+	}
+
+	/**
+	 * Resolves the cell which holds the value of the position. The cell at the
+	 * position may be null, a merged position without a top left cell is read
+	 * from a blank cell.
+	 */
+	private Cell resolveMergedCell(Sheet sheet, int rowIndex, int columnIndex, Cell cell) {
+		if (mergedRegionIndex == null || mergedRegionIndex.getSheet() != sheet
+				|| mergedRegionIndex.size() != sheet.getNumMergedRegions()) {
+			mergedRegionIndex = new MergedRegionIndex(sheet);
+		}
+
+		CellRangeAddress region = mergedRegionIndex.getMergedRegion(rowIndex, columnIndex);
+		if (region == null) {
+			return cell;
+		}
+
+		Cell topLeft = mergedRegionIndex.getTopLeftCell(region);
+		if (topLeft == null) {
+			StreamingCell blank = new StreamingCell();
+			blank.reset(rowIndex, columnIndex, 0, 0, "General");
+			return blank;
+		}
+		return topLeft;
+	}
+
+	/**
+	 * Returns the cell of a range read. Missing cells inside a merged region
+	 * are resolved here, all other cells by the read methods.
+	 */
+	private Cell getRangeCell(Sheet sheet, Row row, int rowIndex, int columnIndex) {
+		Cell cell = row == null ? null : row.getCell(columnIndex);
+		if (cell == null && resolveMergedRegions) {
+			return resolveMergedCell(sheet, rowIndex, columnIndex, null);
+		}
+		return cell;
+	}
+
+	/**
+	 * Resets the cached workbook information if the cell belongs to another
+	 * workbook than the previous one.
+	 */
+	private void useWorkbookOf(Cell cell) {
+		Workbook cellWorkbook = cell.getSheet().getWorkbook();
+
+		if (cellWorkbook != workbook) {
+			workbook = cellWorkbook;
+			dateConverter = null;
+			dateFormatCache = new DateFormatCache();
+			displayFormatCache = null;
+			formulaEvaluator = null;
+		}
+	}
+
+	/**
+	 * Returns the formula evaluator for the workbook of the given cell. It can
+	 * be used to calculate the dependent formulas again after a cell has been
+	 * edited.
+	 * 
+	 * @param cell
+	 *            The Excel cell.
+	 * @return Returns the formula evaluator of the workbook.
+	 */
+	protected ExclyFormulaEvaluator getFormulaEvaluator(Cell cell) {
+		useWorkbookOf(cell);
+
+		if (formulaEvaluator == null) {
+			formulaEvaluator = new ExclyFormulaEvaluator(workbook);
+		}
+
+		return formulaEvaluator;
+	}
+
+	/**
+	 * Returns the result type of the formula cell. If formulas are evaluated
+	 * and the cell has no cached result, the formula is evaluated first.
+	 * 
+	 * @param cell
+	 *            The Excel formula cell.
+	 * @return Returns the cell type of the formula result.
+	 */
+	protected int getCachedFormulaResultType(Cell cell) {
+		if (evaluateFormulas) {
+			return getFormulaEvaluator(cell).getCachedFormulaResultType(cell);
+		}
+
+		return cell.getCachedFormulaResultType();
+	}
+
+	/**
+	 * Returns the date converter for the workbook of the given cell. The date
+	 * system of the workbook is detected once and reused for all following
+	 * cells of the same workbook.
+	 * 
+	 * @param cell
+	 *            The Excel cell.
+	 * @return Returns the date converter of the workbook.
+	 */
+	protected ExclyDateConverter getDateConverter(Cell cell) {
+		useWorkbookOf(cell);
+
+		if (dateConverter == null) {
+			dateConverter = new ExclyDateConverter(isDate1904(workbook, cell));
+		}
+
+		return dateConverter;
+	}
+
+	/**
+	 * Checks if the cell contains a valid date and has a date format. The
+	 * result is cached per cell style of the workbook, so the format string of
+	 * a style is only parsed once.
+	 * 
+	 * @param cell
+	 *            The Excel cell.
+	 * @return Returns true if the cell is date formatted, otherwise it will
+	 *         return false.
+	 */
+	protected boolean isCellDateFormatted(Cell cell) {
+		useWorkbookOf(cell);
+
+		return dateFormatCache.isCellDateFormatted(cell);
+	}
+
+	/**
+	 * Formats the value of a numeric cell with the number format of its style.
+	 * The format of every cell style is compiled once and reused for all
+	 * following cells with the same style.
+	 * 
+	 * @param cell
+	 *            The Excel cell.
+	 * @return Returns the value as it is displayed by Excel.
+	 */
+	protected String formatNumericCellValue(Cell cell) {
+		boolean dateFormatted = isCellDateFormatted(cell);
+		if (dateFormatted) {
+			ExclyMetrics.recordBranch(Branch.DATE_FORMATTED_CELL);
+		}
+
+		if (displayFormatCache == null) {
+			displayFormatCache = new DisplayFormatCache();
+		}
+
+		return displayFormatCache.formatNumericCellValue(cell, dateFormatted, getDateConverter(cell));
+	}
+
+	/**
+	 * Detects the date system of the workbook. XSSF workbooks carry it in the
+	 * workbook properties, HSSF workbooks in the DateWindow1904 record of the
+	 * workbook stream. Other workbooks keep it internal, so it's derived from
+	 * the date POI returns for a numeric cell. If this isn't possible, the
+	 * 1900 date system is used.
+	 */
+	private boolean isDate1904(Workbook workbook, Cell cell) {
+		if (workbook instanceof SXSSFWorkbook) {
+			workbook = ((SXSSFWorkbook) workbook).getXSSFWorkbook();
+		}
+
+		if (workbook instanceof XSSFWorkbook) {
+			CTWorkbookPr workbookPr = ((XSSFWorkbook) workbook).getCTWorkbook().getWorkbookPr();
+			return workbookPr != null && workbookPr.getDate1904();
+		}
+
+		if (workbook instanceof HSSFWorkbook) {
+			return isDate1904((HSSFWorkbook) workbook);
+		}
+
+		if (cell.getCellType() == Cell.CELL_TYPE_NUMERIC) {
+			double value = cell.getNumericCellValue();
+			Date data = cell.getDateCellValue();
+			if (data != null) {
+				return data.getTime() != new ExclyDateConverter(false).toEpochMillis(value);
+			}
+		}
+
+		log.warn("The reader was unable to detect the date system of the workbook, the 1900 date system is used.");
+		return false;
+	}
+
+	/**
+	 * Reads the date system from the workbook records of the HSSF workbook,
+	 * which end with the first EOF record. Workbooks created in memory have
+	 * no workbook stream and always use the 1900 date system.
+	 */
+	private boolean isDate1904(HSSFWorkbook workbook) {
+		DirectoryNode directory = workbook.getRootDirectory();
+		if (directory == null) {
+			return false;
+		}
+
+		try {
+			InputStream inputStream = directory
+					.createDocumentInputStream(HSSFWorkbook.getWorkbookDirEntryName(directory));
+			try {
+				RecordFactoryInputStream records = new RecordFactoryInputStream(inputStream, false);
+				Record record;
+				while ((record = records.nextRecord()) != null && record.getSid() != EOFRecord.sid) {
+					if (record.getSid() == DateWindow1904Record.sid) {
+						return ((DateWindow1904Record) record).getWindowing() == 1;
+					}
+				}
+			} finally {
+				inputStream.close();
+			}
+		} catch (Exception e) {
+			log.warn("The reader was unable to read the date system of the workbook, the 1900 date system is used.",
+					e);
+		}
+
+		return false;
+	}
+
 	/**
 	 * Checks if the string has a numeric value.
 	 * 
@@ -121,34 +477,90 @@ public abstract class XLSXReader {
 	 */
 	public ExclyString readStringCellValue(Cell cell) {
 		ExclyString output = null;
+		long start = ExclyMetrics.start();
+
+		cell = resolveMergedCell(cell);
 
 		if (cell == null) {
-			return new ExclyStringError();
+			output = STRING_ERROR;
+		} else {
+			try {
+				output = readString(cell, cell.getCellType());
+			} catch (Exception e) {
+				log.error("The reader was unable to read the data from cell [Row, Column] (" + cell.getRowIndex() + ", "
+						+ cell.getColumnIndex() + ")", e);
+				output = STRING_ERROR;
+			}
 		}
 
-		try {
-			output = readString(cell, cell.getCellType());
-		} catch (Exception e) {
-			log.error("The reader was unable to read the data from cell [Row, Column] (" + cell.getRowIndex() + ", "
-					+ cell.getColumnIndex() + ")", e);
-			output = new ExclyStringError();
+		if (start != 0L) {
+			ExclyMetrics.recordRead(ReadType.STRING, start, !output.isError() && output.getData().isEmpty(),
+					output.isError());
+		}
+
+		return output;
+	}
+
+	/**
+	 * Tries to read the value of the given cell as it is displayed by Excel.
+	 * Numeric cells are formatted with the number format of their style, all
+	 * other cells are read like in {@link #readStringCellValue(Cell)}. If it's
+	 * not possible to read the value an ExcelStringError is returned.
+	 * 
+	 * @param cell
+	 *            The Excel cell.
+	 * @return Return the formatted value of the cell as an ExclyString.
+	 */
+	public ExclyString readFormattedCellValue(Cell cell) {
+		ExclyString output = null;
+		long start = ExclyMetrics.start();
+
+		cell = resolveMergedCell(cell);
+
+		if (cell == null) {
+			output = STRING_ERROR;
+		} else {
+			try {
+				output = readFormatted(cell, cell.getCellType());
+			} catch (Exception e) {
+				log.error("The reader was unable to read the data from cell [Row, Column] (" + cell.getRowIndex() + ", "
+						+ cell.getColumnIndex() + ")", e);
+				output = STRING_ERROR;
+			}
+		}
+
+		if (start != 0L) {
+			ExclyMetrics.recordRead(ReadType.FORMATTED, start, !output.isError() && output.getData().isEmpty(),
+					output.isError());
 		}
 
 		return output;
 	}
 
+	private ExclyString readFormatted(Cell cell, int type) throws Exception {
+		if (type == Cell.CELL_TYPE_FORMULA) {
+			int formulaType = getCachedFormulaResultType(cell);
+			return readFormatted(cell, formulaType);
+		} else if (type == Cell.CELL_TYPE_NUMERIC) {
+			return new ExclyString(formatNumericCellValue(cell));
+		} else {
+			return readString(cell, type);
+		}
+	}
+
 	private ExclyString readString(Cell cell, int type) throws Exception {
 		ExclyString output = null;
 
 		if (type == Cell.CELL_TYPE_STRING) {
-			output = new ExclyString(cell.getStringCellValue());
+			String data = cell.getStringCellValue();
+			output = data.isEmpty() ? STRING_EMPTY : new ExclyString(data);
 		} else if (type == Cell.CELL_TYPE_ERROR) {
-			output = new ExclyStringError();
+			output = STRING_ERROR;
 		} else if (type == Cell.CELL_TYPE_FORMULA) {
-			int formulaType = cell.getCachedFormulaResultType();
+			int formulaType = getCachedFormulaResultType(cell);
 			output = readString(cell, formulaType);
 		} else if (type == Cell.CELL_TYPE_BLANK) {
-			output = new ExclyString("");
+			output = STRING_EMPTY;
 		} else if (type == Cell.CELL_TYPE_BOOLEAN) {
 			Boolean data = cell.getBooleanCellValue();
 			if (data) {
@@ -156,20 +568,16 @@ public abstract class XLSXReader {
 			} else {
 				output = new ExclyString("FALSCH");
 			}
-		} else if (DateUtil.isCellDateFormatted(cell)) {
-			Date data = cell.getDateCellValue();
-			output = new ExclyString(data.toString());
+		} else if (isCellDateFormatted(cell)) {
+			ExclyMetrics.recordBranch(Branch.DATE_FORMATTED_CELL);
+			ExclyDate data = getDateConverter(cell).toExclyDate(cell.getNumericCellValue());
+			output = new ExclyString(data.getData().toString());
 		} else if (type == Cell.CELL_TYPE_NUMERIC) {
-			double cellValue = cell.getNumericCellValue();
-			String data = String.valueOf(cellValue);
-			if (cellValue % 1 == 0 && data.endsWith(".0")) {
-				data = data.substring(0, data.length() - 2);
-			}
-			output = new ExclyString(data);
+			output = new ExclyString(ExclyNumberFormatter.format(cell.getNumericCellValue()));
 		} else {
 			log.warn("The reader was unable to find a valid parser for the cell [Row, Column] (" + cell.getRowIndex()
 					+ ", " + cell.getColumnIndex() + ")");
-			output = new ExclyStringError();
+			output = STRING_ERROR;
 		}
 
 		return output;
@@ -187,17 +595,24 @@ public abstract class XLSXReader {
 	 */
 	public ExclyDouble readDoubleCellValue(Cell cell) {
 		ExclyDouble output = null;
+		long start = ExclyMetrics.start();
+
+		cell = resolveMergedCell(cell);
 
 		if (cell == null) {
-			return new ExclyDoubleError();
+			output = DOUBLE_ERROR;
+		} else {
+			try {
+				output = readDouble(cell, cell.getCellType());
+			} catch (Exception e) {
+				log.error("The reader was unable to read the data from cell [Row, Column] (" + cell.getRowIndex() + ", "
+						+ cell.getColumnIndex() + ")", e);
+				output = DOUBLE_ERROR;
+			}
 		}
 
-		try {
-			output = readDouble(cell, cell.getCellType());
-		} catch (Exception e) {
-			log.error("The reader was unable to read the data from cell [Row, Column] (" + cell.getRowIndex() + ", "
-					+ cell.getColumnIndex() + ")", e);
-			output = new ExclyDoubleError();
+		if (start != 0L) {
+			ExclyMetrics.recordRead(ReadType.DOUBLE, start, output instanceof ExclyDoubleBlank, output.isError());
 		}
 
 		return output;
@@ -208,23 +623,25 @@ public abstract class XLSXReader {
 
 		if (type == Cell.CELL_TYPE_STRING) {
 			String data = cell.getStringCellValue();
-			if (isNumericGerman(data)) {
+			if (data.equals("") || data.equals(" ") || data.equals("-")) {
+				output = DOUBLE_BLANK;
+			} else if (isNumericGerman(data)) {
+				ExclyMetrics.recordBranch(Branch.GERMAN_NUMBER);
 				Number number = NumberFormat.getNumberInstance(Locale.GERMAN).parse(data);
 				output = new ExclyDouble(number.doubleValue());
 			} else if (isNumericUK(data)) {
+				ExclyMetrics.recordBranch(Branch.UK_NUMBER);
 				Number number = NumberFormat.getNumberInstance(Locale.UK).parse(data);
 				output = new ExclyDouble(number.doubleValue());
-			} else if (data.equals("") || data.equals(" ") || data.equals("-")) {
-				output = new ExclyDoubleBlank();
 			} else {
-				output = new ExclyDoubleError();
+				output = DOUBLE_ERROR;
 				log.warn("The reader has expected a numeric value, but found a string value. [Row, Column] ("
 						+ cell.getRowIndex() + ", " + cell.getColumnIndex() + ")");
 			}
 		} else if (type == Cell.CELL_TYPE_BLANK) {
-			output = new ExclyDoubleBlank();
+			output = DOUBLE_BLANK;
 		} else if (type == Cell.CELL_TYPE_FORMULA) {
-			int formulaType = cell.getCachedFormulaResultType();
+			int formulaType = getCachedFormulaResultType(cell);
 			output = readDouble(cell, formulaType);
 		} else if (type == Cell.CELL_TYPE_BOOLEAN) {
 			Boolean data = cell.getBooleanCellValue();
@@ -237,11 +654,167 @@ public abstract class XLSXReader {
 			double data = cell.getNumericCellValue();
 			output = new ExclyDouble(data);
 		} else if (type == Cell.CELL_TYPE_ERROR) {
-			output = new ExclyDoubleError();
+			output = DOUBLE_ERROR;
 		} else {
 			log.warn("The reader was unable to find a valid parser for the cell [Row, Column] (" + cell.getRowIndex()
 					+ ", " + cell.getColumnIndex() + ")");
-			output = new ExclyDoubleError();
+			output = DOUBLE_ERROR;
+		}
+
+		return output;
+	}
+
+	/**
+	 * Tries to read the value of the given cell. If it's possible to parse the
+	 * value into a decimal it will return an ExclyDecimal with the parsed
+	 * value. Strings in German or UK format are parsed exactly, numeric values
+	 * get their shortest decimal representation. Otherwise an
+	 * ExclyDecimalError is returned. If the cell is empty an ExclyDecimalBlank
+	 * is returned.
+	 * 
+	 * @param cell
+	 *            The Excel cell.
+	 * @return Return the parsed value of the cell as an ExclyDecimal.
+	 */
+	public ExclyDecimal readDecimalCellValue(Cell cell) {
+		ExclyDecimal output = null;
+		long start = ExclyMetrics.start();
+
+		cell = resolveMergedCell(cell);
+
+		if (cell == null) {
+			output = DECIMAL_ERROR;
+		} else {
+			try {
+				output = readDecimal(cell, cell.getCellType());
+			} catch (Exception e) {
+				log.error("The reader was unable to read the data from cell [Row, Column] (" + cell.getRowIndex() + ", "
+						+ cell.getColumnIndex() + ")", e);
+				output = DECIMAL_ERROR;
+			}
+		}
+
+		if (start != 0L) {
+			ExclyMetrics.recordRead(ReadType.DECIMAL, start, output instanceof ExclyDecimalBlank, output.isError());
+		}
+
+		return output;
+	}
+
+	private ExclyDecimal readDecimal(Cell cell, int type) throws Exception {
+		ExclyDecimal output = null;
+
+		if (type == Cell.CELL_TYPE_STRING) {
+			String data = cell.getStringCellValue();
+			ExclyDecimal number = ExclyNumberParser.parseDecimal(data);
+			if (number != null) {
+				output = number;
+				if (number.isError()) {
+					log.warn("The reader has found a numeric value which doesn't fit into a decimal. [Row, Column] ("
+							+ cell.getRowIndex() + ", " + cell.getColumnIndex() + ")");
+				}
+			} else if (data.equals("") || data.equals(" ") || data.equals("-")) {
+				output = DECIMAL_BLANK;
+			} else {
+				output = DECIMAL_ERROR;
+				log.warn("The reader has expected a numeric value, but found a string value. [Row, Column] ("
+						+ cell.getRowIndex() + ", " + cell.getColumnIndex() + ")");
+			}
+		} else if (type == Cell.CELL_TYPE_BLANK) {
+			output = DECIMAL_BLANK;
+		} else if (type == Cell.CELL_TYPE_FORMULA) {
+			int formulaType = getCachedFormulaResultType(cell);
+			output = readDecimal(cell, formulaType);
+		} else if (type == Cell.CELL_TYPE_BOOLEAN) {
+			Boolean data = cell.getBooleanCellValue();
+			if (data) {
+				output = new ExclyDecimal(1);
+			} else {
+				output = new ExclyDecimal(0);
+			}
+		} else if (type == Cell.CELL_TYPE_NUMERIC) {
+			double data = cell.getNumericCellValue();
+			output = ExclyDecimal.valueOf(data);
+		} else if (type == Cell.CELL_TYPE_ERROR) {
+			output = DECIMAL_ERROR;
+		} else {
+			log.warn("The reader was unable to find a valid parser for the cell [Row, Column] (" + cell.getRowIndex()
+					+ ", " + cell.getColumnIndex() + ")");
+			output = DECIMAL_ERROR;
+		}
+
+		return output;
+	}
+
+	/**
+	 * Tries to read the value of the given cell. If it's possible to parse the
+	 * value into a boolean it will return an ExclyBoolean with the parsed
+	 * value. Strings are parsed in German (WAHR, FALSCH) and English (TRUE,
+	 * FALSE), numbers are true if they aren't zero. Otherwise an
+	 * ExclyBooleanError is returned. If the cell is empty an ExclyBooleanBlank
+	 * is returned.
+	 * 
+	 * @param cell
+	 *            The Excel cell.
+	 * @return Return the parsed value of the cell as an ExclyBoolean.
+	 */
+	public ExclyBoolean readBooleanCellValue(Cell cell) {
+		ExclyBoolean output = null;
+		long start = ExclyMetrics.start();
+
+		cell = resolveMergedCell(cell);
+
+		if (cell == null) {
+			output = BOOLEAN_ERROR;
+		} else {
+			try {
+				output = readBoolean(cell, cell.getCellType());
+			} catch (Exception e) {
+				log.error("The reader was unable to read the data from cell [Row, Column] (" + cell.getRowIndex() + ", "
+						+ cell.getColumnIndex() + ")", e);
+				output = BOOLEAN_ERROR;
+			}
+		}
+
+		if (start != 0L) {
+			ExclyMetrics.recordRead(ReadType.BOOLEAN, start, output instanceof ExclyBooleanBlank, output.isError());
+		}
+
+		return output;
+	}
+
+	private ExclyBoolean readBoolean(Cell cell, int type) throws Exception {
+		ExclyBoolean output = null;
+
+		if (type == Cell.CELL_TYPE_STRING) {
+			String data = cell.getStringCellValue().trim();
+			if (data.equalsIgnoreCase("WAHR") || data.equalsIgnoreCase("TRUE")) {
+				output = new ExclyBoolean(true);
+			} else if (data.equalsIgnoreCase("FALSCH") || data.equalsIgnoreCase("FALSE")) {
+				output = new ExclyBoolean(false);
+			} else if (data.equals("") || data.equals("-")) {
+				output = BOOLEAN_BLANK;
+			} else {
+				output = BOOLEAN_ERROR;
+				log.warn("The reader has expected a boolean value, but found a string value. [Row, Column] ("
+						+ cell.getRowIndex() + ", " + cell.getColumnIndex() + ")");
+			}
+		} else if (type == Cell.CELL_TYPE_BLANK) {
+			output = BOOLEAN_BLANK;
+		} else if (type == Cell.CELL_TYPE_FORMULA) {
+			int formulaType = getCachedFormulaResultType(cell);
+			output = readBoolean(cell, formulaType);
+		} else if (type == Cell.CELL_TYPE_BOOLEAN) {
+			output = new ExclyBoolean(cell.getBooleanCellValue());
+		} else if (type == Cell.CELL_TYPE_NUMERIC) {
+			double data = cell.getNumericCellValue();
+			output = new ExclyBoolean(data != 0);
+		} else if (type == Cell.CELL_TYPE_ERROR) {
+			output = BOOLEAN_ERROR;
+		} else {
+			log.warn("The reader was unable to find a valid parser for the cell [Row, Column] (" + cell.getRowIndex()
+					+ ", " + cell.getColumnIndex() + ")");
+			output = BOOLEAN_ERROR;
 		}
 
 		return output;
@@ -260,17 +833,24 @@ public abstract class XLSXReader {
 	 */
 	public ExclyInteger readIntegerCellValue(Cell cell) {
 		ExclyInteger output = null;
+		long start = ExclyMetrics.start();
+
+		cell = resolveMergedCell(cell);
 
 		if (cell == null) {
-			return new ExclyIntegerError();
+			output = INTEGER_ERROR;
+		} else {
+			try {
+				output = readInteger(cell, cell.getCellType());
+			} catch (Exception e) {
+				log.error("The reader was unable to read the data from cell [Row, Column] (" + cell.getRowIndex() + ", "
+						+ cell.getColumnIndex() + ")", e);
+				output = INTEGER_ERROR;
+			}
 		}
 
-		try {
-			output = readInteger(cell, cell.getCellType());
-		} catch (Exception e) {
-			log.error("The reader was unable to read the data from cell [Row, Column] (" + cell.getRowIndex() + ", "
-					+ cell.getColumnIndex() + ")", e);
-			output = new ExclyIntegerError();
+		if (start != 0L) {
+			ExclyMetrics.recordRead(ReadType.INTEGER, start, output instanceof ExclyIntegerBlank, output.isError());
 		}
 
 		return output;
@@ -281,23 +861,25 @@ public abstract class XLSXReader {
 
 		if (type == Cell.CELL_TYPE_STRING) {
 			String data = cell.getStringCellValue();
-			if (isNumericGerman(data)) {
+			if (data.equals("") || data.equals(" ") || data.trim().equals("-")) {
+				output = INTEGER_BLANK;
+			} else if (isNumericGerman(data)) {
+				ExclyMetrics.recordBranch(Branch.GERMAN_NUMBER);
 				Number number = NumberFormat.getNumberInstance(Locale.GERMAN).parse(data);
 				output = new ExclyInteger(number.intValue());
 			} else if (isNumericUK(data)) {
+				ExclyMetrics.recordBranch(Branch.UK_NUMBER);
 				Number number = NumberFormat.getNumberInstance(Locale.UK).parse(data);
 				output = new ExclyInteger(number.intValue());
-			} else if (data.equals("") || data.equals(" ") || data.trim().equals("-")) {
-				output = new ExclyIntegerBlank();
 			} else {
-				output = new ExclyIntegerError();
+				output = INTEGER_ERROR;
 				log.warn("The reader has expected a numeric value, but found a string value. [Row, Column] ("
 						+ cell.getRowIndex() + ", " + cell.getColumnIndex() + ")");
 			}
 		} else if (type == Cell.CELL_TYPE_BLANK) {
-			output = new ExclyIntegerBlank();
+			output = INTEGER_BLANK;
 		} else if (type == Cell.CELL_TYPE_FORMULA) {
-			int formulaType = cell.getCachedFormulaResultType();
+			int formulaType = getCachedFormulaResultType(cell);
 			output = readInteger(cell, formulaType);
 		} else if (type == Cell.CELL_TYPE_BOOLEAN) {
 			Boolean data = cell.getBooleanCellValue();
@@ -310,11 +892,11 @@ public abstract class XLSXReader {
 			double data = cell.getNumericCellValue();
 			output = new ExclyInteger(data);
 		} else if (type == Cell.CELL_TYPE_ERROR) {
-			output = new ExclyIntegerError();
+			output = INTEGER_ERROR;
 		} else {
 			log.warn("The reader was unable to find a valid parser for the cell [Row, Column] (" + cell.getRowIndex()
 					+ ", " + cell.getColumnIndex() + ")");
-			output = new ExclyIntegerError();
+			output = INTEGER_ERROR;
 		}
 
 		return output;
@@ -332,17 +914,24 @@ public abstract class XLSXReader {
 	 */
 	public ExclyLong readLongCellValue(Cell cell) {
 		ExclyLong output = null;
+		long start = ExclyMetrics.start();
+
+		cell = resolveMergedCell(cell);
 
 		if (cell == null) {
-			return new ExclyLongError();
+			output = LONG_ERROR;
+		} else {
+			try {
+				output = readLong(cell, cell.getCellType());
+			} catch (Exception e) {
+				log.error("The reader was unable to read the data from cell [Row, Column] (" + cell.getRowIndex() + ", "
+						+ cell.getColumnIndex() + ")", e);
+				output = LONG_ERROR;
+			}
 		}
 
-		try {
-			output = readLong(cell, cell.getCellType());
-		} catch (Exception e) {
-			log.error("The reader was unable to read the data from cell [Row, Column] (" + cell.getRowIndex() + ", "
-					+ cell.getColumnIndex() + ")", e);
-			output = new ExclyLongError();
+		if (start != 0L) {
+			ExclyMetrics.recordRead(ReadType.LONG, start, output instanceof ExclyLongBlank, output.isError());
 		}
 
 		return output;
@@ -353,23 +942,24 @@ public abstract class XLSXReader {
 
 		if (type == Cell.CELL_TYPE_STRING) {
 			String data = cell.getStringCellValue();
-			if (isNumericGerman(data)) {
-				Number number = NumberFormat.getNumberInstance(Locale.GERMAN).parse(data);
-				output = new ExclyLong(number.intValue());
-			} else if (isNumericUK(data)) {
-				Number number = NumberFormat.getNumberInstance(Locale.UK).parse(data);
-				output = new ExclyLong(number.intValue());
+			ExclyLong number = ExclyNumberParser.parseLong(data);
+			if (number != null) {
+				output = number;
+				if (number.isError()) {
+					log.warn("The reader has found a numeric value which doesn't fit into a long. [Row, Column] ("
+							+ cell.getRowIndex() + ", " + cell.getColumnIndex() + ")");
+				}
 			} else if (data.equals("") || data.equals(" ") || data.equals("-")) {
-				output = new ExclyLongBlank();
+				output = LONG_BLANK;
 			} else {
-				output = new ExclyLongError();
+				output = LONG_ERROR;
 				log.warn("The reader has expected a numeric value, but found a string value. [Row, Column] ("
 						+ cell.getRowIndex() + ", " + cell.getColumnIndex() + ")");
 			}
 		} else if (type == Cell.CELL_TYPE_BLANK) {
-			output = new ExclyLongBlank();
+			output = LONG_BLANK;
 		} else if (type == Cell.CELL_TYPE_FORMULA) {
-			int formulaType = cell.getCachedFormulaResultType();
+			int formulaType = getCachedFormulaResultType(cell);
 			output = readLong(cell, formulaType);
 		} else if (type == Cell.CELL_TYPE_BOOLEAN) {
 			Boolean data = cell.getBooleanCellValue();
@@ -380,18 +970,44 @@ public abstract class XLSXReader {
 			}
 		} else if (type == Cell.CELL_TYPE_NUMERIC) {
 			double data = cell.getNumericCellValue();
-			output = new ExclyLong(data);
+			output = readExactLong(cell, data);
 		} else if (type == Cell.CELL_TYPE_ERROR) {
-			output = new ExclyLongError();
+			output = LONG_ERROR;
 		} else {
 			log.warn("The reader was unable to find a valid parser for the cell [Row, Column] (" + cell.getRowIndex()
 					+ ", " + cell.getColumnIndex() + ")");
-			output = new ExclyLongError();
+			output = LONG_ERROR;
 		}
 
 		return output;
 	}
 
+	/**
+	 * Returns the numeric value of the cell as an ExclyLong. A double can't
+	 * hold all longs above 2^53, so for these values the raw value of XSSF
+	 * cells is parsed if it's an integer. Values outside of the long range
+	 * are read as ExclyLongError.
+	 */
+	private ExclyLong readExactLong(Cell cell, double data) {
+		if (Math.abs(data) >= EXACT_DOUBLE_LIMIT && cell instanceof XSSFCell) {
+			String raw = ((XSSFCell) cell).getCTCell().getV();
+			if (raw != null) {
+				try {
+					return new ExclyLong(Long.parseLong(raw));
+				} catch (NumberFormatException e) {
+					log.debug("The raw value " + raw + " isn't an exact long.");
+				}
+			}
+		}
+
+		if (Double.isNaN(data) || data >= LONG_LIMIT || data < -LONG_LIMIT) {
+			log.warn("The reader has found a numeric value which doesn't fit into a long. [Row, Column] ("
+					+ cell.getRowIndex() + ", " + cell.getColumnIndex() + ")");
+			return LONG_ERROR;
+		}
+		return new ExclyLong((long) data);
+	}
+
 	/**
 	 * Tries to read the value of the given cell. If it's possible to parse the
 	 * value into a date it will return an ExclyDate with the parsed value.
@@ -404,17 +1020,24 @@ public abstract class XLSXReader {
 	 */
 	public ExclyDate readDateCellValue(Cell cell) {
 		ExclyDate output = null;
+		long start = ExclyMetrics.start();
+
+		cell = resolveMergedCell(cell);
 
 		if (cell == null) {
-			return new ExclyDateError();
+			output = DATE_ERROR;
+		} else {
+			try {
+				output = readDate(cell, cell.getCellType());
+			} catch (Exception e) {
+				log.error("The reader was unable to read the data from cell [Row, Column] (" + cell.getRowIndex() + ", "
+						+ cell.getColumnIndex() + ")", e);
+				output = DATE_ERROR;
+			}
 		}
 
-		try {
-			output = readDate(cell, cell.getCellType());
-		} catch (Exception e) {
-			log.error("The reader was unable to read the data from cell [Row, Column] (" + cell.getRowIndex() + ", "
-					+ cell.getColumnIndex() + ")", e);
-			output = new ExclyDateError();
+		if (start != 0L) {
+			ExclyMetrics.recordRead(ReadType.DATE, start, output instanceof ExclyDateBlank, output.isError());
 		}
 
 		return output;
@@ -425,35 +1048,233 @@ public abstract class XLSXReader {
 
 		if (type == Cell.CELL_TYPE_STRING) {
 			String data = cell.getStringCellValue();
-			if (isNumericGerman(data)) {
+			if (data.equals("") || data.equals(" ") || data.trim().equals("-")) {
+				output = DATE_BLANK;
+			} else if (isNumericGerman(data)) {
+				ExclyMetrics.recordBranch(Branch.GERMAN_NUMBER);
 				Number number = NumberFormat.getNumberInstance(Locale.GERMAN).parse(data);
-				output = new ExclyDate(DateUtil.getJavaDate(number.intValue()));
+				output = getDateConverter(cell).toExclyDate(number.intValue());
 			} else if (isNumericUK(data)) {
+				ExclyMetrics.recordBranch(Branch.UK_NUMBER);
 				Number number = NumberFormat.getNumberInstance(Locale.UK).parse(data);
-				output = new ExclyDate(DateUtil.getJavaDate(number.intValue()));
-			} else if (data.equals("") || data.equals(" ") || data.trim().equals("-")) {
-				output = new ExclyDateBlank();
+				output = getDateConverter(cell).toExclyDate(number.intValue());
 			} else {
 				ExclyDate parsedDate = parse(cell.getStringCellValue());
 				output = parsedDate;
 			}
 		} else if (type == Cell.CELL_TYPE_BLANK) {
-			output = new ExclyDateBlank();
+			output = DATE_BLANK;
 		} else if (type == Cell.CELL_TYPE_FORMULA) {
-			int formulaType = cell.getCachedFormulaResultType();
+			int formulaType = getCachedFormulaResultType(cell);
 			output = readDate(cell, formulaType);
-		} else if (DateUtil.isCellDateFormatted(cell)) {
-			Date data = cell.getDateCellValue();
-			output = new ExclyDate(data);
 		} else if (type == Cell.CELL_TYPE_NUMERIC) {
+			if (ExclyMetrics.isRecording() && isCellDateFormatted(cell)) {
+				ExclyMetrics.recordBranch(Branch.DATE_FORMATTED_CELL);
+			}
 			double data = cell.getNumericCellValue();
-			output = new ExclyDate(DateUtil.getJavaDate(data));
+			output = getDateConverter(cell).toExclyDate(data);
 		} else if (type == Cell.CELL_TYPE_ERROR) {
-			output = new ExclyDateError();
+			output = DATE_ERROR;
 		} else {
 			log.warn("The reader was unable to find a valid parser for the cell [Row, Column] (" + cell.getRowIndex()
 					+ ", " + cell.getColumnIndex() + ")");
-			output = new ExclyDateError();
+			output = DATE_ERROR;
+		}
+
+		return output;
+	}
+
+	/**
+	 * Reads all cells of the range as strings, see
+	 * {@link #readStringCellValue(Cell)}. The range is given in A1 notation,
+	 * for example "B2:F200" or "B:B". Missing rows and cells are read as
+	 * errors.
+	 * 
+	 * @param sheet
+	 *            The Excel sheet.
+	 * @param range
+	 *            The range in A1 notation.
+	 * @return Returns the values of the range as [row][column] array.
+	 */
+	public ExclyString[][] readStringRange(Sheet sheet, String range) {
+		return readRange(sheet, range, ExclyString[][]::new, ExclyString[]::new, this::readStringCellValue);
+	}
+
+	/**
+	 * Reads all cells of the range as doubles, see
+	 * {@link #readDoubleCellValue(Cell)}. The range is given in A1 notation,
+	 * for example "B2:F200" or "B:B". Missing rows and cells are read as
+	 * errors.
+	 * 
+	 * @param sheet
+	 *            The Excel sheet.
+	 * @param range
+	 *            The range in A1 notation.
+	 * @return Returns the values of the range as [row][column] array.
+	 */
+	public ExclyDouble[][] readDoubleRange(Sheet sheet, String range) {
+		return readRange(sheet, range, ExclyDouble[][]::new, ExclyDouble[]::new, this::readDoubleCellValue);
+	}
+
+	/**
+	 * Reads all cells of the range as integers, see
+	 * {@link #readIntegerCellValue(Cell)}. The range is given in A1 notation,
+	 * for example "B2:F200" or "B:B". Missing rows and cells are read as
+	 * errors.
+	 * 
+	 * @param sheet
+	 *            The Excel sheet.
+	 * @param range
+	 *            The range in A1 notation.
+	 * @return Returns the values of the range as [row][column] array.
+	 */
+	public ExclyInteger[][] readIntegerRange(Sheet sheet, String range) {
+		return readRange(sheet, range, ExclyInteger[][]::new, ExclyInteger[]::new, this::readIntegerCellValue);
+	}
+
+	/**
+	 * Reads all cells of the range as longs, see
+	 * {@link #readLongCellValue(Cell)}. The range is given in A1 notation, for
+	 * example "B2:F200" or "B:B". Missing rows and cells are read as errors.
+	 * 
+	 * @param sheet
+	 *            The Excel sheet.
+	 * @param range
+	 *            The range in A1 notation.
+	 * @return Returns the values of the range as [row][column] array.
+	 */
+	public ExclyLong[][] readLongRange(Sheet sheet, String range) {
+		return readRange(sheet, range, ExclyLong[][]::new, ExclyLong[]::new, this::readLongCellValue);
+	}
+
+	/**
+	 * Reads all cells of the range as dates, see
+	 * {@link #readDateCellValue(Cell)}. The range is given in A1 notation, for
+	 * example "B2:F200" or "B:B". Missing rows and cells are read as errors.
+	 * 
+	 * @param sheet
+	 *            The Excel sheet.
+	 * @param range
+	 *            The range in A1 notation.
+	 * @return Returns the values of the range as [row][column] array.
+	 */
+	public ExclyDate[][] readDateRange(Sheet sheet, String range) {
+		return readRange(sheet, range, ExclyDate[][]::new, ExclyDate[]::new, this::readDateCellValue);
+	}
+
+	/**
+	 * Reads a range of one column into an ExclyDoubleColumn, see
+	 * {@link #readDoubleCellValue(Cell)}. Missing rows and cells are added as
+	 * errors.
+	 * 
+	 * @param sheet
+	 *            The Excel sheet.
+	 * @param range
+	 *            The range in A1 notation, for example "C2:C5000" or "C:C".
+	 * @return Returns the values of the range as ExclyDoubleColumn.
+	 */
+	public ExclyDoubleColumn readDoubleColumn(Sheet sheet, String range) {
+		sheet = resolveRangeSheet(sheet, range);
+		CellRangeAddress address = resolveRange(sheet, range);
+		if (address.getFirstColumn() != address.getLastColumn()) {
+			throw new IllegalArgumentException("The range " + range + " has more than one column.");
+		}
+
+		int column = address.getFirstColumn();
+		ExclyDoubleColumn output = new ExclyDoubleColumn(address.getLastRow() - address.getFirstRow() + 1);
+		for (int rowIndex = address.getFirstRow(); rowIndex <= address.getLastRow(); rowIndex++) {
+			output.add(readDoubleCellValue(getRangeCell(sheet, sheet.getRow(rowIndex), rowIndex, column)));
+		}
+
+		return output;
+	}
+
+	/**
+	 * Resolves the range in A1 notation into row and column bounds. Whole
+	 * columns ("B:B") end with the last row of the sheet, whole rows ("2:5")
+	 * end with the last cell of the longest row in the range. Reversed corners
+	 * like "F200:B2" are read as "B2:F200".
+	 * 
+	 * @param sheet
+	 *            The Excel sheet.
+	 * @param range
+	 *            The range in A1 notation.
+	 * @return Returns the bounds of the range.
+	 */
+	protected CellRangeAddress resolveRange(Sheet sheet, String range) {
+		String reference = range.substring(range.lastIndexOf('!') + 1);
+		int separator = reference.indexOf(':');
+		String firstCorner = separator < 0 ? reference : reference.substring(0, separator);
+		String lastCorner = separator < 0 ? reference : reference.substring(separator + 1);
+		CellRangeAddress first = CellRangeAddress.valueOf(firstCorner + ":" + firstCorner);
+		CellRangeAddress last = CellRangeAddress.valueOf(lastCorner + ":" + lastCorner);
+
+		int firstRow = Math.min(first.getFirstRow(), last.getFirstRow());
+		int lastRow = Math.max(first.getFirstRow(), last.getFirstRow());
+		if (firstRow < 0) {
+			firstRow = 0;
+			lastRow = Math.max(sheet.getLastRowNum(), 0);
+		}
+
+		int firstColumn = Math.min(first.getFirstColumn(), last.getFirstColumn());
+		int lastColumn = Math.max(first.getFirstColumn(), last.getFirstColumn());
+		if (firstColumn < 0) {
+			firstColumn = 0;
+			lastColumn = 0;
+			for (int rowIndex = firstRow; rowIndex <= lastRow; rowIndex++) {
+				Row row = sheet.getRow(rowIndex);
+				if (row != null) {
+					lastColumn = Math.max(lastColumn, row.getLastCellNum() - 1);
+				}
+			}
+		}
+
+		return new CellRangeAddress(firstRow, lastRow, firstColumn, lastColumn);
+	}
+
+	/**
+	 * Returns the sheet named in the range, like "Data!A1:B2", or the given
+	 * sheet if the range has no sheet name.
+	 */
+	private Sheet resolveRangeSheet(Sheet sheet, String range) {
+		int separator = range.lastIndexOf('!');
+		if (separator < 0) {
+			return sheet;
+		}
+
+		String name = range.substring(0, separator);
+		if (name.length() > 1 && name.startsWith("'") && name.endsWith("'")) {
+			name = name.substring(1, name.length() - 1).replace("''", "'");
+		}
+
+		Sheet namedSheet = sheet.getWorkbook().getSheet(name);
+		if (namedSheet == null) {
+			throw new IllegalArgumentException("The workbook has no sheet " + name + ".");
+		}
+		return namedSheet;
+	}
+
+	/**
+	 * Reads the range row by row. Each row is looked up once and its cells are
+	 * read in column order.
+	 */
+	private <T> T[][] readRange(Sheet sheet, String range, IntFunction<T[][]> tableFactory,
+			IntFunction<T[]> rowFactory, Function<Cell, T> reader) {
+		sheet = resolveRangeSheet(sheet, range);
+		CellRangeAddress address = resolveRange(sheet, range);
+
+		int firstColumn = address.getFirstColumn();
+		int columns = address.getLastColumn() - firstColumn + 1;
+		T[][] output = tableFactory.apply(address.getLastRow() - address.getFirstRow() + 1);
+
+		for (int i = 0; i < output.length; i++) {
+			int rowIndex = address.getFirstRow() + i;
+			Row row = sheet.getRow(rowIndex);
+			T[] values = rowFactory.apply(columns);
+			for (int j = 0; j < columns; j++) {
+				values[j] = reader.apply(getRangeCell(sheet, row, rowIndex, firstColumn + j));
+			}
+			output[i] = values;
 		}
 
 		return output;
@@ -462,22 +1283,29 @@ public abstract class XLSXReader {
 	private ExclyDate parse(String date) throws ParseException {
 		if (date != null && !date.isEmpty()) {
 			ExclyDate output = null;
+			int pattern = -1;
+			Object event = ExclyEvents.beginDateParse();
 
-			for (String format : formats) {
-				SimpleDateFormat sdf = new SimpleDateFormat(format);
+			for (int i = 0; i < formats.length; i++) {
+				SimpleDateFormat sdf = new SimpleDateFormat(formats[i]);
 				try {
 					Date parsedDate = sdf.parse(date);
 					output = new ExclyDate(parsedDate);
+					pattern = i;
 				} catch (ParseException e) {
 				}
 			}
 
 			if (output != null) {
+				ExclyMetrics.recordDatePattern(pattern);
 				return output;
 			} else {
+				ExclyMetrics.recordBranch(Branch.DATE_UNPARSABLE);
+				ExclyEvents.endDateParseMiss(event, date, formats.length);
 				throw new ParseException(date, 0);
 			}
 		} else {
+			ExclyMetrics.recordBranch(Branch.DATE_UNPARSABLE);
 			throw new ParseException(date, 0);
 		}
 	}
@@ -0,0 +1,408 @@
+/** 
+ * This code is copyright (c) Mathias Markl 2015
+ * 
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ * 
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package at.mukprojects.exclycore.dao;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+import javax.xml.XMLConstants;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.parsers.SAXParserFactory;
+
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.FormulaError;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.model.StylesTable;
+import org.apache.poi.xssf.usermodel.XSSFCellStyle;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+import org.xml.sax.helpers.DefaultHandler;
+
+/**
+ * XLSXStreamReader is an abstract helper class to extract data from large
+ * Excel (.xlsx) files. The sheets are parsed with SAX while they are
+ * decompressed, so the memory doesn't depend on the size of a sheet. Only the
+ * shared strings and the styles of the workbook are kept in memory. Every cell
+ * is handed to {@link #processCell(Cell)}.
+ * 
+ * The file is opened with the zip support of the JDK, which reads Zip64
+ * archives and parts larger than 4 GB.
+ *
+ * @author Mathias Markl
+ */
+public abstract class XLSXStreamReader extends AbstractStreamReader {
+	private static final Logger log = LoggerFactory.getLogger(XLSXStreamReader.class);
+
+	private static final String SPREADSHEET_NAMESPACE = "http://schemas.openxmlformats.org/spreadsheetml/2006/main";
+
+	/**
+	 * Reads all sheets of the file.
+	 * 
+	 * @param file
+	 *            The Excel (.xlsx) file.
+	 * @throws IOException
+	 *             If the file can't be read or isn't an Excel workbook.
+	 */
+	public void read(File file) throws IOException {
+		beginWorkbook(file);
+		try {
+			OPCPackage container;
+			try {
+				container = OPCPackage.open(file, PackageAccess.READ);
+			} catch (OpenXML4JException e) {
+				throw new IOException("The file " + file + " isn't an Excel workbook.", e);
+			}
+
+			try {
+				read(container);
+			} catch (OpenXML4JException e) {
+				throw new IOException("The file " + file + " isn't a valid Excel workbook.", e);
+			} catch (SAXException e) {
+				throw new IOException("The file " + file + " isn't a valid Excel workbook.", e);
+			} finally {
+				container.revert();
+			}
+		} finally {
+			endWorkbook();
+		}
+	}
+
+	/**
+	 * Reads all sheets of the stream. The stream is copied into a temporary
+	 * file first, so the parts of the workbook are never held in memory.
+	 * 
+	 * @param inputStream
+	 *            The Excel (.xlsx) stream.
+	 * @throws IOException
+	 *             If the stream can't be read or isn't an Excel workbook.
+	 */
+	public void read(InputStream inputStream) throws IOException {
+		File file = spool(inputStream);
+		try {
+			read(file);
+		} finally {
+			file.delete();
+		}
+	}
+
+	private void read(OPCPackage container) throws IOException, OpenXML4JException, SAXException {
+		XSSFReader reader = new XSSFReader(container);
+		setDate1904(isDate1904(reader));
+
+		ReadOnlySharedStringsTable sharedStrings = new ReadOnlySharedStringsTable(container);
+		SheetHandler handler = new SheetHandler(sharedStrings, reader.getStylesTable());
+		XMLReader parser = createParser();
+		parser.setContentHandler(handler);
+
+		XSSFReader.SheetIterator sheets = (XSSFReader.SheetIterator) reader.getSheetsData();
+		int sheetIndex = 0;
+		while (sheets.hasNext()) {
+			InputStream input = sheets.next();
+			String name = sheets.getSheetName();
+			try {
+				beginSheet(sheetIndex, name);
+				parser.parse(new InputSource(input));
+				finishSheet(sheetIndex, name);
+			} finally {
+				input.close();
+			}
+			sheetIndex++;
+		}
+	}
+
+	/**
+	 * Reads the date system from the workbook properties. The properties are
+	 * at the beginning of the workbook part, the parsing stops there.
+	 */
+	private boolean isDate1904(XSSFReader reader) throws IOException, OpenXML4JException, SAXException {
+		final boolean[] date1904 = new boolean[1];
+		XMLReader parser = createParser();
+		parser.setContentHandler(new DefaultHandler() {
+			@Override
+			public void startElement(String uri, String localName, String qName, Attributes attributes)
+					throws SAXException {
+				if ("workbookPr".equals(localName)) {
+					String value = attributes.getValue("date1904");
+					date1904[0] = "1".equals(value) || "true".equals(value);
+				} else if ("sheets".equals(localName)) {
+					throw new StopParsingException();
+				}
+			}
+		});
+
+		InputStream input = reader.getWorkbookData();
+		try {
+			parser.parse(new InputSource(input));
+		} catch (StopParsingException e) {
+			log.trace("Read the workbook properties.");
+		} finally {
+			input.close();
+		}
+
+		return date1904[0];
+	}
+
+	private XMLReader createParser() throws SAXException {
+		try {
+			SAXParserFactory factory = SAXParserFactory.newInstance();
+			factory.setNamespaceAware(true);
+			factory.setFeature(XMLConstants.FEATURE_SECURE_PROCESSING, true);
+			return factory.newSAXParser().getXMLReader();
+		} catch (ParserConfigurationException e) {
+			throw new SAXException("The reader was unable to create a XML parser.", e);
+		}
+	}
+
+	/**
+	 * Translates the elements of a sheet into cells. The value of a cell is
+	 * collected until the cell element ends.
+	 */
+	private final class SheetHandler extends DefaultHandler {
+		private final StreamingCell cell = getStreamingCell();
+		private final ReadOnlySharedStringsTable sharedStrings;
+		private final StylesTable styles;
+
+		private int[] formatIndexes = new int[0];
+		private String[] formatStrings = new String[0];
+
+		private char[] text = new char[64];
+		private int textLength;
+		private int rowIndex;
+		private int columnIndex;
+		private int styleIndex;
+		private String type;
+		private boolean formula;
+		private boolean hasValue;
+		private boolean collect;
+		private boolean phonetic;
+
+		private SheetHandler(ReadOnlySharedStringsTable sharedStrings, StylesTable styles) {
+			this.sharedStrings = sharedStrings;
+			this.styles = styles;
+		}
+
+		@Override
+		public void startDocument() {
+			rowIndex = -1;
+		}
+
+		@Override
+		public void startElement(String uri, String localName, String qName, Attributes attributes) {
+			if (!SPREADSHEET_NAMESPACE.equals(uri)) {
+				return;
+			}
+
+			if ("row".equals(localName)) {
+				String reference = attributes.getValue("r");
+				rowIndex = reference == null ? rowIndex + 1 : Integer.parseInt(reference) - 1;
+				columnIndex = -1;
+			} else if ("c".equals(localName)) {
+				String reference = attributes.getValue("r");
+				columnIndex = reference == null ? columnIndex + 1 : parseColumn(reference);
+				String style = attributes.getValue("s");
+				styleIndex = style == null ? 0 : Integer.parseInt(style);
+				type = attributes.getValue("t");
+				formula = false;
+				hasValue = false;
+				textLength = 0;
+			} else if ("f".equals(localName)) {
+				formula = true;
+			} else if ("v".equals(localName)) {
+				hasValue = true;
+				collect = true;
+			} else if ("t".equals(localName) && !phonetic) {
+				hasValue = true;
+				collect = true;
+			} else if ("rPh".equals(localName)) {
+				phonetic = true;
+			}
+		}
+
+		@Override
+		public void endElement(String uri, String localName, String qName) {
+			if (!SPREADSHEET_NAMESPACE.equals(uri)) {
+				return;
+			}
+
+			if ("v".equals(localName) || "t".equals(localName)) {
+				collect = false;
+			} else if ("rPh".equals(localName)) {
+				phonetic = false;
+			} else if ("c".equals(localName)) {
+				processCellElement();
+			}
+		}
+
+		@Override
+		public void characters(char[] ch, int start, int length) {
+			if (collect) {
+				if (textLength + length > text.length) {
+					text = Arrays.copyOf(text, Math.max(textLength + length, text.length * 2));
+				}
+				System.arraycopy(ch, start, text, textLength, length);
+				textLength += length;
+			}
+		}
+
+		private void processCellElement() {
+			cell.reset(rowIndex, columnIndex, styleIndex, getFormatIndex(styleIndex), getFormatString(styleIndex));
+			if (formula) {
+				cell.setFormula();
+			}
+
+			if (!hasValue) {
+				if (formula) {
+					setFormulaWithoutValue();
+				}
+			} else {
+				try {
+					setValue();
+				} catch (NumberFormatException e) {
+					setInvalidValue();
+				} catch (IndexOutOfBoundsException e) {
+					setInvalidValue();
+				}
+			}
+
+			handleCell(cell);
+		}
+
+		private void setValue() {
+			if ("s".equals(type)) {
+				cell.setString(sharedStrings.getEntryAt(Integer.parseInt(trimmedText())));
+			} else if ("inlineStr".equals(type) || "str".equals(type) || "d".equals(type)) {
+				cell.setString(text, 0, textLength);
+			} else if ("b".equals(type)) {
+				String data = trimmedText();
+				cell.setBoolean("1".equals(data) || "true".equals(data));
+			} else if ("e".equals(type)) {
+				cell.setError(errorCode(trimmedText()));
+			} else {
+				cell.setNumeric(Double.parseDouble(trimmedText()));
+			}
+		}
+
+		/**
+		 * A value which can't be read, like a malformed number or a missing
+		 * shared string, is read as an error cell.
+		 */
+		private void setInvalidValue() {
+			log.warn("The reader was unable to read the value " + trimmedText() + " of the cell [Row, Column] ("
+					+ rowIndex + ", " + columnIndex + ")");
+			cell.setError(FormulaError.VALUE.getCode());
+		}
+
+		/**
+		 * Returns the collected text of the value without surrounding white
+		 * space.
+		 */
+		private String trimmedText() {
+			return new String(text, 0, textLength).trim();
+		}
+
+		/**
+		 * A formula without a cached result is read like POI reads it, with
+		 * an empty string or zero as result.
+		 */
+		private void setFormulaWithoutValue() {
+			if ("str".equals(type) || "inlineStr".equals(type)) {
+				cell.setString("");
+			} else if ("b".equals(type)) {
+				cell.setBoolean(false);
+			} else if (!"e".equals(type)) {
+				cell.setNumeric(0);
+			}
+		}
+
+		private byte errorCode(String error) {
+			try {
+				return FormulaError.forString(error).getCode();
+			} catch (IllegalArgumentException e) {
+				log.warn("The reader has found the unknown error " + error + " in the cell [Row, Column] ("
+						+ rowIndex + ", " + columnIndex + ")");
+				return FormulaError.VALUE.getCode();
+			}
+		}
+
+		private int getFormatIndex(int style) {
+			resolveStyle(style);
+			return formatIndexes[style];
+		}
+
+		private String getFormatString(int style) {
+			resolveStyle(style);
+			return formatStrings[style];
+		}
+
+		/**
+		 * Looks up the format of a cell style once and keeps it for the
+		 * following cells.
+		 */
+		private void resolveStyle(int style) {
+			if (style < formatStrings.length && formatStrings[style] != null) {
+				return;
+			}
+			if (style >= formatStrings.length) {
+				int length = Math.max(style + 1, formatStrings.length * 2);
+				formatIndexes = Arrays.copyOf(formatIndexes, length);
+				formatStrings = Arrays.copyOf(formatStrings, length);
+			}
+
+			if (styles != null && style < styles.getNumCellStyles()) {
+				XSSFCellStyle cellStyle = styles.getStyleAt(style);
+				formatIndexes[style] = cellStyle.getDataFormat();
+				formatStrings[style] = cellStyle.getDataFormatString();
+			}
+			if (formatStrings[style] == null) {
+				formatStrings[style] = "General";
+			}
+		}
+
+		/**
+		 * Reads the zero based column index of a cell reference like "AB12".
+		 */
+		private int parseColumn(String reference) {
+			int column = 0;
+			for (int i = 0; i < reference.length(); i++) {
+				char c = reference.charAt(i);
+				if (c < 'A' || c > 'Z') {
+					break;
+				}
+				column = column * 26 + (c - 'A' + 1);
+			}
+			return column - 1;
+		}
+	}
+
+	/**
+	 * Ends the parsing of a part after the needed elements have been read.
+	 */
+	private static final class StopParsingException extends SAXException {
+		private static final long serialVersionUID = 1L;
+	}
+}
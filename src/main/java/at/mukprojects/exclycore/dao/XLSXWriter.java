@@ -22,11 +22,16 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 
 import org.apache.poi.openxml4j.exceptions.InvalidFormatException;
+import org.apache.poi.ss.usermodel.Workbook;
 import org.apache.poi.ss.usermodel.WorkbookFactory;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import at.mukprojects.exclycore.helper.ExclyEvents;
+import at.mukprojects.exclycore.helper.ExclyMetrics;
+
 /**
  * Logger is an abstract helper class. It can be extended by any other class to
  * create or extends Excel (.xlsx) files.
@@ -38,6 +43,7 @@ public abstract class XLSXWriter {
 
 	private FileOutputStream outputStream;
 	private XSSFWorkbook outputWorkbook;
+	private SXSSFWorkbook streamingWorkbook;
 	private File output;
 	private File tempOutput;
 
@@ -59,6 +65,7 @@ public abstract class XLSXWriter {
 	protected XSSFWorkbook createWorkbook(File output, boolean add) throws IOException {
 		log.info("Workbook gets created...");
 
+		Object event = ExclyEvents.beginWorkbookCreate(output.getPath(), add);
 		this.output = output;
 
 		if (add) {
@@ -84,27 +91,103 @@ public abstract class XLSXWriter {
 			outputWorkbook = new XSSFWorkbook();
 		}
 
+		ExclyEvents.endWorkbookCreate(event, tempOutput != null ? output.length() : 0L);
+
 		return outputWorkbook;
 	}
 
 	/**
-	 * Closes the workbook and cleans up all the used resources.
+	 * This method lets you create a streaming workbook for very large
+	 * outputs. Only the last rows of every new sheet are kept in memory, older
+	 * rows are flushed into compressed temporary files. The rows of existing
+	 * sheets can't be accessed. After finishing the writing process its
+	 * necessary to close the workbook with the method called closeWorkbook,
+	 * which also deletes the temporary files.
+	 * 
+	 * The workbook is written with the zip support of the JDK, which switches
+	 * to Zip64 automatically if a sheet or the file exceeds 4 GB.
+	 * 
+	 * @param output
+	 *            The output file.
+	 * @param add
+	 *            Set this parameter to tell the writer if you want to append
+	 *            the content to an existing file or if you want to create a
+	 *            completely new file.
+	 * @param rowAccessWindowSize
+	 *            The number of rows per sheet which are kept in memory.
+	 * @return Returns the workbook.
+	 * @throws IOException
+	 *             The Exception is thrown if an error occurs.
+	 */
+	protected SXSSFWorkbook createStreamingWorkbook(File output, boolean add, int rowAccessWindowSize)
+			throws IOException {
+		XSSFWorkbook template = createWorkbook(output, add);
+
+		streamingWorkbook = new SXSSFWorkbook(template, rowAccessWindowSize);
+		streamingWorkbook.setCompressTempFiles(true);
+
+		return streamingWorkbook;
+	}
+
+	/**
+	 * Closes the workbook and cleans up all the used resources. If the
+	 * {@link ExclyMetrics} or the {@link ExclyEvents} are enabled, the rows,
+	 * the size of the file and the time spent are recorded. An appended
+	 * workbook is closed before the temporary output replaces the original
+	 * file, as closing it saves the opened file.
 	 * 
 	 * @throws IOException
 	 *             The Exception is thrown if an error occurs.
 	 */
 	protected void closeWorkbook() throws IOException {
-		if (outputWorkbook != null) {
+		long start = ExclyMetrics.start();
+		Object event = output != null ? ExclyEvents.beginWorkbookClose(output.getPath()) : null;
+		long rows = start != 0L || event != null ? countRows() : 0L;
+
+		if (streamingWorkbook != null) {
+			try {
+				streamingWorkbook.write(outputStream);
+			} finally {
+				streamingWorkbook.dispose();
+			}
+		} else if (outputWorkbook != null) {
 			outputWorkbook.write(outputStream);
+		}
+		if (outputStream != null) {
+			outputStream.close();
+		}
+		if (outputWorkbook != null) {
+			outputWorkbook.close();
 			if (tempOutput != null) {
 				output.delete();
 				tempOutput.renameTo(output);
 				tempOutput.delete();
 			}
-			outputWorkbook.close();
 		}
-		if (outputStream != null) {
-			outputStream.close();
+
+		if (start != 0L && output != null) {
+			ExclyMetrics.recordWorkbookWritten(start, rows, output.length());
+		}
+		if (event != null) {
+			ExclyEvents.endWorkbookClose(event, rows, output.length());
+		}
+
+		outputStream = null;
+		outputWorkbook = null;
+		streamingWorkbook = null;
+		tempOutput = null;
+	}
+
+	private long countRows() {
+		Workbook workbook = streamingWorkbook != null ? streamingWorkbook : outputWorkbook;
+		long rows = 0;
+
+		if (workbook != null) {
+			for (int i = 0; i < workbook.getNumberOfSheets(); i++) {
+				rows += workbook.getSheetAt(i).getPhysicalNumberOfRows();
+			}
 		}
+
+		return rows;
 	}
 }
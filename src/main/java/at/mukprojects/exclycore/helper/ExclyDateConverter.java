@@ -0,0 +1,185 @@
+/** 
+ * This code is copyright (c) Mathias Markl 2015
+ * 
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ * 
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package at.mukprojects.exclycore.helper;
+
+import java.util.Calendar;
+import java.util.GregorianCalendar;
+import java.util.TimeZone;
+
+import at.mukprojects.exclycore.model.ExclyDate;
+
+/**
+ * ExclyDateConverter converts Excel serial numbers into epoch values with plain
+ * arithmetic. It gives the same results as
+ * {@link org.apache.poi.ss.usermodel.DateUtil#getJavaDate(double, boolean)
+ * DateUtil.getJavaDate} without creating a calendar for every value.
+ *
+ * @author Mathias Markl
+ */
+public final class ExclyDateConverter {
+	private static final long MILLIS_PER_DAY = 86400000L;
+
+	/**
+	 * Epoch day of the serial number zero in the 1900 date system (1899-12-31).
+	 */
+	private static final long EPOCH_DAY_1900 = -25568;
+
+	/**
+	 * Epoch day of the serial number zero in the 1904 date system (1904-01-01).
+	 */
+	private static final long EPOCH_DAY_1904 = -24107;
+
+	/**
+	 * First serial number after the non existing 1900-02-29, which Excel treats
+	 * as a valid date.
+	 */
+	private static final int LEAP_YEAR_BUG_SERIAL = 61;
+
+	/**
+	 * The time zone data of the JDK starts in 1900, earlier wall times are
+	 * resolved through a calendar (1900-01-02 00:00 UTC).
+	 */
+	private static final long ZONE_DATA_START = -2208902400000L;
+
+	private final boolean date1904;
+	private final TimeZone timeZone;
+	private final boolean fixedOffset;
+	private final int rawOffset;
+
+	/**
+	 * Constructs a new ExclyDateConverter for the default time zone.
+	 * 
+	 * @param date1904
+	 *            Set this parameter if the workbook uses the 1904 date system.
+	 */
+	public ExclyDateConverter(boolean date1904) {
+		this(date1904, TimeZone.getDefault());
+	}
+
+	/**
+	 * Constructs a new ExclyDateConverter.
+	 * 
+	 * @param date1904
+	 *            Set this parameter if the workbook uses the 1904 date system.
+	 * @param timeZone
+	 *            The time zone the serial numbers are interpreted in.
+	 */
+	public ExclyDateConverter(boolean date1904, TimeZone timeZone) {
+		this.date1904 = date1904;
+		this.timeZone = timeZone;
+		this.fixedOffset = timeZone.toZoneId().getRules().isFixedOffset();
+		this.rawOffset = timeZone.getRawOffset();
+	}
+
+	/**
+	 * Checks if the converter uses the 1904 date system.
+	 * 
+	 * @return Returns true if the 1904 date system is used, otherwise it will
+	 *         return false.
+	 */
+	public boolean isDate1904() {
+		return date1904;
+	}
+
+	/**
+	 * Checks if the serial number is a valid Excel date.
+	 * 
+	 * @param serial
+	 *            The Excel serial number.
+	 * @return Returns true if the serial number is a valid date, otherwise it
+	 *         will return false.
+	 */
+	public boolean isValid(double serial) {
+		return serial > -Double.MIN_VALUE;
+	}
+
+	/**
+	 * Converts the serial number into days since the epoch. The time of the
+	 * day is ignored.
+	 * 
+	 * @param serial
+	 *            The Excel serial number.
+	 * @return Returns the days since the epoch.
+	 */
+	public long toEpochDay(double serial) {
+		return toEpochDay((int) Math.floor(serial));
+	}
+
+	/**
+	 * Converts the serial number into milliseconds since the epoch. The serial
+	 * number is interpreted as wall time in the time zone of the converter.
+	 * 
+	 * @param serial
+	 *            The Excel serial number.
+	 * @return Returns the milliseconds since the epoch.
+	 */
+	public long toEpochMillis(double serial) {
+		int wholeDays = (int) Math.floor(serial);
+		int millisInDay = (int) ((serial - wholeDays) * MILLIS_PER_DAY + 0.5);
+		long localMillis = toEpochDay(wholeDays) * MILLIS_PER_DAY + millisInDay;
+
+		if (fixedOffset) {
+			return localMillis - rawOffset;
+		}
+		if (localMillis < ZONE_DATA_START) {
+			return toEpochMillisNearTransition(localMillis);
+		}
+		int offset = timeZone.getOffset(localMillis - rawOffset);
+		if (offset == timeZone.getOffset(localMillis - offset)) {
+			return localMillis - offset;
+		}
+		return toEpochMillisNearTransition(localMillis);
+	}
+
+	/**
+	 * Converts the serial number into an ExclyDate. An invalid serial number
+	 * results in an ExclyDate without a value, as POI returns no date for it.
+	 * 
+	 * @param serial
+	 *            The Excel serial number.
+	 * @return Returns the ExclyDate.
+	 */
+	public ExclyDate toExclyDate(double serial) {
+		if (!isValid(serial)) {
+			return new ExclyDate(null);
+		}
+		return new ExclyDate(toEpochMillis(serial));
+	}
+
+	/**
+	 * Resolves a wall time close to an offset transition or before the time
+	 * zone data the same way a calendar does, so these match the POI results.
+	 */
+	private long toEpochMillisNearTransition(long localMillis) {
+		Calendar calendar = new GregorianCalendar(timeZone);
+		calendar.clear();
+		calendar.set(1970, Calendar.JANUARY, 1 + (int) Math.floorDiv(localMillis, MILLIS_PER_DAY), 0, 0, 0);
+		calendar.set(Calendar.MILLISECOND, (int) Math.floorMod(localMillis, MILLIS_PER_DAY));
+		return calendar.getTimeInMillis();
+	}
+
+	private long toEpochDay(int wholeDays) {
+		if (date1904) {
+			return EPOCH_DAY_1904 + wholeDays;
+		} else if (wholeDays < LEAP_YEAR_BUG_SERIAL) {
+			return EPOCH_DAY_1900 + wholeDays;
+		} else {
+			return EPOCH_DAY_1900 + wholeDays - 1;
+		}
+	}
+}
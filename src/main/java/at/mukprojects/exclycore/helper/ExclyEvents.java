@@ -0,0 +1,228 @@
+/** 
+ * This code is copyright (c) Mathias Markl 2015
+ * 
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ * 
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package at.mukprojects.exclycore.helper;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * ExclyEvents emits Java Flight Recorder events for the expensive phases of
+ * the reader and the writer, so a slow import can be correlated with the
+ * garbage collection and the I/O of the same recording. All events are
+ * disabled by default and cost nothing unless they are enabled in a running
+ * recording, for example with
+ * 
+ * <pre>
+ * -XX:StartFlightRecording:+at.mukprojects.exclycore.SheetRead#enabled=true
+ * </pre>
+ * 
+ * On a runtime without the Flight Recorder the methods do nothing. A begin
+ * method returns null if the event isn't recorded, the matching end method
+ * accepts this null.
+ *
+ * @author Mathias Markl
+ */
+public final class ExclyEvents {
+	private static final Logger log = LoggerFactory.getLogger(ExclyEvents.class);
+
+	private static final boolean AVAILABLE = isFlightRecorderPresent();
+
+	private ExclyEvents() {
+	}
+
+	/**
+	 * Checks if the runtime supports the Flight Recorder.
+	 * 
+	 * @return Returns true if the events can be recorded, otherwise it will
+	 *         return false.
+	 */
+	public static boolean isAvailable() {
+		return AVAILABLE;
+	}
+
+	/**
+	 * Begins the opening of a workbook by a reader.
+	 * 
+	 * @param path
+	 *            The path of the file or null if a stream is read.
+	 * @param fileSize
+	 *            The size of the file or -1 if it's unknown.
+	 * @return Returns the event or null.
+	 */
+	public static Object beginWorkbookOpen(String path, long fileSize) {
+		return AVAILABLE ? FlightRecorderEvents.beginWorkbookOpen(path, fileSize) : null;
+	}
+
+	/**
+	 * Ends the opening of a workbook.
+	 * 
+	 * @param event
+	 *            The event returned by {@link #beginWorkbookOpen(String, long)}.
+	 */
+	public static void endWorkbookOpen(Object event) {
+		if (event != null) {
+			FlightRecorderEvents.endWorkbookOpen(event);
+		}
+	}
+
+	/**
+	 * Begins the reading of a sheet.
+	 * 
+	 * @param sheetIndex
+	 *            The index of the sheet.
+	 * @param sheetName
+	 *            The name of the sheet.
+	 * @return Returns the event or null.
+	 */
+	public static Object beginSheetRead(int sheetIndex, String sheetName) {
+		return AVAILABLE ? FlightRecorderEvents.beginSheetRead(sheetIndex, sheetName) : null;
+	}
+
+	/**
+	 * Ends the reading of a sheet.
+	 * 
+	 * @param event
+	 *            The event returned by {@link #beginSheetRead(int, String)}.
+	 * @param rows
+	 *            The number of rows with cells.
+	 * @param cells
+	 *            The number of cells.
+	 */
+	public static void endSheetRead(Object event, long rows, long cells) {
+		if (event != null) {
+			FlightRecorderEvents.endSheetRead(event, rows, cells);
+		}
+	}
+
+	/**
+	 * Begins the parsing of a text date with the date patterns.
+	 * 
+	 * @return Returns the event or null.
+	 */
+	public static Object beginDateParse() {
+		return AVAILABLE ? FlightRecorderEvents.beginDateParse() : null;
+	}
+
+	/**
+	 * Ends the parsing of a text date which matched none of the patterns. A
+	 * matching text date isn't recorded.
+	 * 
+	 * @param event
+	 *            The event returned by {@link #beginDateParse()}.
+	 * @param text
+	 *            The text which couldn't be parsed.
+	 * @param patterns
+	 *            The number of tried patterns.
+	 */
+	public static void endDateParseMiss(Object event, String text, int patterns) {
+		if (event != null) {
+			FlightRecorderEvents.endDateParseMiss(event, text, patterns);
+		}
+	}
+
+	/**
+	 * Begins the creation of a cell style for an error value.
+	 * 
+	 * @return Returns the event or null.
+	 */
+	public static Object beginErrorStyle() {
+		return AVAILABLE ? FlightRecorderEvents.beginErrorStyle() : null;
+	}
+
+	/**
+	 * Ends the creation of a cell style for an error value.
+	 * 
+	 * @param event
+	 *            The event returned by {@link #beginErrorStyle()}.
+	 * @param cellStyles
+	 *            The number of cell styles in the workbook.
+	 */
+	public static void endErrorStyle(Object event, int cellStyles) {
+		if (event != null) {
+			FlightRecorderEvents.endErrorStyle(event, cellStyles);
+		}
+	}
+
+	/**
+	 * Begins the creation of a workbook by the writer.
+	 * 
+	 * @param path
+	 *            The path of the output file.
+	 * @param add
+	 *            Set this parameter if the content is appended.
+	 * @return Returns the event or null.
+	 */
+	public static Object beginWorkbookCreate(String path, boolean add) {
+		return AVAILABLE ? FlightRecorderEvents.beginWorkbookCreate(path, add) : null;
+	}
+
+	/**
+	 * Ends the creation of a workbook.
+	 * 
+	 * @param event
+	 *            The event returned by
+	 *            {@link #beginWorkbookCreate(String, boolean)}.
+	 * @param fileSize
+	 *            The size of the appended file or zero for a new file.
+	 */
+	public static void endWorkbookCreate(Object event, long fileSize) {
+		if (event != null) {
+			FlightRecorderEvents.endWorkbookCreate(event, fileSize);
+		}
+	}
+
+	/**
+	 * Begins the closing of a workbook by the writer.
+	 * 
+	 * @param path
+	 *            The path of the output file.
+	 * @return Returns the event or null.
+	 */
+	public static Object beginWorkbookClose(String path) {
+		return AVAILABLE ? FlightRecorderEvents.beginWorkbookClose(path) : null;
+	}
+
+	/**
+	 * Ends the closing of a workbook.
+	 * 
+	 * @param event
+	 *            The event returned by {@link #beginWorkbookClose(String)}.
+	 * @param rows
+	 *            The number of rows in the workbook.
+	 * @param fileSize
+	 *            The size of the written file.
+	 */
+	public static void endWorkbookClose(Object event, long rows, long fileSize) {
+		if (event != null) {
+			FlightRecorderEvents.endWorkbookClose(event, rows, fileSize);
+		}
+	}
+
+	private static boolean isFlightRecorderPresent() {
+		try {
+			Class.forName("jdk.jfr.Event", false, ExclyEvents.class.getClassLoader());
+			return true;
+		} catch (ClassNotFoundException e) {
+			log.debug("The Flight Recorder isn't available, no events are emitted.");
+			return false;
+		} catch (LinkageError e) {
+			log.debug("The Flight Recorder isn't available, no events are emitted.");
+			return false;
+		}
+	}
+}
@@ -0,0 +1,625 @@
+/** 
+ * This code is copyright (c) Mathias Markl 2015
+ * 
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ * 
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package at.mukprojects.exclycore.helper;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.poi.hssf.usermodel.HSSFEvaluationWorkbook;
+import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.apache.poi.ss.formula.EvaluationName;
+import org.apache.poi.ss.formula.EvaluationWorkbook;
+import org.apache.poi.ss.formula.ExternSheetReferenceToken;
+import org.apache.poi.ss.formula.FormulaParser;
+import org.apache.poi.ss.formula.FormulaParsingWorkbook;
+import org.apache.poi.ss.formula.FormulaRenderingWorkbook;
+import org.apache.poi.ss.formula.FormulaType;
+import org.apache.poi.ss.formula.ptg.AbstractFunctionPtg;
+import org.apache.poi.ss.formula.ptg.Area3DPxg;
+import org.apache.poi.ss.formula.ptg.AreaPtgBase;
+import org.apache.poi.ss.formula.ptg.NamePtg;
+import org.apache.poi.ss.formula.ptg.NameXPtg;
+import org.apache.poi.ss.formula.ptg.Ptg;
+import org.apache.poi.ss.formula.ptg.Pxg;
+import org.apache.poi.ss.formula.ptg.Ref3DPxg;
+import org.apache.poi.ss.formula.ptg.RefPtgBase;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.FormulaEvaluator;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.usermodel.XSSFCell;
+import org.apache.poi.xssf.usermodel.XSSFEvaluationWorkbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * ExclyFormulaEvaluator evaluates the formula cells of a workbook. Formula
+ * cells without a cached result, as written by tools which don't calculate
+ * the workbook, are evaluated once and the result is stored in the cell.
+ * 
+ * After a cell is edited, only the formula cells which depend on it are
+ * calculated again. The dependencies are taken from the parsed formulas of the
+ * workbook. The graph is created with the first edit and kept up to date with
+ * {@link #notifySetFormula(Cell)}. Every formula keeps its own precedents and
+ * ranges are kept in buckets of rows or columns, so an edit only visits the
+ * edges of the changed cells. Formulas with references that can't be resolved
+ * in advance, like INDIRECT, OFFSET or volatile functions, are calculated
+ * again after every edit.
+ * 
+ * The cells of the graph are identified by the index of their sheet. If
+ * sheets are created, removed or reordered, the graph is created again with
+ * the next edit, {@link #invalidate()} does the same explicitly.
+ * 
+ * The evaluator isn't thread safe, because the POI evaluator it's based on
+ * isn't either.
+ *
+ * @author Mathias Markl
+ */
+public final class ExclyFormulaEvaluator {
+	private static final Logger log = LoggerFactory.getLogger(ExclyFormulaEvaluator.class);
+
+	/**
+	 * Functions whose references or results aren't known before evaluation.
+	 */
+	private static final Set<String> VOLATILE_FUNCTIONS = new HashSet<String>(Arrays.asList("INDIRECT", "OFFSET",
+			"NOW", "TODAY", "RAND", "RANDBETWEEN", "CELL", "INFO"));
+
+	/**
+	 * Upper bound for nested name definitions.
+	 */
+	private static final int MAX_NAME_DEPTH = 16;
+
+	private final Workbook workbook;
+	private final FormulaEvaluator evaluator;
+	private final FormulaParsingWorkbook parsingWorkbook;
+
+	private Map<Long, Set<Long>> cellDependents;
+	private Map<Long, Set<Long>> formulaPrecedents;
+	private Map<Long, List<Area>> formulaAreas;
+	private AreaIndex areas;
+	private Set<Long> volatileCells;
+	private Sheet[] graphSheets;
+
+	/**
+	 * Constructs a new ExclyFormulaEvaluator for the workbook.
+	 * 
+	 * @param workbook
+	 *            The Excel workbook.
+	 */
+	public ExclyFormulaEvaluator(Workbook workbook) {
+		this.workbook = workbook;
+		this.evaluator = workbook.getCreationHelper().createFormulaEvaluator();
+
+		if (workbook instanceof XSSFWorkbook) {
+			this.parsingWorkbook = XSSFEvaluationWorkbook.create((XSSFWorkbook) workbook);
+		} else if (workbook instanceof HSSFWorkbook) {
+			this.parsingWorkbook = HSSFEvaluationWorkbook.create((HSSFWorkbook) workbook);
+		} else {
+			this.parsingWorkbook = null;
+		}
+	}
+
+	/**
+	 * Returns the workbook of the evaluator.
+	 * 
+	 * @return The Excel workbook.
+	 */
+	public Workbook getWorkbook() {
+		return workbook;
+	}
+
+	/**
+	 * Checks if the formula cell has a cached result. Only XSSF cells can be
+	 * stored without one, all other cells always have a result.
+	 * 
+	 * @param cell
+	 *            The Excel cell.
+	 * @return Returns true if the cell has a cached result, otherwise it will
+	 *         return false.
+	 */
+	public boolean hasCachedResult(Cell cell) {
+		if (cell.getCellType() != Cell.CELL_TYPE_FORMULA) {
+			return true;
+		}
+		if (cell instanceof XSSFCell) {
+			return ((XSSFCell) cell).getCTCell().isSetV();
+		}
+		return true;
+	}
+
+	/**
+	 * Returns the result type of the formula cell. If the cell has no cached
+	 * result, the formula is evaluated and the result is stored in the cell.
+	 * 
+	 * @param cell
+	 *            The Excel formula cell.
+	 * @return Returns the cell type of the formula result.
+	 */
+	public int getCachedFormulaResultType(Cell cell) {
+		if (!hasCachedResult(cell)) {
+			evaluator.evaluateFormulaCell(cell);
+		}
+		return cell.getCachedFormulaResultType();
+	}
+
+	/**
+	 * Evaluates all formula cells of the workbook and stores the results in
+	 * the cells.
+	 */
+	public void evaluateAll() {
+		evaluator.clearAllCachedResultValues();
+		evaluator.evaluateAll();
+	}
+
+	/**
+	 * Discards the dependency graph and the cached results of the POI
+	 * evaluator. The graph is created again with the next edit.
+	 */
+	public void invalidate() {
+		evaluator.clearAllCachedResultValues();
+		cellDependents = null;
+		formulaPrecedents = null;
+		formulaAreas = null;
+		areas = null;
+		volatileCells = null;
+		graphSheets = null;
+	}
+
+	/**
+	 * Notifies the evaluator that the value of the cell has changed. All
+	 * formula cells which depend on the cell are calculated again and store
+	 * their new results.
+	 * 
+	 * @param cell
+	 *            The changed Excel cell.
+	 * @return Returns the number of calculated formula cells.
+	 */
+	public int notifyUpdateCell(Cell cell) {
+		checkSheets();
+		evaluator.notifyUpdateCell(cell);
+		return recalculate(cell);
+	}
+
+	/**
+	 * Notifies the evaluator that the formula of the cell has been set or
+	 * changed. The dependencies of the cell are updated, then the cell and all
+	 * formula cells which depend on it are calculated again.
+	 * 
+	 * @param cell
+	 *            The changed Excel formula cell.
+	 * @return Returns the number of calculated formula cells.
+	 */
+	public int notifySetFormula(Cell cell) {
+		checkSheets();
+		evaluator.notifySetFormula(cell);
+		if (cellDependents != null) {
+			long key = key(cell);
+			removeDependencies(key);
+			addDependencies(cell, key);
+		}
+		return recalculate(cell);
+	}
+
+	/**
+	 * Notifies the evaluator that the cell has been removed. All formula cells
+	 * which depend on the cell are calculated again.
+	 * 
+	 * @param cell
+	 *            The removed Excel cell.
+	 * @return Returns the number of calculated formula cells.
+	 */
+	public int notifyDeleteCell(Cell cell) {
+		checkSheets();
+		evaluator.notifyDeleteCell(cell);
+		if (cellDependents != null) {
+			removeDependencies(key(cell));
+		}
+		return recalculate(cell);
+	}
+
+	/**
+	 * Invalidates the graph if the sheets of the workbook have changed since
+	 * it was created, as its keys hold the sheet index.
+	 */
+	private void checkSheets() {
+		if (graphSheets == null) {
+			return;
+		}
+		boolean changed = graphSheets.length != workbook.getNumberOfSheets();
+		for (int i = 0; !changed && i < graphSheets.length; i++) {
+			changed = graphSheets[i] != workbook.getSheetAt(i);
+		}
+		if (changed) {
+			log.debug("The sheets of the workbook have changed, the dependency graph is created again.");
+			invalidate();
+		}
+	}
+
+	/**
+	 * Calculates the dirty formula cells again, starting with the changed
+	 * cell. Workbooks whose formulas can't be parsed are calculated as a
+	 * whole.
+	 */
+	private int recalculate(Cell changed) {
+		if (parsingWorkbook == null) {
+			evaluateAll();
+			return -1;
+		}
+		if (cellDependents == null) {
+			buildDependencies();
+		}
+
+		Set<Long> dirty = new LinkedHashSet<Long>();
+		ArrayDeque<Long> queue = new ArrayDeque<Long>();
+		long changedKey = key(changed);
+		if (changed.getCellType() == Cell.CELL_TYPE_FORMULA) {
+			dirty.add(changedKey);
+		}
+		queue.add(changedKey);
+		for (Long key : volatileCells) {
+			if (dirty.add(key)) {
+				queue.add(key);
+			}
+		}
+
+		while (!queue.isEmpty()) {
+			long key = queue.poll();
+			addDependents(key, dirty, queue);
+		}
+
+		int count = 0;
+		for (Long key : dirty) {
+			Cell cell = cell(key);
+			if (cell != null && cell.getCellType() == Cell.CELL_TYPE_FORMULA) {
+				if (volatileCells.contains(key)) {
+					evaluator.notifySetFormula(cell);
+				}
+				evaluator.evaluateFormulaCell(cell);
+				count++;
+			}
+		}
+
+		log.debug("Calculated " + count + " formula cells.");
+		return count;
+	}
+
+	private void addDependents(long key, Set<Long> dirty, ArrayDeque<Long> queue) {
+		Set<Long> dependents = cellDependents.get(key);
+		if (dependents != null) {
+			for (Long dependent : dependents) {
+				if (dirty.add(dependent)) {
+					queue.add(dependent);
+				}
+			}
+		}
+
+		areas.addDependents(sheetOf(key), rowOf(key), columnOf(key), dirty, queue);
+	}
+
+	/**
+	 * Parses all formulas of the workbook and creates the dependency graph.
+	 */
+	private void buildDependencies() {
+		cellDependents = new HashMap<Long, Set<Long>>();
+		formulaPrecedents = new HashMap<Long, Set<Long>>();
+		formulaAreas = new HashMap<Long, List<Area>>();
+		areas = new AreaIndex();
+		volatileCells = new LinkedHashSet<Long>();
+		graphSheets = new Sheet[workbook.getNumberOfSheets()];
+
+		for (int i = 0; i < graphSheets.length; i++) {
+			graphSheets[i] = workbook.getSheetAt(i);
+			for (Row row : graphSheets[i]) {
+				for (Cell cell : row) {
+					if (cell.getCellType() == Cell.CELL_TYPE_FORMULA) {
+						addDependencies(cell, key(cell));
+					}
+				}
+			}
+		}
+
+		log.debug("Created the dependency graph with " + cellDependents.size() + " cells and " + areas.size
+				+ " areas.");
+	}
+
+	private void addDependencies(Cell cell, long key) {
+		if (cell.getCellType() != Cell.CELL_TYPE_FORMULA) {
+			return;
+		}
+
+		int sheetIndex = sheetOf(key);
+		try {
+			Ptg[] ptgs = FormulaParser.parse(cell.getCellFormula(), parsingWorkbook, FormulaType.CELL, sheetIndex);
+			addDependencies(ptgs, sheetIndex, key, 0);
+		} catch (RuntimeException e) {
+			log.warn("The evaluator was unable to parse the formula of the cell [Row, Column] (" + cell.getRowIndex()
+					+ ", " + cell.getColumnIndex() + ")", e);
+			volatileCells.add(key);
+		}
+	}
+
+	private void addDependencies(Ptg[] ptgs, int sheetIndex, long key, int depth) {
+		for (Ptg ptg : ptgs) {
+			if (ptg instanceof RefPtgBase) {
+				RefPtgBase ref = (RefPtgBase) ptg;
+				int[] sheets = sheetsOf(ptg, sheetIndex);
+				if (sheets[0] == sheets[1]) {
+					addCellDependent(cellKey(sheets[0], ref.getRow(), ref.getColumn()), key);
+				} else {
+					addArea(new Area(sheets[0], sheets[1], ref.getRow(), ref.getRow(), ref.getColumn(),
+							ref.getColumn(), key));
+				}
+			} else if (ptg instanceof AreaPtgBase) {
+				AreaPtgBase ref = (AreaPtgBase) ptg;
+				int[] sheets = sheetsOf(ptg, sheetIndex);
+				addArea(new Area(sheets[0], sheets[1], ref.getFirstRow(), ref.getLastRow(), ref.getFirstColumn(),
+						ref.getLastColumn(), key));
+			} else if (ptg instanceof NamePtg && depth < MAX_NAME_DEPTH) {
+				EvaluationName name = ((EvaluationWorkbook) parsingWorkbook).getName((NamePtg) ptg);
+				if (name != null && name.hasFormula()) {
+					addDependencies(name.getNameDefinition(), sheetIndex, key, depth + 1);
+				} else {
+					volatileCells.add(key);
+				}
+			} else if (ptg instanceof NamePtg || ptg instanceof NameXPtg) {
+				volatileCells.add(key);
+			} else if (ptg instanceof AbstractFunctionPtg
+					&& VOLATILE_FUNCTIONS.contains(((AbstractFunctionPtg) ptg).getName())) {
+				volatileCells.add(key);
+			}
+		}
+	}
+
+	/**
+	 * Returns the first and the last sheet index of a reference. References
+	 * into other workbooks are resolved to an empty range.
+	 */
+	private int[] sheetsOf(Ptg ptg, int sheetIndex) {
+		if (ptg instanceof Pxg) {
+			Pxg pxg = (Pxg) ptg;
+			if (pxg.getExternalWorkbookNumber() > 0) {
+				return new int[] { -1, -1 };
+			}
+			String lastName = null;
+			if (ptg instanceof Ref3DPxg) {
+				lastName = ((Ref3DPxg) ptg).getLastSheetName();
+			} else if (ptg instanceof Area3DPxg) {
+				lastName = ((Area3DPxg) ptg).getLastSheetName();
+			}
+			int first = workbook.getSheetIndex(pxg.getSheetName());
+			int last = lastName == null ? first : workbook.getSheetIndex(lastName);
+			return new int[] { first, last };
+		} else if (ptg instanceof ExternSheetReferenceToken) {
+			FormulaRenderingWorkbook renderingWorkbook = (FormulaRenderingWorkbook) parsingWorkbook;
+			int externSheetIndex = ((ExternSheetReferenceToken) ptg).getExternSheetIndex();
+			if (renderingWorkbook.getExternalSheet(externSheetIndex) != null) {
+				return new int[] { -1, -1 };
+			}
+			int first = workbook.getSheetIndex(renderingWorkbook.getSheetFirstNameByExternSheet(externSheetIndex));
+			String lastName = renderingWorkbook.getSheetLastNameByExternSheet(externSheetIndex);
+			int last = lastName == null ? first : workbook.getSheetIndex(lastName);
+			return new int[] { first, last };
+		}
+		return new int[] { sheetIndex, sheetIndex };
+	}
+
+	private void addCellDependent(long precedent, long key) {
+		addEdge(cellDependents, precedent, key);
+		addEdge(formulaPrecedents, key, precedent);
+	}
+
+	private static void addEdge(Map<Long, Set<Long>> edges, long from, long to) {
+		Set<Long> targets = edges.get(from);
+		if (targets == null) {
+			targets = new HashSet<Long>(4);
+			edges.put(from, targets);
+		}
+		targets.add(to);
+	}
+
+	private void addArea(Area area) {
+		if (area.firstSheet < 0) {
+			return;
+		}
+		areas.update(area, true);
+
+		List<Area> owned = formulaAreas.get(area.dependent);
+		if (owned == null) {
+			owned = new ArrayList<Area>(2);
+			formulaAreas.put(area.dependent, owned);
+		}
+		owned.add(area);
+	}
+
+	/**
+	 * Removes the edges of the formula cell. Only the precedents and the
+	 * areas of the cell itself are visited.
+	 */
+	private void removeDependencies(long key) {
+		volatileCells.remove(key);
+
+		Set<Long> precedents = formulaPrecedents.remove(key);
+		if (precedents != null) {
+			for (Long precedent : precedents) {
+				Set<Long> dependents = cellDependents.get(precedent);
+				dependents.remove(key);
+				if (dependents.isEmpty()) {
+					cellDependents.remove(precedent);
+				}
+			}
+		}
+
+		List<Area> owned = formulaAreas.remove(key);
+		if (owned != null) {
+			for (Area area : owned) {
+				areas.update(area, false);
+			}
+		}
+	}
+
+	private Cell cell(long key) {
+		Sheet sheet = workbook.getSheetAt(sheetOf(key));
+		Row row = sheet.getRow(rowOf(key));
+		return row == null ? null : row.getCell(columnOf(key));
+	}
+
+	private long key(Cell cell) {
+		int sheetIndex = workbook.getSheetIndex(cell.getSheet());
+		return cellKey(sheetIndex, cell.getRowIndex(), cell.getColumnIndex());
+	}
+
+	private static long cellKey(int sheet, int row, int column) {
+		return ((long) sheet << 34) | ((long) row << 14) | column;
+	}
+
+	private static int sheetOf(long key) {
+		return (int) (key >>> 34);
+	}
+
+	private static int rowOf(long key) {
+		return (int) ((key >>> 14) & 0xFFFFF);
+	}
+
+	private static int columnOf(long key) {
+		return (int) (key & 0x3FFF);
+	}
+
+	/**
+	 * A rectangular range of cells a formula cell depends on.
+	 */
+	private static final class Area {
+		private final int firstSheet;
+		private final int lastSheet;
+		private final int firstRow;
+		private final int lastRow;
+		private final int firstColumn;
+		private final int lastColumn;
+		private final long dependent;
+
+		private Area(int firstSheet, int lastSheet, int firstRow, int lastRow, int firstColumn, int lastColumn,
+				long dependent) {
+			this.firstSheet = Math.min(firstSheet, lastSheet);
+			this.lastSheet = Math.max(firstSheet, lastSheet);
+			this.firstRow = Math.min(firstRow, lastRow);
+			this.lastRow = Math.max(firstRow, lastRow);
+			this.firstColumn = Math.min(firstColumn, lastColumn);
+			this.lastColumn = Math.max(firstColumn, lastColumn);
+			this.dependent = dependent;
+		}
+
+		private boolean contains(int sheet, int row, int column) {
+			return sheet >= firstSheet && sheet <= lastSheet && row >= firstRow && row <= lastRow
+					&& column >= firstColumn && column <= lastColumn;
+		}
+	}
+
+	/**
+	 * Finds the areas which contain a cell. Areas are kept in buckets of 64
+	 * rows of their sheet. Areas over more rows, like whole columns, are kept
+	 * in buckets of 64 columns instead, and areas which are large in both
+	 * directions in a list of their sheet. A cell only visits one bucket of
+	 * each kind.
+	 */
+	private static final class AreaIndex {
+		private static final int BLOCK_SHIFT = 6;
+		private static final int MAX_BLOCKS = 4;
+
+		private final Map<Long, List<Area>> rowBlocks = new HashMap<Long, List<Area>>();
+		private final Map<Long, List<Area>> columnBlocks = new HashMap<Long, List<Area>>();
+		private final Map<Long, List<Area>> sheets = new HashMap<Long, List<Area>>();
+		private int size;
+
+		/**
+		 * Adds the area to its buckets or removes it from them.
+		 */
+		private void update(Area area, boolean add) {
+			int firstRowBlock = area.firstRow >> BLOCK_SHIFT;
+			int lastRowBlock = area.lastRow >> BLOCK_SHIFT;
+			int firstColumnBlock = area.firstColumn >> BLOCK_SHIFT;
+			int lastColumnBlock = area.lastColumn >> BLOCK_SHIFT;
+
+			for (int sheet = area.firstSheet; sheet <= area.lastSheet; sheet++) {
+				if (lastRowBlock - firstRowBlock < MAX_BLOCKS) {
+					for (int block = firstRowBlock; block <= lastRowBlock; block++) {
+						update(rowBlocks, blockKey(sheet, block), area, add);
+					}
+				} else if (lastColumnBlock - firstColumnBlock < MAX_BLOCKS) {
+					for (int block = firstColumnBlock; block <= lastColumnBlock; block++) {
+						update(columnBlocks, blockKey(sheet, block), area, add);
+					}
+				} else {
+					update(sheets, sheet, area, add);
+				}
+			}
+
+			size += add ? 1 : -1;
+		}
+
+		private static void update(Map<Long, List<Area>> buckets, long key, Area area, boolean add) {
+			List<Area> bucket = buckets.get(key);
+			if (add) {
+				if (bucket == null) {
+					bucket = new ArrayList<Area>(4);
+					buckets.put(key, bucket);
+				}
+				bucket.add(area);
+			} else if (bucket != null) {
+				bucket.remove(area);
+				if (bucket.isEmpty()) {
+					buckets.remove(key);
+				}
+			}
+		}
+
+		/**
+		 * Adds the formula cells of all areas which contain the cell.
+		 */
+		private void addDependents(int sheet, int row, int column, Set<Long> dirty, ArrayDeque<Long> queue) {
+			addDependents(rowBlocks.get(blockKey(sheet, row >> BLOCK_SHIFT)), sheet, row, column, dirty, queue);
+			addDependents(columnBlocks.get(blockKey(sheet, column >> BLOCK_SHIFT)), sheet, row, column, dirty,
+					queue);
+			addDependents(sheets.get((long) sheet), sheet, row, column, dirty, queue);
+		}
+
+		private static void addDependents(List<Area> bucket, int sheet, int row, int column, Set<Long> dirty,
+				ArrayDeque<Long> queue) {
+			if (bucket == null) {
+				return;
+			}
+			for (int i = 0; i < bucket.size(); i++) {
+				Area area = bucket.get(i);
+				if (area.contains(sheet, row, column) && dirty.add(area.dependent)) {
+					queue.add(area.dependent);
+				}
+			}
+		}
+
+		private static long blockKey(int sheet, int block) {
+			return ((long) sheet << 32) | block;
+		}
+	}
+}
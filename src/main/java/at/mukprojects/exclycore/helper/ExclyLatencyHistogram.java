@@ -0,0 +1,143 @@
+/** 
+ * This code is copyright (c) Mathias Markl 2015
+ * 
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ * 
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package at.mukprojects.exclycore.helper;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * ExclyLatencyHistogram counts durations in nanoseconds in buckets of powers
+ * of two. Recording is lock free and cheap under contention, the percentiles
+ * are the upper bounds of their buckets, so they are at most twice the exact
+ * value.
+ *
+ * @author Mathias Markl
+ */
+public final class ExclyLatencyHistogram {
+	private static final int BUCKETS = 64;
+
+	private final LongAdder[] buckets = new LongAdder[BUCKETS];
+	private final LongAdder count = new LongAdder();
+	private final LongAdder sum = new LongAdder();
+	private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+	/**
+	 * Constructs a new empty ExclyLatencyHistogram.
+	 */
+	public ExclyLatencyHistogram() {
+		for (int i = 0; i < BUCKETS; i++) {
+			buckets[i] = new LongAdder();
+		}
+	}
+
+	/**
+	 * Records a duration. Negative durations are recorded as zero.
+	 * 
+	 * @param nanos
+	 *            The duration in nanoseconds.
+	 */
+	public void record(long nanos) {
+		if (nanos < 0) {
+			nanos = 0;
+		}
+
+		buckets[BUCKETS - Long.numberOfLeadingZeros(nanos)].increment();
+		count.increment();
+		sum.add(nanos);
+		max.accumulate(nanos);
+	}
+
+	/**
+	 * Returns the number of recorded durations.
+	 * 
+	 * @return The number of durations.
+	 */
+	public long getCount() {
+		return count.sum();
+	}
+
+	/**
+	 * Returns the sum of all recorded durations.
+	 * 
+	 * @return The sum in nanoseconds.
+	 */
+	public long getSum() {
+		return sum.sum();
+	}
+
+	/**
+	 * Returns the mean of the recorded durations.
+	 * 
+	 * @return The mean in nanoseconds or zero if nothing has been recorded.
+	 */
+	public double getMean() {
+		long total = count.sum();
+		return total == 0 ? 0 : (double) sum.sum() / total;
+	}
+
+	/**
+	 * Returns the longest recorded duration.
+	 * 
+	 * @return The maximum in nanoseconds.
+	 */
+	public long getMax() {
+		return max.get();
+	}
+
+	/**
+	 * Returns the upper bound of the bucket which contains the percentile.
+	 * 
+	 * @param percentile
+	 *            The percentile between 0 and 100.
+	 * @return The percentile in nanoseconds or zero if nothing has been
+	 *         recorded.
+	 */
+	public long getPercentile(double percentile) {
+		long[] counts = new long[BUCKETS];
+		long total = 0;
+		for (int i = 0; i < BUCKETS; i++) {
+			counts[i] = buckets[i].sum();
+			total += counts[i];
+		}
+		if (total == 0) {
+			return 0;
+		}
+
+		long rank = Math.max(1, (long) Math.ceil(total * percentile / 100));
+		long seen = 0;
+		for (int i = 0; i < BUCKETS; i++) {
+			seen += counts[i];
+			if (seen >= rank) {
+				return Math.min(i == 0 ? 0 : (1L << i) - 1, getMax());
+			}
+		}
+		return getMax();
+	}
+
+	/**
+	 * Removes all recorded durations.
+	 */
+	public void reset() {
+		for (LongAdder bucket : buckets) {
+			bucket.reset();
+		}
+		count.reset();
+		sum.reset();
+		max.reset();
+	}
+}
@@ -0,0 +1,387 @@
+/** 
+ * This code is copyright (c) Mathias Markl 2015
+ * 
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ * 
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package at.mukprojects.exclycore.helper;
+
+import java.lang.management.ManagementFactory;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * ExclyMetrics records runtime metrics of the reader and the writer. The
+ * metrics are disabled by default and can be enabled with the system property
+ * {@value #PROPERTY} or {@link #setRecording(boolean)}. While they are disabled
+ * a read costs a single volatile read, while they are enabled the counters are
+ * {@link LongAdder}s, so reading in several threads does not contend.
+ * 
+ * Once enabled the metrics are registered as MXBean {@value #OBJECT_NAME} at
+ * the platform MBean server. Its attribute Enabled toggles the recording from
+ * a JMX client.
+ *
+ * @author Mathias Markl
+ */
+public final class ExclyMetrics implements ExclyMetricsMXBean {
+	private static final Logger log = LoggerFactory.getLogger(ExclyMetrics.class);
+
+	/**
+	 * The system property which enables the metrics on startup.
+	 */
+	public static final String PROPERTY = "exclycore.metrics";
+
+	/**
+	 * The name of the registered MXBean.
+	 */
+	public static final String OBJECT_NAME = "at.mukprojects.exclycore:type=Metrics";
+
+	/**
+	 * The number of text date patterns which are counted separately.
+	 */
+	private static final int DATE_PATTERNS = 32;
+
+	/**
+	 * The read methods of the reader.
+	 */
+	public enum ReadType {
+		STRING, FORMATTED, DOUBLE, DECIMAL, INTEGER, LONG, DATE, BOOLEAN
+	}
+
+	/**
+	 * The parse branches of the reader.
+	 */
+	public enum Branch {
+		/**
+		 * A text number in German notation (1.234,5).
+		 */
+		GERMAN_NUMBER,
+		/**
+		 * A text number in UK notation (1,234.5).
+		 */
+		UK_NUMBER,
+		/**
+		 * A numeric cell with a date format.
+		 */
+		DATE_FORMATTED_CELL,
+		/**
+		 * A text date matching one of the date patterns.
+		 */
+		DATE_PATTERN,
+		/**
+		 * A text date matching none of the date patterns.
+		 */
+		DATE_UNPARSABLE
+	}
+
+	private static final ExclyMetrics INSTANCE = new ExclyMetrics();
+
+	private static volatile boolean enabled;
+
+	private static boolean registered;
+
+	static {
+		if (Boolean.getBoolean(PROPERTY)) {
+			setEnabledState(true);
+		}
+	}
+
+	private final Map<ReadType, LongAdder> cellsRead = new EnumMap<ReadType, LongAdder>(ReadType.class);
+	private final Map<ReadType, LongAdder> blankCells = new EnumMap<ReadType, LongAdder>(ReadType.class);
+	private final Map<ReadType, LongAdder> errorCells = new EnumMap<ReadType, LongAdder>(ReadType.class);
+	private final Map<ReadType, ExclyLatencyHistogram> readNanos = new EnumMap<ReadType, ExclyLatencyHistogram>(
+			ReadType.class);
+	private final Map<Branch, LongAdder> branches = new EnumMap<Branch, LongAdder>(Branch.class);
+	private final LongAdder[] datePatterns = new LongAdder[DATE_PATTERNS];
+
+	private final LongAdder workbooksWritten = new LongAdder();
+	private final LongAdder rowsWritten = new LongAdder();
+	private final LongAdder bytesWritten = new LongAdder();
+	private final ExclyLatencyHistogram closeWorkbookNanos = new ExclyLatencyHistogram();
+
+	private ExclyMetrics() {
+		for (ReadType type : ReadType.values()) {
+			cellsRead.put(type, new LongAdder());
+			blankCells.put(type, new LongAdder());
+			errorCells.put(type, new LongAdder());
+			readNanos.put(type, new ExclyLatencyHistogram());
+		}
+		for (Branch branch : Branch.values()) {
+			branches.put(branch, new LongAdder());
+		}
+		for (int i = 0; i < DATE_PATTERNS; i++) {
+			datePatterns[i] = new LongAdder();
+		}
+	}
+
+	/**
+	 * Returns the metrics, which are also registered as MXBean.
+	 * 
+	 * @return Returns the metrics.
+	 */
+	public static ExclyMetrics getInstance() {
+		return INSTANCE;
+	}
+
+	/**
+	 * Checks if the metrics are recorded.
+	 * 
+	 * @return Returns true if the metrics are recorded, otherwise it will
+	 *         return false.
+	 */
+	public static boolean isRecording() {
+		return enabled;
+	}
+
+	/**
+	 * Enables or disables the recording of the metrics. Enabling registers the
+	 * MXBean if this hasn't happened yet.
+	 * 
+	 * @param enabled
+	 *            Set this parameter to record the metrics.
+	 */
+	public static void setRecording(boolean enabled) {
+		setEnabledState(enabled);
+	}
+
+	/**
+	 * Returns the start time of a measurement.
+	 * 
+	 * @return Returns the current {@link System#nanoTime()} or zero if the
+	 *         metrics are disabled.
+	 */
+	public static long start() {
+		if (!enabled) {
+			return 0L;
+		}
+		long now = System.nanoTime();
+		return now == 0L ? 1L : now;
+	}
+
+	/**
+	 * Records a read cell. Only call this if {@link #start()} has returned a
+	 * start time other than zero.
+	 * 
+	 * @param type
+	 *            The read method.
+	 * @param start
+	 *            The start time returned by {@link #start()}.
+	 * @param blank
+	 *            Set this parameter if the result is blank.
+	 * @param error
+	 *            Set this parameter if the result is an error.
+	 */
+	public static void recordRead(ReadType type, long start, boolean blank, boolean error) {
+		INSTANCE.readNanos.get(type).record(System.nanoTime() - start);
+		INSTANCE.cellsRead.get(type).increment();
+		if (blank) {
+			INSTANCE.blankCells.get(type).increment();
+		}
+		if (error) {
+			INSTANCE.errorCells.get(type).increment();
+		}
+	}
+
+	/**
+	 * Records a taken parse branch if the metrics are enabled.
+	 * 
+	 * @param branch
+	 *            The parse branch.
+	 */
+	public static void recordBranch(Branch branch) {
+		if (enabled) {
+			INSTANCE.branches.get(branch).increment();
+		}
+	}
+
+	/**
+	 * Records a text date which matched a date pattern if the metrics are
+	 * enabled.
+	 * 
+	 * @param index
+	 *            The index of the matching pattern.
+	 */
+	public static void recordDatePattern(int index) {
+		if (enabled) {
+			INSTANCE.branches.get(Branch.DATE_PATTERN).increment();
+			if (index >= 0 && index < DATE_PATTERNS) {
+				INSTANCE.datePatterns[index].increment();
+			}
+		}
+	}
+
+	/**
+	 * Records a closed workbook. Only call this if {@link #start()} has
+	 * returned a start time other than zero.
+	 * 
+	 * @param start
+	 *            The start time returned by {@link #start()}.
+	 * @param rows
+	 *            The number of rows in the workbook.
+	 * @param bytes
+	 *            The size of the written file.
+	 */
+	public static void recordWorkbookWritten(long start, long rows, long bytes) {
+		INSTANCE.closeWorkbookNanos.record(System.nanoTime() - start);
+		INSTANCE.workbooksWritten.increment();
+		INSTANCE.rowsWritten.add(rows);
+		INSTANCE.bytesWritten.add(bytes);
+	}
+
+	private static synchronized void setEnabledState(boolean value) {
+		if (value && !registered) {
+			try {
+				MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+				ObjectName name = new ObjectName(OBJECT_NAME);
+				if (!server.isRegistered(name)) {
+					server.registerMBean(INSTANCE, name);
+				}
+			} catch (Exception e) {
+				log.warn("The metrics could not be registered as MXBean " + OBJECT_NAME, e);
+			}
+			registered = true;
+		}
+		enabled = value;
+	}
+
+	@Override
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	@Override
+	public void setEnabled(boolean enabled) {
+		setEnabledState(enabled);
+	}
+
+	@Override
+	public Map<String, Long> getCellsRead() {
+		return sums(cellsRead);
+	}
+
+	@Override
+	public Map<String, Long> getBlankCells() {
+		return sums(blankCells);
+	}
+
+	@Override
+	public Map<String, Long> getErrorCells() {
+		return sums(errorCells);
+	}
+
+	@Override
+	public Map<String, Long> getParseBranches() {
+		Map<String, Long> output = sums(branches);
+		for (int i = 0; i < DATE_PATTERNS; i++) {
+			long count = datePatterns[i].sum();
+			if (count != 0) {
+				output.put(Branch.DATE_PATTERN + "_" + i, count);
+			}
+		}
+		return output;
+	}
+
+	@Override
+	public Map<String, Double> getReadMeanNanos() {
+		Map<String, Double> output = new LinkedHashMap<String, Double>();
+		for (Map.Entry<ReadType, ExclyLatencyHistogram> entry : readNanos.entrySet()) {
+			output.put(entry.getKey().name(), entry.getValue().getMean());
+		}
+		return output;
+	}
+
+	@Override
+	public Map<String, Long> getReadP99Nanos() {
+		Map<String, Long> output = new LinkedHashMap<String, Long>();
+		for (Map.Entry<ReadType, ExclyLatencyHistogram> entry : readNanos.entrySet()) {
+			output.put(entry.getKey().name(), entry.getValue().getPercentile(99));
+		}
+		return output;
+	}
+
+	@Override
+	public Map<String, Long> getReadMaxNanos() {
+		Map<String, Long> output = new LinkedHashMap<String, Long>();
+		for (Map.Entry<ReadType, ExclyLatencyHistogram> entry : readNanos.entrySet()) {
+			output.put(entry.getKey().name(), entry.getValue().getMax());
+		}
+		return output;
+	}
+
+	@Override
+	public long getWorkbooksWritten() {
+		return workbooksWritten.sum();
+	}
+
+	@Override
+	public long getRowsWritten() {
+		return rowsWritten.sum();
+	}
+
+	@Override
+	public long getBytesWritten() {
+		return bytesWritten.sum();
+	}
+
+	@Override
+	public double getCloseWorkbookMeanNanos() {
+		return closeWorkbookNanos.getMean();
+	}
+
+	@Override
+	public long getCloseWorkbookP99Nanos() {
+		return closeWorkbookNanos.getPercentile(99);
+	}
+
+	@Override
+	public long getCloseWorkbookMaxNanos() {
+		return closeWorkbookNanos.getMax();
+	}
+
+	@Override
+	public void reset() {
+		for (ReadType type : ReadType.values()) {
+			cellsRead.get(type).reset();
+			blankCells.get(type).reset();
+			errorCells.get(type).reset();
+			readNanos.get(type).reset();
+		}
+		for (LongAdder branch : branches.values()) {
+			branch.reset();
+		}
+		for (LongAdder pattern : datePatterns) {
+			pattern.reset();
+		}
+		workbooksWritten.reset();
+		rowsWritten.reset();
+		bytesWritten.reset();
+		closeWorkbookNanos.reset();
+	}
+
+	private static <K extends Enum<K>> Map<String, Long> sums(Map<K, LongAdder> counters) {
+		Map<String, Long> output = new LinkedHashMap<String, Long>();
+		for (Map.Entry<K, LongAdder> entry : counters.entrySet()) {
+			output.put(entry.getKey().name(), entry.getValue().sum());
+		}
+		return output;
+	}
+}
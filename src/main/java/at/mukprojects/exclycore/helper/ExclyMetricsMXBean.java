@@ -0,0 +1,144 @@
+/** 
+ * This code is copyright (c) Mathias Markl 2015
+ * 
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ * 
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package at.mukprojects.exclycore.helper;
+
+import java.util.Map;
+
+/**
+ * ExclyMetricsMXBean is the management interface of the {@link ExclyMetrics}.
+ * It is registered as {@value ExclyMetrics#OBJECT_NAME} once the metrics are
+ * enabled.
+ *
+ * @author Mathias Markl
+ */
+public interface ExclyMetricsMXBean {
+
+	/**
+	 * Checks if the metrics are recorded.
+	 * 
+	 * @return Returns true if the metrics are recorded, otherwise it will
+	 *         return false.
+	 */
+	public boolean isEnabled();
+
+	/**
+	 * Enables or disables the recording of the metrics from a JMX client. In
+	 * code use {@link ExclyMetrics#setRecording(boolean)}.
+	 * 
+	 * @param enabled
+	 *            Set this parameter to record the metrics.
+	 */
+	public void setEnabled(boolean enabled);
+
+	/**
+	 * Returns the number of read cells per read method.
+	 * 
+	 * @return Returns the counts keyed by the read type.
+	 */
+	public Map<String, Long> getCellsRead();
+
+	/**
+	 * Returns the number of blank results per read method.
+	 * 
+	 * @return Returns the counts keyed by the read type.
+	 */
+	public Map<String, Long> getBlankCells();
+
+	/**
+	 * Returns the number of error results per read method.
+	 * 
+	 * @return Returns the counts keyed by the read type.
+	 */
+	public Map<String, Long> getErrorCells();
+
+	/**
+	 * Returns how often each parse branch of the reader has been taken. Text
+	 * dates are counted per matching pattern as DATE_PATTERN_&lt;index&gt;.
+	 * 
+	 * @return Returns the counts keyed by the branch.
+	 */
+	public Map<String, Long> getParseBranches();
+
+	/**
+	 * Returns the mean duration of a read per read method.
+	 * 
+	 * @return Returns the means in nanoseconds keyed by the read type.
+	 */
+	public Map<String, Double> getReadMeanNanos();
+
+	/**
+	 * Returns the 99th percentile of the read durations per read method.
+	 * 
+	 * @return Returns the percentiles in nanoseconds keyed by the read type.
+	 */
+	public Map<String, Long> getReadP99Nanos();
+
+	/**
+	 * Returns the longest read duration per read method.
+	 * 
+	 * @return Returns the maximums in nanoseconds keyed by the read type.
+	 */
+	public Map<String, Long> getReadMaxNanos();
+
+	/**
+	 * Returns the number of closed workbooks.
+	 * 
+	 * @return Returns the number of workbooks.
+	 */
+	public long getWorkbooksWritten();
+
+	/**
+	 * Returns the number of rows in all closed workbooks.
+	 * 
+	 * @return Returns the number of rows.
+	 */
+	public long getRowsWritten();
+
+	/**
+	 * Returns the size of all closed workbooks.
+	 * 
+	 * @return Returns the number of bytes.
+	 */
+	public long getBytesWritten();
+
+	/**
+	 * Returns the mean time spent in closing a workbook.
+	 * 
+	 * @return Returns the mean in nanoseconds.
+	 */
+	public double getCloseWorkbookMeanNanos();
+
+	/**
+	 * Returns the 99th percentile of the time spent in closing a workbook.
+	 * 
+	 * @return Returns the percentile in nanoseconds.
+	 */
+	public long getCloseWorkbookP99Nanos();
+
+	/**
+	 * Returns the longest time spent in closing a workbook.
+	 * 
+	 * @return Returns the maximum in nanoseconds.
+	 */
+	public long getCloseWorkbookMaxNanos();
+
+	/**
+	 * Resets all metrics.
+	 */
+	public void reset();
+}
@@ -0,0 +1,115 @@
+/** 
+ * This code is copyright (c) Mathias Markl 2015
+ * 
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ * 
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package at.mukprojects.exclycore.helper;
+
+/**
+ * ExclyNumberFormatter converts doubles into strings. The text is the same as
+ * {@link String#valueOf(double)} with a trailing ".0" removed from whole
+ * numbers, but whole numbers and short decimal fractions are formatted
+ * directly into a single string.
+ *
+ * @author Mathias Markl
+ */
+public final class ExclyNumberFormatter {
+	private static final long NEGATIVE_ZERO_BITS = Double.doubleToRawLongBits(-0.0);
+
+	/**
+	 * Java prints doubles in this range without an exponent.
+	 */
+	private static final double PLAIN_MIN = 1e-3;
+	private static final double PLAIN_MAX = 1e7;
+
+	/**
+	 * Largest integer up to which every long is exactly representable as a
+	 * double.
+	 */
+	private static final long EXACT_MAX = 1L << 53;
+
+	private static final int MAX_FRACTION_DIGITS = 17;
+	private static final double[] POWERS_OF_TEN = new double[MAX_FRACTION_DIGITS + 1];
+
+	static {
+		POWERS_OF_TEN[0] = 1;
+		for (int i = 1; i < POWERS_OF_TEN.length; i++) {
+			POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+		}
+	}
+
+	private ExclyNumberFormatter() {
+	}
+
+	/**
+	 * Formats the value.
+	 * 
+	 * @param value
+	 *            The value which should be formatted.
+	 * @return Returns the value as a string.
+	 */
+	public static String format(double value) {
+		double abs = Math.abs(value);
+
+		if (!(abs < PLAIN_MAX)) {
+			return String.valueOf(value);
+		}
+
+		long whole = (long) value;
+		if (whole == value) {
+			if (whole == 0 && Double.doubleToRawLongBits(value) == NEGATIVE_ZERO_BITS) {
+				return "-0";
+			}
+			return Long.toString(whole);
+		}
+
+		if (abs < PLAIN_MIN) {
+			return String.valueOf(value);
+		}
+
+		for (int digits = 1; digits <= MAX_FRACTION_DIGITS; digits++) {
+			double scale = POWERS_OF_TEN[digits];
+			long unscaled = Math.round(abs * scale);
+			if (unscaled >= EXACT_MAX) {
+				break;
+			}
+			if (unscaled / scale == abs) {
+				return format(value < 0, unscaled, digits);
+			}
+		}
+
+		return String.valueOf(value);
+	}
+
+	private static String format(boolean negative, long unscaled, int digits) {
+		char[] buffer = new char[40];
+		int position = buffer.length;
+
+		for (int i = 0; i < digits; i++) {
+			buffer[--position] = (char) ('0' + unscaled % 10);
+			unscaled /= 10;
+		}
+		buffer[--position] = '.';
+		do {
+			buffer[--position] = (char) ('0' + unscaled % 10);
+			unscaled /= 10;
+		} while (unscaled != 0);
+		if (negative) {
+			buffer[--position] = '-';
+		}
+
+		return new String(buffer, position, buffer.length - position);
+	}
+}
@@ -0,0 +1,214 @@
+/** 
+ * This code is copyright (c) Mathias Markl 2015
+ * 
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ * 
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package at.mukprojects.exclycore.helper;
+
+import at.mukprojects.exclycore.helper.ExclyMetrics.Branch;
+import at.mukprojects.exclycore.model.ExclyDecimal;
+import at.mukprojects.exclycore.model.ExclyDecimalError;
+import at.mukprojects.exclycore.model.ExclyLong;
+import at.mukprojects.exclycore.model.ExclyLongError;
+
+/**
+ * ExclyNumberParser parses numeric strings in German (1.234,56) or UK
+ * (1,234.56) format without a NumberFormat. It accepts the same strings as
+ * the numeric checks of the {@link at.mukprojects.exclycore.dao.XLSXReader
+ * XLSXReader}: a German string is tried first, a string which isn't a valid
+ * German number is read as UK number. The matching notation is recorded as
+ * parse branch of the {@link ExclyMetrics}.
+ *
+ * @author Mathias Markl
+ */
+public final class ExclyNumberParser {
+	private static final char GERMAN_GROUPING = '.';
+	private static final char GERMAN_DECIMAL = ',';
+	private static final char UK_GROUPING = ',';
+	private static final char UK_DECIMAL = '.';
+
+	private ExclyNumberParser() {
+	}
+
+	/**
+	 * Parses the string into an ExclyDecimal. The scale of the ExclyDecimal is
+	 * the number of written decimal places.
+	 * 
+	 * @param str
+	 *            The string which should be parsed.
+	 * @return Returns the ExclyDecimal, an ExclyDecimalError if the value
+	 *         doesn't fit into an ExclyDecimal or null if the string isn't a
+	 *         German or UK number.
+	 */
+	public static ExclyDecimal parseDecimal(String str) {
+		ExclyDecimal output = parseDecimal(str, GERMAN_GROUPING, GERMAN_DECIMAL);
+		if (output != null) {
+			ExclyMetrics.recordBranch(Branch.GERMAN_NUMBER);
+			return output;
+		}
+		output = parseDecimal(str, UK_GROUPING, UK_DECIMAL);
+		if (output != null) {
+			ExclyMetrics.recordBranch(Branch.UK_NUMBER);
+		}
+		return output;
+	}
+
+	/**
+	 * Parses the string into an ExclyLong. Decimal places are cut off, so the
+	 * value is truncated like by a cast. The value is read exactly, without a
+	 * conversion into a double.
+	 * 
+	 * @param str
+	 *            The string which should be parsed.
+	 * @return Returns the ExclyLong, an ExclyLongError if the value doesn't fit
+	 *         into a long or null if the string isn't a German or UK number.
+	 */
+	public static ExclyLong parseLong(String str) {
+		ExclyLong output = parseLong(str, GERMAN_GROUPING, GERMAN_DECIMAL);
+		if (output != null) {
+			ExclyMetrics.recordBranch(Branch.GERMAN_NUMBER);
+			return output;
+		}
+		output = parseLong(str, UK_GROUPING, UK_DECIMAL);
+		if (output != null) {
+			ExclyMetrics.recordBranch(Branch.UK_NUMBER);
+		}
+		return output;
+	}
+
+	/**
+	 * Parses the string with the given separators like
+	 * {@link #parseDecimal(String, char, char)}, but skips the decimal places.
+	 */
+	private static ExclyLong parseLong(String str, char grouping, char decimal) {
+		int length = str.length();
+		if (length == 0) {
+			return null;
+		}
+
+		long value = 0;
+		int position = 0;
+
+		if (str.charAt(0) == decimal) {
+			if (length == 1) {
+				return null;
+			}
+		} else {
+			if (!isDigit(str.charAt(0))) {
+				return null;
+			}
+			while (position < length && isDigit(str.charAt(position))) {
+				value = appendDigit(value, str.charAt(position++));
+			}
+			if (position < length && str.charAt(position) == grouping) {
+				position++;
+				while (position < length && isDigit(str.charAt(position))) {
+					value = appendDigit(value, str.charAt(position++));
+				}
+			}
+			if (position < length && str.charAt(position) != decimal) {
+				return null;
+			}
+		}
+
+		if (position < length) {
+			position++;
+			while (position < length && isDigit(str.charAt(position))) {
+				position++;
+			}
+			if (position != length) {
+				return null;
+			}
+		}
+
+		return value < 0 ? new ExclyLongError() : new ExclyLong(value);
+	}
+
+	/**
+	 * Parses the string with the given separators. The string has to match
+	 * digits, an optional grouping separator with digits and an optional
+	 * decimal separator with digits, or a decimal separator followed by
+	 * digits.
+	 */
+	private static ExclyDecimal parseDecimal(String str, char grouping, char decimal) {
+		int length = str.length();
+		if (length == 0) {
+			return null;
+		}
+
+		long unscaled = 0;
+		int scale = 0;
+		boolean overflow = false;
+		int position = 0;
+
+		if (str.charAt(0) == decimal) {
+			if (length == 1) {
+				return null;
+			}
+			position = 1;
+		} else {
+			if (!isDigit(str.charAt(0))) {
+				return null;
+			}
+			while (position < length && isDigit(str.charAt(position))) {
+				unscaled = appendDigit(unscaled, str.charAt(position++));
+				overflow |= unscaled < 0;
+			}
+			if (position < length && str.charAt(position) == grouping) {
+				position++;
+				while (position < length && isDigit(str.charAt(position))) {
+					unscaled = appendDigit(unscaled, str.charAt(position++));
+					overflow |= unscaled < 0;
+				}
+			}
+			if (position == length) {
+				return overflow ? new ExclyDecimalError() : new ExclyDecimal(unscaled, 0);
+			}
+			if (str.charAt(position) != decimal) {
+				return null;
+			}
+			position++;
+		}
+
+		while (position < length && isDigit(str.charAt(position))) {
+			unscaled = appendDigit(unscaled, str.charAt(position++));
+			overflow |= unscaled < 0;
+			scale++;
+		}
+		if (position != length) {
+			return null;
+		}
+
+		if (overflow || scale > ExclyDecimal.MAX_SCALE) {
+			return new ExclyDecimalError();
+		}
+		return new ExclyDecimal(unscaled, scale);
+	}
+
+	private static boolean isDigit(char c) {
+		return c >= '0' && c <= '9';
+	}
+
+	/**
+	 * Appends a digit to a non negative value. The result is negative if the
+	 * value overflows, once negative it stays negative.
+	 */
+	private static long appendDigit(long value, char digit) {
+		if (value < 0 || value > (Long.MAX_VALUE - (digit - '0')) / 10) {
+			return -1;
+		}
+		return value * 10 + (digit - '0');
+	}
+}
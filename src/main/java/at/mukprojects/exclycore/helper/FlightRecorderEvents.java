@@ -0,0 +1,256 @@
+/** 
+ * This code is copyright (c) Mathias Markl 2015
+ * 
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ * 
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package at.mukprojects.exclycore.helper;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * FlightRecorderEvents holds the Flight Recorder events behind
+ * {@link ExclyEvents}. It's only loaded if the runtime supports the Flight
+ * Recorder. The event types are checked before an event is created, so a
+ * disabled event allocates nothing.
+ *
+ * @author Mathias Markl
+ */
+final class FlightRecorderEvents {
+	private static final EventType WORKBOOK_OPEN = EventType.getEventType(WorkbookOpenEvent.class);
+	private static final EventType SHEET_READ = EventType.getEventType(SheetReadEvent.class);
+	private static final EventType DATE_PARSE_MISS = EventType.getEventType(DateParseMissEvent.class);
+	private static final EventType ERROR_STYLE = EventType.getEventType(ErrorStyleEvent.class);
+	private static final EventType WORKBOOK_CREATE = EventType.getEventType(WorkbookCreateEvent.class);
+	private static final EventType WORKBOOK_CLOSE = EventType.getEventType(WorkbookCloseEvent.class);
+
+	private FlightRecorderEvents() {
+	}
+
+	static Object beginWorkbookOpen(String path, long fileSize) {
+		if (!WORKBOOK_OPEN.isEnabled()) {
+			return null;
+		}
+		WorkbookOpenEvent event = new WorkbookOpenEvent();
+		event.path = path;
+		event.fileSize = fileSize;
+		event.begin();
+		return event;
+	}
+
+	static void endWorkbookOpen(Object event) {
+		((Event) event).commit();
+	}
+
+	static Object beginSheetRead(int sheetIndex, String sheetName) {
+		if (!SHEET_READ.isEnabled()) {
+			return null;
+		}
+		SheetReadEvent event = new SheetReadEvent();
+		event.sheetIndex = sheetIndex;
+		event.sheetName = sheetName;
+		event.begin();
+		return event;
+	}
+
+	static void endSheetRead(Object event, long rows, long cells) {
+		SheetReadEvent sheetRead = (SheetReadEvent) event;
+		sheetRead.end();
+		if (sheetRead.shouldCommit()) {
+			sheetRead.rows = rows;
+			sheetRead.cells = cells;
+			sheetRead.commit();
+		}
+	}
+
+	static Object beginDateParse() {
+		if (!DATE_PARSE_MISS.isEnabled()) {
+			return null;
+		}
+		DateParseMissEvent event = new DateParseMissEvent();
+		event.begin();
+		return event;
+	}
+
+	static void endDateParseMiss(Object event, String text, int patterns) {
+		DateParseMissEvent dateParseMiss = (DateParseMissEvent) event;
+		dateParseMiss.end();
+		if (dateParseMiss.shouldCommit()) {
+			dateParseMiss.text = text;
+			dateParseMiss.patterns = patterns;
+			dateParseMiss.commit();
+		}
+	}
+
+	static Object beginErrorStyle() {
+		if (!ERROR_STYLE.isEnabled()) {
+			return null;
+		}
+		ErrorStyleEvent event = new ErrorStyleEvent();
+		event.begin();
+		return event;
+	}
+
+	static void endErrorStyle(Object event, int cellStyles) {
+		ErrorStyleEvent errorStyle = (ErrorStyleEvent) event;
+		errorStyle.end();
+		if (errorStyle.shouldCommit()) {
+			errorStyle.cellStyles = cellStyles;
+			errorStyle.commit();
+		}
+	}
+
+	static Object beginWorkbookCreate(String path, boolean add) {
+		if (!WORKBOOK_CREATE.isEnabled()) {
+			return null;
+		}
+		WorkbookCreateEvent event = new WorkbookCreateEvent();
+		event.path = path;
+		event.add = add;
+		event.begin();
+		return event;
+	}
+
+	static void endWorkbookCreate(Object event, long fileSize) {
+		WorkbookCreateEvent workbookCreate = (WorkbookCreateEvent) event;
+		workbookCreate.end();
+		if (workbookCreate.shouldCommit()) {
+			workbookCreate.fileSize = fileSize;
+			workbookCreate.commit();
+		}
+	}
+
+	static Object beginWorkbookClose(String path) {
+		if (!WORKBOOK_CLOSE.isEnabled()) {
+			return null;
+		}
+		WorkbookCloseEvent event = new WorkbookCloseEvent();
+		event.path = path;
+		event.begin();
+		return event;
+	}
+
+	static void endWorkbookClose(Object event, long rows, long fileSize) {
+		WorkbookCloseEvent workbookClose = (WorkbookCloseEvent) event;
+		workbookClose.end();
+		if (workbookClose.shouldCommit()) {
+			workbookClose.rows = rows;
+			workbookClose.fileSize = fileSize;
+			workbookClose.commit();
+		}
+	}
+
+	@Name("at.mukprojects.exclycore.WorkbookOpen")
+	@Label("Workbook Open")
+	@Description("Opening of a workbook by a streaming reader up to its first sheet")
+	@Category({ "ExclyCore", "Reader" })
+	@Enabled(false)
+	@StackTrace(false)
+	static final class WorkbookOpenEvent extends Event {
+		@Label("Path")
+		String path;
+
+		@Label("File Size")
+		@DataAmount
+		long fileSize;
+	}
+
+	@Name("at.mukprojects.exclycore.SheetRead")
+	@Label("Sheet Read")
+	@Description("Reading of a sheet by a streaming reader")
+	@Category({ "ExclyCore", "Reader" })
+	@Enabled(false)
+	@StackTrace(false)
+	static final class SheetReadEvent extends Event {
+		@Label("Sheet Index")
+		int sheetIndex;
+
+		@Label("Sheet Name")
+		String sheetName;
+
+		@Label("Rows")
+		long rows;
+
+		@Label("Cells")
+		long cells;
+	}
+
+	@Name("at.mukprojects.exclycore.DateParseMiss")
+	@Label("Date Parse Miss")
+	@Description("Text date which matched none of the date patterns of the reader")
+	@Category({ "ExclyCore", "Reader" })
+	@Enabled(false)
+	@StackTrace(false)
+	static final class DateParseMissEvent extends Event {
+		@Label("Text")
+		String text;
+
+		@Label("Tried Patterns")
+		int patterns;
+	}
+
+	@Name("at.mukprojects.exclycore.ErrorStyle")
+	@Label("Error Style")
+	@Description("Creation of a cell style for an error value")
+	@Category({ "ExclyCore", "Writer" })
+	@Enabled(false)
+	static final class ErrorStyleEvent extends Event {
+		@Label("Cell Styles")
+		int cellStyles;
+	}
+
+	@Name("at.mukprojects.exclycore.WorkbookCreate")
+	@Label("Workbook Create")
+	@Description("Creation of a workbook by the writer")
+	@Category({ "ExclyCore", "Writer" })
+	@Enabled(false)
+	@StackTrace(false)
+	static final class WorkbookCreateEvent extends Event {
+		@Label("Path")
+		String path;
+
+		@Label("Append")
+		boolean add;
+
+		@Label("File Size")
+		@DataAmount
+		long fileSize;
+	}
+
+	@Name("at.mukprojects.exclycore.WorkbookClose")
+	@Label("Workbook Close")
+	@Description("Writing and closing of a workbook by the writer")
+	@Category({ "ExclyCore", "Writer" })
+	@Enabled(false)
+	@StackTrace(false)
+	static final class WorkbookCloseEvent extends Event {
+		@Label("Path")
+		String path;
+
+		@Label("Rows")
+		long rows;
+
+		@Label("File Size")
+		@DataAmount
+		long fileSize;
+	}
+}
@@ -0,0 +1,255 @@
+/** 
+ * This code is copyright (c) Mathias Markl 2015
+ * 
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ * 
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package at.mukprojects.exclycore.helper;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.util.CellRangeAddress;
+
+/**
+ * MergedRegionIndex finds the merged region of a cell in logarithmic time.
+ * The regions are stored in an interval tree over the rows. Every node holds
+ * the regions which contain its center row. Merged regions never overlap, so
+ * these regions don't share any column and are searched by their first
+ * column with a binary search.
+ * 
+ * The index is a snapshot of the merged regions of the sheet, it has to be
+ * created again if regions are added or removed.
+ *
+ * @author Mathias Markl
+ */
+public final class MergedRegionIndex {
+	private static final Comparator<CellRangeAddress> BY_FIRST_COLUMN = new Comparator<CellRangeAddress>() {
+		@Override
+		public int compare(CellRangeAddress left, CellRangeAddress right) {
+			return Integer.compare(firstColumn(left), firstColumn(right));
+		}
+	};
+
+	private final Sheet sheet;
+	private final int size;
+	private final Node root;
+
+	/**
+	 * Constructs a new MergedRegionIndex for the merged regions of the sheet.
+	 * 
+	 * @param sheet
+	 *            The Excel sheet.
+	 */
+	public MergedRegionIndex(Sheet sheet) {
+		List<CellRangeAddress> regions = new ArrayList<CellRangeAddress>(sheet.getNumMergedRegions());
+		for (int i = 0; i < sheet.getNumMergedRegions(); i++) {
+			regions.add(sheet.getMergedRegion(i));
+		}
+
+		this.sheet = sheet;
+		this.size = regions.size();
+		this.root = build(regions);
+	}
+
+	/**
+	 * Returns the sheet of the index.
+	 * 
+	 * @return The Excel sheet.
+	 */
+	public Sheet getSheet() {
+		return sheet;
+	}
+
+	/**
+	 * Returns the number of merged regions.
+	 * 
+	 * @return The number of merged regions.
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Finds the merged region which contains the given position.
+	 * 
+	 * @param row
+	 *            The row index.
+	 * @param column
+	 *            The column index.
+	 * @return Returns the merged region or null if the position isn't merged.
+	 */
+	public CellRangeAddress getMergedRegion(int row, int column) {
+		Node node = root;
+
+		while (node != null) {
+			CellRangeAddress region = node.find(row, column);
+			if (region != null) {
+				return region;
+			}
+
+			if (row < node.center) {
+				node = node.left;
+			} else if (row > node.center) {
+				node = node.right;
+			} else {
+				node = null;
+			}
+		}
+
+		return null;
+	}
+
+	/**
+	 * Resolves the cell which holds the value of the given cell. For a cell
+	 * inside a merged region this is the top left cell of the region.
+	 * 
+	 * @param cell
+	 *            The Excel cell.
+	 * @return Returns the top left cell of the merged region. If the cell isn't
+	 *         merged or the top left cell doesn't exist, the cell itself is
+	 *         returned.
+	 */
+	public Cell resolve(Cell cell) {
+		if (cell == null) {
+			return null;
+		}
+
+		CellRangeAddress region = getMergedRegion(cell.getRowIndex(), cell.getColumnIndex());
+		if (region == null) {
+			return cell;
+		}
+
+		if (firstRow(region) == cell.getRowIndex() && firstColumn(region) == cell.getColumnIndex()) {
+			return cell;
+		}
+
+		Cell topLeft = getTopLeftCell(region);
+		return topLeft == null ? cell : topLeft;
+	}
+
+	/**
+	 * Returns the top left cell of the merged region, which holds the value
+	 * of the whole region.
+	 * 
+	 * @param region
+	 *            The merged region.
+	 * @return Returns the top left cell or null if it doesn't exist.
+	 */
+	public Cell getTopLeftCell(CellRangeAddress region) {
+		Row row = sheet.getRow(firstRow(region));
+		return row == null ? null : row.getCell(firstColumn(region));
+	}
+
+	/**
+	 * Builds a subtree. The center is the median of the region midpoints, the
+	 * regions entirely above or below the center go into the subtrees.
+	 */
+	private static Node build(List<CellRangeAddress> regions) {
+		if (regions.isEmpty()) {
+			return null;
+		}
+
+		long[] midpoints = new long[regions.size()];
+		for (int i = 0; i < midpoints.length; i++) {
+			CellRangeAddress region = regions.get(i);
+			midpoints[i] = ((long) firstRow(region) + lastRow(region)) / 2;
+		}
+		Arrays.sort(midpoints);
+		int center = (int) midpoints[midpoints.length / 2];
+
+		List<CellRangeAddress> left = new ArrayList<CellRangeAddress>();
+		List<CellRangeAddress> right = new ArrayList<CellRangeAddress>();
+		List<CellRangeAddress> overlapping = new ArrayList<CellRangeAddress>();
+		for (CellRangeAddress region : regions) {
+			if (lastRow(region) < center) {
+				left.add(region);
+			} else if (firstRow(region) > center) {
+				right.add(region);
+			} else {
+				overlapping.add(region);
+			}
+		}
+
+		return new Node(center, overlapping, build(left), build(right));
+	}
+
+	/**
+	 * Full column ranges have no first and last row, full row ranges no first
+	 * and last column, so these are mapped to the whole sheet.
+	 */
+	private static int firstRow(CellRangeAddress region) {
+		return Math.max(region.getFirstRow(), 0);
+	}
+
+	private static int lastRow(CellRangeAddress region) {
+		return region.getLastRow() < 0 ? Integer.MAX_VALUE : region.getLastRow();
+	}
+
+	private static int firstColumn(CellRangeAddress region) {
+		return Math.max(region.getFirstColumn(), 0);
+	}
+
+	private static int lastColumn(CellRangeAddress region) {
+		return region.getLastColumn() < 0 ? Integer.MAX_VALUE : region.getLastColumn();
+	}
+
+	/**
+	 * A node of the interval tree.
+	 */
+	private static final class Node {
+		private final int center;
+		private final CellRangeAddress[] regions;
+		private final int[] firstColumns;
+		private final Node left;
+		private final Node right;
+
+		private Node(int center, List<CellRangeAddress> regions, Node left, Node right) {
+			this.center = center;
+			this.regions = regions.toArray(new CellRangeAddress[regions.size()]);
+			Arrays.sort(this.regions, BY_FIRST_COLUMN);
+			this.firstColumns = new int[this.regions.length];
+			for (int i = 0; i < this.regions.length; i++) {
+				firstColumns[i] = firstColumn(this.regions[i]);
+			}
+			this.left = left;
+			this.right = right;
+		}
+
+		/**
+		 * Finds the region with the last first column at or before the column
+		 * and checks if it contains the position.
+		 */
+		private CellRangeAddress find(int row, int column) {
+			int index = Arrays.binarySearch(firstColumns, column);
+			if (index < 0) {
+				index = -index - 2;
+			}
+			if (index < 0) {
+				return null;
+			}
+
+			CellRangeAddress region = regions[index];
+			if (column <= lastColumn(region) && row >= firstRow(region) && row <= lastRow(region)) {
+				return region;
+			}
+			return null;
+		}
+	}
+}
@@ -20,7 +20,9 @@ package at.mukprojects.exclycore.helper;
 import org.apache.poi.ss.usermodel.Cell;
 
 import at.mukprojects.exclycore.dao.XLSXReader;
+import at.mukprojects.exclycore.model.ExclyBoolean;
 import at.mukprojects.exclycore.model.ExclyDate;
+import at.mukprojects.exclycore.model.ExclyDecimal;
 import at.mukprojects.exclycore.model.ExclyDouble;
 import at.mukprojects.exclycore.model.ExclyInteger;
 import at.mukprojects.exclycore.model.ExclyLong;
@@ -39,11 +41,21 @@ class XLSXReaderUtil extends XLSXReader {
 		return super.readStringCellValue(cell);
 	}
 
+	@Override
+	public ExclyString readFormattedCellValue(Cell cell) {
+		return super.readFormattedCellValue(cell);
+	}
+
 	@Override
 	public ExclyDouble readDoubleCellValue(Cell cell) {
 		return super.readDoubleCellValue(cell);
 	}
 
+	@Override
+	public ExclyDecimal readDecimalCellValue(Cell cell) {
+		return super.readDecimalCellValue(cell);
+	}
+
 	@Override
 	public ExclyInteger readIntegerCellValue(Cell cell) {
 		return super.readIntegerCellValue(cell);
@@ -58,4 +70,9 @@ class XLSXReaderUtil extends XLSXReader {
 	public ExclyDate readDateCellValue(Cell cell) {
 		return super.readDateCellValue(cell);
 	}
+
+	@Override
+	public ExclyBoolean readBooleanCellValue(Cell cell) {
+		return super.readBooleanCellValue(cell);
+	}
 }
\ No newline at end of file
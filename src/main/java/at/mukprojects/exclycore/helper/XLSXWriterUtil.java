@@ -20,6 +20,7 @@ package at.mukprojects.exclycore.helper;
 import java.io.File;
 import java.io.IOException;
 
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 
 import at.mukprojects.exclycore.dao.XLSXWriter;
@@ -37,6 +38,12 @@ public class XLSXWriterUtil extends XLSXWriter {
 		return super.createWorkbook(output, add);
 	}
 
+	@Override
+	protected SXSSFWorkbook createStreamingWorkbook(File output, boolean add, int rowAccessWindowSize)
+			throws IOException {
+		return super.createStreamingWorkbook(output, add, rowAccessWindowSize);
+	}
+
 	@Override
 	protected void closeWorkbook() throws IOException {
 		super.closeWorkbook();
@@ -0,0 +1,159 @@
+/** 
+ * This code is copyright (c) Mathias Markl 2015
+ * 
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ * 
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package at.mukprojects.exclycore.model;
+
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+
+/**
+ * This class represents an ExclyBoolean data type.
+ * 
+ * @author Mathias Markl
+ */
+public class ExclyBoolean implements ExclyDataType, Comparable<ExclyBoolean> {
+	protected boolean error;
+	private boolean data;
+
+	/**
+	 * Constructs a new ExclyBoolean.
+	 * 
+	 * @param data
+	 *            The value of the ExclyBoolean.
+	 */
+	public ExclyBoolean(boolean data) {
+		this.data = data;
+		this.error = false;
+	}
+
+	@Override
+	public void setCell(Cell cell) {
+		setCell(cell, cell.getCellStyle());
+	}
+
+	@Override
+	public void setCell(Cell cell, CellStyle cellStyle) {
+		cell.setCellValue(data);
+		cell.setCellStyle(cellStyle);
+	}
+
+	/**
+	 * Returns the value.
+	 * 
+	 * @return The value as a Java boolean.
+	 */
+	public boolean getData() {
+		return data;
+	}
+
+	/**
+	 * Checks if the ExclyBoolean has an error.
+	 * 
+	 * @return Returns true if the ExclyBoolean has an error, otherwise it will
+	 *         return false.
+	 */
+	public boolean isError() {
+		return error;
+	}
+
+	@Override
+	public String toString() {
+		return data + "";
+	}
+
+	@Override
+	public int hashCode() {
+		final int prime = 31;
+		int result = 1;
+		result = prime * result + (data ? 1231 : 1237);
+		result = prime * result + (error ? 1231 : 1237);
+		return result;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (obj == null)
+			return false;
+		if (getClass() != obj.getClass())
+			return false;
+		ExclyBoolean other = (ExclyBoolean) obj;
+		if (data != other.data)
+			return false;
+		if (error != other.error)
+			return false;
+		return true;
+	}
+
+	@Override
+	public int compareTo(ExclyBoolean other) {
+		if (!this.error && other.error) {
+			return -1;
+		} else if (this.error && !other.error) {
+			return 1;
+		} else if (this.error && other.error) {
+			return 0;
+		} else {
+			return Boolean.compare(this.data, other.data);
+		}
+	}
+
+	/**
+	 * Combines multiple ExclyBooleans with a logical and. If any of the
+	 * ExclyBooleans has an error, the function will return an ExclyBoolean
+	 * from the type ExclyBooleanError.
+	 * 
+	 * @param values
+	 *            ExclyBooleans which should be combined.
+	 * @return Return the result as an ExclyBoolean.
+	 */
+	public static ExclyBoolean and(ExclyBoolean... values) {
+		boolean data = true;
+
+		for (ExclyBoolean value : values) {
+			if (value.error) {
+				return new ExclyBooleanError();
+			}
+			data &= value.data;
+		}
+
+		return new ExclyBoolean(data);
+	}
+
+	/**
+	 * Combines multiple ExclyBooleans with a logical or. If any of the
+	 * ExclyBooleans has an error, the function will return an ExclyBoolean
+	 * from the type ExclyBooleanError.
+	 * 
+	 * @param values
+	 *            ExclyBooleans which should be combined.
+	 * @return Return the result as an ExclyBoolean.
+	 */
+	public static ExclyBoolean or(ExclyBoolean... values) {
+		boolean data = false;
+
+		for (ExclyBoolean value : values) {
+			if (value.error) {
+				return new ExclyBooleanError();
+			}
+			data |= value.data;
+		}
+
+		return new ExclyBoolean(data);
+	}
+}
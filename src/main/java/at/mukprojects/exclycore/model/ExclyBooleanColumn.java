@@ -0,0 +1,237 @@
+/** 
+ * This code is copyright (c) Mathias Markl 2015
+ * 
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ * 
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package at.mukprojects.exclycore.model;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * ExclyBooleanColumn stores the values of a boolean column packed into bits,
+ * 64 values per long. Blank and error values are kept in separate bit sets,
+ * which are only created if the column contains such values.
+ *
+ * @author Mathias Markl
+ */
+public class ExclyBooleanColumn {
+	private long[] values;
+	private long[] blanks;
+	private long[] errors;
+	private int size;
+	private int blankCount;
+	private int errorCount;
+
+	/**
+	 * Constructs a new and empty ExclyBooleanColumn.
+	 */
+	public ExclyBooleanColumn() {
+		this(64);
+	}
+
+	/**
+	 * Constructs a new and empty ExclyBooleanColumn.
+	 * 
+	 * @param capacity
+	 *            The expected number of values.
+	 */
+	public ExclyBooleanColumn(int capacity) {
+		values = new long[Math.max((capacity + 63) >>> 6, 1)];
+	}
+
+	/**
+	 * Constructs a new ExclyBooleanColumn with the given values.
+	 * 
+	 * @param values
+	 *            The values of the column.
+	 * @return Return the column.
+	 */
+	public static ExclyBooleanColumn of(ExclyBoolean... values) {
+		ExclyBooleanColumn column = new ExclyBooleanColumn(values.length);
+		for (ExclyBoolean value : values) {
+			column.add(value);
+		}
+		return column;
+	}
+
+	/**
+	 * Constructs a new ExclyBooleanColumn with the given values.
+	 * 
+	 * @param values
+	 *            The values of the column.
+	 * @return Return the column.
+	 */
+	public static ExclyBooleanColumn of(Collection<? extends ExclyBoolean> values) {
+		ExclyBooleanColumn column = new ExclyBooleanColumn(values.size());
+		for (ExclyBoolean value : values) {
+			column.add(value);
+		}
+		return column;
+	}
+
+	/**
+	 * Appends a value.
+	 * 
+	 * @param value
+	 *            The value.
+	 */
+	public void add(boolean value) {
+		ensureCapacity();
+		if (value) {
+			values[size >>> 6] |= 1L << size;
+		}
+		size++;
+	}
+
+	/**
+	 * Appends an ExclyBoolean. ExclyBooleanErrors and ExclyBooleanBlanks are
+	 * stored as such.
+	 * 
+	 * @param value
+	 *            The ExclyBoolean.
+	 */
+	public void add(ExclyBoolean value) {
+		if (value.isError()) {
+			addError();
+		} else if (value instanceof ExclyBooleanBlank) {
+			addBlank();
+		} else {
+			add(value.getData());
+		}
+	}
+
+	/**
+	 * Appends a blank value.
+	 */
+	public void addBlank() {
+		ensureCapacity();
+		blanks = setBit(blanks, size);
+		blankCount++;
+		size++;
+	}
+
+	/**
+	 * Appends an error value.
+	 */
+	public void addError() {
+		ensureCapacity();
+		errors = setBit(errors, size);
+		errorCount++;
+		size++;
+	}
+
+	/**
+	 * Returns the value at the given position.
+	 * 
+	 * @param index
+	 *            The position of the value.
+	 * @return The value as an ExclyBoolean, an ExclyBooleanError or an
+	 *         ExclyBooleanBlank.
+	 */
+	public ExclyBoolean get(int index) {
+		if (index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+		} else if (isBitSet(errors, index)) {
+			return new ExclyBooleanError();
+		} else if (isBitSet(blanks, index)) {
+			return new ExclyBooleanBlank();
+		}
+		return new ExclyBoolean(isBitSet(values, index));
+	}
+
+	/**
+	 * Returns the number of values, including blank and error values.
+	 * 
+	 * @return The size of the column.
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Returns the number of blank values.
+	 * 
+	 * @return The number of blank values.
+	 */
+	public int getBlankCount() {
+		return blankCount;
+	}
+
+	/**
+	 * Returns the number of error values.
+	 * 
+	 * @return The number of error values.
+	 */
+	public int getErrorCount() {
+		return errorCount;
+	}
+
+	/**
+	 * Returns the number of true values. Blank and error values are never
+	 * true.
+	 * 
+	 * @return The number of true values.
+	 */
+	public int getTrueCount() {
+		int count = 0;
+		for (int i = 0; i < (size + 63) >>> 6; i++) {
+			count += Long.bitCount(values[i]);
+		}
+		return count;
+	}
+
+	/**
+	 * Returns the number of false values. Blank and error values are not
+	 * counted.
+	 * 
+	 * @return The number of false values.
+	 */
+	public int getFalseCount() {
+		return size - blankCount - errorCount - getTrueCount();
+	}
+
+	/**
+	 * Returns the column as bits. Bit i of word i / 64 is set if the value at
+	 * position i is true.
+	 * 
+	 * @return Returns a copy of the bits.
+	 */
+	public long[] toLongArray() {
+		return Arrays.copyOf(values, (size + 63) >>> 6);
+	}
+
+	private void ensureCapacity() {
+		if ((size >>> 6) == values.length) {
+			values = Arrays.copyOf(values, values.length * 2);
+		}
+	}
+
+	private long[] setBit(long[] bits, int index) {
+		int word = index >>> 6;
+		if (bits == null) {
+			bits = new long[values.length];
+		} else if (word >= bits.length) {
+			bits = Arrays.copyOf(bits, Math.max(word + 1, bits.length * 2));
+		}
+		bits[word] |= 1L << index;
+		return bits;
+	}
+
+	private static boolean isBitSet(long[] bits, int index) {
+		int word = index >>> 6;
+		return bits != null && word < bits.length && (bits[word] & (1L << index)) != 0;
+	}
+}
@@ -0,0 +1,252 @@
+/** 
+ * This code is copyright (c) Mathias Markl 2015
+ * 
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ * 
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package at.mukprojects.exclycore.model;
+
+import java.util.function.Function;
+import java.util.stream.Collector;
+
+/**
+ * ExclyCollectors implements stream collectors for the Excly data types. The
+ * collectors accumulate into primitive state, can be combined in parallel
+ * streams and propagate errors like the static helpers of the data types do.
+ * Blank values count as zero for sums, but are ignored by minimum, maximum and
+ * average.
+ *
+ * @author Mathias Markl
+ */
+public final class ExclyCollectors {
+
+	private ExclyCollectors() {
+	}
+
+	/**
+	 * Returns a collector which summarizes ExclyDoubles.
+	 * 
+	 * @return Return the collector.
+	 */
+	public static Collector<ExclyDouble, ?, ExclyDoubleStatistics> summarizingDouble() {
+		return Collector.of(ExclyDoubleStatistics::new, ExclyDoubleStatistics::accept, (left, right) -> {
+			left.combine(right);
+			return left;
+		});
+	}
+
+	/**
+	 * Returns a collector which sums up ExclyDoubles with compensated
+	 * summation.
+	 * 
+	 * @return Return the collector.
+	 */
+	public static Collector<ExclyDouble, ?, ExclyDouble> summingDouble() {
+		return doubleCollector(ExclyDoubleStatistics::getSum);
+	}
+
+	/**
+	 * Returns a collector which calculates the mean of ExclyDoubles.
+	 * 
+	 * @return Return the collector.
+	 */
+	public static Collector<ExclyDouble, ?, ExclyDouble> averagingDouble() {
+		return doubleCollector(ExclyDoubleStatistics::getMean);
+	}
+
+	/**
+	 * Returns a collector which finds the smallest ExclyDouble.
+	 * 
+	 * @return Return the collector.
+	 */
+	public static Collector<ExclyDouble, ?, ExclyDouble> minDouble() {
+		return doubleCollector(ExclyDoubleStatistics::getMin);
+	}
+
+	/**
+	 * Returns a collector which finds the largest ExclyDouble.
+	 * 
+	 * @return Return the collector.
+	 */
+	public static Collector<ExclyDouble, ?, ExclyDouble> maxDouble() {
+		return doubleCollector(ExclyDoubleStatistics::getMax);
+	}
+
+	/**
+	 * Returns a collector which sums up ExclyIntegers. The sum overflows like
+	 * {@link ExclyInteger#add(ExclyInteger...)} does.
+	 * 
+	 * @return Return the collector.
+	 */
+	public static Collector<ExclyInteger, ?, ExclyInteger> summingInteger() {
+		return integerCollector(accumulator -> accumulator.error ? new ExclyIntegerError()
+				: new ExclyInteger((int) accumulator.sum));
+	}
+
+	/**
+	 * Returns a collector which calculates the mean of ExclyIntegers.
+	 * 
+	 * @return Return the collector.
+	 */
+	public static Collector<ExclyInteger, ?, ExclyDouble> averagingInteger() {
+		return integerCollector(LongAccumulator::getMean);
+	}
+
+	/**
+	 * Returns a collector which finds the smallest ExclyInteger.
+	 * 
+	 * @return Return the collector.
+	 */
+	public static Collector<ExclyInteger, ?, ExclyInteger> minInteger() {
+		return integerCollector(accumulator -> accumulator.error ? new ExclyIntegerError()
+				: accumulator.count == 0 ? new ExclyIntegerBlank() : new ExclyInteger((int) accumulator.min));
+	}
+
+	/**
+	 * Returns a collector which finds the largest ExclyInteger.
+	 * 
+	 * @return Return the collector.
+	 */
+	public static Collector<ExclyInteger, ?, ExclyInteger> maxInteger() {
+		return integerCollector(accumulator -> accumulator.error ? new ExclyIntegerError()
+				: accumulator.count == 0 ? new ExclyIntegerBlank() : new ExclyInteger((int) accumulator.max));
+	}
+
+	/**
+	 * Returns a collector which sums up ExclyLongs.
+	 * 
+	 * @return Return the collector.
+	 */
+	public static Collector<ExclyLong, ?, ExclyLong> summingLong() {
+		return longCollector(accumulator -> accumulator.error ? new ExclyLongError() : new ExclyLong(accumulator.sum));
+	}
+
+	/**
+	 * Returns a collector which calculates the mean of ExclyLongs.
+	 * 
+	 * @return Return the collector.
+	 */
+	public static Collector<ExclyLong, ?, ExclyDouble> averagingLong() {
+		return longCollector(LongAccumulator::getMean);
+	}
+
+	/**
+	 * Returns a collector which finds the smallest ExclyLong.
+	 * 
+	 * @return Return the collector.
+	 */
+	public static Collector<ExclyLong, ?, ExclyLong> minLong() {
+		return longCollector(accumulator -> accumulator.error ? new ExclyLongError()
+				: accumulator.count == 0 ? new ExclyLongBlank() : new ExclyLong(accumulator.min));
+	}
+
+	/**
+	 * Returns a collector which finds the largest ExclyLong.
+	 * 
+	 * @return Return the collector.
+	 */
+	public static Collector<ExclyLong, ?, ExclyLong> maxLong() {
+		return longCollector(accumulator -> accumulator.error ? new ExclyLongError()
+				: accumulator.count == 0 ? new ExclyLongBlank() : new ExclyLong(accumulator.max));
+	}
+
+	/**
+	 * Returns a collector which appends ExclyStrings like
+	 * {@link ExclyString#append(ExclyString...)} does.
+	 * 
+	 * @return Return the collector.
+	 */
+	public static Collector<ExclyString, ?, ExclyString> joining() {
+		return joining("");
+	}
+
+	/**
+	 * Returns a collector which joins ExclyStrings with the given delimiter.
+	 * If any of the ExclyStrings has an error, the result is an
+	 * ExclyStringError.
+	 * 
+	 * @param delimiter
+	 *            The delimiter between the values.
+	 * @return Return the collector.
+	 */
+	public static Collector<ExclyString, ?, ExclyString> joining(final CharSequence delimiter) {
+		return Collector.of(() -> new ExclyStringBuilder(delimiter), ExclyStringBuilder::append,
+				ExclyStringBuilder::merge, ExclyStringBuilder::build);
+	}
+
+	private static <R> Collector<ExclyDouble, ?, R> doubleCollector(Function<ExclyDoubleStatistics, R> finisher) {
+		return Collector.of(ExclyDoubleStatistics::new, ExclyDoubleStatistics::accept, (left, right) -> {
+			left.combine(right);
+			return left;
+		}, finisher);
+	}
+
+	private static <R> Collector<ExclyInteger, ?, R> integerCollector(Function<LongAccumulator, R> finisher) {
+		return Collector.of(LongAccumulator::new, (accumulator, value) -> {
+			if (value.isError()) {
+				accumulator.error = true;
+			} else {
+				accumulator.accept(value.getData(), value instanceof ExclyIntegerBlank);
+			}
+		}, LongAccumulator::combine, finisher);
+	}
+
+	private static <R> Collector<ExclyLong, ?, R> longCollector(Function<LongAccumulator, R> finisher) {
+		return Collector.of(LongAccumulator::new, (accumulator, value) -> {
+			if (value.isError()) {
+				accumulator.error = true;
+			} else {
+				accumulator.accept(value.getData(), value instanceof ExclyLongBlank);
+			}
+		}, LongAccumulator::combine, finisher);
+	}
+
+	/**
+	 * Mutable primitive state of the integer and long collectors.
+	 */
+	private static final class LongAccumulator {
+		private boolean error;
+		private long count;
+		private long sum;
+		private long min = Long.MAX_VALUE;
+		private long max = Long.MIN_VALUE;
+
+		private void accept(long value, boolean blank) {
+			sum += value;
+			if (!blank) {
+				count++;
+				min = Math.min(min, value);
+				max = Math.max(max, value);
+			}
+		}
+
+		private LongAccumulator combine(LongAccumulator other) {
+			error |= other.error;
+			count += other.count;
+			sum += other.sum;
+			min = Math.min(min, other.min);
+			max = Math.max(max, other.max);
+			return this;
+		}
+
+		private ExclyDouble getMean() {
+			if (error) {
+				return new ExclyDoubleError();
+			} else if (count == 0) {
+				return new ExclyDoubleBlank();
+			}
+			return new ExclyDouble((double) sum / count);
+		}
+	}
+}
@@ -17,19 +17,25 @@
 
 package at.mukprojects.exclycore.model;
 
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.Date;
 
 import org.apache.poi.ss.usermodel.Cell;
 import org.apache.poi.ss.usermodel.CellStyle;
 
 /**
- * This class represents an ExclyDate data type.
+ * This class represents an ExclyDate data type. The value is kept as
+ * milliseconds since the epoch, a Java date is only created on request.
  * 
  * @author Mathias Markl
  */
 public class ExclyDate implements ExclyDataType, Comparable<ExclyDate> {
 	protected boolean error;
-	private Date data;
+	private boolean empty;
+	private long time;
 
 	/**
 	 * Constructs a new ExclyDate.
@@ -38,10 +44,57 @@ public class ExclyDate implements ExclyDataType, Comparable<ExclyDate> {
 	 *            The value of the ExclyDate.
 	 */
 	public ExclyDate(Date data) {
-		this.data = data;
+		this.empty = data == null;
+		this.time = empty ? 0 : data.getTime();
 		this.error = false;
 	}
 
+	/**
+	 * Constructs a new ExclyDate.
+	 * 
+	 * @param time
+	 *            The value of the ExclyDate as milliseconds since the epoch.
+	 */
+	public ExclyDate(long time) {
+		this.empty = false;
+		this.time = time;
+		this.error = false;
+	}
+
+	/**
+	 * Creates a new ExclyDate.
+	 * 
+	 * @param data
+	 *            The value of the ExclyDate as an instant.
+	 * @return Returns the ExclyDate.
+	 */
+	public static ExclyDate of(Instant data) {
+		return new ExclyDate(data.toEpochMilli());
+	}
+
+	/**
+	 * Creates a new ExclyDate in the default time zone.
+	 * 
+	 * @param data
+	 *            The value of the ExclyDate as a local date time.
+	 * @return Returns the ExclyDate.
+	 */
+	public static ExclyDate of(LocalDateTime data) {
+		return of(data.atZone(ZoneId.systemDefault()).toInstant());
+	}
+
+	/**
+	 * Creates a new ExclyDate at the start of the day in the default time
+	 * zone.
+	 * 
+	 * @param data
+	 *            The value of the ExclyDate as a local date.
+	 * @return Returns the ExclyDate.
+	 */
+	public static ExclyDate of(LocalDate data) {
+		return of(data.atStartOfDay(ZoneId.systemDefault()).toInstant());
+	}
+
 	@Override
 	public void setCell(Cell cell) {
 		setCell(cell, cell.getCellStyle());
@@ -49,17 +102,107 @@ public class ExclyDate implements ExclyDataType, Comparable<ExclyDate> {
 
 	@Override
 	public void setCell(Cell cell, CellStyle cellStyle) {
-		cell.setCellValue(data);
+		cell.setCellValue(getData());
 		cell.setCellStyle(cellStyle);
 	}
 
 	/**
-	 * Returns the value.
+	 * Returns the value. Every call creates a new Java date, use
+	 * {@link #getTime()} to avoid the allocation.
 	 * 
-	 * @return The value as a Java date.
+	 * @return The value as a Java date or null if the ExclyDate has no value.
 	 */
 	public Date getData() {
-		return data;
+		return empty ? null : new Date(time);
+	}
+
+	/**
+	 * Returns the value as milliseconds since the epoch.
+	 * 
+	 * @return The value in milliseconds or zero if the ExclyDate has no value.
+	 */
+	public long getTime() {
+		return time;
+	}
+
+	/**
+	 * Returns the day of the value as days since the epoch. The day is taken
+	 * in the default time zone, like the reader creates the dates.
+	 * 
+	 * @return The value in days.
+	 * @throws IllegalStateException
+	 *             If the ExclyDate has no value.
+	 */
+	public long getEpochDay() {
+		return getEpochDay(ZoneId.systemDefault());
+	}
+
+	/**
+	 * Returns the day of the value in the given time zone as days since the
+	 * epoch.
+	 * 
+	 * @param zone
+	 *            The time zone.
+	 * @return The value in days.
+	 * @throws IllegalStateException
+	 *             If the ExclyDate has no value.
+	 */
+	public long getEpochDay(ZoneId zone) {
+		if (error || empty) {
+			throw new IllegalStateException("The ExclyDate has no value.");
+		}
+		return toLocalDate(zone).toEpochDay();
+	}
+
+	/**
+	 * Returns the value as an instant.
+	 * 
+	 * @return The value as an instant or null if the ExclyDate has no value.
+	 */
+	public Instant toInstant() {
+		return empty ? null : Instant.ofEpochMilli(time);
+	}
+
+	/**
+	 * Returns the value as a local date time in the default time zone.
+	 * 
+	 * @return The value as a local date time or null if the ExclyDate has no
+	 *         value.
+	 */
+	public LocalDateTime toLocalDateTime() {
+		return toLocalDateTime(ZoneId.systemDefault());
+	}
+
+	/**
+	 * Returns the value as a local date time in the given time zone.
+	 * 
+	 * @param zone
+	 *            The time zone.
+	 * @return The value as a local date time or null if the ExclyDate has no
+	 *         value.
+	 */
+	public LocalDateTime toLocalDateTime(ZoneId zone) {
+		return empty ? null : LocalDateTime.ofInstant(Instant.ofEpochMilli(time), zone);
+	}
+
+	/**
+	 * Returns the value as a local date in the default time zone.
+	 * 
+	 * @return The value as a local date or null if the ExclyDate has no value.
+	 */
+	public LocalDate toLocalDate() {
+		return toLocalDate(ZoneId.systemDefault());
+	}
+
+	/**
+	 * Returns the value as a local date in the given time zone.
+	 * 
+	 * @param zone
+	 *            The time zone.
+	 * @return The value as a local date or null if the ExclyDate has no value.
+	 */
+	public LocalDate toLocalDate(ZoneId zone) {
+		return empty ? null : toLocalDateTime(zone).toLocalDate();
 	}
 
 	/**
@@ -72,16 +215,58 @@ public class ExclyDate implements ExclyDataType, Comparable<ExclyDate> {
 		return error;
 	}
 
+	/**
+	 * Checks if the ExclyDate has no value.
+	 * 
+	 * @return Returns true if the ExclyDate has no value, otherwise it will
+	 *         return false.
+	 */
+	public boolean isEmpty() {
+		return empty;
+	}
+
+	/**
+	 * Returns a new ExclyDate shifted by the given amount of milliseconds. An
+	 * ExclyDate without a value or with an error is returned unchanged.
+	 * 
+	 * @param millis
+	 *            The milliseconds which should be added.
+	 * @return Return the shifted ExclyDate.
+	 */
+	public ExclyDate plusMillis(long millis) {
+		if (error || empty) {
+			return this;
+		}
+		return new ExclyDate(time + millis);
+	}
+
+	/**
+	 * Returns a new ExclyDate shifted by the given amount of calendar days in
+	 * the default time zone, so the time of day is kept across daylight
+	 * saving changes. An ExclyDate without a value or with an error is
+	 * returned unchanged.
+	 * 
+	 * @param days
+	 *            The days which should be added.
+	 * @return Return the shifted ExclyDate.
+	 */
+	public ExclyDate plusDays(long days) {
+		if (error || empty) {
+			return this;
+		}
+		return of(toLocalDateTime().plusDays(days));
+	}
+
 	@Override
 	public String toString() {
-		return data.toString();
+		return String.valueOf(getData());
 	}
 
 	@Override
 	public int hashCode() {
 		final int prime = 31;
 		int result = 1;
-		result = prime * result + ((data == null) ? 0 : data.hashCode());
+		result = prime * result + (empty ? 0 : (int) (time ^ (time >>> 32)));
 		result = prime * result + (error ? 1231 : 1237);
 		return result;
 	}
@@ -95,10 +280,9 @@ public class ExclyDate implements ExclyDataType, Comparable<ExclyDate> {
 		if (getClass() != obj.getClass())
 			return false;
 		ExclyDate other = (ExclyDate) obj;
-		if (data == null) {
-			if (other.data != null)
-				return false;
-		} else if (!data.equals(other.data))
+		if (empty != other.empty)
+			return false;
+		if (time != other.time)
 			return false;
 		if (error != other.error)
 			return false;
@@ -107,14 +291,14 @@ public class ExclyDate implements ExclyDataType, Comparable<ExclyDate> {
 
 	@Override
 	public int compareTo(ExclyDate other) {
-		if ((!this.error && other.error) || (this.data != null && other.data == null)) {
+		if ((!this.error && other.error) || (!this.empty && other.empty)) {
 			return -1;
-		} else if ((this.error && !other.error) || (this.data == null && other.data != null)) {
+		} else if ((this.error && !other.error) || (this.empty && !other.empty)) {
 			return 1;
-		} else if ((this.error && other.error) || (this.data == null && other.data == null)) {
+		} else if ((this.error && other.error) || (this.empty && other.empty)) {
 			return 0;
 		} else {
-			return this.data.compareTo(other.data);
+			return Long.compare(this.time, other.time);
 		}
 	}
 
@@ -127,31 +311,20 @@ public class ExclyDate implements ExclyDataType, Comparable<ExclyDate> {
 	 * @return Return the sum as an ExclyDate.
 	 */
 	public static ExclyDate add(ExclyDate... dates) {
-		ExclyDateError error = null;
-		Date dateData = null;
+		boolean empty = true;
+		long time = 0;
 
 		for (ExclyDate date : dates) {
-			if (dateData == null) {
-				if (date.isError()) {
-					error = new ExclyDateError();
-				} else {
-					dateData = date.getData();
-				}
-			} else {
-				if (date.isError()) {
-					error = new ExclyDateError();
-				} else {
-					if (date.getData() != null) {
-						dateData = new Date(dateData.getTime() + date.getData().getTime());
-					}
-				}
+			if (date.error) {
+				return new ExclyDateError();
 			}
-			if (error != null) {
-				return error;
+			if (!date.empty) {
+				time = empty ? date.time : time + date.time;
+				empty = false;
 			}
 		}
 
-		return new ExclyDate(dateData);
+		return empty ? new ExclyDate(null) : new ExclyDate(time);
 	}
 
 	/**
@@ -164,30 +337,19 @@ public class ExclyDate implements ExclyDataType, Comparable<ExclyDate> {
 	 * @return Return the result as an ExclyDate.
 	 */
 	public static ExclyDate sub(ExclyDate... dates) {
-		ExclyDateError error = null;
-		Date dateData = null;
+		boolean empty = true;
+		long time = 0;
 
 		for (ExclyDate date : dates) {
-			if (dateData == null) {
-				if (date.isError()) {
-					error = new ExclyDateError();
-				} else {
-					dateData = date.getData();
-				}
-			} else {
-				if (date.isError()) {
-					error = new ExclyDateError();
-				} else {
-					if (date.getData() != null) {
-						dateData = new Date(dateData.getTime() - date.getData().getTime());
-					}
-				}
+			if (date.error) {
+				return new ExclyDateError();
 			}
-			if (error != null) {
-				return error;
+			if (!date.empty) {
+				time = empty ? date.time : time - date.time;
+				empty = false;
 			}
 		}
 
-		return new ExclyDate(dateData);
+		return empty ? new ExclyDate(null) : new ExclyDate(time);
 	}
 }
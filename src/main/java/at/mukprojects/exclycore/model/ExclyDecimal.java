@@ -0,0 +1,425 @@
+/** 
+ * This code is copyright (c) Mathias Markl 2015
+ * 
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ * 
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package at.mukprojects.exclycore.model;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+
+/**
+ * This class represents an ExclyDecimal data type. The value is stored
+ * exactly as an unscaled long and a scale, the value is unscaled * 10^-scale.
+ * Calculations stay on primitives and return an ExclyDecimalError if the
+ * result can't be represented exactly.
+ * 
+ * @author Mathias Markl
+ */
+public class ExclyDecimal implements ExclyDataType, Comparable<ExclyDecimal> {
+
+	/**
+	 * The largest supported scale.
+	 */
+	public static final int MAX_SCALE = 18;
+
+	private static final long[] POWERS_OF_TEN = new long[MAX_SCALE + 1];
+	private static final double[] DOUBLE_POWERS_OF_TEN = new double[MAX_SCALE + 1];
+
+	static {
+		POWERS_OF_TEN[0] = 1;
+		DOUBLE_POWERS_OF_TEN[0] = 1;
+		for (int i = 1; i <= MAX_SCALE; i++) {
+			POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+			DOUBLE_POWERS_OF_TEN[i] = DOUBLE_POWERS_OF_TEN[i - 1] * 10;
+		}
+	}
+
+	protected boolean error;
+	private long unscaled;
+	private int scale;
+
+	/**
+	 * Constructs a new ExclyDecimal without decimal places.
+	 * 
+	 * @param data
+	 *            The value of the ExclyDecimal.
+	 */
+	public ExclyDecimal(long data) {
+		this(data, 0);
+	}
+
+	/**
+	 * Constructs a new ExclyDecimal.
+	 * 
+	 * @param unscaled
+	 *            The unscaled value of the ExclyDecimal.
+	 * @param scale
+	 *            The number of decimal places, between zero and
+	 *            {@link #MAX_SCALE}.
+	 */
+	public ExclyDecimal(long unscaled, int scale) {
+		if (scale < 0 || scale > MAX_SCALE) {
+			throw new IllegalArgumentException("The scale " + scale + " is not between 0 and " + MAX_SCALE + ".");
+		}
+		this.unscaled = unscaled;
+		this.scale = scale;
+		this.error = false;
+	}
+
+	/**
+	 * Converts a double into an ExclyDecimal. The ExclyDecimal gets the
+	 * shortest decimal representation which converts back into the same
+	 * double, so a value like 0.1 becomes exactly 0.1. If the value can't be
+	 * represented, an ExclyDecimalError is returned.
+	 * 
+	 * @param data
+	 *            The double value.
+	 * @return Returns the ExclyDecimal.
+	 */
+	public static ExclyDecimal valueOf(double data) {
+		if (Double.isNaN(data) || Double.isInfinite(data)) {
+			return new ExclyDecimalError();
+		}
+
+		double abs = Math.abs(data);
+		if (abs < 0x1p53) {
+			for (int digits = 0; digits <= MAX_SCALE; digits++) {
+				long value = Math.round(abs * DOUBLE_POWERS_OF_TEN[digits]);
+				if (value >= (1L << 53)) {
+					break;
+				}
+				if (value / DOUBLE_POWERS_OF_TEN[digits] == abs) {
+					return new ExclyDecimal(data < 0 ? -value : value, digits);
+				}
+			}
+		}
+
+		return valueOf(new BigDecimal(Double.toString(data)));
+	}
+
+	/**
+	 * Converts a BigDecimal into an ExclyDecimal. Trailing zeros are removed
+	 * if the value doesn't fit otherwise. If the value can't be represented, an
+	 * ExclyDecimalError is returned.
+	 * 
+	 * @param data
+	 *            The BigDecimal value.
+	 * @return Returns the ExclyDecimal.
+	 */
+	public static ExclyDecimal valueOf(BigDecimal data) {
+		if (data.scale() < 0) {
+			data = data.setScale(0);
+		}
+		if (data.scale() > MAX_SCALE || data.unscaledValue().bitLength() > 63) {
+			data = data.stripTrailingZeros();
+			if (data.scale() < 0) {
+				data = data.setScale(0);
+			}
+		}
+		if (data.scale() > MAX_SCALE || data.unscaledValue().bitLength() > 63) {
+			return new ExclyDecimalError();
+		}
+		return new ExclyDecimal(data.unscaledValue().longValue(), data.scale());
+	}
+
+	@Override
+	public void setCell(Cell cell) {
+		setCell(cell, cell.getCellStyle());
+	}
+
+	@Override
+	public void setCell(Cell cell, CellStyle cellStyle) {
+		cell.setCellValue(doubleValue());
+		cell.setCellStyle(cellStyle);
+	}
+
+	/**
+	 * Returns the value. The BigDecimal is created with every call, use the
+	 * unscaled value and the scale to avoid that.
+	 * 
+	 * @return The value as a BigDecimal.
+	 */
+	public BigDecimal getData() {
+		return BigDecimal.valueOf(unscaled, scale);
+	}
+
+	/**
+	 * Returns the unscaled value.
+	 * 
+	 * @return The unscaled value as a Java long.
+	 */
+	public long getUnscaledValue() {
+		return unscaled;
+	}
+
+	/**
+	 * Returns the scale, which is the number of decimal places.
+	 * 
+	 * @return The scale.
+	 */
+	public int getScale() {
+		return scale;
+	}
+
+	/**
+	 * Returns the value as a double.
+	 * 
+	 * @return The value as a Java double.
+	 */
+	public double doubleValue() {
+		if (Math.abs(unscaled) < (1L << 53)) {
+			return unscaled / DOUBLE_POWERS_OF_TEN[scale];
+		}
+		return getData().doubleValue();
+	}
+
+	/**
+	 * Checks if the ExclyDecimal has an error.
+	 * 
+	 * @return Returns true if the ExclyDecimal has an error, otherwise it will
+	 *         return false.
+	 */
+	public boolean isError() {
+		return error;
+	}
+
+	@Override
+	public String toString() {
+		if (scale == 0) {
+			return Long.toString(unscaled);
+		}
+
+		String digits = unscaled < 0 ? BigInteger.valueOf(unscaled).negate().toString() : Long.toString(unscaled);
+		StringBuilder builder = new StringBuilder(digits.length() + 3);
+		if (unscaled < 0) {
+			builder.append('-');
+		}
+		if (digits.length() <= scale) {
+			builder.append("0.");
+			for (int i = digits.length(); i < scale; i++) {
+				builder.append('0');
+			}
+			builder.append(digits);
+		} else {
+			builder.append(digits, 0, digits.length() - scale).append('.')
+					.append(digits, digits.length() - scale, digits.length());
+		}
+		return builder.toString();
+	}
+
+	@Override
+	public int hashCode() {
+		long normalized = unscaled;
+		int normalizedScale = scale;
+		while (normalizedScale > 0 && normalized % 10 == 0) {
+			normalized /= 10;
+			normalizedScale--;
+		}
+
+		final int prime = 31;
+		int result = 1;
+		result = prime * result + (int) (normalized ^ (normalized >>> 32));
+		result = prime * result + normalizedScale;
+		result = prime * result + (error ? 1231 : 1237);
+		return result;
+	}
+
+	/**
+	 * Two ExclyDecimals are equal if they have the same value, the scale is
+	 * ignored. So 1.5 is equal to 1.50.
+	 */
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (obj == null)
+			return false;
+		if (getClass() != obj.getClass())
+			return false;
+		ExclyDecimal other = (ExclyDecimal) obj;
+		if (compare(unscaled, scale, other.unscaled, other.scale) != 0)
+			return false;
+		if (error != other.error)
+			return false;
+		return true;
+	}
+
+	@Override
+	public int compareTo(ExclyDecimal other) {
+		if (!this.error && other.error) {
+			return -1;
+		} else if (this.error && !other.error) {
+			return 1;
+		} else if (this.error && other.error) {
+			return 0;
+		} else {
+			return compare(this.unscaled, this.scale, other.unscaled, other.scale);
+		}
+	}
+
+	/**
+	 * Adds multiple ExclyDecimals together. If any of the ExclyDecimals has an
+	 * error or the sum doesn't fit, the function will return an ExclyDecimal
+	 * from the type ExclyDecimalError.
+	 * 
+	 * @param values
+	 *            ExclyDecimals which should be added together.
+	 * @return Return the sum as an ExclyDecimal.
+	 */
+	public static ExclyDecimal add(ExclyDecimal... values) {
+		return addOrSub(values, false);
+	}
+
+	/**
+	 * Subtracts multiple ExclyDecimals from the first input. If any of the
+	 * ExclyDecimals has an error or the result doesn't fit, the function will
+	 * return an ExclyDecimal from the type ExclyDecimalError.
+	 * 
+	 * @param values
+	 *            ExclyDecimals which should be subtracted.
+	 * @return Return the result as an ExclyDecimal.
+	 */
+	public static ExclyDecimal sub(ExclyDecimal... values) {
+		return addOrSub(values, true);
+	}
+
+	/**
+	 * Multiplies multiple ExclyDecimals together. The scale of the result is
+	 * the sum of the scales, trailing zeros are removed if it's larger than
+	 * {@link #MAX_SCALE}. If any of the ExclyDecimals has an error or the
+	 * result can't be represented exactly, the function will return an
+	 * ExclyDecimal from the type ExclyDecimalError.
+	 * 
+	 * @param values
+	 *            ExclyDecimals which should be multiplied.
+	 * @return Return the result as an ExclyDecimal.
+	 */
+	public static ExclyDecimal multi(ExclyDecimal... values) {
+		long data = 0;
+		int dataScale = 0;
+
+		for (int i = 0; i < values.length; i++) {
+			ExclyDecimal value = values[i];
+			if (value.error) {
+				return new ExclyDecimalError();
+			}
+			if (i == 0) {
+				data = value.unscaled;
+				dataScale = value.scale;
+				continue;
+			}
+
+			long product = data * value.unscaled;
+			if (data != 0 && (product / data != value.unscaled || (data == -1 && value.unscaled == Long.MIN_VALUE))) {
+				return new ExclyDecimalError();
+			}
+			data = product;
+			dataScale += value.scale;
+			while (dataScale > MAX_SCALE && data % 10 == 0) {
+				data /= 10;
+				dataScale--;
+			}
+			if (dataScale > MAX_SCALE) {
+				return new ExclyDecimalError();
+			}
+		}
+
+		return new ExclyDecimal(data, dataScale);
+	}
+
+	private static ExclyDecimal addOrSub(ExclyDecimal[] values, boolean sub) {
+		long data = 0;
+		int dataScale = 0;
+
+		for (int i = 0; i < values.length; i++) {
+			ExclyDecimal value = values[i];
+			if (value.error) {
+				return new ExclyDecimalError();
+			}
+			if (i == 0) {
+				data = value.unscaled;
+				dataScale = value.scale;
+				continue;
+			}
+
+			long other = value.unscaled;
+			if (value.scale > dataScale) {
+				if (!fits(data, value.scale - dataScale)) {
+					return new ExclyDecimalError();
+				}
+				data *= POWERS_OF_TEN[value.scale - dataScale];
+				dataScale = value.scale;
+			} else if (value.scale < dataScale) {
+				if (!fits(other, dataScale - value.scale)) {
+					return new ExclyDecimalError();
+				}
+				other *= POWERS_OF_TEN[dataScale - value.scale];
+			}
+
+			if (sub) {
+				if (other == Long.MIN_VALUE) {
+					return new ExclyDecimalError();
+				}
+				other = -other;
+			}
+			long sum = data + other;
+			if (((data ^ sum) & (other ^ sum)) < 0) {
+				return new ExclyDecimalError();
+			}
+			data = sum;
+		}
+
+		return new ExclyDecimal(data, dataScale);
+	}
+
+	/**
+	 * Checks if the unscaled value can be multiplied by 10^digits without an
+	 * overflow.
+	 */
+	private static boolean fits(long unscaled, int digits) {
+		long limit = Long.MAX_VALUE / POWERS_OF_TEN[digits];
+		return unscaled <= limit && unscaled >= -limit;
+	}
+
+	private static int compare(long left, int leftScale, long right, int rightScale) {
+		if (leftScale == rightScale) {
+			return Long.compare(left, right);
+		}
+
+		int leftSign = Long.signum(left);
+		int rightSign = Long.signum(right);
+		if (leftSign != rightSign) {
+			return Integer.compare(leftSign, rightSign);
+		}
+
+		if (leftScale < rightScale) {
+			int digits = rightScale - leftScale;
+			if (!fits(left, digits)) {
+				return leftSign;
+			}
+			return Long.compare(left * POWERS_OF_TEN[digits], right);
+		} else {
+			int digits = leftScale - rightScale;
+			if (!fits(right, digits)) {
+				return -rightSign;
+			}
+			return Long.compare(left, right * POWERS_OF_TEN[digits]);
+		}
+	}
+}
@@ -27,7 +27,7 @@ import org.apache.poi.ss.usermodel.CellStyle;
  */
 public class ExclyDouble implements ExclyDataType, Comparable<ExclyDouble> {
 	protected boolean error;
-	private Double data;
+	private double data;
 
 	/**
 	 * Constructs a new ExclyDouble.
@@ -111,7 +111,7 @@ public class ExclyDouble implements ExclyDataType, Comparable<ExclyDouble> {
 		} else if (this.error && other.error) {
 			return 0;
 		} else {
-			return this.data.compareTo(other.data);
+			return Double.compare(this.data, other.data);
 		}
 	}
 
@@ -125,26 +125,14 @@ public class ExclyDouble implements ExclyDataType, Comparable<ExclyDouble> {
 	 * @return Return the sum as an ExclyDouble.
 	 */
 	public static ExclyDouble add(ExclyDouble... values) {
-		ExclyDoubleError error = null;
-		Double data = null;
+		double data = 0;
 
-		for (ExclyDouble value : values) {
-			if (data == null) {
-				if (value.isError()) {
-					error = new ExclyDoubleError();
-				} else {
-					data = value.getData();
-				}
-			} else {
-				if (value.isError()) {
-					error = new ExclyDoubleError();
-				} else {
-					data = data + value.getData();
-				}
-			}
-			if (error != null) {
-				return error;
+		for (int i = 0; i < values.length; i++) {
+			ExclyDouble value = values[i];
+			if (value.error) {
+				return new ExclyDoubleError();
 			}
+			data = (i == 0) ? value.data : data + value.data;
 		}
 
 		return new ExclyDouble(data);
@@ -160,26 +148,14 @@ public class ExclyDouble implements ExclyDataType, Comparable<ExclyDouble> {
 	 * @return Return the result as an ExclyDouble.
 	 */
 	public static ExclyDouble sub(ExclyDouble... values) {
-		ExclyDoubleError error = null;
-		Double data = null;
+		double data = 0;
 
-		for (ExclyDouble value : values) {
-			if (data == null) {
-				if (value.isError()) {
-					error = new ExclyDoubleError();
-				} else {
-					data = value.getData();
-				}
-			} else {
-				if (value.isError()) {
-					error = new ExclyDoubleError();
-				} else {
-					data = data - value.getData();
-				}
-			}
-			if (error != null) {
-				return error;
+		for (int i = 0; i < values.length; i++) {
+			ExclyDouble value = values[i];
+			if (value.error) {
+				return new ExclyDoubleError();
 			}
+			data = (i == 0) ? value.data : data - value.data;
 		}
 
 		return new ExclyDouble(data);
@@ -195,26 +171,14 @@ public class ExclyDouble implements ExclyDataType, Comparable<ExclyDouble> {
 	 * @return Return the result as an ExclyDouble.
 	 */
 	public static ExclyDouble multi(ExclyDouble... values) {
-		ExclyDoubleError error = null;
-		Double data = null;
+		double data = 0;
 
-		for (ExclyDouble value : values) {
-			if (data == null) {
-				if (value.isError()) {
-					error = new ExclyDoubleError();
-				} else {
-					data = value.getData();
-				}
-			} else {
-				if (value.isError()) {
-					error = new ExclyDoubleError();
-				} else {
-					data = data * value.getData();
-				}
-			}
-			if (error != null) {
-				return error;
+		for (int i = 0; i < values.length; i++) {
+			ExclyDouble value = values[i];
+			if (value.error) {
+				return new ExclyDoubleError();
 			}
+			data = (i == 0) ? value.data : data * value.data;
 		}
 
 		return new ExclyDouble(data);
@@ -230,26 +194,14 @@ public class ExclyDouble implements ExclyDataType, Comparable<ExclyDouble> {
 	 * @return Return the result as an ExclyDouble.
 	 */
 	public static ExclyDouble div(ExclyDouble... values) {
-		ExclyDoubleError error = null;
-		Double data = null;
+		double data = 0;
 
-		for (ExclyDouble value : values) {
-			if (data == null) {
-				if (value.isError()) {
-					error = new ExclyDoubleError();
-				} else {
-					data = value.getData();
-				}
-			} else {
-				if (value.isError()) {
-					error = new ExclyDoubleError();
-				} else {
-					data = data / value.getData();
-				}
-			}
-			if (error != null) {
-				return error;
+		for (int i = 0; i < values.length; i++) {
+			ExclyDouble value = values[i];
+			if (value.error) {
+				return new ExclyDoubleError();
 			}
+			data = (i == 0) ? value.data : data / value.data;
 		}
 
 		return new ExclyDouble(data);
@@ -0,0 +1,349 @@
+/** 
+ * This code is copyright (c) Mathias Markl 2015
+ * 
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ * 
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package at.mukprojects.exclycore.model;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.stream.IntStream;
+
+/**
+ * ExclyDoubleColumn stores the numeric values of a column as primitives and
+ * aggregates them in tight loops. Large columns are split into chunks which
+ * are aggregated in parallel on the common fork join pool.
+ *
+ * @author Mathias Markl
+ */
+public class ExclyDoubleColumn {
+	private static final int PARALLEL_THRESHOLD = 1 << 16;
+
+	private double[] values;
+	private long[] blanks;
+	private long[] errors;
+	private int size;
+	private int blankCount;
+	private int errorCount;
+
+	/**
+	 * Constructs a new and empty ExclyDoubleColumn.
+	 */
+	public ExclyDoubleColumn() {
+		this(16);
+	}
+
+	/**
+	 * Constructs a new and empty ExclyDoubleColumn.
+	 * 
+	 * @param capacity
+	 *            The expected number of values.
+	 */
+	public ExclyDoubleColumn(int capacity) {
+		values = new double[Math.max(capacity, 1)];
+	}
+
+	/**
+	 * Constructs a new ExclyDoubleColumn with the given values.
+	 * 
+	 * @param values
+	 *            The values of the column.
+	 * @return Return the column.
+	 */
+	public static ExclyDoubleColumn of(ExclyDouble... values) {
+		ExclyDoubleColumn column = new ExclyDoubleColumn(values.length);
+		for (ExclyDouble value : values) {
+			column.add(value);
+		}
+		return column;
+	}
+
+	/**
+	 * Constructs a new ExclyDoubleColumn with the given values.
+	 * 
+	 * @param values
+	 *            The values of the column.
+	 * @return Return the column.
+	 */
+	public static ExclyDoubleColumn of(Collection<? extends ExclyDouble> values) {
+		ExclyDoubleColumn column = new ExclyDoubleColumn(values.size());
+		for (ExclyDouble value : values) {
+			column.add(value);
+		}
+		return column;
+	}
+
+	/**
+	 * Appends a value.
+	 * 
+	 * @param value
+	 *            The value.
+	 */
+	public void add(double value) {
+		ensureCapacity();
+		values[size++] = value;
+	}
+
+	/**
+	 * Appends an ExclyDouble. ExclyDoubleErrors and ExclyDoubleBlanks are
+	 * stored as such.
+	 * 
+	 * @param value
+	 *            The ExclyDouble.
+	 */
+	public void add(ExclyDouble value) {
+		if (value.isError()) {
+			addError();
+		} else if (value instanceof ExclyDoubleBlank) {
+			addBlank();
+		} else {
+			add(value.getData());
+		}
+	}
+
+	/**
+	 * Appends an ExclyInteger. ExclyIntegerErrors and ExclyIntegerBlanks are
+	 * stored as such.
+	 * 
+	 * @param value
+	 *            The ExclyInteger.
+	 */
+	public void add(ExclyInteger value) {
+		if (value.isError()) {
+			addError();
+		} else if (value instanceof ExclyIntegerBlank) {
+			addBlank();
+		} else {
+			add(value.getData());
+		}
+	}
+
+	/**
+	 * Appends an ExclyLong. ExclyLongErrors and ExclyLongBlanks are stored as
+	 * such.
+	 * 
+	 * @param value
+	 *            The ExclyLong.
+	 */
+	public void add(ExclyLong value) {
+		if (value.isError()) {
+			addError();
+		} else if (value instanceof ExclyLongBlank) {
+			addBlank();
+		} else {
+			add(value.getData());
+		}
+	}
+
+	/**
+	 * Appends a blank value.
+	 */
+	public void addBlank() {
+		ensureCapacity();
+		blanks = setBit(blanks, size);
+		blankCount++;
+		size++;
+	}
+
+	/**
+	 * Appends an error value.
+	 */
+	public void addError() {
+		ensureCapacity();
+		errors = setBit(errors, size);
+		errorCount++;
+		size++;
+	}
+
+	/**
+	 * Returns the value at the given position.
+	 * 
+	 * @param index
+	 *            The position of the value.
+	 * @return The value as an ExclyDouble, an ExclyDoubleError or an
+	 *         ExclyDoubleBlank.
+	 */
+	public ExclyDouble get(int index) {
+		if (index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+		} else if (isBitSet(errors, index)) {
+			return new ExclyDoubleError();
+		} else if (isBitSet(blanks, index)) {
+			return new ExclyDoubleBlank();
+		}
+		return new ExclyDouble(values[index]);
+	}
+
+	/**
+	 * Returns the number of values, including blank and error values.
+	 * 
+	 * @return The size of the column.
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Returns the number of blank values.
+	 * 
+	 * @return The number of blank values.
+	 */
+	public int getBlankCount() {
+		return blankCount;
+	}
+
+	/**
+	 * Returns the number of error values.
+	 * 
+	 * @return The number of error values.
+	 */
+	public int getErrorCount() {
+		return errorCount;
+	}
+
+	/**
+	 * Aggregates the column. Columns with more than 65536 values are
+	 * aggregated in parallel.
+	 * 
+	 * @return Return the statistics of the column.
+	 */
+	public ExclyDoubleStatistics summarize() {
+		return summarize(size > PARALLEL_THRESHOLD);
+	}
+
+	/**
+	 * Aggregates the column.
+	 * 
+	 * @param parallel
+	 *            Set this parameter to split the column into chunks which are
+	 *            aggregated in parallel.
+	 * @return Return the statistics of the column.
+	 */
+	public ExclyDoubleStatistics summarize(boolean parallel) {
+		ExclyDoubleStatistics statistics;
+
+		if (parallel && size > PARALLEL_THRESHOLD) {
+			final int chunks = (size + PARALLEL_THRESHOLD - 1) / PARALLEL_THRESHOLD;
+			statistics = IntStream.range(0, chunks).parallel()
+					.mapToObj(chunk -> summarize(chunk * PARALLEL_THRESHOLD,
+							Math.min(size, (chunk + 1) * PARALLEL_THRESHOLD)))
+					.reduce((left, right) -> {
+						left.combine(right);
+						return left;
+					}).get();
+		} else {
+			statistics = summarize(0, size);
+		}
+
+		statistics.acceptBlanks(blankCount);
+		statistics.acceptErrors(errorCount);
+		return statistics;
+	}
+
+	/**
+	 * Returns the sum of the column.
+	 * 
+	 * @return The sum as an ExclyDouble or an ExclyDoubleError.
+	 * @see ExclyDoubleStatistics#getSum()
+	 */
+	public ExclyDouble sum() {
+		return summarize().getSum();
+	}
+
+	/**
+	 * Returns the smallest value of the column.
+	 * 
+	 * @return The minimum as an ExclyDouble, an ExclyDoubleError or an
+	 *         ExclyDoubleBlank.
+	 * @see ExclyDoubleStatistics#getMin()
+	 */
+	public ExclyDouble min() {
+		return summarize().getMin();
+	}
+
+	/**
+	 * Returns the largest value of the column.
+	 * 
+	 * @return The maximum as an ExclyDouble, an ExclyDoubleError or an
+	 *         ExclyDoubleBlank.
+	 * @see ExclyDoubleStatistics#getMax()
+	 */
+	public ExclyDouble max() {
+		return summarize().getMax();
+	}
+
+	/**
+	 * Returns the arithmetic mean of the column.
+	 * 
+	 * @return The mean as an ExclyDouble, an ExclyDoubleError or an
+	 *         ExclyDoubleBlank.
+	 * @see ExclyDoubleStatistics#getMean()
+	 */
+	public ExclyDouble mean() {
+		return summarize().getMean();
+	}
+
+	private ExclyDoubleStatistics summarize(int from, int to) {
+		long count = 0;
+		double sum = 0;
+		double compensation = 0;
+		double simpleSum = 0;
+		double min = Double.POSITIVE_INFINITY;
+		double max = Double.NEGATIVE_INFINITY;
+		boolean dense = blanks == null && errors == null;
+
+		for (int i = from; i < to; i++) {
+			if (!dense && (isBitSet(blanks, i) || isBitSet(errors, i))) {
+				continue;
+			}
+			double value = values[i];
+			double total = sum + value;
+			if (Math.abs(sum) >= Math.abs(value)) {
+				compensation += (sum - total) + value;
+			} else {
+				compensation += (value - total) + sum;
+			}
+			sum = total;
+			simpleSum += value;
+			min = Math.min(min, value);
+			max = Math.max(max, value);
+			count++;
+		}
+
+		return new ExclyDoubleStatistics(count, sum, compensation, simpleSum, min, max);
+	}
+
+	private void ensureCapacity() {
+		if (size == values.length) {
+			values = Arrays.copyOf(values, values.length * 2);
+		}
+	}
+
+	private long[] setBit(long[] bits, int index) {
+		int word = index >>> 6;
+		if (bits == null) {
+			bits = new long[(values.length + 63) >>> 6];
+		} else if (word >= bits.length) {
+			bits = Arrays.copyOf(bits, Math.max(word + 1, bits.length * 2));
+		}
+		bits[word] |= 1L << index;
+		return bits;
+	}
+
+	private static boolean isBitSet(long[] bits, int index) {
+		int word = index >>> 6;
+		return bits != null && word < bits.length && (bits[word] & (1L << index)) != 0;
+	}
+}
@@ -0,0 +1,251 @@
+/** 
+ * This code is copyright (c) Mathias Markl 2015
+ * 
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ * 
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package at.mukprojects.exclycore.model;
+
+/**
+ * ExclyDoubleStatistics collects the sum, minimum, maximum and mean of
+ * numeric values together with the number of blank and error values. The sum
+ * is calculated with compensated summation. As with
+ * {@link ExclyDouble#add(ExclyDouble...)}, any error value turns the results
+ * into an ExclyDoubleError. Blank values count as zero for the sum, but are
+ * ignored by the minimum, maximum and mean.
+ *
+ * @author Mathias Markl
+ */
+public class ExclyDoubleStatistics {
+	private long count;
+	private long blankCount;
+	private long errorCount;
+
+	private double sum;
+	private double compensation;
+	private double simpleSum;
+	private double min = Double.POSITIVE_INFINITY;
+	private double max = Double.NEGATIVE_INFINITY;
+
+	/**
+	 * Constructs a new and empty ExclyDoubleStatistics.
+	 */
+	public ExclyDoubleStatistics() {
+	}
+
+	/**
+	 * Constructs a new ExclyDoubleStatistics from the partial results of a
+	 * column scan.
+	 */
+	ExclyDoubleStatistics(long count, double sum, double compensation, double simpleSum, double min, double max) {
+		this.count = count;
+		this.sum = sum;
+		this.compensation = compensation;
+		this.simpleSum = simpleSum;
+		this.min = min;
+		this.max = max;
+	}
+
+	/**
+	 * Records a value.
+	 * 
+	 * @param value
+	 *            The value.
+	 */
+	public void accept(double value) {
+		count++;
+		simpleSum += value;
+		sumWithCompensation(value);
+		min = Math.min(min, value);
+		max = Math.max(max, value);
+	}
+
+	/**
+	 * Records an ExclyDouble. ExclyDoubleErrors and ExclyDoubleBlanks are
+	 * counted as such.
+	 * 
+	 * @param value
+	 *            The ExclyDouble.
+	 */
+	public void accept(ExclyDouble value) {
+		if (value.isError()) {
+			errorCount++;
+		} else if (value instanceof ExclyDoubleBlank) {
+			blankCount++;
+		} else {
+			accept(value.getData());
+		}
+	}
+
+	/**
+	 * Records blank values.
+	 * 
+	 * @param blanks
+	 *            The number of blank values.
+	 */
+	public void acceptBlanks(long blanks) {
+		blankCount += blanks;
+	}
+
+	/**
+	 * Records error values.
+	 * 
+	 * @param errors
+	 *            The number of error values.
+	 */
+	public void acceptErrors(long errors) {
+		errorCount += errors;
+	}
+
+	/**
+	 * Combines the state of another ExclyDoubleStatistics into this one.
+	 * 
+	 * @param other
+	 *            The other ExclyDoubleStatistics.
+	 */
+	public void combine(ExclyDoubleStatistics other) {
+		count += other.count;
+		blankCount += other.blankCount;
+		errorCount += other.errorCount;
+
+		simpleSum += other.simpleSum;
+		sumWithCompensation(other.sum);
+		sumWithCompensation(other.compensation);
+		min = Math.min(min, other.min);
+		max = Math.max(max, other.max);
+	}
+
+	private void sumWithCompensation(double value) {
+		double total = sum + value;
+		if (Math.abs(sum) >= Math.abs(value)) {
+			compensation += (sum - total) + value;
+		} else {
+			compensation += (value - total) + sum;
+		}
+		sum = total;
+	}
+
+	/**
+	 * Returns the number of values, without blank and error values.
+	 * 
+	 * @return The number of values.
+	 */
+	public long getCount() {
+		return count;
+	}
+
+	/**
+	 * Returns the number of blank values.
+	 * 
+	 * @return The number of blank values.
+	 */
+	public long getBlankCount() {
+		return blankCount;
+	}
+
+	/**
+	 * Returns the number of error values.
+	 * 
+	 * @return The number of error values.
+	 */
+	public long getErrorCount() {
+		return errorCount;
+	}
+
+	/**
+	 * Checks if any error value was recorded.
+	 * 
+	 * @return Returns true if an error value was recorded, otherwise it will
+	 *         return false.
+	 */
+	public boolean isError() {
+		return errorCount > 0;
+	}
+
+	/**
+	 * Returns the sum as a Java double, without checking for errors.
+	 * 
+	 * @return The compensated sum.
+	 */
+	public double getSumValue() {
+		double total = sum + compensation;
+		if (Double.isNaN(total) && Double.isInfinite(simpleSum)) {
+			return simpleSum;
+		}
+		return total;
+	}
+
+	/**
+	 * Returns the sum. Blank values count as zero.
+	 * 
+	 * @return The sum as an ExclyDouble or an ExclyDoubleError.
+	 */
+	public ExclyDouble getSum() {
+		if (isError()) {
+			return new ExclyDoubleError();
+		}
+		return new ExclyDouble(getSumValue());
+	}
+
+	/**
+	 * Returns the smallest value.
+	 * 
+	 * @return The minimum as an ExclyDouble, an ExclyDoubleError or an
+	 *         ExclyDoubleBlank if no value was recorded.
+	 */
+	public ExclyDouble getMin() {
+		if (isError()) {
+			return new ExclyDoubleError();
+		} else if (count == 0) {
+			return new ExclyDoubleBlank();
+		}
+		return new ExclyDouble(min);
+	}
+
+	/**
+	 * Returns the largest value.
+	 * 
+	 * @return The maximum as an ExclyDouble, an ExclyDoubleError or an
+	 *         ExclyDoubleBlank if no value was recorded.
+	 */
+	public ExclyDouble getMax() {
+		if (isError()) {
+			return new ExclyDoubleError();
+		} else if (count == 0) {
+			return new ExclyDoubleBlank();
+		}
+		return new ExclyDouble(max);
+	}
+
+	/**
+	 * Returns the arithmetic mean of the values. Blank values are ignored.
+	 * 
+	 * @return The mean as an ExclyDouble, an ExclyDoubleError or an
+	 *         ExclyDoubleBlank if no value was recorded.
+	 */
+	public ExclyDouble getMean() {
+		if (isError()) {
+			return new ExclyDoubleError();
+		} else if (count == 0) {
+			return new ExclyDoubleBlank();
+		}
+		return new ExclyDouble(getSumValue() / count);
+	}
+
+	@Override
+	public String toString() {
+		return "ExclyDoubleStatistics [count=" + count + ", blankCount=" + blankCount + ", errorCount="
+				+ errorCount + ", sum=" + getSumValue() + ", min=" + min + ", max=" + max + "]";
+	}
+}
@@ -22,6 +22,8 @@ import org.apache.poi.ss.usermodel.CellStyle;
 import org.apache.poi.ss.usermodel.IndexedColors;
 import org.apache.poi.xssf.usermodel.XSSFCellStyle;
 
+import at.mukprojects.exclycore.helper.ExclyEvents;
+
 /**
  * This class represents an ExclyError data type.
  * 
@@ -37,12 +39,14 @@ public class ExclyError implements ExclyDataType {
 	@Override
 	public void setCell(Cell cell, CellStyle cellStyle) {
 		cell.setCellValue(ERRORCODE);
+		Object event = ExclyEvents.beginErrorStyle();
 		CellStyle cellStyleError = cell.getSheet().getWorkbook()
 				.createCellStyle();
 		cellStyleError.cloneStyleFrom(cellStyle);
 		cellStyleError.setFillForegroundColor(IndexedColors.RED.getIndex());
 		cellStyleError.setFillPattern(XSSFCellStyle.SOLID_FOREGROUND);
 		cell.setCellStyle(cellStyleError);
+		ExclyEvents.endErrorStyle(event, cell.getSheet().getWorkbook().getNumCellStyles());
 	}
 	
 	@Override
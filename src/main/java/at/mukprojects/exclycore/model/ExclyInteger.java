@@ -27,7 +27,7 @@ import org.apache.poi.ss.usermodel.CellStyle;
  */
 public class ExclyInteger implements ExclyDataType, Comparable<ExclyInteger> {
 	protected boolean error;
-	private Integer data;
+	private int data;
 
 	/**
 	 * Constructs a new ExclyInteger.
@@ -119,7 +119,7 @@ public class ExclyInteger implements ExclyDataType, Comparable<ExclyInteger> {
 		} else if (this.error && other.error) {
 			return 0;
 		} else {
-			return this.data.compareTo(other.data);
+			return Integer.compare(this.data, other.data);
 		}
 	}
 
@@ -133,26 +133,14 @@ public class ExclyInteger implements ExclyDataType, Comparable<ExclyInteger> {
 	 * @return Return the sum as an ExclyInteger.
 	 */
 	public static ExclyInteger add(ExclyInteger... values) {
-		ExclyIntegerError error = null;
-		Integer data = null;
-
-		for (ExclyInteger value : values) {
-			if (data == null) {
-				if (value.isError()) {
-					error = new ExclyIntegerError();
-				} else {
-					data = value.getData();
-				}
-			} else {
-				if (value.isError()) {
-					error = new ExclyIntegerError();
-				} else {
-					data = data + value.getData();
-				}
-			}
-			if (error != null) {
-				return error;
+		int data = 0;
+
+		for (int i = 0; i < values.length; i++) {
+			ExclyInteger value = values[i];
+			if (value.error) {
+				return new ExclyIntegerError();
 			}
+			data = (i == 0) ? value.data : data + value.data;
 		}
 
 		return new ExclyInteger(data);
@@ -168,26 +156,14 @@ public class ExclyInteger implements ExclyDataType, Comparable<ExclyInteger> {
 	 * @return Return the result as an ExclyInteger.
 	 */
 	public static ExclyInteger sub(ExclyInteger... values) {
-		ExclyIntegerError error = null;
-		Integer data = null;
-
-		for (ExclyInteger value : values) {
-			if (data == null) {
-				if (value.isError()) {
-					error = new ExclyIntegerError();
-				} else {
-					data = value.getData();
-				}
-			} else {
-				if (value.isError()) {
-					error = new ExclyIntegerError();
-				} else {
-					data = data - value.getData();
-				}
-			}
-			if (error != null) {
-				return error;
+		int data = 0;
+
+		for (int i = 0; i < values.length; i++) {
+			ExclyInteger value = values[i];
+			if (value.error) {
+				return new ExclyIntegerError();
 			}
+			data = (i == 0) ? value.data : data - value.data;
 		}
 
 		return new ExclyInteger(data);
@@ -22,6 +22,8 @@ import org.apache.poi.ss.usermodel.CellStyle;
 import org.apache.poi.ss.usermodel.IndexedColors;
 import org.apache.poi.xssf.usermodel.XSSFCellStyle;
 
+import at.mukprojects.exclycore.helper.ExclyEvents;
+
 /**
  * This class represents an ExclyIntegerError data type.
  * 
@@ -40,11 +42,13 @@ public class ExclyIntegerError extends ExclyInteger {
 	@Override
 	public void setCell(Cell cell, CellStyle cellStyle) {
 		cell.setCellValue(ERRORCODE);
+		Object event = ExclyEvents.beginErrorStyle();
 		CellStyle cellStyleError = cell.getSheet().getWorkbook().createCellStyle();
 		cellStyleError.cloneStyleFrom(cellStyle);
 		cellStyleError.setFillForegroundColor(IndexedColors.RED.getIndex());
 		cellStyleError.setFillPattern(XSSFCellStyle.SOLID_FOREGROUND);
 		cell.setCellStyle(cellStyleError);
+		ExclyEvents.endErrorStyle(event, cell.getSheet().getWorkbook().getNumCellStyles());
 	}
 
 	@Override
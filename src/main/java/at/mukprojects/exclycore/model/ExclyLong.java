@@ -28,7 +28,7 @@ import org.apache.poi.ss.usermodel.CellStyle;
 public class ExclyLong implements ExclyDataType, Comparable<ExclyLong> {
 
 	protected boolean error;
-	private Long data;
+	private long data;
 
 	/**
 	 * Constructs a new ExclyLong.
@@ -120,7 +120,7 @@ public class ExclyLong implements ExclyDataType, Comparable<ExclyLong> {
 		} else if (this.error && other.error) {
 			return 0;
 		} else {
-			return this.data.compareTo(other.data);
+			return Long.compare(this.data, other.data);
 		}
 	}
 
@@ -133,26 +133,14 @@ public class ExclyLong implements ExclyDataType, Comparable<ExclyLong> {
 	 * @return Return the sum as an ExclyLong.
 	 */
 	public static ExclyLong add(ExclyLong... values) {
-		ExclyLongError error = null;
-		Long data = null;
-
-		for (ExclyLong value : values) {
-			if (data == null) {
-				if (value.isError()) {
-					error = new ExclyLongError();
-				} else {
-					data = value.getData();
-				}
-			} else {
-				if (value.isError()) {
-					error = new ExclyLongError();
-				} else {
-					data = data + value.getData();
-				}
-			}
-			if (error != null) {
-				return error;
+		long data = 0;
+
+		for (int i = 0; i < values.length; i++) {
+			ExclyLong value = values[i];
+			if (value.error) {
+				return new ExclyLongError();
 			}
+			data = (i == 0) ? value.data : data + value.data;
 		}
 
 		return new ExclyLong(data);
@@ -168,26 +156,14 @@ public class ExclyLong implements ExclyDataType, Comparable<ExclyLong> {
 	 * @return Return the result as an ExclyLong.
 	 */
 	public static ExclyLong sub(ExclyLong... values) {
-		ExclyLongError error = null;
-		Long data = null;
-
-		for (ExclyLong value : values) {
-			if (data == null) {
-				if (value.isError()) {
-					error = new ExclyLongError();
-				} else {
-					data = value.getData();
-				}
-			} else {
-				if (value.isError()) {
-					error = new ExclyLongError();
-				} else {
-					data = data - value.getData();
-				}
-			}
-			if (error != null) {
-				return error;
+		long data = 0;
+
+		for (int i = 0; i < values.length; i++) {
+			ExclyLong value = values[i];
+			if (value.error) {
+				return new ExclyLongError();
 			}
+			data = (i == 0) ? value.data : data - value.data;
 		}
 
 		return new ExclyLong(data);
@@ -22,6 +22,8 @@ import org.apache.poi.ss.usermodel.CellStyle;
 import org.apache.poi.ss.usermodel.IndexedColors;
 import org.apache.poi.xssf.usermodel.XSSFCellStyle;
 
+import at.mukprojects.exclycore.helper.ExclyEvents;
+
 /**
  * This class represents an ExclyLongError data type.
  * 
@@ -40,12 +42,14 @@ public class ExclyLongError extends ExclyLong {
 	@Override
 	public void setCell(Cell cell, CellStyle cellStyle) {
 		cell.setCellValue(ERRORCODE);
+		Object event = ExclyEvents.beginErrorStyle();
 		CellStyle cellStyleError = cell.getSheet().getWorkbook()
 				.createCellStyle();
 		cellStyleError.cloneStyleFrom(cellStyle);
 		cellStyleError.setFillForegroundColor(IndexedColors.RED.getIndex());
 		cellStyleError.setFillPattern(XSSFCellStyle.SOLID_FOREGROUND);
 		cell.setCellStyle(cellStyleError);
+		ExclyEvents.endErrorStyle(event, cell.getSheet().getWorkbook().getNumCellStyles());
 	}
 
 	@Override
@@ -47,7 +47,7 @@ public class ExclyString implements ExclyDataType, Comparable<ExclyString> {
 
 	@Override
 	public void setCell(Cell cell, CellStyle cellStyle) {
-		cell.setCellValue(data);
+		cell.setCellValue(getData());
 		cell.setCellStyle(cellStyle);
 	}
 
@@ -60,6 +60,16 @@ public class ExclyString implements ExclyDataType, Comparable<ExclyString> {
 		return data;
 	}
 
+	/**
+	 * Returns the value without creating a new string. The comparisons of the
+	 * ExclyString work on this value.
+	 * 
+	 * @return The value as a character sequence.
+	 */
+	public CharSequence getCharSequence() {
+		return data;
+	}
+
 	/**
 	 * Checks if the ExclyString has an error.
 	 * 
@@ -72,14 +82,15 @@ public class ExclyString implements ExclyDataType, Comparable<ExclyString> {
 
 	@Override
 	public String toString() {
-		return data;
+		return getData();
 	}
 
 	@Override
 	public int hashCode() {
+		CharSequence chars = getCharSequence();
 		final int prime = 31;
 		int result = 1;
-		result = prime * result + ((data == null) ? 0 : data.hashCode());
+		result = prime * result + ((chars == null) ? 0 : hashCode(chars));
 		result = prime * result + (error ? 1231 : 1237);
 		return result;
 	}
@@ -90,16 +101,18 @@ public class ExclyString implements ExclyDataType, Comparable<ExclyString> {
 			return true;
 		if (obj == null)
 			return false;
-		if (getClass() != obj.getClass())
+		if (!(obj instanceof ExclyString))
 			return false;
 		ExclyString other = (ExclyString) obj;
-		if (data == null) {
-			if (other.data != null)
-				return false;
-		} else if (!data.equals(other.data))
-			return false;
 		if (error != other.error)
 			return false;
+		CharSequence chars = getCharSequence();
+		CharSequence otherChars = other.getCharSequence();
+		if (chars == null) {
+			if (otherChars != null)
+				return false;
+		} else if (otherChars == null || compare(chars, otherChars) != 0)
+			return false;
 		return true;
 	}
 
@@ -112,7 +125,7 @@ public class ExclyString implements ExclyDataType, Comparable<ExclyString> {
 		} else if (this.error && other.error) {
 			return 0;
 		} else {
-			return this.data.compareTo(other.data);
+			return compare(this.getCharSequence(), other.getCharSequence());
 		}
 	}
 
@@ -133,51 +146,106 @@ public class ExclyString implements ExclyDataType, Comparable<ExclyString> {
 			return false;
 		}
 
-		if (this.data == null) {
+		CharSequence chars = this.getCharSequence();
+		CharSequence prefix = other.getCharSequence();
+
+		if (chars == null) {
 			return false;
 		}
 
-		if (other.data == null) {
+		if (prefix == null) {
 			return false;
 		}
 
-		if (this.data.startsWith(other.data)) {
-			return true;
-		} else {
+		if (chars instanceof String && prefix instanceof String) {
+			return ((String) chars).startsWith((String) prefix);
+		}
+
+		int length = prefix.length();
+		if (length > chars.length()) {
 			return false;
 		}
+		for (int i = 0; i < length; i++) {
+			if (chars.charAt(i) != prefix.charAt(i)) {
+				return false;
+			}
+		}
+		return true;
 	}
 
 	/**
-	 * Appends multiple ExclyString together.
+	 * Appends multiple ExclyString together. Values without data are skipped.
 	 * 
 	 * @param values
 	 *            ExclyStrings which should be added.
 	 * @return Return an ExclyString with the whole string.
 	 */
 	public static ExclyString append(ExclyString... values) {
-		ExclyStringError error = null;
-		String data = null;
-
-		for (ExclyString value : values) {
-			if (data == null) {
-				if (value.isError()) {
-					error = new ExclyStringError();
-				} else {
-					data = value.getData();
-				}
-			} else {
-				if (value.isError()) {
-					error = new ExclyStringError();
-				} else {
-					data = data + value.getData();
-				}
-			}
-			if (error != null) {
-				return error;
-			}
+		return new ExclyStringBuilder().appendAll(values).build();
+	}
+
+	/**
+	 * Joins multiple ExclyStrings with the given delimiter. Values without data
+	 * are skipped.
+	 * 
+	 * @param delimiter
+	 *            The delimiter between the values.
+	 * @param values
+	 *            ExclyStrings which should be joined.
+	 * @return Return an ExclyString with the whole string or an
+	 *         ExclyStringError if one of the values has an error.
+	 */
+	public static ExclyString join(CharSequence delimiter, ExclyString... values) {
+		return new ExclyStringBuilder(delimiter).appendAll(values).build();
+	}
+
+	/**
+	 * Joins multiple ExclyStrings with the given delimiter. Values without data
+	 * are skipped.
+	 * 
+	 * @param delimiter
+	 *            The delimiter between the values.
+	 * @param values
+	 *            ExclyStrings which should be joined.
+	 * @return Return an ExclyString with the whole string or an
+	 *         ExclyStringError if one of the values has an error.
+	 */
+	public static ExclyString join(CharSequence delimiter, Iterable<? extends ExclyString> values) {
+		return new ExclyStringBuilder(delimiter).appendAll(values).build();
+	}
+
+	/**
+	 * Computes the same hash code as {@link String#hashCode()}.
+	 */
+	private static int hashCode(CharSequence chars) {
+		if (chars instanceof String) {
+			return chars.hashCode();
+		}
+
+		int hash = 0;
+		for (int i = 0; i < chars.length(); i++) {
+			hash = 31 * hash + chars.charAt(i);
 		}
+		return hash;
+	}
 
-		return new ExclyString(data);
+	/**
+	 * Compares the characters lexicographically like
+	 * {@link String#compareTo(String)}.
+	 */
+	private static int compare(CharSequence left, CharSequence right) {
+		if (left instanceof String && right instanceof String) {
+			return ((String) left).compareTo((String) right);
+		}
+
+		int length = Math.min(left.length(), right.length());
+		for (int i = 0; i < length; i++) {
+			char leftChar = left.charAt(i);
+			char rightChar = right.charAt(i);
+			if (leftChar != rightChar) {
+				return leftChar - rightChar;
+			}
+		}
+		return left.length() - right.length();
 	}
 }
@@ -0,0 +1,224 @@
+/** 
+ * This code is copyright (c) Mathias Markl 2015
+ * 
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ * 
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package at.mukprojects.exclycore.model;
+
+/**
+ * ExclyStringBuilder appends multiple ExclyStrings into one ExclyString. The
+ * values are separated by an optional delimiter, values without data are
+ * skipped. As soon as one of the values has an error, the builder ignores all
+ * further values and builds an ExclyStringError.
+ * 
+ * A builder can be reused with {@link #clear()}, which keeps its buffer.
+ *
+ * @author Mathias Markl
+ */
+public final class ExclyStringBuilder {
+	private final String delimiter;
+	private final StringBuilder buffer;
+	private boolean empty;
+	private boolean error;
+
+	/**
+	 * Constructs a new ExclyStringBuilder without a delimiter.
+	 */
+	public ExclyStringBuilder() {
+		this("");
+	}
+
+	/**
+	 * Constructs a new ExclyStringBuilder.
+	 * 
+	 * @param delimiter
+	 *            The delimiter between the values.
+	 */
+	public ExclyStringBuilder(CharSequence delimiter) {
+		this(delimiter, 16);
+	}
+
+	/**
+	 * Constructs a new ExclyStringBuilder.
+	 * 
+	 * @param delimiter
+	 *            The delimiter between the values.
+	 * @param capacity
+	 *            The initial capacity of the buffer.
+	 */
+	public ExclyStringBuilder(CharSequence delimiter, int capacity) {
+		this.delimiter = delimiter.toString();
+		this.buffer = new StringBuilder(capacity);
+		this.empty = true;
+		this.error = false;
+	}
+
+	/**
+	 * Appends the value.
+	 * 
+	 * @param value
+	 *            The ExclyString which should be appended.
+	 * @return Returns this builder.
+	 */
+	public ExclyStringBuilder append(ExclyString value) {
+		if (value.isError()) {
+			error = true;
+		} else {
+			appendChars(value.getCharSequence());
+		}
+		return this;
+	}
+
+	/**
+	 * Appends the value.
+	 * 
+	 * @param value
+	 *            The string which should be appended.
+	 * @return Returns this builder.
+	 */
+	public ExclyStringBuilder append(String value) {
+		appendChars(value);
+		return this;
+	}
+
+	private void appendChars(CharSequence value) {
+		if (!error && value != null) {
+			if (empty) {
+				empty = false;
+			} else {
+				buffer.append(delimiter);
+			}
+			buffer.append(value);
+		}
+	}
+
+	/**
+	 * Appends all values. The buffer is enlarged once for all of them.
+	 * 
+	 * @param values
+	 *            The ExclyStrings which should be appended.
+	 * @return Returns this builder.
+	 */
+	public ExclyStringBuilder appendAll(ExclyString... values) {
+		if (error) {
+			return this;
+		}
+
+		int length = buffer.length();
+		for (ExclyString value : values) {
+			if (value.isError()) {
+				error = true;
+				return this;
+			}
+			CharSequence chars = value.getCharSequence();
+			if (chars != null) {
+				length += chars.length() + delimiter.length();
+			}
+		}
+		buffer.ensureCapacity(length);
+
+		for (ExclyString value : values) {
+			appendChars(value.getCharSequence());
+		}
+		return this;
+	}
+
+	/**
+	 * Appends all values.
+	 * 
+	 * @param values
+	 *            The ExclyStrings which should be appended.
+	 * @return Returns this builder.
+	 */
+	public ExclyStringBuilder appendAll(Iterable<? extends ExclyString> values) {
+		for (ExclyString value : values) {
+			if (error) {
+				break;
+			}
+			append(value);
+		}
+		return this;
+	}
+
+	/**
+	 * Appends the content of another builder as one value.
+	 * 
+	 * @param other
+	 *            The other ExclyStringBuilder.
+	 * @return Returns this builder.
+	 */
+	public ExclyStringBuilder merge(ExclyStringBuilder other) {
+		if (other.error) {
+			error = true;
+		} else if (!error && !other.empty) {
+			if (empty) {
+				empty = false;
+			} else {
+				buffer.append(delimiter);
+			}
+			buffer.append(other.buffer);
+		}
+		return this;
+	}
+
+	/**
+	 * Removes all values and the error, the buffer is kept for the next values.
+	 * 
+	 * @return Returns this builder.
+	 */
+	public ExclyStringBuilder clear() {
+		buffer.setLength(0);
+		empty = true;
+		error = false;
+		return this;
+	}
+
+	/**
+	 * Checks if one of the appended values has an error.
+	 * 
+	 * @return Returns true if the builder has an error, otherwise it will
+	 *         return false.
+	 */
+	public boolean isError() {
+		return error;
+	}
+
+	/**
+	 * Returns the length of the current string.
+	 * 
+	 * @return Returns the length.
+	 */
+	public int length() {
+		return buffer.length();
+	}
+
+	/**
+	 * Builds the ExclyString. If no value with data was appended, the
+	 * ExclyString has no data.
+	 * 
+	 * @return Returns the ExclyString or an ExclyStringError.
+	 */
+	public ExclyString build() {
+		if (error) {
+			return new ExclyStringError();
+		}
+		return new ExclyString(empty ? null : buffer.toString());
+	}
+
+	@Override
+	public String toString() {
+		return error ? ExclyDataType.ERRORCODE : buffer.toString();
+	}
+}
@@ -0,0 +1,207 @@
+/** 
+ * This code is copyright (c) Mathias Markl 2015
+ * 
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ * 
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package at.mukprojects.exclycore.model;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * ExclyStringPrefixIndex finds the rows of a column which start with a given
+ * prefix. The values are kept in a sorted array, so the rows of a prefix form
+ * one range which is found with two binary searches. A row matches a prefix
+ * exactly if {@link ExclyString#startsWith(ExclyString)} returns true, rows
+ * with an error or without data never match.
+ *
+ * @author Mathias Markl
+ */
+public class ExclyStringPrefixIndex {
+	private static final int[] NO_ROWS = new int[0];
+
+	private final String[] keys;
+	private final int[] rows;
+	private final int columnSize;
+
+	private ExclyStringPrefixIndex(String[] column) {
+		int size = 0;
+		for (String value : column) {
+			if (value != null) {
+				size++;
+			}
+		}
+
+		Integer[] order = new Integer[size];
+		for (int row = 0, i = 0; row < column.length; row++) {
+			if (column[row] != null) {
+				order[i++] = row;
+			}
+		}
+		Arrays.sort(order, (left, right) -> column[left].compareTo(column[right]));
+
+		keys = new String[size];
+		rows = new int[size];
+		for (int i = 0; i < size; i++) {
+			rows[i] = order[i];
+			keys[i] = column[rows[i]];
+		}
+		columnSize = column.length;
+	}
+
+	/**
+	 * Constructs a new ExclyStringPrefixIndex for the given column. The row id
+	 * of a value is its position in the column.
+	 * 
+	 * @param column
+	 *            The values of the column.
+	 * @return Return the index.
+	 */
+	public static ExclyStringPrefixIndex of(ExclyString... column) {
+		return of(Arrays.asList(column));
+	}
+
+	/**
+	 * Constructs a new ExclyStringPrefixIndex for the given column. The row id
+	 * of a value is its position in the column.
+	 * 
+	 * @param column
+	 *            The values of the column.
+	 * @return Return the index.
+	 */
+	public static ExclyStringPrefixIndex of(Collection<? extends ExclyString> column) {
+		String[] data = new String[column.size()];
+		int row = 0;
+		for (ExclyString value : column) {
+			data[row++] = value.isError() ? null : value.getData();
+		}
+		return new ExclyStringPrefixIndex(data);
+	}
+
+	/**
+	 * Returns the number of rows of the column.
+	 * 
+	 * @return Returns the number of rows.
+	 */
+	public int getColumnSize() {
+		return columnSize;
+	}
+
+	/**
+	 * Returns the number of indexed rows, these are all rows without an error
+	 * and with data.
+	 * 
+	 * @return Returns the number of indexed rows.
+	 */
+	public int size() {
+		return keys.length;
+	}
+
+	/**
+	 * Finds all rows which start with the prefix.
+	 * 
+	 * @param prefix
+	 *            The prefix.
+	 * @return Returns the ascending row ids. If the prefix has an error or no
+	 *         data, no row is returned.
+	 */
+	public int[] find(ExclyString prefix) {
+		if (prefix.isError()) {
+			return NO_ROWS;
+		}
+		return find(prefix.getData());
+	}
+
+	/**
+	 * Finds all rows which start with the prefix.
+	 * 
+	 * @param prefix
+	 *            The prefix.
+	 * @return Returns the ascending row ids. If the prefix is null, no row is
+	 *         returned.
+	 */
+	public int[] find(String prefix) {
+		if (prefix == null) {
+			return NO_ROWS;
+		}
+
+		int from = lowerBound(prefix);
+		int to = upperBound(prefix, from);
+		if (from == to) {
+			return NO_ROWS;
+		}
+
+		int[] result = Arrays.copyOfRange(rows, from, to);
+		Arrays.sort(result);
+		return result;
+	}
+
+	/**
+	 * Counts the rows which start with the prefix.
+	 * 
+	 * @param prefix
+	 *            The prefix.
+	 * @return Returns the number of rows. If the prefix has an error or no
+	 *         data, zero is returned.
+	 */
+	public int count(ExclyString prefix) {
+		if (prefix.isError() || prefix.getData() == null) {
+			return 0;
+		}
+
+		int from = lowerBound(prefix.getData());
+		return upperBound(prefix.getData(), from) - from;
+	}
+
+	/**
+	 * Returns the first position with a key which isn't less than the prefix.
+	 */
+	private int lowerBound(String prefix) {
+		int low = 0;
+		int high = keys.length;
+
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+			if (keys[middle].compareTo(prefix) < 0) {
+				low = middle + 1;
+			} else {
+				high = middle;
+			}
+		}
+
+		return low;
+	}
+
+	/**
+	 * Returns the first position after the lower bound with a key which
+	 * doesn't start with the prefix. All keys with the prefix follow the lower
+	 * bound directly.
+	 */
+	private int upperBound(String prefix, int from) {
+		int low = from;
+		int high = keys.length;
+
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+			if (keys[middle].startsWith(prefix)) {
+				low = middle + 1;
+			} else {
+				high = middle;
+			}
+		}
+
+		return low;
+	}
+}
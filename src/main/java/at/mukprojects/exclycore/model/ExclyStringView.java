@@ -0,0 +1,106 @@
+/** 
+ * This code is copyright (c) Mathias Markl 2015
+ * 
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ * 
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package at.mukprojects.exclycore.model;
+
+/**
+ * This class represents an ExclyString which is a view into a character
+ * buffer. The string of the value is only created if {@link #getData()} is
+ * called, comparisons and hash codes work on the buffer directly.
+ * 
+ * The buffer is owned by the reader and may be reused for the next value. A
+ * view which should be kept after that has to be detached with
+ * {@link #detach()}.
+ *
+ * @author Mathias Markl
+ */
+public class ExclyStringView extends ExclyString implements CharSequence {
+	private final char[] buffer;
+	private final int offset;
+	private final int length;
+	private String data;
+
+	/**
+	 * Constructs a new ExclyStringView.
+	 * 
+	 * @param buffer
+	 *            The character buffer.
+	 * @param offset
+	 *            The position of the first character in the buffer.
+	 * @param length
+	 *            The number of characters.
+	 */
+	public ExclyStringView(char[] buffer, int offset, int length) {
+		super(null);
+		if (offset < 0 || length < 0 || offset > buffer.length - length) {
+			throw new IndexOutOfBoundsException("offset " + offset + ", length " + length + ", buffer length "
+					+ buffer.length);
+		}
+		this.buffer = buffer;
+		this.offset = offset;
+		this.length = length;
+	}
+
+	/**
+	 * Returns the value. The string is created with the first call and reused
+	 * afterwards.
+	 * 
+	 * @return The value as a string.
+	 */
+	@Override
+	public String getData() {
+		if (data == null) {
+			data = new String(buffer, offset, length);
+		}
+		return data;
+	}
+
+	@Override
+	public CharSequence getCharSequence() {
+		return data != null ? data : this;
+	}
+
+	/**
+	 * Copies the value out of the buffer.
+	 * 
+	 * @return Returns an ExclyString which doesn't depend on the buffer.
+	 */
+	public ExclyString detach() {
+		return new ExclyString(getData());
+	}
+
+	@Override
+	public int length() {
+		return length;
+	}
+
+	@Override
+	public char charAt(int index) {
+		if (index < 0 || index >= length) {
+			throw new IndexOutOfBoundsException("index " + index + ", length " + length);
+		}
+		return buffer[offset + index];
+	}
+
+	@Override
+	public CharSequence subSequence(int start, int end) {
+		if (start < 0 || end > length || start > end) {
+			throw new IndexOutOfBoundsException("start " + start + ", end " + end + ", length " + length);
+		}
+		return new ExclyStringView(buffer, offset + start, end - start);
+	}
+}
@@ -0,0 +1,206 @@
+/** 
+ * This code is copyright (c) Mathias Markl 2015
+ * 
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ * 
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package at.mukprojects.exclycore.dao;
+
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.FormulaError;
+import org.apache.poi.ss.usermodel.Row;
+import org.junit.After;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import at.mukprojects.exclycore.helper.ExclyEvents;
+import at.mukprojects.exclycore.model.ExclyBoolean;
+import at.mukprojects.exclycore.model.ExclyBooleanBlank;
+import at.mukprojects.exclycore.model.ExclyDataType;
+import at.mukprojects.exclycore.model.ExclyDate;
+import at.mukprojects.exclycore.model.ExclyDecimal;
+import at.mukprojects.exclycore.model.ExclyDouble;
+import at.mukprojects.exclycore.model.ExclyDoubleBlank;
+import at.mukprojects.exclycore.model.ExclyInteger;
+import at.mukprojects.exclycore.model.ExclyIntegerBlank;
+import at.mukprojects.exclycore.model.ExclyLong;
+import at.mukprojects.exclycore.model.ExclyLongBlank;
+
+/**
+ * ExclyCoreAllocationTest measures the bytes allocated by the current thread
+ * per read or setCell call and fails if a call exceeds its budget. A clean
+ * numeric cell may only allocate the result, blank and error cells nothing at
+ * all. The cells are HSSF cells, as they hold their values unboxed. Events
+ * which aren't recorded may not allocate either.
+ *
+ * @author Mathias Markl
+ */
+public class ExclyCoreAllocationTest {
+	private static final Logger log = LoggerFactory.getLogger(ExclyCoreAllocationTest.class);
+
+	private static final int WARMUP = 20000;
+	private static final int OPERATIONS = 100000;
+
+	/**
+	 * Keeps the results reachable, so they are really allocated.
+	 */
+	private static Object sink;
+
+	private com.sun.management.ThreadMXBean threads;
+	private XLSXReader reader;
+	private HSSFWorkbook workbook;
+
+	private Cell numeric;
+	private Cell blank;
+	private Cell error;
+	private Cell blankString;
+	private Cell output;
+
+	@Before
+	public void setUp() {
+		ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+		Assume.assumeTrue(threadBean instanceof com.sun.management.ThreadMXBean);
+		threads = (com.sun.management.ThreadMXBean) threadBean;
+		Assume.assumeTrue(threads.isThreadAllocatedMemorySupported());
+		threads.setThreadAllocatedMemoryEnabled(true);
+
+		reader = new XLSXReader() {
+		};
+		workbook = new HSSFWorkbook();
+		Row row = workbook.createSheet("Allocation").createRow(0);
+
+		numeric = row.createCell(0);
+		numeric.setCellValue(42.5);
+		blank = row.createCell(1);
+		error = row.createCell(2);
+		error.setCellErrorValue(FormulaError.NA.getCode());
+		blankString = row.createCell(3);
+		blankString.setCellValue("");
+		output = row.createCell(4);
+	}
+
+	/**
+	 * Tests that reading a numeric cell allocates nothing beyond the result.
+	 */
+	@Test
+	public void testAllocationNumericCell() throws Exception {
+		assertBudget("readDoubleCellValue", () -> sink = reader.readDoubleCellValue(numeric),
+				allocated(() -> sink = new ExclyDouble(42.5)));
+		assertBudget("readDecimalCellValue", () -> sink = reader.readDecimalCellValue(numeric),
+				allocated(() -> sink = new ExclyDecimal(425, 1)));
+		assertBudget("readIntegerCellValue", () -> sink = reader.readIntegerCellValue(numeric),
+				allocated(() -> sink = new ExclyInteger(42)));
+		assertBudget("readLongCellValue", () -> sink = reader.readLongCellValue(numeric),
+				allocated(() -> sink = new ExclyLong(42L)));
+		assertBudget("readDateCellValue", () -> sink = reader.readDateCellValue(numeric),
+				allocated(() -> sink = new ExclyDate(42L)));
+	}
+
+	/**
+	 * Tests that reading blank and error cells allocates nothing.
+	 */
+	@Test
+	public void testAllocationBlankAndErrorCells() throws Exception {
+		for (Cell cell : new Cell[] { blank, error, blankString }) {
+			String name = cell.getColumnIndex() + "/";
+			assertBudget(name + "readStringCellValue", () -> sink = reader.readStringCellValue(cell), 0);
+			assertBudget(name + "readFormattedCellValue", () -> sink = reader.readFormattedCellValue(cell), 0);
+			assertBudget(name + "readDoubleCellValue", () -> sink = reader.readDoubleCellValue(cell), 0);
+			assertBudget(name + "readIntegerCellValue", () -> sink = reader.readIntegerCellValue(cell), 0);
+			assertBudget(name + "readLongCellValue", () -> sink = reader.readLongCellValue(cell), 0);
+			assertBudget(name + "readDateCellValue", () -> sink = reader.readDateCellValue(cell), 0);
+			assertBudget(name + "readBooleanCellValue", () -> sink = reader.readBooleanCellValue(cell), 0);
+		}
+		assertBudget("readDecimalCellValue", () -> sink = reader.readDecimalCellValue(blank), 0);
+		assertBudget("readDecimalCellValue", () -> sink = reader.readDecimalCellValue(error), 0);
+	}
+
+	/**
+	 * Tests that writing numeric, boolean and blank values with a given style
+	 * allocates nothing.
+	 */
+	@Test
+	public void testAllocationSetCell() throws Exception {
+		CellStyle style = output.getCellStyle();
+		ExclyDataType[] values = { new ExclyDouble(42.5), ExclyDecimal.valueOf(42.5), new ExclyInteger(42),
+				new ExclyLong(42L), new ExclyBoolean(true), new ExclyDoubleBlank(), new ExclyIntegerBlank(),
+				new ExclyLongBlank(), new ExclyBooleanBlank() };
+
+		for (ExclyDataType value : values) {
+			assertBudget(value.getClass().getSimpleName() + ".setCell", () -> value.setCell(output, style), 0);
+		}
+	}
+
+	/**
+	 * Tests that the events allocate nothing while they aren't recorded.
+	 */
+	@Test
+	public void testAllocationEventsDisabled() throws Exception {
+		assertBudget("beginWorkbookOpen", () -> sink = ExclyEvents.beginWorkbookOpen(null, -1), 0);
+		assertBudget("beginSheetRead", () -> sink = ExclyEvents.beginSheetRead(0, "Allocation"), 0);
+		assertBudget("beginDateParse", () -> sink = ExclyEvents.beginDateParse(), 0);
+		assertBudget("beginErrorStyle", () -> sink = ExclyEvents.beginErrorStyle(), 0);
+		assertBudget("beginWorkbookCreate", () -> sink = ExclyEvents.beginWorkbookCreate(null, false), 0);
+		assertBudget("beginWorkbookClose", () -> sink = ExclyEvents.beginWorkbookClose(null), 0);
+	}
+
+	@After
+	public void tearDown() throws IOException {
+		sink = null;
+		if (workbook != null) {
+			workbook.close();
+		}
+	}
+
+	private void assertBudget(String name, Runnable operation, double budget) {
+		double bytes = allocated(operation);
+		log.debug(name + ": " + budget + " / " + bytes);
+		assertTrue(name + " allocated " + bytes + " bytes per call, the budget is " + budget,
+				bytes < budget + 1);
+	}
+
+	/**
+	 * Returns the average number of bytes the operation allocates, after it
+	 * has been warmed up. The allocation of the measurement itself is
+	 * subtracted.
+	 */
+	private double allocated(Runnable operation) {
+		long threadId = Thread.currentThread().getId();
+		for (int i = 0; i < WARMUP; i++) {
+			operation.run();
+		}
+
+		long overhead = threads.getThreadAllocatedBytes(threadId);
+		overhead = threads.getThreadAllocatedBytes(threadId) - overhead;
+
+		long start = threads.getThreadAllocatedBytes(threadId);
+		for (int i = 0; i < OPERATIONS; i++) {
+			operation.run();
+		}
+		long bytes = threads.getThreadAllocatedBytes(threadId) - start - overhead;
+
+		return (double) Math.max(0, bytes) / OPERATIONS;
+	}
+}
@@ -20,17 +20,51 @@ package at.mukprojects.exclycore.dao;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.time.LocalDate;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
+import org.apache.poi.hssf.eventusermodel.HSSFListener;
+import org.apache.poi.hssf.record.BOFRecord;
+import org.apache.poi.hssf.record.BoundSheetRecord;
+import org.apache.poi.hssf.record.DateWindow1904Record;
+import org.apache.poi.hssf.record.EOFRecord;
+import org.apache.poi.hssf.record.ExtendedFormatRecord;
+import org.apache.poi.hssf.record.FormulaRecord;
+import org.apache.poi.hssf.record.SharedFormulaRecord;
+import org.apache.poi.hssf.record.StringRecord;
+import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackagePart;
+import org.apache.poi.openxml4j.opc.PackageRelationshipTypes;
+import org.apache.poi.openxml4j.opc.PackagingURIHelper;
+import org.apache.poi.openxml4j.opc.TargetMode;
+import org.apache.poi.poifs.filesystem.DocumentInputStream;
+import org.apache.poi.poifs.filesystem.NPOIFSFileSystem;
 import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.ss.usermodel.FormulaError;
 import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.ss.util.CellRangeAddress;
+import org.apache.poi.xssf.usermodel.XSSFCell;
+import org.apache.poi.xssf.usermodel.XSSFRelation;
 import org.apache.poi.xssf.usermodel.XSSFSheet;
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 import org.junit.After;
+import org.junit.Assume;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.Ignore;
@@ -38,10 +72,15 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import at.mukprojects.exclycore.dao.XLSXReader;
+import at.mukprojects.exclycore.model.ExclyBoolean;
+import at.mukprojects.exclycore.model.ExclyBooleanBlank;
 import at.mukprojects.exclycore.model.ExclyDate;
 import at.mukprojects.exclycore.model.ExclyDateError;
+import at.mukprojects.exclycore.model.ExclyDecimal;
+import at.mukprojects.exclycore.model.ExclyDecimalBlank;
 import at.mukprojects.exclycore.model.ExclyDouble;
 import at.mukprojects.exclycore.model.ExclyDoubleBlank;
+import at.mukprojects.exclycore.model.ExclyDoubleColumn;
 import at.mukprojects.exclycore.model.ExclyDoubleError;
 import at.mukprojects.exclycore.model.ExclyInteger;
 import at.mukprojects.exclycore.model.ExclyIntegerBlank;
@@ -51,6 +90,7 @@ import at.mukprojects.exclycore.model.ExclyLongBlank;
 import at.mukprojects.exclycore.model.ExclyLongError;
 import at.mukprojects.exclycore.model.ExclyString;
 import at.mukprojects.exclycore.model.ExclyStringError;
+import at.mukprojects.exclycore.model.ExclyStringView;
 
 /**
  * ExclyCoreReaderTest implements a couple of JUnit tests to test the
@@ -62,6 +102,7 @@ public class ExclyCoreReaderTest {
 	private static final Logger log = LoggerFactory.getLogger(ExclyCoreReaderTest.class);
 
 	private final static String RESFILE = "src/test/resources/input.xlsx";
+	private final static String XLSB_RESFILE = "src/test/resources/input.xlsb";
 
 	private FileInputStream inputStream;
 	private XSSFWorkbook inputWorkbook;
@@ -638,6 +679,924 @@ public class ExclyCoreReaderTest {
 		}
 	}
 
+	/**
+	 * Tests the cached date format detection of the XLSXReader.
+	 */
+	@Test
+	public void testXLSXReaderDateFormatted() throws Exception {
+
+		log.debug("Start test for testXLSXReaderDateFormatted.");
+
+		ReaderTestImpl reader = new ReaderTestImpl();
+
+		while (inputRowIterator.hasNext()) {
+			Row inputRow = inputRowIterator.next();
+			Iterator<Cell> inputCellInterator = inputRow.cellIterator();
+
+			while (inputCellInterator.hasNext()) {
+				Cell inputCell = inputCellInterator.next();
+
+				if (inputCell.getCellType() == Cell.CELL_TYPE_NUMERIC) {
+					log.debug(DateUtil.isCellDateFormatted(inputCell) + " / " + reader.isCellDateFormatted(inputCell));
+					assertEquals(DateUtil.isCellDateFormatted(inputCell), reader.isCellDateFormatted(inputCell));
+					assertEquals(DateUtil.isCellDateFormatted(inputCell), reader.isCellDateFormatted(inputCell));
+				}
+			}
+		}
+	}
+
+	/**
+	 * Tests the XLSXReader readDateCellValue function with both date systems.
+	 */
+	@Test
+	public void testXLSXReaderDateSystem() throws Exception {
+
+		log.debug("Start test for testXLSXReaderDateSystem.");
+
+		ReaderTestImpl reader = new ReaderTestImpl();
+
+		XSSFWorkbook workbook1904 = new XSSFWorkbook();
+		workbook1904.getCTWorkbook().getWorkbookPr().setDate1904(true);
+		Cell cell1904 = workbook1904.createSheet("Test").createRow(0).createCell(0);
+		cell1904.setCellValue(0);
+		log.debug("1904-01-01 / " + reader.readDateCellValue(cell1904).toLocalDate());
+		assertEquals(LocalDate.of(1904, 1, 1), reader.readDateCellValue(cell1904).toLocalDate());
+		workbook1904.close();
+
+		HSSFWorkbook workbook1900 = new HSSFWorkbook();
+		Cell cell1900 = workbook1900.createSheet("Test").createRow(0).createCell(0);
+		cell1900.setCellValue(42297);
+		log.debug("2015-10-20 / " + reader.readDateCellValue(cell1900).toLocalDate());
+		assertEquals(LocalDate.of(2015, 10, 20), reader.readDateCellValue(cell1900).toLocalDate());
+		cell1900.setCellValue("42297");
+		assertEquals(LocalDate.of(2015, 10, 20), reader.readDateCellValue(cell1900).toLocalDate());
+		workbook1900.close();
+
+		HSSFWorkbook written = new HSSFWorkbook();
+		written.createSheet("Test").createRow(0).createCell(0).setCellValue("0");
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		written.write(out);
+		written.close();
+
+		HSSFWorkbook hssf1904 = new HSSFWorkbook(new ByteArrayInputStream(setDate1904(out.toByteArray())));
+		Cell hssfCell1904 = hssf1904.getSheet("Test").getRow(0).getCell(0);
+		log.debug("1904-01-01 / " + reader.readDateCellValue(hssfCell1904).toLocalDate());
+		assertEquals(LocalDate.of(1904, 1, 1), reader.readDateCellValue(hssfCell1904).toLocalDate());
+		assertTrue(reader.getDateConverter(hssfCell1904) == reader.getDateConverter(hssfCell1904));
+		hssf1904.close();
+	}
+
+	/**
+	 * Switches the DateWindow1904 record of the .xls file to the 1904 date
+	 * system, which can't be set with POI.
+	 */
+	private static byte[] setDate1904(byte[] xls) throws IOException {
+		NPOIFSFileSystem fileSystem = new NPOIFSFileSystem(new ByteArrayInputStream(xls));
+		DocumentInputStream inputStream = fileSystem.createDocumentInputStream("Workbook");
+		byte[] records = new byte[inputStream.available()];
+		inputStream.readFully(records);
+		inputStream.close();
+
+		ByteBuffer buffer = ByteBuffer.wrap(records).order(ByteOrder.LITTLE_ENDIAN);
+		int offset = 0;
+		while (buffer.getShort(offset) != DateWindow1904Record.sid) {
+			offset += 4 + (buffer.getShort(offset + 2) & 0xFFFF);
+		}
+		buffer.putShort(offset + 4, (short) 1);
+
+		fileSystem.getRoot().getEntry("Workbook").delete();
+		fileSystem.createDocument(new ByteArrayInputStream(records), "Workbook");
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		fileSystem.writeFilesystem(out);
+		fileSystem.close();
+		return out.toByteArray();
+	}
+
+	/**
+	 * Tests the XLSXReader readFormattedCellValue function against the POI
+	 * DataFormatter.
+	 */
+	@Test
+	public void testXLSXReaderFormatted() throws Exception {
+
+		log.debug("Start test for testXLSXReaderFormatted.");
+
+		ReaderTestImpl reader = new ReaderTestImpl();
+		DataFormatter formatter = new DataFormatter();
+
+		while (inputRowIterator.hasNext()) {
+			Row inputRow = inputRowIterator.next();
+			Iterator<Cell> inputCellInterator = inputRow.cellIterator();
+
+			while (inputCellInterator.hasNext()) {
+				Cell inputCell = inputCellInterator.next();
+
+				if (inputCell.getCellType() == Cell.CELL_TYPE_NUMERIC) {
+					log.debug(formatter.formatCellValue(inputCell) + " / " + reader.readFormattedCellValue(inputCell));
+					assertEquals(formatter.formatCellValue(inputCell), reader.readFormattedCellValue(inputCell).getData());
+				}
+			}
+		}
+
+		String[] formats = { "General", "@", "0", "0.00", "#,##0.00", "0%", "0.00E+00", "# ?/?", "yyyy-mm-dd",
+				"dd.mm.yyyy hh:mm", "[h]:mm:ss", "0.00;[Red]-0.00", "#,##0;(#,##0);\"-\"", "00000\\-0000" };
+		double[] values = { 0, 1, -1, 0.5, 1234.5678, -98765.4321, 42297.75, 1e-5, 123456789 };
+
+		Workbook[] workbooks = { new XSSFWorkbook(), new HSSFWorkbook() };
+		for (Workbook workbook : workbooks) {
+			Row row = workbook.createSheet("Test").createRow(0);
+
+			for (int i = 0; i < formats.length; i++) {
+				CellStyle style = workbook.createCellStyle();
+				style.setDataFormat(workbook.createDataFormat().getFormat(formats[i]));
+				Cell cell = row.createCell(i);
+				cell.setCellStyle(style);
+			}
+
+			for (double value : values) {
+				for (int i = 0; i < formats.length; i++) {
+					Cell cell = row.getCell(i);
+					cell.setCellValue(value);
+					log.debug(formatter.formatCellValue(cell) + " / " + reader.readFormattedCellValue(cell));
+					assertEquals(formatter.formatCellValue(cell), reader.readFormattedCellValue(cell).getData());
+				}
+			}
+			workbook.close();
+		}
+
+		assertTrue(reader.readFormattedCellValue(null).isError());
+	}
+
+	/**
+	 * Tests the XLSXReader readDecimalCellValue function.
+	 */
+	@Test
+	public void testXLSXReaderDecimal() throws Exception {
+
+		log.debug("Start test for testXLSXReaderDecimal.");
+
+		ReaderTestImpl reader = new ReaderTestImpl();
+
+		HSSFWorkbook workbook = new HSSFWorkbook();
+		Row row = workbook.createSheet("Test").createRow(0);
+		row.createCell(0).setCellValue("1.234,56");
+		row.createCell(1).setCellValue("1,234.56");
+		row.createCell(2).setCellValue(0.1);
+		row.createCell(3).setCellValue("-");
+		row.createCell(4).setCellValue("abc");
+		row.createCell(5).setCellValue("99999999999999999999");
+
+		log.debug("1234.56 / " + reader.readDecimalCellValue(row.getCell(0)));
+		assertEquals("1234.56", reader.readDecimalCellValue(row.getCell(0)).toString());
+		assertEquals("1234.56", reader.readDecimalCellValue(row.getCell(1)).toString());
+		assertEquals("0.1", reader.readDecimalCellValue(row.getCell(2)).toString());
+		assertTrue(reader.readDecimalCellValue(row.getCell(3)) instanceof ExclyDecimalBlank);
+		assertTrue(reader.readDecimalCellValue(row.getCell(4)).isError());
+		assertTrue(reader.readDecimalCellValue(row.getCell(5)).isError());
+		assertTrue(reader.readDecimalCellValue(null).isError());
+		workbook.close();
+	}
+
+	/**
+	 * Tests the XLSXReader readLongCellValue function with values which don't
+	 * fit into an int or a double.
+	 */
+	@Test
+	public void testXLSXReaderLongExact() throws Exception {
+
+		log.debug("Start test for testXLSXReaderLongExact.");
+
+		ReaderTestImpl reader = new ReaderTestImpl();
+
+		XSSFWorkbook workbook = new XSSFWorkbook();
+		Row row = workbook.createSheet("Test").createRow(0);
+		row.createCell(0).setCellValue("3000000000");
+		row.createCell(1).setCellValue("9223372036854775807");
+		row.createCell(2).setCellValue("9223372036854775808");
+		row.createCell(3).setCellValue(9007199254740992.0);
+		((XSSFCell) row.getCell(3)).getCTCell().setV("9007199254740993");
+		row.createCell(4).setCellValue(0x1p63);
+		row.createCell(5).setCellValue(-0x1p63);
+		row.createCell(6).setCellValue(1e300);
+		row.createCell(7).setCellValue(Long.MAX_VALUE);
+		((XSSFCell) row.getCell(7)).getCTCell().setV("9223372036854775807");
+
+		log.debug("3000000000 / " + reader.readLongCellValue(row.getCell(0)));
+		assertTrue(reader.readLongCellValue(row.getCell(0)).getData() == 3000000000L);
+		assertTrue(reader.readLongCellValue(row.getCell(1)).getData() == Long.MAX_VALUE);
+		assertTrue(reader.readLongCellValue(row.getCell(2)).isError());
+		log.debug("9007199254740993 / " + reader.readLongCellValue(row.getCell(3)));
+		assertTrue(reader.readLongCellValue(row.getCell(3)).getData() == 9007199254740993L);
+		log.debug("true / " + reader.readLongCellValue(row.getCell(4)).isError());
+		assertTrue(reader.readLongCellValue(row.getCell(4)).isError());
+		assertTrue(reader.readLongCellValue(row.getCell(5)).getData() == Long.MIN_VALUE);
+		assertTrue(reader.readLongCellValue(row.getCell(6)).isError());
+		assertTrue(reader.readLongCellValue(row.getCell(7)).getData() == Long.MAX_VALUE);
+
+		HSSFWorkbook hssf = new HSSFWorkbook();
+		Cell hssfCell = hssf.createSheet("Test").createRow(0).createCell(0);
+		hssfCell.setCellValue(0x1p64);
+		assertTrue(reader.readLongCellValue(hssfCell).isError());
+		hssf.close();
+		workbook.close();
+	}
+
+	/**
+	 * Tests the XLSXReader readBooleanCellValue function.
+	 */
+	@Test
+	public void testXLSXReaderBoolean() throws Exception {
+
+		log.debug("Start test for testXLSXReaderBoolean.");
+
+		ReaderTestImpl reader = new ReaderTestImpl();
+
+		HSSFWorkbook workbook = new HSSFWorkbook();
+		Row row = workbook.createSheet("Test").createRow(0);
+		row.createCell(0).setCellValue(true);
+		row.createCell(1).setCellValue("FALSCH");
+		row.createCell(2).setCellValue("true");
+		row.createCell(3).setCellValue(2);
+		row.createCell(4).setCellValue("-");
+		row.createCell(5).setCellValue("vielleicht");
+
+		log.debug("true / " + reader.readBooleanCellValue(row.getCell(0)));
+		assertTrue(reader.readBooleanCellValue(row.getCell(0)).getData());
+		assertTrue(!reader.readBooleanCellValue(row.getCell(1)).getData());
+		assertTrue(reader.readBooleanCellValue(row.getCell(2)).getData());
+		assertTrue(reader.readBooleanCellValue(row.getCell(3)).getData());
+		assertTrue(reader.readBooleanCellValue(row.getCell(4)) instanceof ExclyBooleanBlank);
+		assertTrue(reader.readBooleanCellValue(row.getCell(5)).isError());
+		assertTrue(reader.readBooleanCellValue(null).isError());
+		workbook.close();
+	}
+
+	/**
+	 * Tests the XLSXReader with resolved merged regions.
+	 */
+	@Test
+	public void testXLSXReaderMergedRegions() throws Exception {
+
+		log.debug("Start test for testXLSXReaderMergedRegions.");
+
+		ReaderTestImpl reader = new ReaderTestImpl();
+
+		XSSFWorkbook workbook = new XSSFWorkbook();
+		XSSFSheet sheet = workbook.createSheet("Test");
+		sheet.addMergedRegion(new CellRangeAddress(0, 2, 0, 1));
+		sheet.createRow(0).createCell(0).setCellValue(42);
+		Cell merged = sheet.createRow(2).createCell(1);
+
+		log.debug("Blank: true / " + (reader.readIntegerCellValue(merged) instanceof ExclyIntegerBlank));
+		assertTrue(reader.readIntegerCellValue(merged) instanceof ExclyIntegerBlank);
+
+		reader.setResolveMergedRegions(true);
+		log.debug("42 / " + reader.readIntegerCellValue(merged));
+		assertTrue(reader.readIntegerCellValue(merged).getData() == 42);
+		assertEquals("42", reader.readStringCellValue(merged).getData());
+
+		sheet.addMergedRegion(new CellRangeAddress(4, 4, 0, 3));
+		sheet.createRow(4).createCell(0).setCellValue("Title");
+		assertEquals("Title", reader.readStringCellValue(sheet.getRow(4).createCell(3)).getData());
+
+		ExclyInteger[][] values = reader.readIntegerRange(sheet, "A1:B3");
+		log.debug("42 / " + values[1][0]);
+		for (ExclyInteger[] row : values) {
+			for (ExclyInteger value : row) {
+				assertTrue(value.getData() == 42);
+			}
+		}
+		assertEquals("Title", reader.readStringRange(sheet, "D5")[0][0].getData());
+
+		sheet.addMergedRegion(new CellRangeAddress(6, 7, 0, 1));
+		Cell withoutTopLeft = sheet.createRow(7).createCell(1);
+		withoutTopLeft.setCellValue(5);
+		log.debug("Blank: true / " + (reader.readIntegerCellValue(withoutTopLeft) instanceof ExclyIntegerBlank));
+		assertTrue(reader.readIntegerCellValue(withoutTopLeft) instanceof ExclyIntegerBlank);
+		assertTrue(reader.readIntegerRange(sheet, "A7:B7")[0][1] instanceof ExclyIntegerBlank);
+		assertTrue(reader.readDoubleColumn(sheet, "A7:A8").getErrorCount() == 0);
+		assertTrue(reader.readIntegerRange(sheet, "C7")[0][0].isError());
+		workbook.close();
+	}
+
+	/**
+	 * Tests the XLSXReader with formulas without a cached result.
+	 */
+	@Test
+	public void testXLSXReaderEvaluateFormulas() throws Exception {
+
+		log.debug("Start test for testXLSXReaderEvaluateFormulas.");
+
+		ReaderTestImpl reader = new ReaderTestImpl();
+
+		XSSFWorkbook workbook = new XSSFWorkbook();
+		XSSFSheet sheet = workbook.createSheet("Test");
+		Row row = sheet.createRow(0);
+		row.createCell(0).setCellValue(20);
+		row.createCell(1).setCellValue("Excly");
+		Cell number = row.createCell(2);
+		number.setCellFormula("A1*2+2");
+		Cell text = row.createCell(3);
+		text.setCellFormula("B1&\"Core\"");
+
+		log.debug("0 / " + reader.readIntegerCellValue(number));
+		assertTrue(reader.readIntegerCellValue(number).getData() == 0);
+
+		reader.setEvaluateFormulas(true);
+		log.debug("42 / " + reader.readIntegerCellValue(number));
+		assertTrue(reader.readIntegerCellValue(number).getData() == 42);
+		assertEquals("ExclyCore", reader.readStringCellValue(text).getData());
+
+		row.getCell(0).setCellValue(1);
+		reader.getFormulaEvaluator(number).notifyUpdateCell(row.getCell(0));
+		assertTrue(reader.readIntegerCellValue(number).getData() == 4);
+		workbook.close();
+	}
+
+	/**
+	 * Tests the XLSXReader range reads.
+	 */
+	@Test
+	public void testXLSXReaderRange() throws Exception {
+
+		log.debug("Start test for testXLSXReaderRange.");
+
+		ReaderTestImpl reader = new ReaderTestImpl();
+
+		XSSFWorkbook workbook = new XSSFWorkbook();
+		XSSFSheet sheet = workbook.createSheet("Test");
+		XSSFSheet data = workbook.createSheet("Data Sheet");
+		for (int i = 1; i < 6; i++) {
+			if (i == 3) {
+				continue;
+			}
+			Row row = sheet.createRow(i);
+			row.createCell(1).setCellValue(i);
+			row.createCell(2).setCellValue("Row " + i);
+			if (i != 4) {
+				row.createCell(3).setCellValue(i * 1.5);
+			}
+			data.createRow(i - 1).createCell(0).setCellValue("Data " + i);
+		}
+
+		ExclyDouble[][] values = reader.readDoubleRange(sheet, "B2:D6");
+		log.debug("5 / " + values.length);
+		assertEquals(5, values.length);
+		assertEquals(3, values[0].length);
+		assertTrue(values[0][0].getData() == 1);
+		assertTrue(values[0][2].getData() == 1.5);
+		assertTrue(values[1][1].isError());
+		assertTrue(values[2][0].isError() && values[2][2].isError());
+		assertTrue(values[3][2].isError());
+		assertTrue(values[4][2].getData() == 7.5);
+
+		ExclyDouble[][] reversed = reader.readDoubleRange(sheet, "D6:B2");
+		log.debug("5 / " + reversed.length);
+		assertEquals(5, reversed.length);
+		assertEquals(3, reversed[0].length);
+		assertTrue(reversed[0][0].getData() == 1);
+		assertTrue(reversed[4][2].getData() == 7.5);
+		assertEquals(5, reader.readDoubleRange(sheet, "B6:D2").length);
+		assertEquals(5, reader.readDoubleColumn(sheet, "D6:D2").size());
+
+		ExclyString[][] strings = reader.readStringRange(sheet, "C:C");
+		log.debug("6 / " + strings.length);
+		assertEquals(6, strings.length);
+		assertEquals("Row 5", strings[5][0].getData());
+
+		ExclyString[][] rows = reader.readStringRange(sheet, "2:2");
+		assertEquals(4, rows[0].length);
+		assertEquals("Row 1", rows[0][2].getData());
+
+		ExclyString[][] named = reader.readStringRange(sheet, "'Data Sheet'!A1:A2");
+		assertEquals("Data 2", named[1][0].getData());
+
+		ExclyDoubleColumn column = reader.readDoubleColumn(sheet, "D2:D6");
+		log.debug("2 / " + column.getErrorCount());
+		assertEquals(5, column.size());
+		assertEquals(2, column.getErrorCount());
+		assertTrue(column.sum().isError());
+
+		ExclyInteger[][] integers = reader.readIntegerRange(sheet, "B6");
+		assertTrue(integers[0][0].getData() == 5);
+		assertTrue(reader.readLongRange(sheet, "B5:B6")[1][0].getData() == 5);
+		assertTrue(reader.readDateRange(sheet, "B2")[0][0].getData() != null);
+		workbook.close();
+	}
+
+	/**
+	 * Tests the XLSStreamReader against the XLSXReader on the same workbook.
+	 */
+	@Test
+	public void testXLSStreamReader() throws Exception {
+
+		log.debug("Start test for testXLSStreamReader.");
+
+		HSSFWorkbook workbook = new HSSFWorkbook();
+		CellStyle dateStyle = workbook.createCellStyle();
+		dateStyle.setDataFormat(workbook.createDataFormat().getFormat("dd.MM.yyyy"));
+		CellStyle numberStyle = workbook.createCellStyle();
+		numberStyle.setDataFormat(workbook.createDataFormat().getFormat("#,##0.00"));
+
+		Row row = workbook.createSheet("Values").createRow(0);
+		row.createCell(0).setCellValue(12.5);
+		row.createCell(1).setCellValue("1.234,56");
+		row.createCell(2).setCellValue("Excly");
+		row.createCell(3).setCellValue(true);
+		row.createCell(4).setCellErrorValue((byte) 7);
+		row.createCell(5).setCellValue(42005.75);
+		row.getCell(5).setCellStyle(dateStyle);
+		row.createCell(6).setCellStyle(numberStyle);
+		row.createCell(7).setCellValue(1234.5);
+		row.getCell(7).setCellStyle(numberStyle);
+		row.createCell(8).setCellValue("-");
+		row.createCell(9).setCellValue("2015-01-01 12:30:00");
+
+		row = workbook.createSheet("Formulas").createRow(3);
+		row.createCell(1).setCellFormula("Values!A1*4");
+		row.createCell(2).setCellFormula("Values!C1&\"Core\"");
+		row.createCell(3).setCellFormula("Values!A1>10");
+		row.createCell(4).setCellFormula("1/0");
+		row.createCell(5).setCellFormula("\"\"");
+		workbook.getCreationHelper().createFormulaEvaluator().evaluateAll();
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		workbook.write(out);
+		workbook.close();
+
+		ReaderTestImpl reader = new ReaderTestImpl();
+		Map<String, String> expected = new LinkedHashMap<String, String>();
+		HSSFWorkbook input = new HSSFWorkbook(new ByteArrayInputStream(out.toByteArray()));
+		for (int i = 0; i < input.getNumberOfSheets(); i++) {
+			for (Row current : input.getSheetAt(i)) {
+				for (Cell cell : current) {
+					expected.put(input.getSheetName(i) + "!" + cell.getRowIndex() + ":" + cell.getColumnIndex(),
+							describe(reader, cell));
+				}
+			}
+		}
+		input.close();
+
+		StreamTestImpl streamReader = new StreamTestImpl();
+		streamReader.read(new ByteArrayInputStream(out.toByteArray()));
+
+		log.debug(expected.size() + " / " + streamReader.values.size());
+		assertEquals(2, streamReader.sheets);
+		assertEquals(expected.size(), streamReader.values.size());
+		for (Map.Entry<String, String> entry : expected.entrySet()) {
+			log.debug(entry.getValue() + " / " + streamReader.values.get(entry.getKey()));
+			assertEquals(entry.getValue(), streamReader.values.get(entry.getKey()));
+		}
+	}
+
+	/**
+	 * Tests the XLSStreamReader reading two files, whose cell styles with the
+	 * same index have a date and a number format.
+	 */
+	@Test
+	public void testXLSStreamReaderTwoFiles() throws Exception {
+
+		log.debug("Start test for testXLSStreamReaderTwoFiles.");
+
+		ReaderTestImpl reader = new ReaderTestImpl();
+		StreamTestImpl streamReader = new StreamTestImpl();
+		String[] formats = { "dd.MM.yyyy", "#,##0.00" };
+
+		for (String format : formats) {
+			HSSFWorkbook workbook = new HSSFWorkbook();
+			CellStyle style = workbook.createCellStyle();
+			style.setDataFormat(workbook.createDataFormat().getFormat(format));
+			Cell cell = workbook.createSheet(format).createRow(0).createCell(0);
+			cell.setCellValue(42005.75);
+			cell.setCellStyle(style);
+			String expected = describe(reader, cell);
+
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			workbook.write(out);
+			workbook.close();
+			streamReader.read(new ByteArrayInputStream(out.toByteArray()));
+
+			log.debug(expected + " / " + streamReader.values.get(format + "!0:0"));
+			assertEquals(expected, streamReader.values.get(format + "!0:0"));
+		}
+	}
+
+	/**
+	 * Tests the XLSStreamReader with the string result of a shared formula,
+	 * which follows the SHRFMLA record of the formula.
+	 */
+	@Test
+	public void testXLSStreamReaderSharedFormula() throws Exception {
+
+		log.debug("Start test for testXLSStreamReaderSharedFormula.");
+
+		StreamTestImpl streamReader = new StreamTestImpl();
+		HSSFListener listener = streamReader.createListener();
+
+		FormulaRecord formula = new FormulaRecord();
+		formula.setRow(2);
+		formula.setColumn((short) 1);
+		formula.setSharedFormula(true);
+		formula.setCachedResultTypeString();
+		StringRecord result = new StringRecord();
+		result.setString("ExclyCore");
+
+		listener.processRecord(new ExtendedFormatRecord());
+		listener.processRecord(new BoundSheetRecord("Test"));
+		listener.processRecord(BOFRecord.createSheetBOF());
+		listener.processRecord(formula);
+		listener.processRecord(new SharedFormulaRecord());
+		listener.processRecord(result);
+		listener.processRecord(EOFRecord.instance);
+
+		log.debug("1 / " + streamReader.values.size());
+		assertEquals(1, streamReader.sheets);
+		assertEquals(1, streamReader.values.size());
+		assertTrue(streamReader.values.get("Test!2:1").startsWith("ExclyString=ExclyCore;"));
+		assertEquals("ExclyCore", streamReader.richText);
+	}
+
+	/**
+	 * Tests the XLSXStreamReader against the XLSXReader on the same workbook.
+	 */
+	@Test
+	public void testXLSXStreamReader() throws Exception {
+
+		log.debug("Start test for testXLSXStreamReader.");
+
+		XSSFWorkbook workbook = new XSSFWorkbook();
+		CellStyle dateStyle = workbook.createCellStyle();
+		dateStyle.setDataFormat(workbook.createDataFormat().getFormat("dd.MM.yyyy"));
+		CellStyle numberStyle = workbook.createCellStyle();
+		numberStyle.setDataFormat(workbook.createDataFormat().getFormat("#,##0.00"));
+
+		Row row = workbook.createSheet("Values").createRow(0);
+		row.createCell(0).setCellValue(12.5);
+		row.createCell(1).setCellValue("1.234,56");
+		row.createCell(2).setCellValue("Excly & <Core>");
+		row.createCell(3).setCellValue(true);
+		row.createCell(4).setCellErrorValue((byte) 7);
+		row.createCell(5).setCellValue(42005.75);
+		row.getCell(5).setCellStyle(dateStyle);
+		row.createCell(6).setCellStyle(numberStyle);
+		row.createCell(7).setCellValue(1234.5);
+		row.getCell(7).setCellStyle(numberStyle);
+		row.createCell(8).setCellValue("-");
+		row.createCell(27).setCellValue(Long.MAX_VALUE / 3);
+		row.createCell(28).setCellFormula("A1*2");
+
+		row = workbook.createSheet("Formulas").createRow(3);
+		row.createCell(1).setCellFormula("Values!A1*4");
+		row.createCell(2).setCellFormula("Values!C1&\"Core\"");
+		row.createCell(3).setCellFormula("Values!A1>10");
+		row.createCell(4).setCellFormula("1/0");
+		workbook.getCreationHelper().createFormulaEvaluator().evaluateAll();
+		((XSSFCell) workbook.getSheet("Values").getRow(0).getCell(28)).getCTCell().unsetV();
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		workbook.write(out);
+		workbook.close();
+
+		ReaderTestImpl reader = new ReaderTestImpl();
+		Map<String, String> expected = new LinkedHashMap<String, String>();
+		XSSFWorkbook input = new XSSFWorkbook(new ByteArrayInputStream(out.toByteArray()));
+		for (int i = 0; i < input.getNumberOfSheets(); i++) {
+			for (Row current : input.getSheetAt(i)) {
+				for (Cell cell : current) {
+					expected.put(input.getSheetName(i) + "!" + cell.getRowIndex() + ":" + cell.getColumnIndex(),
+							describe(reader, cell));
+				}
+			}
+		}
+		input.close();
+
+		XLSXStreamTestImpl streamReader = new XLSXStreamTestImpl();
+		streamReader.read(new ByteArrayInputStream(out.toByteArray()));
+
+		log.debug(expected.size() + " / " + streamReader.values.size());
+		assertEquals(2, streamReader.sheets);
+		assertEquals(expected.size(), streamReader.values.size());
+		for (Map.Entry<String, String> entry : expected.entrySet()) {
+			log.debug(entry.getValue() + " / " + streamReader.values.get(entry.getKey()));
+			assertEquals(entry.getValue(), streamReader.values.get(entry.getKey()));
+		}
+
+		log.debug("Excly & <Core>Core / " + streamReader.views.get("Formulas!3:2"));
+		assertEquals("Excly & <Core>Core", streamReader.views.get("Formulas!3:2"));
+		assertTrue(!streamReader.views.containsKey("Values!0:2"));
+	}
+
+	/**
+	 * Tests the XLSXStreamReader with malformed values, which are read as
+	 * error cells without aborting the read.
+	 */
+	@Test
+	public void testXLSXStreamReaderMalformedValues() throws Exception {
+
+		log.debug("Start test for testXLSXStreamReaderMalformedValues.");
+
+		XSSFWorkbook workbook = new XSSFWorkbook();
+		Row row = workbook.createSheet("Values").createRow(0);
+		row.createCell(0).setCellValue(12.5);
+		row.createCell(1).setCellValue("Excly");
+		row.createCell(2).setCellValue(7);
+		row = workbook.getSheet("Values").createRow(1);
+		row.createCell(0).setCellErrorValue(FormulaError.VALUE.getCode());
+		row = workbook.getSheet("Values").getRow(0);
+		((XSSFCell) row.getCell(0)).getCTCell().setV("12,5x");
+		((XSSFCell) row.getCell(1)).getCTCell().setV("99");
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		workbook.write(out);
+		String expectedError = describe(new ReaderTestImpl(), workbook.getSheet("Values").getRow(1).getCell(0));
+		String expectedValue = describe(new ReaderTestImpl(), workbook.getSheet("Values").getRow(0).getCell(2));
+		workbook.close();
+
+		XLSXStreamTestImpl streamReader = new XLSXStreamTestImpl();
+		streamReader.read(new ByteArrayInputStream(out.toByteArray()));
+
+		log.debug(expectedError + " / " + streamReader.values.get("Values!0:0"));
+		assertEquals(expectedError, streamReader.values.get("Values!0:0"));
+		log.debug(expectedError + " / " + streamReader.values.get("Values!0:1"));
+		assertEquals(expectedError, streamReader.values.get("Values!0:1"));
+		log.debug(expectedValue + " / " + streamReader.values.get("Values!0:2"));
+		assertEquals(expectedValue, streamReader.values.get("Values!0:2"));
+		assertEquals(1, streamReader.sheets);
+	}
+
+	/**
+	 * Tests the XLSBStreamReader with a workbook saved by Excel. The sheet
+	 * Values of the workbook holds 12.5, "Excly", "Rich" with a bold first
+	 * letter, TRUE and =1/0 in A1:E1, 7 and -3.5 in A2:B2 and "1.234,56" in
+	 * A3. The test is skipped if the workbook is missing.
+	 */
+	@Test
+	public void testXLSBStreamReaderExcelFile() throws Exception {
+
+		log.debug("Start test for testXLSBStreamReaderExcelFile.");
+
+		File file = new File(XLSB_RESFILE);
+		Assume.assumeTrue(file.isFile());
+
+		HSSFWorkbook workbook = new HSSFWorkbook();
+		Row row = workbook.createSheet("Values").createRow(0);
+		row.createCell(0).setCellValue(12.5);
+		row.createCell(1).setCellValue("Excly");
+		row.createCell(2).setCellValue("Rich");
+		row.createCell(3).setCellValue(true);
+		row.createCell(4).setCellErrorValue(FormulaError.DIV0.getCode());
+		row = workbook.getSheet("Values").createRow(1);
+		row.createCell(0).setCellValue(7);
+		row.createCell(1).setCellValue(-3.5);
+		workbook.getSheet("Values").createRow(2).createCell(0).setCellValue("1.234,56");
+
+		ReaderTestImpl reader = new ReaderTestImpl();
+		Map<String, String> expected = new LinkedHashMap<String, String>();
+		for (Row current : workbook.getSheet("Values")) {
+			for (Cell cell : current) {
+				expected.put("Values!" + cell.getRowIndex() + ":" + cell.getColumnIndex(), describe(reader, cell));
+			}
+		}
+		workbook.close();
+
+		XLSBStreamTestImpl streamReader = new XLSBStreamTestImpl();
+		streamReader.read(file);
+
+		for (Map.Entry<String, String> entry : expected.entrySet()) {
+			log.debug(entry.getValue() + " / " + streamReader.values.get(entry.getKey()));
+			assertEquals(entry.getValue(), streamReader.values.get(entry.getKey()));
+		}
+	}
+
+	/**
+	 * Tests the XLSBStreamReader against the XLSXReader on a workbook with the
+	 * same values.
+	 */
+	@Test
+	public void testXLSBStreamReader() throws Exception {
+
+		log.debug("Start test for testXLSBStreamReader.");
+
+		HSSFWorkbook workbook = new HSSFWorkbook();
+		CellStyle dateStyle = workbook.createCellStyle();
+		dateStyle.setDataFormat((short) 14);
+		CellStyle numberStyle = workbook.createCellStyle();
+		numberStyle.setDataFormat(workbook.createDataFormat().getFormat("#,##0.00"));
+
+		Row row = workbook.createSheet("Values").createRow(0);
+		row.createCell(0).setCellValue(12);
+		row.createCell(1).setCellValue(1.25);
+		row.createCell(2).setCellValue(42005.75);
+		row.getCell(2).setCellStyle(dateStyle);
+		row.createCell(3).setCellValue("1.234,56");
+		row.createCell(4).setCellValue("Excly");
+		row.createCell(5).setCellValue(true);
+		row.createCell(6).setCellErrorValue((byte) 7);
+		row.createCell(7);
+		row.createCell(8).setCellValue(-3.5);
+		row = workbook.getSheet("Values").createRow(5);
+		row.createCell(1).setCellValue(50);
+		row.createCell(2).setCellValue("ExclyCore");
+		row.createCell(3).setCellValue(false);
+		row.createCell(4).setCellErrorValue((byte) 7);
+		row = workbook.getSheet("Values").createRow(7);
+		row.createCell(0).setCellValue("Rich");
+		row.createCell(1);
+		row.createCell(2).setCellValue(7);
+		row.createCell(3).setCellErrorValue((byte) 7);
+		row.createCell(4).setCellValue(true);
+		row.createCell(5).setCellValue(2.5);
+		row.createCell(6).setCellValue("Short");
+		row.createCell(7).setCellValue("1.234,56");
+		row = workbook.createSheet("Second").createRow(2);
+		row.createCell(0).setCellValue(1234.5);
+		row.getCell(0).setCellStyle(numberStyle);
+
+		ReaderTestImpl reader = new ReaderTestImpl();
+		Map<String, String> expected = new LinkedHashMap<String, String>();
+		for (int i = 0; i < workbook.getNumberOfSheets(); i++) {
+			for (Row current : workbook.getSheetAt(i)) {
+				for (Cell cell : current) {
+					expected.put(workbook.getSheetName(i) + "!" + cell.getRowIndex() + ":" + cell.getColumnIndex(),
+							describe(reader, cell));
+				}
+			}
+		}
+		workbook.close();
+
+		ByteArrayOutputStream sheet = new ByteArrayOutputStream();
+		writeRecord(sheet, 129, new byte[0]);
+		writeRecord(sheet, 145, new byte[0]);
+		writeRecord(sheet, 0, body(0, 0, 0));
+		writeRecord(sheet, 2, body(0, 0, 12 << 2 | 2));
+		writeRecord(sheet, 2, body(1, 0, 125 << 2 | 3));
+		writeRecord(sheet, 5, body(2, 1), doubleBytes(42005.75));
+		writeRecord(sheet, 7, body(3, 0, 0));
+		writeRecord(sheet, 6, body(4, 0), wideString("Excly"));
+		writeRecord(sheet, 4, body(5, 0), new byte[] { 1 });
+		writeRecord(sheet, 3, body(6, 0), new byte[] { 7 });
+		writeRecord(sheet, 1, body(7, 0));
+		writeRecord(sheet, 2, body(8, 0, (int) (Double.doubleToLongBits(-3.5) >>> 32)));
+		writeRecord(sheet, 0, body(5, 0, 0));
+		writeRecord(sheet, 9, body(1, 0), doubleBytes(50), new byte[2], body(0));
+		writeRecord(sheet, 8, body(2, 0), wideString("ExclyCore"), new byte[2], body(0));
+		writeRecord(sheet, 10, body(3, 0), new byte[] { 0 }, new byte[2], body(0));
+		writeRecord(sheet, 11, body(4, 0), new byte[] { 7 }, new byte[2], body(0));
+		writeRecord(sheet, 0, body(7, 0, 0));
+		writeRecord(sheet, 62, body(0, 0), new byte[] { 0 }, wideString("Rich"));
+		writeRecord(sheet, 12, body(0));
+		writeRecord(sheet, 13, body(0, 7 << 2 | 2));
+		writeRecord(sheet, 14, body(0), new byte[] { 7 });
+		writeRecord(sheet, 15, body(0), new byte[] { 1 });
+		writeRecord(sheet, 16, body(0), doubleBytes(2.5));
+		writeRecord(sheet, 17, body(0), wideString("Short"));
+		writeRecord(sheet, 18, body(0, 0));
+		writeRecord(sheet, 146, new byte[0]);
+		writeRecord(sheet, 130, new byte[0]);
+
+		ByteArrayOutputStream second = new ByteArrayOutputStream();
+		writeRecord(second, 129, new byte[0]);
+		writeRecord(second, 0, body(2, 0, 0));
+		writeRecord(second, 5, body(0, 2), doubleBytes(1234.5));
+		writeRecord(second, 130, new byte[0]);
+
+		ByteArrayOutputStream book = new ByteArrayOutputStream();
+		writeRecord(book, 131, new byte[0]);
+		writeRecord(book, 153, body(0, 0));
+		writeRecord(book, 156, body(0, 1), wideString("rId1"), wideString("Values"));
+		writeRecord(book, 156, body(0, 2), wideString("rId2"), wideString("Second"));
+		writeRecord(book, 132, new byte[0]);
+
+		ByteArrayOutputStream strings = new ByteArrayOutputStream();
+		writeRecord(strings, 159, body(1, 1));
+		writeRecord(strings, 19, new byte[] { 0 }, wideString("1.234,56"));
+		writeRecord(strings, 160, new byte[0]);
+
+		ByteArrayOutputStream styles = new ByteArrayOutputStream();
+		writeRecord(styles, 278, new byte[0]);
+		writeRecord(styles, 615, body(1));
+		writeRecord(styles, 44, new byte[] { (byte) 164, 0 }, wideString("#,##0.00"));
+		writeRecord(styles, 616, new byte[0]);
+		writeRecord(styles, 626, body(1));
+		writeRecord(styles, 47, new byte[] { 0, 0, 14, 0 }, new byte[12]);
+		writeRecord(styles, 627, new byte[0]);
+		writeRecord(styles, 617, body(3));
+		writeRecord(styles, 47, new byte[] { 0, 0, 0, 0 }, new byte[12]);
+		writeRecord(styles, 47, new byte[] { 0, 0, 14, 0 }, new byte[12]);
+		writeRecord(styles, 47, new byte[] { 0, 0, (byte) 164, 0 }, new byte[12]);
+		writeRecord(styles, 618, new byte[0]);
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		OPCPackage container = OPCPackage.create(out);
+		PackagePart bookPart = addPart(container, "/xl/workbook.bin",
+				"application/vnd.ms-excel.sheet.binary.macroEnabled.main", book);
+		container.addRelationship(bookPart.getPartName(), TargetMode.INTERNAL,
+				PackageRelationshipTypes.CORE_DOCUMENT);
+		PackagePart sheetPart = addPart(container, "/xl/worksheets/sheet1.bin", "application/vnd.ms-excel.worksheet",
+				sheet);
+		bookPart.addRelationship(sheetPart.getPartName(), TargetMode.INTERNAL,
+				XSSFRelation.WORKSHEET.getRelation(), "rId1");
+		PackagePart secondPart = addPart(container, "/xl/worksheets/sheet2.bin",
+				"application/vnd.ms-excel.worksheet", second);
+		bookPart.addRelationship(secondPart.getPartName(), TargetMode.INTERNAL,
+				XSSFRelation.WORKSHEET.getRelation(), "rId2");
+		PackagePart stringsPart = addPart(container, "/xl/sharedStrings.bin",
+				"application/vnd.ms-excel.sharedStrings", strings);
+		bookPart.addRelationship(stringsPart.getPartName(), TargetMode.INTERNAL,
+				XSSFRelation.SHARED_STRINGS.getRelation(), "rId3");
+		PackagePart stylesPart = addPart(container, "/xl/styles.bin", "application/vnd.ms-excel.styles", styles);
+		bookPart.addRelationship(stylesPart.getPartName(), TargetMode.INTERNAL, XSSFRelation.STYLES.getRelation(),
+				"rId4");
+		container.close();
+
+		XLSBStreamTestImpl streamReader = new XLSBStreamTestImpl();
+		streamReader.read(new ByteArrayInputStream(out.toByteArray()));
+
+		log.debug(expected.size() + " / " + streamReader.values.size());
+		assertEquals(2, streamReader.sheets);
+		assertEquals(expected.size(), streamReader.values.size());
+		for (Map.Entry<String, String> entry : expected.entrySet()) {
+			log.debug(entry.getValue() + " / " + streamReader.values.get(entry.getKey()));
+			assertEquals(entry.getValue(), streamReader.values.get(entry.getKey()));
+		}
+
+		log.debug("Excly / " + streamReader.views.get("Values!0:4"));
+		assertEquals("Excly", streamReader.views.get("Values!0:4"));
+		assertEquals("ExclyCore", streamReader.views.get("Values!5:2"));
+		assertTrue(!streamReader.views.containsKey("Values!0:3"));
+		assertEquals("Short", streamReader.views.get("Values!7:6"));
+	}
+
+	private static PackagePart addPart(OPCPackage container, String name, String contentType,
+			ByteArrayOutputStream content) throws Exception {
+		PackagePart part = container.createPart(PackagingURIHelper.createPartName(name), contentType);
+		OutputStream out = part.getOutputStream();
+		out.write(content.toByteArray());
+		out.close();
+		return part;
+	}
+
+	/**
+	 * Writes a BIFF12 record with the type and the size as variable length
+	 * integers.
+	 */
+	private static void writeRecord(ByteArrayOutputStream out, int type, byte[]... parts) {
+		int size = 0;
+		for (byte[] part : parts) {
+			size += part.length;
+		}
+
+		out.write(type < 0x80 ? type : (type & 0x7F) | 0x80);
+		if (type >= 0x80) {
+			out.write(type >> 7);
+		}
+		do {
+			out.write((size & 0x7F) | (size > 0x7F ? 0x80 : 0));
+			size >>>= 7;
+		} while (size > 0);
+
+		for (byte[] part : parts) {
+			out.write(part, 0, part.length);
+		}
+	}
+
+	private static byte[] body(int... values) {
+		ByteBuffer buffer = ByteBuffer.allocate(values.length * 4).order(ByteOrder.LITTLE_ENDIAN);
+		for (int value : values) {
+			buffer.putInt(value);
+		}
+		return buffer.array();
+	}
+
+	private static byte[] doubleBytes(double value) {
+		return ByteBuffer.allocate(8).order(ByteOrder.LITTLE_ENDIAN).putDouble(value).array();
+	}
+
+	private static byte[] wideString(String value) {
+		ByteBuffer buffer = ByteBuffer.allocate(4 + value.length() * 2).order(ByteOrder.LITTLE_ENDIAN);
+		buffer.putInt(value.length());
+		for (char c : value.toCharArray()) {
+			buffer.putChar(c);
+		}
+		return buffer.array();
+	}
+
+	/**
+	 * Reads the cell with every read method of the reader.
+	 */
+	private static String describe(XLSXReader reader, Cell cell) {
+		Object[] values = { reader.readStringCellValue(cell), reader.readFormattedCellValue(cell),
+				reader.readDoubleCellValue(cell), reader.readDecimalCellValue(cell),
+				reader.readIntegerCellValue(cell), reader.readLongCellValue(cell), reader.readDateCellValue(cell),
+				reader.readBooleanCellValue(cell) };
+
+		StringBuilder builder = new StringBuilder();
+		for (Object value : values) {
+			builder.append(value.getClass().getSimpleName()).append('=').append(value).append("; ");
+		}
+		return builder.toString();
+	}
+
 	@After
 	public void tearDown() throws IOException {
 		log.debug("TearDown ExclyCoreTest.");
@@ -656,11 +1615,21 @@ public class ExclyCoreReaderTest {
 			return super.readStringCellValue(cell);
 		}
 
+		@Override
+		public ExclyString readFormattedCellValue(Cell cell) {
+			return super.readFormattedCellValue(cell);
+		}
+
 		@Override
 		public ExclyDouble readDoubleCellValue(Cell cell) {
 			return super.readDoubleCellValue(cell);
 		}
 
+		@Override
+		public ExclyDecimal readDecimalCellValue(Cell cell) {
+			return super.readDecimalCellValue(cell);
+		}
+
 		@Override
 		public ExclyInteger readIntegerCellValue(Cell cell) {
 			return super.readIntegerCellValue(cell);
@@ -675,5 +1644,87 @@ public class ExclyCoreReaderTest {
 		public ExclyDate readDateCellValue(Cell cell) {
 			return super.readDateCellValue(cell);
 		}
+
+		@Override
+		public ExclyBoolean readBooleanCellValue(Cell cell) {
+			return super.readBooleanCellValue(cell);
+		}
+	}
+
+	class StreamTestImpl extends XLSStreamReader {
+		private final Map<String, String> values = new LinkedHashMap<String, String>();
+		private String sheetName;
+		private String richText;
+		private int sheets;
+
+		@Override
+		protected void startSheet(int sheetIndex, String sheetName) {
+			this.sheetName = sheetName;
+		}
+
+		@Override
+		protected void endSheet(int sheetIndex, String sheetName) {
+			sheets++;
+		}
+
+		@Override
+		protected void processCell(Cell cell) {
+			richText = cell.getRichStringCellValue().getString();
+			values.put(sheetName + "!" + cell.getRowIndex() + ":" + cell.getColumnIndex(), describe(this, cell));
+		}
+	}
+
+	class XLSBStreamTestImpl extends XLSBStreamReader {
+		private final Map<String, String> values = new LinkedHashMap<String, String>();
+		private final Map<String, String> views = new LinkedHashMap<String, String>();
+		private String sheetName;
+		private int sheets;
+
+		@Override
+		protected void startSheet(int sheetIndex, String sheetName) {
+			this.sheetName = sheetName;
+		}
+
+		@Override
+		protected void endSheet(int sheetIndex, String sheetName) {
+			sheets++;
+		}
+
+		@Override
+		protected void processCell(Cell cell) {
+			String key = sheetName + "!" + cell.getRowIndex() + ":" + cell.getColumnIndex();
+			ExclyString view = readStringView(cell);
+			if (view instanceof ExclyStringView) {
+				views.put(key, ((ExclyStringView) view).detach().getData());
+			}
+			values.put(key, describe(this, cell));
+		}
+	}
+
+	class XLSXStreamTestImpl extends XLSXStreamReader {
+		private final Map<String, String> values = new LinkedHashMap<String, String>();
+		private final Map<String, String> views = new LinkedHashMap<String, String>();
+		private String sheetName;
+		private int sheets;
+
+		@Override
+		protected void startSheet(int sheetIndex, String sheetName) {
+			this.sheetName = sheetName;
+		}
+
+		@Override
+		protected void endSheet(int sheetIndex, String sheetName) {
+			sheets++;
+		}
+
+		@Override
+		protected void processCell(Cell cell) {
+			String key = sheetName + "!" + cell.getRowIndex() + ":" + cell.getColumnIndex();
+			ExclyString view = readStringView(cell);
+			if (view instanceof ExclyStringView) {
+				views.put(key, ((ExclyStringView) view).detach().getData());
+			}
+			values.put(key, describe(this, cell));
+		}
 	}
 }
@@ -17,6 +17,7 @@
 
 package at.mukprojects.exclycore.dao;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
 import java.io.File;
@@ -24,6 +25,10 @@ import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 import org.junit.After;
 import org.junit.Before;
@@ -32,6 +37,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import at.mukprojects.exclycore.dao.XLSXWriter;
+import at.mukprojects.exclycore.helper.ExclyMetrics;
 
 /**
  * ExclyCoreWriterTest implements a couple of JUnit tests to test the
@@ -82,6 +88,83 @@ public class ExclyCoreWriterTest {
 		workbook.close();
 	}
 
+	/**
+	 * Tests the XLSXWriter streaming functions.
+	 */
+	@Test
+	public void testXLSXWriterStreaming() throws Exception {
+		SXSSFWorkbook workbook = writer.createStreamingWorkbook(outputFile, false, 100);
+		Sheet sheet = workbook.createSheet("Sheet Stream");
+		for (int i = 0; i < 5000; i++) {
+			Row row = sheet.createRow(i);
+			row.createCell(0).setCellValue(i);
+			row.createCell(1).setCellValue("Row " + i);
+		}
+		writer.closeWorkbook();
+
+		assertTrue(outputTestFile.exists());
+
+		workbook = writer.createStreamingWorkbook(outputFile, true, 100);
+		workbook.createSheet("Sheet Add").createRow(0).createCell(0).setCellValue("Added");
+		writer.closeWorkbook();
+
+		final int[] cells = new int[2];
+		XLSXStreamReader reader = new XLSXStreamReader() {
+			@Override
+			protected void processCell(Cell cell) {
+				if (cell.getColumnIndex() == 0 && cell.getCellType() == Cell.CELL_TYPE_NUMERIC) {
+					assertTrue(readIntegerCellValue(cell).getData() == cell.getRowIndex());
+					cells[0]++;
+				} else {
+					cells[1]++;
+				}
+			}
+		};
+		reader.read(outputTestFile);
+
+		log.debug("5000 / " + cells[0]);
+		assertEquals(5000, cells[0]);
+		assertEquals(5001, cells[1]);
+
+		FileInputStream inputStream = new FileInputStream(outputTestFile);
+		XSSFWorkbook input = new XSSFWorkbook(inputStream);
+		assertEquals("Row 4999", input.getSheet("Sheet Stream").getRow(4999).getCell(1).getStringCellValue());
+		assertEquals("Added", input.getSheet("Sheet Add").getRow(0).getCell(0).getStringCellValue());
+		input.close();
+		inputStream.close();
+	}
+
+	/**
+	 * Tests the metrics recorded by closing a workbook.
+	 */
+	@Test
+	public void testXLSXWriterMetrics() throws Exception {
+		ExclyMetrics metrics = ExclyMetrics.getInstance();
+		metrics.reset();
+		ExclyMetrics.setRecording(true);
+
+		try {
+			SXSSFWorkbook workbook = writer.createStreamingWorkbook(outputFile, false, 10);
+			Sheet sheet = workbook.createSheet("Sheet Metrics");
+			for (int i = 0; i < 50; i++) {
+				sheet.createRow(i).createCell(0).setCellValue(i);
+			}
+			writer.closeWorkbook();
+		} finally {
+			ExclyMetrics.setRecording(false);
+		}
+
+		log.debug(1 + " / " + metrics.getWorkbooksWritten());
+		assertEquals(1, metrics.getWorkbooksWritten());
+		log.debug(50 + " / " + metrics.getRowsWritten());
+		assertEquals(50, metrics.getRowsWritten());
+		log.debug(outputTestFile.length() + " / " + metrics.getBytesWritten());
+		assertEquals(outputTestFile.length(), metrics.getBytesWritten());
+		assertTrue(metrics.getCloseWorkbookMaxNanos() > 0);
+
+		metrics.reset();
+	}
+
 	@After
 	public void tearDown() throws IOException {
 		log.debug("TearDown ExclyCoreTest.");
@@ -101,6 +184,12 @@ public class ExclyCoreWriterTest {
 			return super.createWorkbook(output, add);
 		}
 
+		@Override
+		protected SXSSFWorkbook createStreamingWorkbook(File output, boolean add, int rowAccessWindowSize)
+				throws IOException {
+			return super.createStreamingWorkbook(output, add, rowAccessWindowSize);
+		}
+
 		@Override
 		protected void closeWorkbook() throws IOException {
 			super.closeWorkbook();
@@ -0,0 +1,105 @@
+/** 
+ * This code is copyright (c) Mathias Markl 2015
+ * 
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ * 
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package at.mukprojects.exclycore.helper;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Date;
+import java.util.Random;
+import java.util.TimeZone;
+
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * ExclyDateConverterTest tests the helper ExclyDateConverter.
+ *
+ * @author Mathias Markl
+ */
+public class ExclyDateConverterTest {
+	private static final Logger log = LoggerFactory.getLogger(ExclyDateConverterTest.class);
+
+	private static final String[] ZONES = { "UTC", "Europe/Vienna", "America/New_York", "Australia/Lord_Howe" };
+
+	private TimeZone defaultZone;
+
+	@Before
+	public void setUp() {
+		defaultZone = TimeZone.getDefault();
+	}
+
+	/**
+	 * Tests the ExclyDateConverter against the POI DateUtil.
+	 */
+	@Test
+	public void testExclyDateConverterPOI() throws Exception {
+		Random random = new Random(42);
+
+		for (String zone : ZONES) {
+			TimeZone timeZone = TimeZone.getTimeZone(zone);
+			TimeZone.setDefault(timeZone);
+
+			for (boolean date1904 : new boolean[] { false, true }) {
+				ExclyDateConverter converter = new ExclyDateConverter(date1904, timeZone);
+
+				for (int i = 0; i < 20000; i++) {
+					double serial = (i < 200) ? i / 3.0 : random.nextDouble() * 60000;
+					Date expected = DateUtil.getJavaDate(serial, date1904);
+					assertEquals(zone + " / " + serial, expected.getTime(), converter.toEpochMillis(serial));
+				}
+			}
+		}
+	}
+
+	/**
+	 * Tests the 1900 leap year bug and the 1904 date system.
+	 */
+	@Test
+	public void testExclyDateConverterEpochDay() throws Exception {
+		ExclyDateConverter converter1900 = new ExclyDateConverter(false, TimeZone.getTimeZone("UTC"));
+		ExclyDateConverter converter1904 = new ExclyDateConverter(true, TimeZone.getTimeZone("UTC"));
+
+		log.debug("1900-01-01 / " + LocalDate.ofEpochDay(converter1900.toEpochDay(1)));
+		assertEquals(LocalDate.of(1900, 1, 1).toEpochDay(), converter1900.toEpochDay(1));
+		assertEquals(LocalDate.of(1900, 2, 28).toEpochDay(), converter1900.toEpochDay(59));
+		assertEquals(LocalDate.of(1900, 3, 1).toEpochDay(), converter1900.toEpochDay(60));
+		assertEquals(LocalDate.of(1900, 3, 1).toEpochDay(), converter1900.toEpochDay(61));
+		assertEquals(LocalDate.of(2015, 10, 20).toEpochDay(), converter1900.toEpochDay(42297));
+
+		log.debug("1904-01-01 / " + LocalDate.ofEpochDay(converter1904.toEpochDay(0)));
+		assertEquals(LocalDate.of(1904, 1, 1).toEpochDay(), converter1904.toEpochDay(0));
+		assertEquals(LocalDate.of(2015, 10, 20).toEpochDay(), converter1904.toEpochDay(42297 - 1462));
+
+		assertEquals(LocalDateTime.of(2015, 10, 20, 12, 0),
+				converter1900.toExclyDate(42297.5).toLocalDateTime(TimeZone.getTimeZone("UTC").toZoneId()));
+
+		assertTrue(converter1900.toExclyDate(-1).isEmpty());
+	}
+
+	@After
+	public void tearDown() {
+		TimeZone.setDefault(defaultZone);
+	}
+}
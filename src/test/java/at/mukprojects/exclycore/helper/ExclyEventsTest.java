@@ -0,0 +1,146 @@
+/** 
+ * This code is copyright (c) Mathias Markl 2015
+ * 
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ * 
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package at.mukprojects.exclycore.helper;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.xssf.usermodel.XSSFSheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.After;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import at.mukprojects.exclycore.dao.XLSXStreamReader;
+import at.mukprojects.exclycore.model.ExclyDoubleError;
+
+/**
+ * ExclyEventsTest tests the Flight Recorder events of the helper ExclyEvents.
+ *
+ * @author Mathias Markl
+ */
+public class ExclyEventsTest {
+	private static final Logger log = LoggerFactory.getLogger(ExclyEventsTest.class);
+
+	private static final String PREFIX = "at.mukprojects.exclycore.";
+
+	private File outputFile;
+	private File recordingFile;
+
+	@Before
+	public void setUp() throws Exception {
+		Assume.assumeTrue(ExclyEvents.isAvailable());
+
+		outputFile = File.createTempFile("exclycore-events", ".xlsx");
+		recordingFile = File.createTempFile("exclycore-events", ".jfr");
+	}
+
+	/**
+	 * Tests that nothing is emitted without a recording.
+	 */
+	@Test
+	public void testExclyEventsDisabled() throws Exception {
+		assertEquals(null, ExclyEvents.beginSheetRead(0, "Test"));
+		assertEquals(null, ExclyEvents.beginWorkbookClose("Test"));
+		ExclyEvents.endSheetRead(null, 0, 0);
+	}
+
+	/**
+	 * Tests the events of the writer and the reader.
+	 */
+	@Test
+	public void testExclyEventsRecording() throws Exception {
+		Recording recording = new Recording();
+		for (String name : new String[] { "WorkbookOpen", "SheetRead", "DateParseMiss", "ErrorStyle",
+				"WorkbookCreate", "WorkbookClose" }) {
+			recording.enable(PREFIX + name).withoutThreshold();
+		}
+		recording.start();
+
+		XLSXWriterUtil writer = new XLSXWriterUtil();
+		XSSFWorkbook workbook = writer.createWorkbook(outputFile, false);
+		XSSFSheet sheet = workbook.createSheet("Events");
+		for (int i = 0; i < 10; i++) {
+			Row row = sheet.createRow(i);
+			row.createCell(0).setCellValue(i);
+			row.createCell(1).setCellValue("Row " + i);
+		}
+		new ExclyDoubleError().setCell(sheet.getRow(0).createCell(2));
+		writer.closeWorkbook();
+
+		final XLSXReaderUtil dateReader = new XLSXReaderUtil();
+		XLSXStreamReader reader = new XLSXStreamReader() {
+			@Override
+			protected void processCell(Cell cell) {
+				if (cell.getColumnIndex() == 1 && cell.getRowIndex() == 0) {
+					dateReader.readDateCellValue(cell);
+				}
+			}
+		};
+		reader.read(outputFile);
+
+		recording.stop();
+		recording.dump(recordingFile.toPath());
+		recording.close();
+
+		Map<String, RecordedEvent> events = new HashMap<String, RecordedEvent>();
+		List<RecordedEvent> recorded = RecordingFile.readAllEvents(recordingFile.toPath());
+		for (RecordedEvent event : recorded) {
+			events.put(event.getEventType().getName().substring(PREFIX.length()), event);
+		}
+		log.debug("6 / " + events.keySet());
+		assertEquals(6, events.size());
+
+		RecordedEvent sheetRead = events.get("SheetRead");
+		log.debug("Events / " + sheetRead.getString("sheetName"));
+		assertEquals("Events", sheetRead.getString("sheetName"));
+		assertEquals(10, sheetRead.getLong("rows"));
+		assertEquals(21, sheetRead.getLong("cells"));
+
+		assertEquals(outputFile.length(), events.get("WorkbookOpen").getLong("fileSize"));
+		assertEquals(outputFile.length(), events.get("WorkbookClose").getLong("fileSize"));
+		assertEquals(10, events.get("WorkbookClose").getLong("rows"));
+		assertEquals("Row 0", events.get("DateParseMiss").getString("text"));
+		assertTrue(events.get("ErrorStyle").getInt("cellStyles") > 1);
+		assertTrue(!events.get("WorkbookCreate").getBoolean("add"));
+	}
+
+	@After
+	public void tearDown() {
+		if (outputFile != null) {
+			outputFile.delete();
+		}
+		if (recordingFile != null) {
+			recordingFile.delete();
+		}
+	}
+}
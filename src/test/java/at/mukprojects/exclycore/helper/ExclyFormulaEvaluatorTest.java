@@ -0,0 +1,225 @@
+/** 
+ * This code is copyright (c) Mathias Markl 2015
+ * 
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ * 
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package at.mukprojects.exclycore.helper;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+
+import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * ExclyFormulaEvaluatorTest tests the helper ExclyFormulaEvaluator.
+ *
+ * @author Mathias Markl
+ */
+public class ExclyFormulaEvaluatorTest {
+	private static final Logger log = LoggerFactory.getLogger(ExclyFormulaEvaluatorTest.class);
+
+	private Workbook workbook;
+	private Sheet sheet;
+	private Sheet other;
+
+	@Before
+	public void setUp() {
+		workbook = new XSSFWorkbook();
+		sheet = workbook.createSheet("Test");
+		other = workbook.createSheet("Other");
+
+		for (int i = 0; i < 10; i++) {
+			Row row = sheet.createRow(i);
+			row.createCell(0).setCellValue(i + 1);
+			row.createCell(1).setCellValue(10 * (i + 1));
+			row.createCell(2).setCellFormula("A" + (i + 1) + "*2");
+		}
+		sheet.getRow(0).createCell(3).setCellFormula("SUM(C1:C10)");
+		sheet.getRow(1).createCell(3).setCellFormula("D1+Other!A1");
+		sheet.getRow(2).createCell(3).setCellFormula("SUM(B1:B10)");
+		other.createRow(0).createCell(0).setCellValue(1000);
+	}
+
+	/**
+	 * Tests the ExclyFormulaEvaluator with formulas without a cached result.
+	 */
+	@Test
+	public void testExclyFormulaEvaluatorCachedResult() throws Exception {
+		ExclyFormulaEvaluator evaluator = new ExclyFormulaEvaluator(workbook);
+		Cell sum = sheet.getRow(0).getCell(3);
+
+		log.debug("Cached: false / " + evaluator.hasCachedResult(sum));
+		assertTrue(!evaluator.hasCachedResult(sum));
+		assertTrue(evaluator.hasCachedResult(sheet.getRow(0).getCell(0)));
+
+		assertEquals(Cell.CELL_TYPE_NUMERIC, evaluator.getCachedFormulaResultType(sum));
+		log.debug("110 / " + sum.getNumericCellValue());
+		assertTrue(sum.getNumericCellValue() == 110);
+		assertTrue(evaluator.hasCachedResult(sum));
+	}
+
+	/**
+	 * Tests the ExclyFormulaEvaluator calculates only the dependent cells
+	 * after an edit.
+	 */
+	@Test
+	public void testExclyFormulaEvaluatorIncremental() throws Exception {
+		ExclyFormulaEvaluator evaluator = new ExclyFormulaEvaluator(workbook);
+		evaluator.evaluateAll();
+		assertTrue(sheet.getRow(1).getCell(3).getNumericCellValue() == 1110);
+
+		Cell edited = sheet.getRow(4).getCell(0);
+		edited.setCellValue(100);
+		int count = evaluator.notifyUpdateCell(edited);
+		log.debug("3 / " + count);
+		assertEquals(3, count);
+		assertTrue(sheet.getRow(4).getCell(2).getNumericCellValue() == 200);
+		assertTrue(sheet.getRow(0).getCell(3).getNumericCellValue() == 300);
+		assertTrue(sheet.getRow(1).getCell(3).getNumericCellValue() == 1300);
+		assertTrue(sheet.getRow(2).getCell(3).getNumericCellValue() == 550);
+
+		Cell otherCell = other.getRow(0).getCell(0);
+		otherCell.setCellValue(0);
+		assertEquals(1, evaluator.notifyUpdateCell(otherCell));
+		assertTrue(sheet.getRow(1).getCell(3).getNumericCellValue() == 300);
+
+		Cell changed = sheet.getRow(2).getCell(3);
+		changed.setCellFormula("SUM(B1:B10)+A1");
+		assertEquals(1, evaluator.notifySetFormula(changed));
+		assertTrue(changed.getNumericCellValue() == 551);
+
+		Cell first = sheet.getRow(0).getCell(0);
+		first.setCellValue(2);
+		log.debug("4 / " + evaluator.notifyUpdateCell(first));
+		assertTrue(changed.getNumericCellValue() == 552);
+		assertTrue(sheet.getRow(0).getCell(3).getNumericCellValue() == 302);
+	}
+
+	/**
+	 * Tests the ExclyFormulaEvaluator after the sheets have been reordered
+	 * and a sheet has been added.
+	 */
+	@Test
+	public void testExclyFormulaEvaluatorSheetOrder() throws Exception {
+		ExclyFormulaEvaluator evaluator = new ExclyFormulaEvaluator(workbook);
+		evaluator.evaluateAll();
+		Cell edited = sheet.getRow(4).getCell(0);
+		edited.setCellValue(100);
+		assertEquals(3, evaluator.notifyUpdateCell(edited));
+
+		workbook.setSheetOrder("Other", 0);
+		Cell otherCell = other.getRow(0).getCell(0);
+		otherCell.setCellValue(0);
+		int count = evaluator.notifyUpdateCell(otherCell);
+		log.debug("1 / " + count);
+		assertEquals(1, count);
+		assertTrue(sheet.getRow(1).getCell(3).getNumericCellValue() == 300);
+
+		workbook.createSheet("New");
+		workbook.setSheetOrder("New", 0);
+		edited.setCellValue(5);
+		assertEquals(3, evaluator.notifyUpdateCell(edited));
+		assertTrue(sheet.getRow(0).getCell(3).getNumericCellValue() == 110);
+		assertTrue(sheet.getRow(1).getCell(3).getNumericCellValue() == 110);
+	}
+
+	/**
+	 * Tests the ExclyFormulaEvaluator with a range per row and a whole column
+	 * range, an edit only calculates the ranges which contain the cell.
+	 */
+	@Test
+	public void testExclyFormulaEvaluatorRanges() throws Exception {
+		XSSFWorkbook rangeWorkbook = new XSSFWorkbook();
+		Sheet rangeSheet = rangeWorkbook.createSheet("Test");
+		for (int i = 0; i < 5000; i++) {
+			Row row = rangeSheet.createRow(i);
+			row.createCell(0).setCellValue(i);
+			row.createCell(1).setCellValue(1);
+			row.createCell(2).setCellFormula("SUM(A" + (i + 1) + ":B" + (i + 1) + ")");
+		}
+		Cell total = rangeSheet.getRow(0).createCell(3);
+		total.setCellFormula("SUM(A:A)");
+
+		ExclyFormulaEvaluator evaluator = new ExclyFormulaEvaluator(rangeWorkbook);
+		evaluator.evaluateAll();
+
+		Cell edited = rangeSheet.getRow(3000).getCell(0);
+		edited.setCellValue(0);
+		int count = evaluator.notifyUpdateCell(edited);
+		log.debug("2 / " + count);
+		assertEquals(2, count);
+		assertTrue(rangeSheet.getRow(3000).getCell(2).getNumericCellValue() == 1);
+		assertTrue(total.getNumericCellValue() == 4999 * 5000 / 2 - 3000);
+
+		Cell moved = rangeSheet.getRow(10).getCell(2);
+		moved.setCellFormula("SUM(B1:B2)");
+		assertEquals(1, evaluator.notifySetFormula(moved));
+		assertTrue(moved.getNumericCellValue() == 2);
+
+		Cell old = rangeSheet.getRow(10).getCell(0);
+		old.setCellValue(20);
+		assertEquals(1, evaluator.notifyUpdateCell(old));
+		Cell first = rangeSheet.getRow(0).getCell(1);
+		first.setCellValue(5);
+		assertEquals(2, evaluator.notifyUpdateCell(first));
+		assertTrue(moved.getNumericCellValue() == 6);
+		rangeWorkbook.close();
+	}
+
+	/**
+	 * Tests the ExclyFormulaEvaluator with a HSSF workbook and a volatile
+	 * function.
+	 */
+	@Test
+	public void testExclyFormulaEvaluatorHSSF() throws Exception {
+		HSSFWorkbook hssfWorkbook = new HSSFWorkbook();
+		Row row = hssfWorkbook.createSheet("Test").createRow(0);
+		row.createCell(0).setCellValue(1);
+		row.createCell(1).setCellValue(2);
+		row.createCell(2).setCellFormula("INDIRECT(\"A1\")*3");
+		row.createCell(3).setCellFormula("A1+B1");
+
+		ExclyFormulaEvaluator evaluator = new ExclyFormulaEvaluator(hssfWorkbook);
+		evaluator.evaluateAll();
+		assertTrue(row.getCell(2).getNumericCellValue() == 3);
+
+		row.getCell(1).setCellValue(5);
+		log.debug("2 / " + evaluator.notifyUpdateCell(row.getCell(1)));
+		assertTrue(row.getCell(3).getNumericCellValue() == 6);
+
+		row.getCell(0).setCellValue(4);
+		evaluator.notifyUpdateCell(row.getCell(0));
+		assertTrue(row.getCell(2).getNumericCellValue() == 12);
+		assertTrue(row.getCell(3).getNumericCellValue() == 9);
+		hssfWorkbook.close();
+	}
+
+	@After
+	public void tearDown() throws IOException {
+		workbook.close();
+	}
+}
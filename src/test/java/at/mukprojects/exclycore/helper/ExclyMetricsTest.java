@@ -0,0 +1,228 @@
+/** 
+ * This code is copyright (c) Mathias Markl 2015
+ * 
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ * 
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package at.mukprojects.exclycore.helper;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+
+import javax.management.Attribute;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.openmbean.CompositeData;
+import javax.management.openmbean.TabularData;
+
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import at.mukprojects.exclycore.dao.XLSXReader;
+
+/**
+ * ExclyMetricsTest tests the helper ExclyMetrics and the
+ * ExclyLatencyHistogram.
+ *
+ * @author Mathias Markl
+ */
+public class ExclyMetricsTest {
+	private static final Logger log = LoggerFactory.getLogger(ExclyMetricsTest.class);
+
+	private ExclyMetrics metrics;
+	private XLSXReader reader;
+	private XSSFWorkbook workbook;
+	private Sheet sheet;
+
+	@Before
+	public void setUp() {
+		metrics = ExclyMetrics.getInstance();
+		metrics.reset();
+		reader = new XLSXReader() {
+		};
+		workbook = new XSSFWorkbook();
+		sheet = workbook.createSheet("Test");
+	}
+
+	/**
+	 * Tests the ExclyLatencyHistogram.
+	 */
+	@Test
+	public void testExclyLatencyHistogram() throws Exception {
+		ExclyLatencyHistogram histogram = new ExclyLatencyHistogram();
+		assertEquals(0, histogram.getPercentile(99));
+
+		for (int i = 1; i <= 100; i++) {
+			histogram.record(i * 10);
+		}
+		histogram.record(-5);
+
+		log.debug(101 + " / " + histogram.getCount());
+		assertEquals(101, histogram.getCount());
+		log.debug(50500 + " / " + histogram.getSum());
+		assertEquals(50500, histogram.getSum());
+		log.debug(1000 + " / " + histogram.getMax());
+		assertEquals(1000, histogram.getMax());
+
+		long median = histogram.getPercentile(50);
+		log.debug("500 <= median < 1000 / " + median);
+		assertTrue(median >= 500 && median < 1000);
+		log.debug(1000 + " / " + histogram.getPercentile(100));
+		assertEquals(1000, histogram.getPercentile(100));
+
+		histogram.reset();
+		assertEquals(0, histogram.getCount());
+		assertEquals(0, histogram.getMax());
+	}
+
+	/**
+	 * Tests that nothing is recorded while the metrics are disabled.
+	 */
+	@Test
+	public void testExclyMetricsDisabled() throws Exception {
+		ExclyMetrics.setRecording(false);
+		Row row = sheet.createRow(0);
+		row.createCell(0).setCellValue("1.234,5");
+
+		assertEquals(0L, ExclyMetrics.start());
+		reader.readDoubleCellValue(row.getCell(0));
+
+		log.debug(0 + " / " + metrics.getCellsRead().get("DOUBLE"));
+		assertEquals(0L, (long) metrics.getCellsRead().get("DOUBLE"));
+		assertEquals(0L, (long) metrics.getParseBranches().get("GERMAN_NUMBER"));
+	}
+
+	/**
+	 * Tests the metrics of the reader.
+	 */
+	@Test
+	public void testExclyMetricsReader() throws Exception {
+		ExclyMetrics.setRecording(true);
+		Row row = sheet.createRow(0);
+		row.createCell(0).setCellValue("1.234,5");
+		row.createCell(1).setCellValue("1,234.5");
+		row.createCell(2).setCellValue("");
+		row.createCell(3).setCellValue("Text");
+		row.createCell(4).setCellValue("30.06.2015");
+
+		reader.readDoubleCellValue(row.getCell(0));
+		reader.readDoubleCellValue(row.getCell(1));
+		reader.readDoubleCellValue(row.getCell(2));
+		reader.readDoubleCellValue(row.getCell(3));
+		reader.readDoubleCellValue(null);
+		reader.readDateCellValue(row.getCell(4));
+		reader.readDateCellValue(row.getCell(3));
+
+		Map<String, Long> cellsRead = metrics.getCellsRead();
+		log.debug(5 + " / " + cellsRead.get("DOUBLE"));
+		assertEquals(5L, (long) cellsRead.get("DOUBLE"));
+		assertEquals(2L, (long) cellsRead.get("DATE"));
+		assertEquals(0L, (long) cellsRead.get("STRING"));
+
+		log.debug(1 + " / " + metrics.getBlankCells().get("DOUBLE"));
+		assertEquals(1L, (long) metrics.getBlankCells().get("DOUBLE"));
+		log.debug(2 + " / " + metrics.getErrorCells().get("DOUBLE"));
+		assertEquals(2L, (long) metrics.getErrorCells().get("DOUBLE"));
+		assertEquals(1L, (long) metrics.getErrorCells().get("DATE"));
+
+		Map<String, Long> branches = metrics.getParseBranches();
+		log.debug(branches.toString());
+		assertEquals(1L, (long) branches.get("GERMAN_NUMBER"));
+		assertEquals(1L, (long) branches.get("UK_NUMBER"));
+		assertEquals(1L, (long) branches.get("DATE_PATTERN"));
+		assertEquals(1L, (long) branches.get("DATE_UNPARSABLE"));
+		assertEquals(1, branches.keySet().stream().filter(key -> key.startsWith("DATE_PATTERN_")).count());
+
+		assertTrue(metrics.getReadMeanNanos().get("DOUBLE") > 0);
+		assertTrue(metrics.getReadMaxNanos().get("DOUBLE") >= metrics.getReadP99Nanos().get("DOUBLE"));
+	}
+
+	/**
+	 * Tests the parse branches of the decimal, long and date reads.
+	 */
+	@Test
+	public void testExclyMetricsParseBranches() throws Exception {
+		ExclyMetrics.setRecording(true);
+		CellStyle dateStyle = workbook.createCellStyle();
+		dateStyle.setDataFormat(workbook.createDataFormat().getFormat("dd.MM.yyyy"));
+		Row row = sheet.createRow(0);
+		row.createCell(0).setCellValue("1.234,5");
+		row.createCell(1).setCellValue("1,234.5");
+		row.createCell(2).setCellValue("Text");
+		row.createCell(3).setCellValue(42185);
+		row.getCell(3).setCellStyle(dateStyle);
+		row.createCell(4).setCellValue(42185);
+
+		reader.readDecimalCellValue(row.getCell(0));
+		reader.readDecimalCellValue(row.getCell(1));
+		reader.readDecimalCellValue(row.getCell(2));
+		reader.readLongCellValue(row.getCell(0));
+		reader.readLongCellValue(row.getCell(1));
+		reader.readLongCellValue(row.getCell(2));
+		reader.readDateCellValue(row.getCell(3));
+		reader.readDateCellValue(row.getCell(4));
+		reader.readFormattedCellValue(row.getCell(3));
+		reader.readFormattedCellValue(row.getCell(4));
+
+		Map<String, Long> branches = metrics.getParseBranches();
+		log.debug(branches.toString());
+		assertEquals(2L, (long) branches.get("GERMAN_NUMBER"));
+		assertEquals(2L, (long) branches.get("UK_NUMBER"));
+		assertEquals(2L, (long) branches.get("DATE_FORMATTED_CELL"));
+	}
+
+	/**
+	 * Tests the registered MXBean.
+	 */
+	@Test
+	public void testExclyMetricsMXBean() throws Exception {
+		ExclyMetrics.setRecording(true);
+		Row row = sheet.createRow(0);
+		row.createCell(0).setCellValue(true);
+		reader.readBooleanCellValue(row.getCell(0));
+
+		MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+		ObjectName name = new ObjectName(ExclyMetrics.OBJECT_NAME);
+		assertTrue(server.isRegistered(name));
+		assertEquals(Boolean.TRUE, server.getAttribute(name, "Enabled"));
+
+		TabularData cellsRead = (TabularData) server.getAttribute(name, "CellsRead");
+		CompositeData entry = cellsRead.get(new Object[] { "BOOLEAN" });
+		log.debug(1 + " / " + entry.get("value"));
+		assertEquals(1L, entry.get("value"));
+
+		server.invoke(name, "reset", null, null);
+		assertEquals(0L, (long) metrics.getCellsRead().get("BOOLEAN"));
+
+		server.setAttribute(name, new Attribute("Enabled", false));
+		assertTrue(!ExclyMetrics.isRecording());
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		ExclyMetrics.setRecording(false);
+		metrics.reset();
+		workbook.close();
+	}
+}
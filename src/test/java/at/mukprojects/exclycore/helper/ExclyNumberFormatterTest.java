@@ -0,0 +1,86 @@
+/** 
+ * This code is copyright (c) Mathias Markl 2015
+ * 
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ * 
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package at.mukprojects.exclycore.helper;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Random;
+
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * ExclyNumberFormatterTest tests the helper ExclyNumberFormatter.
+ *
+ * @author Mathias Markl
+ */
+public class ExclyNumberFormatterTest {
+	private static final Logger log = LoggerFactory.getLogger(ExclyNumberFormatterTest.class);
+
+	/**
+	 * Tests the ExclyNumberFormatter with special values.
+	 */
+	@Test
+	public void testExclyNumberFormatterBasic() throws Exception {
+		log.debug("1234567 / " + ExclyNumberFormatter.format(1234567));
+		assertEquals("1234567", ExclyNumberFormatter.format(1234567));
+		assertEquals("-42", ExclyNumberFormatter.format(-42));
+		assertEquals("0", ExclyNumberFormatter.format(0.0));
+		assertEquals("-0", ExclyNumberFormatter.format(-0.0));
+		assertEquals("1.0E7", ExclyNumberFormatter.format(1e7));
+		assertEquals("100.01", ExclyNumberFormatter.format(100.01));
+		assertEquals("-0.5", ExclyNumberFormatter.format(-0.5));
+		assertEquals("0.001", ExclyNumberFormatter.format(0.001));
+		assertEquals("9.0E-4", ExclyNumberFormatter.format(0.0009));
+		assertEquals("0.30000000000000004", ExclyNumberFormatter.format(0.1 + 0.2));
+		assertEquals("NaN", ExclyNumberFormatter.format(Double.NaN));
+		assertEquals("Infinity", ExclyNumberFormatter.format(Double.POSITIVE_INFINITY));
+	}
+
+	/**
+	 * Tests the ExclyNumberFormatter against String.valueOf.
+	 */
+	@Test
+	public void testExclyNumberFormatterValueOf() throws Exception {
+		Random random = new Random(42);
+
+		for (int i = 0; i < 200000; i++) {
+			double value;
+			switch (i % 4) {
+			case 0:
+				value = random.nextDouble() * 1e7;
+				break;
+			case 1:
+				value = Math.round(random.nextDouble() * 1e9) / 100.0;
+				break;
+			case 2:
+				value = (random.nextInt(2000000) - 1000000) / Math.pow(10, random.nextInt(8));
+				break;
+			default:
+				value = Double.longBitsToDouble(random.nextLong());
+			}
+
+			String expected = String.valueOf(value);
+			if (value % 1 == 0 && expected.endsWith(".0")) {
+				expected = expected.substring(0, expected.length() - 2);
+			}
+			assertEquals(expected, ExclyNumberFormatter.format(value));
+		}
+	}
+}
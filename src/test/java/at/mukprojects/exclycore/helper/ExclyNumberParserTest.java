@@ -0,0 +1,116 @@
+/** 
+ * This code is copyright (c) Mathias Markl 2015
+ * 
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ * 
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package at.mukprojects.exclycore.helper;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.text.NumberFormat;
+import java.util.Locale;
+import java.util.Random;
+
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import at.mukprojects.exclycore.model.ExclyDecimal;
+
+/**
+ * ExclyNumberParserTest tests the helper ExclyNumberParser.
+ *
+ * @author Mathias Markl
+ */
+public class ExclyNumberParserTest {
+	private static final Logger log = LoggerFactory.getLogger(ExclyNumberParserTest.class);
+
+	/**
+	 * Tests the ExclyNumberParser parseDecimal function.
+	 */
+	@Test
+	public void testExclyNumberParserDecimal() throws Exception {
+		log.debug("1234.56 / " + ExclyNumberParser.parseDecimal("1.234,56"));
+		assertEquals("1234.56", ExclyNumberParser.parseDecimal("1.234,56").toString());
+		assertEquals("1234.56", ExclyNumberParser.parseDecimal("1,234.56").toString());
+		assertEquals("0.5", ExclyNumberParser.parseDecimal(",5").toString());
+		assertEquals("0.5", ExclyNumberParser.parseDecimal(".5").toString());
+		assertEquals("1.50", ExclyNumberParser.parseDecimal("1,50").toString());
+		assertEquals("42", ExclyNumberParser.parseDecimal("42").toString());
+
+		assertTrue(ExclyNumberParser.parseDecimal("") == null);
+		assertTrue(ExclyNumberParser.parseDecimal(",") == null);
+		assertTrue(ExclyNumberParser.parseDecimal("-1") == null);
+		assertTrue(ExclyNumberParser.parseDecimal("1.234.567") == null);
+		assertTrue(ExclyNumberParser.parseDecimal("12a") == null);
+
+		assertTrue(ExclyNumberParser.parseDecimal("99999999999999999999").isError());
+		assertTrue(ExclyNumberParser.parseDecimal("0,0000000000000000001").isError());
+	}
+
+	/**
+	 * Tests the ExclyNumberParser parseLong function.
+	 */
+	@Test
+	public void testExclyNumberParserLong() throws Exception {
+		log.debug("9223372036854775807 / " + ExclyNumberParser.parseLong("9223372036854775807"));
+		assertTrue(ExclyNumberParser.parseLong("9223372036854775807").getData() == Long.MAX_VALUE);
+		assertTrue(ExclyNumberParser.parseLong("3000000000").getData() == 3000000000L);
+		assertTrue(ExclyNumberParser.parseLong("1.234,99").getData() == 1234);
+		assertTrue(ExclyNumberParser.parseLong("1,234.99").getData() == 1234);
+		assertTrue(ExclyNumberParser.parseLong("9223372036854775807,99").getData() == Long.MAX_VALUE);
+		assertTrue(ExclyNumberParser.parseLong(",5").getData() == 0);
+
+		assertTrue(ExclyNumberParser.parseLong("9223372036854775808").isError());
+		assertTrue(ExclyNumberParser.parseLong("") == null);
+		assertTrue(ExclyNumberParser.parseLong("1,5x") == null);
+		assertTrue(ExclyNumberParser.parseLong("1.2.3") == null);
+	}
+
+	/**
+	 * Tests the ExclyNumberParser against the NumberFormat of the reader.
+	 */
+	@Test
+	public void testExclyNumberParserNumberFormat() throws Exception {
+		Random random = new Random(42);
+		String chars = "0123456789.,";
+
+		for (int i = 0; i < 100000; i++) {
+			StringBuilder builder = new StringBuilder();
+			int length = 1 + random.nextInt(10);
+			for (int j = 0; j < length; j++) {
+				builder.append(chars.charAt(random.nextInt(random.nextBoolean() ? 10 : chars.length())));
+			}
+			String str = builder.toString();
+
+			ExclyDecimal decimal = ExclyNumberParser.parseDecimal(str);
+			if (str.matches("\\d+(\\.\\d*)?(\\,\\d*)?|\\,\\d+")) {
+				double expected = NumberFormat.getNumberInstance(Locale.GERMAN).parse(str).doubleValue();
+				assertTrue(str, expected == decimal.doubleValue());
+			} else if (str.matches("\\d+(\\,\\d*)?(\\.\\d*)?|\\.\\d+")) {
+				double expected = NumberFormat.getNumberInstance(Locale.UK).parse(str).doubleValue();
+				assertTrue(str, expected == decimal.doubleValue());
+			} else {
+				assertTrue(str, decimal == null);
+				assertTrue(str, ExclyNumberParser.parseLong(str) == null);
+				continue;
+			}
+			if (!decimal.isError()) {
+				assertTrue(str, decimal.getData().longValue() == ExclyNumberParser.parseLong(str).getData());
+			}
+		}
+	}
+}
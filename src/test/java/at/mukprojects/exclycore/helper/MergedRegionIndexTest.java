@@ -0,0 +1,125 @@
+/** 
+ * This code is copyright (c) Mathias Markl 2015
+ * 
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ * 
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package at.mukprojects.exclycore.helper;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.Random;
+
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.util.CellRangeAddress;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * MergedRegionIndexTest tests the helper MergedRegionIndex.
+ *
+ * @author Mathias Markl
+ */
+public class MergedRegionIndexTest {
+	private static final Logger log = LoggerFactory.getLogger(MergedRegionIndexTest.class);
+
+	private XSSFWorkbook workbook;
+	private Sheet sheet;
+
+	@Before
+	public void setUp() {
+		workbook = new XSSFWorkbook();
+		sheet = workbook.createSheet("Test");
+	}
+
+	/**
+	 * Tests the MergedRegionIndex against a linear search over the merged
+	 * regions.
+	 */
+	@Test
+	public void testMergedRegionIndexLinear() throws Exception {
+		Random random = new Random(42);
+		boolean[][] used = new boolean[200][30];
+
+		for (int i = 0; i < 2000; i++) {
+			int firstRow = random.nextInt(200);
+			int firstColumn = random.nextInt(30);
+			int lastRow = Math.min(199, firstRow + random.nextInt(random.nextBoolean() ? 3 : 40));
+			int lastColumn = Math.min(29, firstColumn + random.nextInt(4));
+
+			boolean free = true;
+			for (int row = firstRow; row <= lastRow && free; row++) {
+				for (int column = firstColumn; column <= lastColumn && free; column++) {
+					free = !used[row][column];
+				}
+			}
+			if (free && (firstRow != lastRow || firstColumn != lastColumn)) {
+				for (int row = firstRow; row <= lastRow; row++) {
+					for (int column = firstColumn; column <= lastColumn; column++) {
+						used[row][column] = true;
+					}
+				}
+				sheet.addMergedRegion(new CellRangeAddress(firstRow, lastRow, firstColumn, lastColumn));
+			}
+		}
+
+		MergedRegionIndex index = new MergedRegionIndex(sheet);
+		log.debug(sheet.getNumMergedRegions() + " / " + index.size());
+		assertEquals(sheet.getNumMergedRegions(), index.size());
+
+		for (int row = 0; row < 210; row++) {
+			for (int column = 0; column < 35; column++) {
+				CellRangeAddress expected = null;
+				for (int i = 0; i < sheet.getNumMergedRegions(); i++) {
+					if (sheet.getMergedRegion(i).isInRange(row, column)) {
+						expected = sheet.getMergedRegion(i);
+					}
+				}
+
+				CellRangeAddress region = index.getMergedRegion(row, column);
+				assertEquals(String.valueOf(expected), String.valueOf(region));
+			}
+		}
+	}
+
+	/**
+	 * Tests the MergedRegionIndex resolve function.
+	 */
+	@Test
+	public void testMergedRegionIndexResolve() throws Exception {
+		sheet.addMergedRegion(new CellRangeAddress(1, 3, 1, 2));
+		Cell topLeft = sheet.createRow(1).createCell(1);
+		Cell inside = sheet.createRow(3).createCell(2);
+		Cell outside = sheet.getRow(3).createCell(3);
+
+		MergedRegionIndex index = new MergedRegionIndex(sheet);
+		assertTrue(index.resolve(inside) == topLeft);
+		assertTrue(index.resolve(topLeft) == topLeft);
+		assertTrue(index.resolve(outside) == outside);
+		assertTrue(index.resolve(null) == null);
+		assertTrue(index.getTopLeftCell(index.getMergedRegion(2, 1)) == topLeft);
+	}
+
+	@After
+	public void tearDown() throws IOException {
+		workbook.close();
+	}
+}
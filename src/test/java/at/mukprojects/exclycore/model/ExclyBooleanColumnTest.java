@@ -0,0 +1,84 @@
+/** 
+ * This code is copyright (c) Mathias Markl 2015
+ * 
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ * 
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package at.mukprojects.exclycore.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * ExclyBooleanColumnTest tests the model ExclyBooleanColumn.
+ *
+ * @author Mathias Markl
+ */
+public class ExclyBooleanColumnTest {
+	private static final Logger log = LoggerFactory.getLogger(ExclyBooleanColumnTest.class);
+
+	/**
+	 * Tests the ExclyBooleanColumn basic functions.
+	 */
+	@Test
+	public void testExclyBooleanColumnBasic() throws Exception {
+		ExclyBooleanColumn column = ExclyBooleanColumn.of(new ExclyBoolean(true), new ExclyBooleanBlank(),
+				new ExclyBoolean(false), new ExclyBooleanError(), new ExclyBoolean(true));
+
+		log.debug("5 / " + column.size() + ", 2 / " + column.getTrueCount());
+		assertEquals(5, column.size());
+		assertEquals(2, column.getTrueCount());
+		assertEquals(1, column.getFalseCount());
+		assertEquals(1, column.getBlankCount());
+		assertEquals(1, column.getErrorCount());
+
+		assertTrue(column.get(0).getData());
+		assertTrue(column.get(1) instanceof ExclyBooleanBlank);
+		assertTrue(!column.get(2).getData());
+		assertTrue(column.get(3) instanceof ExclyBooleanError);
+		assertEquals(0x11L, column.toLongArray()[0]);
+	}
+
+	/**
+	 * Tests the ExclyBooleanColumn with many values.
+	 */
+	@Test
+	public void testExclyBooleanColumnLarge() throws Exception {
+		Random random = new Random(42);
+		boolean[] values = new boolean[10000];
+		ExclyBooleanColumn column = new ExclyBooleanColumn();
+
+		int trueCount = 0;
+		for (int i = 0; i < values.length; i++) {
+			values[i] = random.nextBoolean();
+			trueCount += values[i] ? 1 : 0;
+			column.add(values[i]);
+		}
+		column.addBlank();
+
+		log.debug(trueCount + " / " + column.getTrueCount());
+		assertEquals(trueCount, column.getTrueCount());
+		assertEquals(values.length - trueCount, column.getFalseCount());
+		for (int i = 0; i < values.length; i++) {
+			assertEquals(values[i], column.get(i).getData());
+		}
+		assertTrue(column.get(values.length) instanceof ExclyBooleanBlank);
+	}
+}
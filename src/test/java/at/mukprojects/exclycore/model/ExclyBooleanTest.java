@@ -0,0 +1,125 @@
+/** 
+ * This code is copyright (c) Mathias Markl 2015
+ * 
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ * 
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package at.mukprojects.exclycore.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+
+import org.apache.poi.ss.usermodel.Row;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * ExclyBooleanTest tests the model ExclyBoolean.
+ *
+ * @author Mathias Markl
+ */
+public class ExclyBooleanTest extends AbstractModelTest {
+	private static final Logger log = LoggerFactory.getLogger(ExclyBooleanTest.class);
+
+	private ExclyBoolean booleanTrue;
+	private ExclyBoolean booleanFalse;
+
+	private ExclyBoolean booleanError;
+	private ExclyBoolean booleanBlank;
+
+	@Before
+	@Override
+	public void setUp() throws FileNotFoundException, IOException {
+		super.setUp();
+
+		booleanTrue = new ExclyBoolean(true);
+		booleanFalse = new ExclyBoolean(false);
+
+		booleanError = new ExclyBooleanError();
+		booleanBlank = new ExclyBooleanBlank();
+	}
+
+	/**
+	 * Tests the ExclyBoolean basic functions.
+	 */
+	@Test
+	public void testExclyBooleanBasic() throws Exception {
+		assertTrue(!booleanTrue.isError());
+		assertTrue(booleanError.isError());
+		assertTrue(!booleanBlank.isError());
+
+		assertTrue(booleanTrue.getData());
+		assertTrue(!booleanError.getData());
+		assertTrue(!booleanBlank.getData());
+	}
+
+	/**
+	 * Tests the ExclyBoolean setCell function.
+	 */
+	@Test
+	public void testExclyBooleanSetCell() throws Exception {
+		Row row = sheet.createRow(0);
+
+		booleanTrue.setCell(row.createCell(0));
+		log.debug(row.getCell(0).getBooleanCellValue() + " / " + true);
+		assertTrue(row.getCell(0).getBooleanCellValue());
+
+		booleanError.setCell(row.createCell(1));
+		log.debug(row.getCell(1).getStringCellValue() + " / " + "###ERROR###");
+		assertEquals(row.getCell(1).getStringCellValue(), "###ERROR###");
+
+		booleanBlank.setCell(row.createCell(2));
+		log.debug(row.getCell(2).getStringCellValue() + " / " + "");
+		assertEquals(row.getCell(2).getStringCellValue(), "");
+	}
+
+	/**
+	 * Tests the ExclyBoolean compareTo function.
+	 */
+	@Test
+	public void testExclyBooleanCompareTo() throws Exception {
+		log.debug("booleanFalse.compareTo(booleanTrue) == -1 / " + booleanFalse.compareTo(booleanTrue));
+		assertTrue(booleanFalse.compareTo(booleanTrue) == -1);
+		assertTrue(booleanTrue.compareTo(booleanError) == -1);
+		assertTrue(booleanError.compareTo(booleanError) == 0);
+		assertTrue(booleanError.compareTo(booleanBlank) == 1);
+	}
+
+	/**
+	 * Tests the ExclyBoolean and and or functions.
+	 */
+	@Test
+	public void testExclyBooleanAndOr() throws Exception {
+		log.debug("false / " + ExclyBoolean.and(booleanTrue, booleanFalse));
+		assertTrue(!ExclyBoolean.and(booleanTrue, booleanFalse).getData());
+		assertTrue(ExclyBoolean.and(booleanTrue, booleanTrue).getData());
+		assertTrue(ExclyBoolean.or(booleanFalse, booleanTrue).getData());
+		assertTrue(!ExclyBoolean.or(booleanFalse, booleanBlank).getData());
+
+		assertTrue(ExclyBoolean.and(booleanTrue, booleanError).isError());
+		assertTrue(ExclyBoolean.or(booleanTrue, booleanError).isError());
+	}
+
+	@After
+	@Override
+	public void tearDown() throws IOException {
+		super.tearDown();
+	}
+}
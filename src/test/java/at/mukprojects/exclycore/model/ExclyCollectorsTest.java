@@ -0,0 +1,102 @@
+/** 
+ * This code is copyright (c) Mathias Markl 2015
+ * 
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ * 
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package at.mukprojects.exclycore.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * ExclyCollectorsTest tests the stream collectors of ExclyCollectors.
+ *
+ * @author Mathias Markl
+ */
+public class ExclyCollectorsTest {
+	private static final Logger log = LoggerFactory.getLogger(ExclyCollectorsTest.class);
+
+	/**
+	 * Tests the ExclyDouble collectors.
+	 */
+	@Test
+	public void testExclyCollectorsDouble() throws Exception {
+		List<ExclyDouble> values = Arrays.asList(new ExclyDouble(5.5), new ExclyDouble(10.5), new ExclyDoubleBlank(),
+				new ExclyDouble(15.5));
+
+		ExclyDouble sum = values.stream().collect(ExclyCollectors.summingDouble());
+		log.debug(ExclyDouble.add(values.toArray(new ExclyDouble[0])) + " / " + sum);
+		assertEquals(ExclyDouble.add(values.toArray(new ExclyDouble[0])), sum);
+
+		assertTrue(10.5 == values.stream().collect(ExclyCollectors.averagingDouble()).getData());
+		assertTrue(5.5 == values.stream().collect(ExclyCollectors.minDouble()).getData());
+		assertTrue(15.5 == values.stream().collect(ExclyCollectors.maxDouble()).getData());
+		assertEquals(1, values.stream().collect(ExclyCollectors.summarizingDouble()).getBlankCount());
+
+		List<ExclyDouble> errors = new ArrayList<ExclyDouble>(values);
+		errors.add(new ExclyDoubleError());
+		assertTrue(errors.stream().collect(ExclyCollectors.summingDouble()).isError());
+		assertTrue(errors.stream().collect(ExclyCollectors.maxDouble()).isError());
+	}
+
+	/**
+	 * Tests the ExclyInteger and ExclyLong collectors in parallel streams.
+	 */
+	@Test
+	public void testExclyCollectorsParallel() throws Exception {
+		ExclyInteger integerSum = IntStream.range(0, 100000).parallel().mapToObj(i -> new ExclyInteger(i))
+				.collect(ExclyCollectors.summingInteger());
+		log.debug((int) 4999950000L + " / " + integerSum);
+		assertEquals((int) 4999950000L, integerSum.getData());
+
+		ExclyLong longSum = IntStream.range(0, 100000).parallel().mapToObj(i -> new ExclyLong(i))
+				.collect(ExclyCollectors.summingLong());
+		log.debug(4999950000L + " / " + longSum);
+		assertEquals(4999950000L, longSum.getData());
+
+		assertEquals(99999, IntStream.range(0, 100000).parallel().mapToObj(i -> new ExclyLong(i))
+				.collect(ExclyCollectors.maxLong()).getData());
+		assertTrue(49999.5 == IntStream.range(0, 100000).parallel().mapToObj(i -> new ExclyInteger(i))
+				.collect(ExclyCollectors.averagingInteger()).getData());
+		assertTrue(IntStream.range(0, 100000).parallel()
+				.mapToObj(i -> (i == 500) ? new ExclyIntegerError() : new ExclyInteger(i))
+				.collect(ExclyCollectors.minInteger()).isError());
+	}
+
+	/**
+	 * Tests the ExclyString collectors.
+	 */
+	@Test
+	public void testExclyCollectorsJoining() throws Exception {
+		List<ExclyString> values = Arrays.asList(new ExclyString("Hello"), new ExclyString("World"),
+				new ExclyString("!"));
+
+		assertEquals("HelloWorld!", values.stream().collect(ExclyCollectors.joining()).getData());
+		assertEquals("Hello;World;!", values.parallelStream().collect(ExclyCollectors.joining(";")).getData());
+
+		List<ExclyString> errors = new ArrayList<ExclyString>(values);
+		errors.add(new ExclyStringError());
+		assertTrue(errors.stream().collect(ExclyCollectors.joining()).isError());
+	}
+}
@@ -22,8 +22,13 @@ import static org.junit.Assert.assertTrue;
 
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
 import java.util.Calendar;
 import java.util.Date;
+import java.util.TimeZone;
 
 import org.apache.poi.ss.usermodel.Row;
 import org.junit.After;
@@ -33,6 +38,7 @@ import org.junit.Ignore;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import at.mukprojects.exclycore.helper.ExclyDateConverter;
 import at.mukprojects.exclycore.model.ExclyDate;
 import at.mukprojects.exclycore.model.ExclyDateBlank;
 import at.mukprojects.exclycore.model.ExclyDateError;
@@ -83,6 +89,66 @@ public class ExclyDateTest extends AbstractModelTest {
 		assertTrue(dateBlank.getData() == null);
 	}
 
+	/**
+	 * Tests the ExclyDate java.time functions.
+	 */
+	@Test
+	public void testExclyDateJavaTime() throws Exception {
+		Instant instant = calendar.getTime().toInstant();
+
+		assertEquals(calendar.getTimeInMillis(), dateOne.getTime());
+		assertEquals(instant, dateOne.toInstant());
+		assertEquals(dateOne, ExclyDate.of(instant));
+		assertEquals(dateOne, ExclyDate.of(dateOne.toLocalDateTime()));
+
+		LocalDate day = LocalDate.of(2015, 10, 20);
+		ExclyDate dateDay = ExclyDate.of(day);
+		log.debug(day + " / " + dateDay.toLocalDate());
+		assertEquals(day, dateDay.toLocalDate());
+		assertEquals(LocalDateTime.of(2015, 10, 21, 0, 0), dateDay.plusDays(1).toLocalDateTime());
+
+		assertTrue(dateError.toInstant() == null);
+		assertTrue(dateBlank.toLocalDate() == null);
+		assertTrue(dateBlank.isEmpty());
+		assertTrue(dateBlank.plusDays(1) == dateBlank);
+	}
+
+	/**
+	 * Tests the days of the ExclyDate in a time zone east of UTC with a
+	 * daylight saving change.
+	 */
+	@Test
+	public void testExclyDateTimeZone() throws Exception {
+		TimeZone defaultZone = TimeZone.getDefault();
+		TimeZone.setDefault(TimeZone.getTimeZone("Europe/Vienna"));
+		try {
+			ExclyDate date = new ExclyDateConverter(false).toExclyDate(42185);
+			log.debug(LocalDate.of(2015, 6, 30) + " / " + date.toLocalDate());
+			assertEquals(LocalDate.of(2015, 6, 30), date.toLocalDate());
+			log.debug(16616 + " / " + date.getEpochDay());
+			assertEquals(16616, date.getEpochDay());
+			assertEquals(LocalDate.of(2015, 6, 30).toEpochDay(), date.getEpochDay());
+			assertEquals(16615, date.getEpochDay(ZoneOffset.UTC));
+
+			ExclyDate dateChange = ExclyDate.of(LocalDate.of(2015, 3, 29));
+			log.debug(LocalDateTime.of(2015, 3, 30, 0, 0) + " / " + dateChange.plusDays(1).toLocalDateTime());
+			assertEquals(LocalDateTime.of(2015, 3, 30, 0, 0), dateChange.plusDays(1).toLocalDateTime());
+			assertEquals(LocalDateTime.of(2015, 3, 29, 0, 0),
+					ExclyDate.of(LocalDate.of(2015, 3, 28)).plusDays(1).toLocalDateTime());
+			assertEquals(ExclyDate.of(LocalDate.of(2015, 3, 30)), dateChange.plusDays(1));
+		} finally {
+			TimeZone.setDefault(defaultZone);
+		}
+	}
+
+	/**
+	 * Tests the ExclyDate getEpochDay function without a value.
+	 */
+	@Test(expected = IllegalStateException.class)
+	public void testExclyDateEpochDayBlank() throws Exception {
+		dateBlank.getEpochDay();
+	}
+
 	/**
 	 * Tests the ExclyDate setCell function.
 	 */
@@ -0,0 +1,184 @@
+/** 
+ * This code is copyright (c) Mathias Markl 2015
+ * 
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ * 
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package at.mukprojects.exclycore.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.math.BigDecimal;
+
+import org.apache.poi.ss.usermodel.Row;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * ExclyDecimalTest tests the model ExclyDecimal.
+ *
+ * @author Mathias Markl
+ */
+public class ExclyDecimalTest extends AbstractModelTest {
+	private static final Logger log = LoggerFactory.getLogger(ExclyDecimalTest.class);
+
+	private ExclyDecimal decimalOne;
+	private ExclyDecimal decimalTwo;
+	private ExclyDecimal decimalThree;
+
+	private ExclyDecimal decimalError;
+	private ExclyDecimal decimalBlank;
+
+	@Before
+	@Override
+	public void setUp() throws FileNotFoundException, IOException {
+		super.setUp();
+
+		decimalOne = new ExclyDecimal(550, 2);
+		decimalTwo = new ExclyDecimal(105, 1);
+		decimalThree = new ExclyDecimal(1);
+
+		decimalError = new ExclyDecimalError();
+		decimalBlank = new ExclyDecimalBlank();
+	}
+
+	/**
+	 * Tests the ExclyDecimal basic functions.
+	 */
+	@Test
+	public void testExclyDecimalBasic() throws Exception {
+		assertTrue(!decimalOne.isError());
+		assertTrue(decimalError.isError());
+		assertTrue(!decimalBlank.isError());
+
+		log.debug("5.50 / " + decimalOne);
+		assertEquals("5.50", decimalOne.toString());
+		assertEquals(new BigDecimal("5.50"), decimalOne.getData());
+		assertTrue(decimalOne.doubleValue() == 5.5);
+		assertEquals("-0.005", new ExclyDecimal(-5, 3).toString());
+		assertEquals("-9223372036854775.808", new ExclyDecimal(Long.MIN_VALUE, 3).toString());
+		assertTrue(decimalBlank.getUnscaledValue() == 0);
+	}
+
+	/**
+	 * Tests the ExclyDecimal valueOf function.
+	 */
+	@Test
+	public void testExclyDecimalValueOf() throws Exception {
+		log.debug("0.1 / " + ExclyDecimal.valueOf(0.1));
+		assertEquals("0.1", ExclyDecimal.valueOf(0.1).toString());
+		assertEquals("-1234.56", ExclyDecimal.valueOf(-1234.56).toString());
+		assertEquals("42", ExclyDecimal.valueOf(42.0).toString());
+		assertEquals("0.30000000000000004", ExclyDecimal.valueOf(0.1 + 0.2).toString());
+		assertEquals("1000000000000000000", ExclyDecimal.valueOf(1e18).toString());
+		assertTrue(ExclyDecimal.valueOf(1e20).isError());
+		assertTrue(ExclyDecimal.valueOf(Double.NaN).isError());
+		assertEquals("12.5", ExclyDecimal.valueOf(new BigDecimal("12.500000000000000000000")).toString());
+	}
+
+	/**
+	 * Tests the ExclyDecimal setCell function.
+	 */
+	@Test
+	public void testExclyDecimalSetCell() throws Exception {
+		Row row = sheet.createRow(0);
+
+		decimalOne.setCell(row.createCell(0));
+		log.debug(row.getCell(0).getNumericCellValue() + " / " + 5.5);
+		assertTrue(row.getCell(0).getNumericCellValue() == 5.5);
+
+		decimalError.setCell(row.createCell(1));
+		log.debug(row.getCell(1).getStringCellValue() + " / " + "###ERROR###");
+		assertEquals(row.getCell(1).getStringCellValue(), "###ERROR###");
+
+		decimalBlank.setCell(row.createCell(2));
+		log.debug(row.getCell(2).getStringCellValue() + " / " + "");
+		assertEquals(row.getCell(2).getStringCellValue(), "");
+	}
+
+	/**
+	 * Tests the ExclyDecimal compareTo and equals functions.
+	 */
+	@Test
+	public void testExclyDecimalCompareTo() throws Exception {
+		log.debug("decimalOne.compareTo(decimalTwo) == -1 / " + decimalOne.compareTo(decimalTwo));
+		assertTrue(decimalOne.compareTo(decimalTwo) == -1);
+		assertTrue(decimalTwo.compareTo(decimalOne) == 1);
+		assertTrue(decimalOne.compareTo(decimalError) == -1);
+		assertTrue(decimalError.compareTo(decimalError) == 0);
+		assertTrue(decimalError.compareTo(decimalBlank) == 1);
+		assertTrue(new ExclyDecimal(Long.MAX_VALUE).compareTo(new ExclyDecimal(1, 18)) == 1);
+		assertTrue(new ExclyDecimal(-1, 18).compareTo(new ExclyDecimal(Long.MIN_VALUE)) == 1);
+
+		log.debug("5.5 equals 5.50: true / " + new ExclyDecimal(55, 1).equals(decimalOne));
+		assertTrue(new ExclyDecimal(55, 1).equals(decimalOne));
+		assertEquals(new ExclyDecimal(55, 1).hashCode(), decimalOne.hashCode());
+		assertTrue(!decimalOne.equals(decimalTwo));
+	}
+
+	/**
+	 * Tests the ExclyDecimal add and sub functions.
+	 */
+	@Test
+	public void testExclyDecimalAddSub() throws Exception {
+		ExclyDecimal addOneTwoThree = ExclyDecimal.add(decimalOne, decimalTwo, decimalThree);
+		log.debug("17.00 / " + addOneTwoThree);
+		assertEquals("17.00", addOneTwoThree.toString());
+
+		ExclyDecimal tenths = new ExclyDecimal(0);
+		for (int i = 0; i < 10; i++) {
+			tenths = ExclyDecimal.add(tenths, new ExclyDecimal(1, 1));
+		}
+		log.debug("1.0 / " + tenths);
+		assertTrue(tenths.equals(new ExclyDecimal(1)));
+
+		ExclyDecimal subOneTwo = ExclyDecimal.sub(decimalOne, decimalTwo);
+		log.debug("-5.00 / " + subOneTwo);
+		assertEquals("-5.00", subOneTwo.toString());
+
+		assertTrue(ExclyDecimal.add(decimalOne, decimalError).isError());
+		assertTrue(ExclyDecimal.add(new ExclyDecimal(Long.MAX_VALUE), decimalThree).isError());
+		assertTrue(ExclyDecimal.sub(new ExclyDecimal(Long.MIN_VALUE), decimalThree).isError());
+		assertTrue(ExclyDecimal.add(new ExclyDecimal(Long.MAX_VALUE / 10 + 1), new ExclyDecimal(1, 1)).isError());
+		assertEquals("5.50", ExclyDecimal.add(decimalOne, decimalBlank).toString());
+	}
+
+	/**
+	 * Tests the ExclyDecimal multi function.
+	 */
+	@Test
+	public void testExclyDecimalMulti() throws Exception {
+		ExclyDecimal multiOneTwo = ExclyDecimal.multi(decimalOne, decimalTwo);
+		log.debug("57.750 / " + multiOneTwo);
+		assertEquals("57.750", multiOneTwo.toString());
+
+		assertTrue(ExclyDecimal.multi(new ExclyDecimal(1L << 40), new ExclyDecimal(1L << 40)).isError());
+		assertTrue(ExclyDecimal.multi(new ExclyDecimal(1, 10), new ExclyDecimal(1, 10)).isError());
+		assertEquals("0.000000000000000001",
+				ExclyDecimal.multi(new ExclyDecimal(100, 10), new ExclyDecimal(1, 10)).toString());
+		assertTrue(ExclyDecimal.multi(decimalOne, decimalError).isError());
+	}
+
+	@After
+	@Override
+	public void tearDown() throws IOException {
+		super.tearDown();
+	}
+}
@@ -0,0 +1,121 @@
+/** 
+ * This code is copyright (c) Mathias Markl 2015
+ * 
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ * 
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package at.mukprojects.exclycore.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * ExclyDoubleColumnTest tests the model ExclyDoubleColumn.
+ *
+ * @author Mathias Markl
+ */
+public class ExclyDoubleColumnTest {
+	private static final Logger log = LoggerFactory.getLogger(ExclyDoubleColumnTest.class);
+
+	private ExclyDoubleColumn column;
+
+	@Before
+	public void setUp() {
+		column = ExclyDoubleColumn.of(new ExclyDouble(5.5), new ExclyDoubleBlank(), new ExclyDouble(10.5),
+				new ExclyDouble(-15.5));
+	}
+
+	/**
+	 * Tests the ExclyDoubleColumn aggregation functions.
+	 */
+	@Test
+	public void testExclyDoubleColumnAggregation() throws Exception {
+		log.debug(column.summarize().toString());
+
+		assertEquals(4, column.size());
+		assertEquals(1, column.getBlankCount());
+		assertEquals(0, column.getErrorCount());
+
+		assertTrue(0.5 == column.sum().getData());
+		assertTrue(-15.5 == column.min().getData());
+		assertTrue(10.5 == column.max().getData());
+		assertTrue(0.5 / 3 == column.mean().getData());
+
+		assertTrue(column.get(1) instanceof ExclyDoubleBlank);
+		assertTrue(new ExclyDoubleColumn().mean() instanceof ExclyDoubleBlank);
+	}
+
+	/**
+	 * Tests the ExclyDoubleColumn error propagation.
+	 */
+	@Test
+	public void testExclyDoubleColumnError() throws Exception {
+		column.add(new ExclyDoubleError());
+
+		assertEquals(1, column.getErrorCount());
+		assertTrue(column.sum() instanceof ExclyDoubleError);
+		assertTrue(column.min() instanceof ExclyDoubleError);
+		assertTrue(column.mean() instanceof ExclyDoubleError);
+		assertTrue(column.get(4) instanceof ExclyDoubleError);
+	}
+
+	/**
+	 * Tests the compensated summation of the ExclyDoubleColumn.
+	 */
+	@Test
+	public void testExclyDoubleColumnCompensation() throws Exception {
+		ExclyDoubleColumn values = new ExclyDoubleColumn();
+		values.add(1e16);
+		for (int i = 0; i < 1000; i++) {
+			values.add(1.0);
+		}
+		values.add(-1e16);
+
+		log.debug("1000.0 / " + values.sum());
+		assertTrue(1000.0 == values.sum().getData());
+	}
+
+	/**
+	 * Tests the parallel aggregation of the ExclyDoubleColumn.
+	 */
+	@Test
+	public void testExclyDoubleColumnParallel() throws Exception {
+		Random random = new Random(42);
+		ExclyDoubleColumn values = new ExclyDoubleColumn();
+		for (int i = 0; i < 500000; i++) {
+			if (i % 1000 == 0) {
+				values.add(new ExclyIntegerBlank());
+			} else {
+				values.add(random.nextDouble() * 1000 - 500);
+			}
+		}
+
+		ExclyDoubleStatistics sequential = values.summarize(false);
+		ExclyDoubleStatistics parallel = values.summarize(true);
+
+		log.debug(sequential + " / " + parallel);
+		assertEquals(sequential.getCount(), parallel.getCount());
+		assertEquals(500, parallel.getBlankCount());
+		assertEquals(sequential.getSumValue(), parallel.getSumValue(), 1e-9);
+		assertTrue(sequential.getMin().getData() == parallel.getMin().getData());
+		assertTrue(sequential.getMax().getData() == parallel.getMax().getData());
+	}
+}
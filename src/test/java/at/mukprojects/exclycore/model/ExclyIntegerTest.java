@@ -120,6 +120,19 @@ public class ExclyIntegerTest extends AbstractModelTest {
 		assertTrue(integerOne.compareTo(integerBlank) == 1);
 	}
 
+	/**
+	 * Tests the ExclyInteger equals function.
+	 */
+	@Test
+	public void testExclyIntegerEquals() throws Exception {
+		log.debug("new ExclyInteger(1000).equals(new ExclyInteger(1000)): true");
+		assertTrue(new ExclyInteger(1000).equals(new ExclyInteger(1000)));
+		assertTrue(new ExclyInteger(1000).hashCode() == new ExclyInteger(1000).hashCode());
+
+		log.debug("integerTwo.equals(integerError): false");
+		assertTrue(!integerTwo.equals(integerError));
+	}
+
 	/**
 	 * Tests the ExclyInteger add function.
 	 */
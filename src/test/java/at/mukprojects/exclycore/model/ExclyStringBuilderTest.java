@@ -0,0 +1,76 @@
+/** 
+ * This code is copyright (c) Mathias Markl 2015
+ * 
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ * 
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package at.mukprojects.exclycore.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * ExclyStringBuilderTest tests the model ExclyStringBuilder.
+ *
+ * @author Mathias Markl
+ */
+public class ExclyStringBuilderTest {
+	private static final Logger log = LoggerFactory.getLogger(ExclyStringBuilderTest.class);
+
+	/**
+	 * Tests the ExclyStringBuilder append and clear functions.
+	 */
+	@Test
+	public void testExclyStringBuilderAppend() throws Exception {
+		ExclyStringBuilder builder = new ExclyStringBuilder(";");
+
+		builder.append(new ExclyString("A")).append(new ExclyString(null)).append("B");
+		builder.appendAll(new ExclyString("C"), new ExclyString("D"));
+		log.debug("A;B;C;D / " + builder.build());
+		assertEquals("A;B;C;D", builder.build().getData());
+
+		builder.append(new ExclyStringError()).append("E");
+		log.debug("Error: true / " + builder.build().isError());
+		assertTrue(builder.isError());
+		assertTrue(builder.build().isError());
+
+		builder.clear();
+		log.debug("null / " + builder.build().getData());
+		assertTrue(!builder.isError());
+		assertTrue(builder.build().getData() == null);
+
+		builder.append("F");
+		assertEquals("F", builder.build().getData());
+	}
+
+	/**
+	 * Tests the ExclyStringBuilder merge function.
+	 */
+	@Test
+	public void testExclyStringBuilderMerge() throws Exception {
+		ExclyStringBuilder left = new ExclyStringBuilder("-").append("A").append("B");
+		ExclyStringBuilder right = new ExclyStringBuilder("-").append("C");
+
+		left.merge(new ExclyStringBuilder("-")).merge(right);
+		log.debug("A-B-C / " + left.build());
+		assertEquals("A-B-C", left.build().getData());
+
+		left.merge(new ExclyStringBuilder("-").append(new ExclyStringError()));
+		assertTrue(left.build().isError());
+	}
+}
@@ -0,0 +1,105 @@
+/** 
+ * This code is copyright (c) Mathias Markl 2015
+ * 
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ * 
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package at.mukprojects.exclycore.model;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * ExclyStringPrefixIndexTest tests the model ExclyStringPrefixIndex.
+ *
+ * @author Mathias Markl
+ */
+public class ExclyStringPrefixIndexTest {
+	private static final Logger log = LoggerFactory.getLogger(ExclyStringPrefixIndexTest.class);
+
+	/**
+	 * Tests the ExclyStringPrefixIndex basic functions.
+	 */
+	@Test
+	public void testExclyStringPrefixIndexBasic() throws Exception {
+		ExclyStringPrefixIndex index = ExclyStringPrefixIndex.of(new ExclyString("AT-1020"), new ExclyString("DE-1"),
+				new ExclyStringError(), new ExclyString("AT-1010"), new ExclyString(null), new ExclyString("AT"));
+
+		log.debug("6 / " + index.getColumnSize() + ", 4 / " + index.size());
+		assertEquals(6, index.getColumnSize());
+		assertEquals(4, index.size());
+
+		assertArrayEquals(new int[] { 0, 3, 5 }, index.find(new ExclyString("AT")));
+		assertArrayEquals(new int[] { 0, 3 }, index.find("AT-10"));
+		assertArrayEquals(new int[] { 0, 1, 3, 5 }, index.find(""));
+		assertArrayEquals(new int[0], index.find("CH"));
+		assertArrayEquals(new int[0], index.find(new ExclyStringError()));
+		assertArrayEquals(new int[0], index.find(new ExclyString(null)));
+
+		assertEquals(2, index.count(new ExclyString("AT-")));
+		assertEquals(0, index.count(new ExclyStringError()));
+	}
+
+	/**
+	 * Tests the ExclyStringPrefixIndex against ExclyString.startsWith.
+	 */
+	@Test
+	public void testExclyStringPrefixIndexStartsWith() throws Exception {
+		Random random = new Random(42);
+		List<ExclyString> column = new ArrayList<ExclyString>();
+
+		for (int i = 0; i < 2000; i++) {
+			if (i % 50 == 0) {
+				column.add(new ExclyStringError());
+			} else {
+				column.add(new ExclyString(randomString(random, 6)));
+			}
+		}
+		ExclyStringPrefixIndex index = ExclyStringPrefixIndex.of(column);
+
+		for (int i = 0; i < 300; i++) {
+			ExclyString prefix = new ExclyString(randomString(random, 3));
+
+			List<Integer> expected = new ArrayList<Integer>();
+			for (int row = 0; row < column.size(); row++) {
+				if (column.get(row).startsWith(prefix)) {
+					expected.add(row);
+				}
+			}
+
+			int[] rows = index.find(prefix);
+			log.debug(expected.size() + " / " + rows.length);
+			assertEquals(expected.size(), rows.length);
+			for (int j = 0; j < rows.length; j++) {
+				assertEquals(expected.get(j).intValue(), rows[j]);
+			}
+		}
+	}
+
+	private String randomString(Random random, int maxLength) {
+		char[] chars = new char[random.nextInt(maxLength + 1)];
+		for (int i = 0; i < chars.length; i++) {
+			chars[i] = (char) ('a' + random.nextInt(3));
+		}
+		return new String(chars);
+	}
+}
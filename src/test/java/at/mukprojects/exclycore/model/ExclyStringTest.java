@@ -22,6 +22,7 @@ import static org.junit.Assert.assertTrue;
 
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.util.Arrays;
 
 import org.apache.poi.ss.usermodel.Row;
 import org.junit.After;
@@ -116,6 +117,32 @@ public class ExclyStringTest extends AbstractModelTest {
 		ExclyString result = ExclyString.append(stringOne, stringTwo, stringThree);
 		log.debug("Hello World! / " + result);
 		assertEquals(result.getData(), "Hello World!");
+
+		ExclyString resultError = ExclyString.append(stringOne, stringError, stringThree);
+		log.debug("Error: true / " + resultError.isError());
+		assertTrue(resultError.isError());
+
+		ExclyString resultNull = ExclyString.append(new ExclyString(null), stringTwo, new ExclyString(null));
+		log.debug("World / " + resultNull);
+		assertEquals(resultNull.getData(), "World");
+	}
+
+	/**
+	 * Tests the ExclyString join function.
+	 */
+	@Test
+	public void testExclyStringJoin() throws Exception {
+		ExclyString result = ExclyString.join("|", stringOne, stringTwo, stringThree);
+		log.debug("Hello |World|! / " + result);
+		assertEquals(result.getData(), "Hello |World|!");
+
+		ExclyString resultList = ExclyString.join(", ", Arrays.asList(stringTwo, stringThree));
+		log.debug("World, ! / " + resultList);
+		assertEquals(resultList.getData(), "World, !");
+
+		ExclyString resultError = ExclyString.join(", ", Arrays.asList(stringTwo, stringError));
+		log.debug("Error: true / " + resultError.isError());
+		assertTrue(resultError.isError());
 	}
 	
 	@After
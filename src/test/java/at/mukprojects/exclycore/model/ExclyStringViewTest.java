@@ -0,0 +1,95 @@
+/** 
+ * This code is copyright (c) Mathias Markl 2015
+ * 
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ * 
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package at.mukprojects.exclycore.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * ExclyStringViewTest tests the model ExclyStringView.
+ *
+ * @author Mathias Markl
+ */
+public class ExclyStringViewTest {
+	private static final Logger log = LoggerFactory.getLogger(ExclyStringViewTest.class);
+
+	/**
+	 * Tests the ExclyStringView comparisons against ExclyString.
+	 */
+	@Test
+	public void testExclyStringViewCompare() throws Exception {
+		char[] buffer = "xxHello Worldxx".toCharArray();
+		ExclyStringView view = new ExclyStringView(buffer, 2, 11);
+		ExclyString string = new ExclyString("Hello World");
+
+		log.debug("view.getCharSequence() == view: true / " + (view.getCharSequence() == view));
+		assertTrue(view.getCharSequence() == view);
+
+		assertTrue(view.equals(string));
+		assertTrue(string.equals(view));
+		assertEquals(string.hashCode(), view.hashCode());
+		assertTrue(!view.equals(new ExclyStringError()));
+
+		assertEquals(0, view.compareTo(string));
+		assertTrue(view.compareTo(new ExclyString("Hello")) > 0);
+		assertTrue(view.compareTo(new ExclyString("Hello Xorld")) < 0);
+		assertTrue(view.compareTo(new ExclyStringError()) == -1);
+
+		assertTrue(view.startsWith(new ExclyString("Hello")));
+		assertTrue(string.startsWith(new ExclyStringView(buffer, 2, 5)));
+		assertTrue(!view.startsWith(new ExclyString("World")));
+		assertTrue(!view.startsWith(new ExclyStringError()));
+
+		log.debug("Hello World / " + ExclyString.join(" ", view, new ExclyStringView(buffer, 0, 2)));
+		assertEquals("Hello World xx", ExclyString.join(" ", view, new ExclyStringView(buffer, 0, 2)).getData());
+
+		assertEquals("Hello World", view.getData());
+		log.debug("view.getCharSequence() == view: false / " + (view.getCharSequence() == view));
+		assertTrue(view.getCharSequence() instanceof String);
+	}
+
+	/**
+	 * Tests the ExclyStringView with a reused buffer.
+	 */
+	@Test
+	public void testExclyStringViewDetach() throws Exception {
+		char[] buffer = "first".toCharArray();
+		ExclyStringView view = new ExclyStringView(buffer, 0, buffer.length);
+		ExclyString detached = view.detach();
+
+		"other".getChars(0, 5, buffer, 0);
+		log.debug("first / " + detached + ", other / " + new ExclyStringView(buffer, 0, 5));
+		assertEquals("first", detached.getData());
+		assertEquals("other", new ExclyStringView(buffer, 0, 5).getData());
+
+		assertEquals("th", view.subSequence(1, 3).toString());
+		assertEquals('r', view.charAt(4));
+	}
+
+	/**
+	 * Tests the ExclyStringView bounds.
+	 */
+	@Test(expected = IndexOutOfBoundsException.class)
+	public void testExclyStringViewBounds() throws Exception {
+		new ExclyStringView(new char[4], 2, 3);
+	}
+}